@@ -0,0 +1,12 @@
+#!/bin/sh
+# Starts the kiosk from the fast-start layout built by: mvn -Pfaststart verify
+#   - Spring AOT initializers instead of classpath scanning (-Dspring.aot.enabled=true)
+#   - AppCDS archive from the training run (-XX:SharedArchiveFile)
+# The archive only matches this exact jar and lib/ layout and this JDK; rebuild both together.
+# Extra arguments are passed to the application, e.g. --igo.images.render-scale=2
+dir=$(cd "$(dirname "$0")" && pwd)
+cd "$dir" || exit 1
+exec "${JAVA_HOME:+$JAVA_HOME/bin/}java" \
+    -XX:SharedArchiveFile=igo-kiosk.jsa -Xshare:auto \
+    -Dspring.aot.enabled=true \
+    -jar ${project.build.finalName}.jar "$@"
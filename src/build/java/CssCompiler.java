@@ -0,0 +1,59 @@
+import javafx.css.CssParser;
+import javafx.css.Stylesheet;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Build-time stylesheet compiler.
+ * <p>
+ * Converts every {@code *.css} under a directory into JavaFX binary CSS ({@code *.bss})
+ * next to it. When JavaFX loads {@code Foo.css} it uses a sibling {@code Foo.bss} if
+ * there is one (unless {@code -Dbinary.css=false}), which skips tokenizing and parsing
+ * the text at runtime. Any CSS parse error fails the build instead of turning into a
+ * warning that is logged every time the stylesheet is loaded.
+ * </p>
+ *
+ * <h3>Usage</h3>
+ * Run by {@code exec-maven-plugin} in {@code process-resources}, on the copied resources:
+ * <pre>
+ * java -cp &lt;compile classpath&gt; CssCompiler.java &lt;stylesheet dir&gt;
+ * </pre>
+ */
+public final class CssCompiler {
+
+    private CssCompiler() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("usage: CssCompiler <stylesheet dir>");
+            System.exit(2);
+        }
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(Path.of(args[0]))) {
+            files = walk.filter(p -> p.toString().endsWith(".css")).sorted().collect(Collectors.toList());
+        }
+        int errors = 0;
+        for (Path css : files) {
+            CssParser.errorsProperty().clear();
+            new CssParser().parse(css.toUri().toURL());
+            for (CssParser.ParseError error : CssParser.errorsProperty()) {
+                System.err.println("[css] " + error);
+                errors++;
+            }
+            String name = css.getFileName().toString();
+            Path bss = css.resolveSibling(name.substring(0, name.length() - ".css".length()) + ".bss");
+            Stylesheet.convertToBinary(css.toFile(), bss.toFile());
+        }
+        if (errors > 0) {
+            System.err.println("[css] " + errors + " error(s); fix the stylesheets above");
+            System.exit(1);
+        }
+        System.out.println("[css] compiled " + files.size() + " stylesheet(s) to binary CSS");
+    }
+}
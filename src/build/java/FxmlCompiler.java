@@ -0,0 +1,1110 @@
+import javafx.beans.DefaultProperty;
+import javafx.beans.NamedArg;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Build-time FXML compiler.
+ * <p>
+ * Translates every {@code *.fxml} file under the resources directory into a plain Java
+ * class that builds the same scene graph with constructors and setters, and a
+ * {@code CompiledViews} registry keyed by the FXML's classpath location. Controller
+ * fields and event handlers are wired with direct field assignments and method
+ * references, so {@code @FXML} members must be at least package-private; the
+ * generated builder lives in the controller's package.
+ * </p>
+ * <p>
+ * The compiler resolves property types by reflecting over the JavaFX classes on its
+ * classpath, and reads the controller <em>source</em> to find {@code @FXML} fields and
+ * handler signatures (the controllers are not compiled yet when it runs). Anything it
+ * cannot translate faithfully — unknown properties, missing handlers, missing
+ * resources, private members, unsupported FXML features — fails the build.
+ * </p>
+ * <p>
+ * An {@code <Image url="@...">} shown by an {@code ImageView} with constant fit
+ * attributes is not constructed directly: the builder asks the image cache for the
+ * asset decoded at the view's display size, so every screen shares one instance.
+ * The registry lists those (asset, size) pairs so the cache can decode them ahead
+ * of time.
+ * </p>
+ *
+ * <h3>Usage</h3>
+ * Run by {@code exec-maven-plugin} in {@code generate-sources}:
+ * <pre>
+ * java -cp &lt;compile classpath&gt; FxmlCompiler.java &lt;resources dir&gt; &lt;java sources dir&gt;
+ *      &lt;output dir&gt; &lt;registry class&gt; &lt;image cache class&gt;
+ * </pre>
+ */
+public final class FxmlCompiler {
+
+    private static final Set<String> JAVA_KEYWORDS = Set.of(
+            "abstract", "assert", "boolean", "break", "byte", "case", "catch", "char", "class", "const",
+            "continue", "default", "do", "double", "else", "enum", "extends", "final", "finally", "float",
+            "for", "goto", "if", "implements", "import", "instanceof", "int", "interface", "long", "native",
+            "new", "package", "private", "protected", "public", "return", "short", "static", "strictfp",
+            "super", "switch", "synchronized", "this", "throw", "throws", "transient", "try", "void",
+            "volatile", "while", "true", "false", "null", "var", "record", "yield");
+
+    /** Local names the generated builder reserves for itself. */
+    private static final Set<String> RESERVED = Set.of("controller", "location", "images");
+
+    private final Path resources;
+    private final Path sources;
+    private final Path output;
+    private final String registryClass;
+    private final String imageCacheClass;
+    private final ClassLoader loader = FxmlCompiler.class.getClassLoader();
+
+    private FxmlCompiler(Path resources, Path sources, Path output, String registryClass, String imageCacheClass) {
+        this.resources = resources;
+        this.sources = sources;
+        this.output = output;
+        this.registryClass = registryClass;
+        this.imageCacheClass = imageCacheClass;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 5) {
+            System.err.println("usage: FxmlCompiler <resources dir> <java sources dir> <output dir> <registry class>"
+                    + " <image cache class>");
+            System.exit(2);
+        }
+        FxmlCompiler compiler = new FxmlCompiler(Path.of(args[0]), Path.of(args[1]), Path.of(args[2]), args[3], args[4]);
+        try {
+            compiler.run();
+        } catch (CompileException e) {
+            System.err.println("[fxml] " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /* ===================== Driver ===================== */
+
+    private void run() throws Exception {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(resources)) {
+            files = walk.filter(p -> p.toString().endsWith(".fxml")).sorted().collect(Collectors.toList());
+        }
+        Map<String, Unit> units = new TreeMap<>();
+        Set<String> viewNames = new HashSet<>();
+        for (Path file : files) {
+            String location = "/" + resources.relativize(file).toString().replace('\\', '/');
+            Unit unit = compile(file, location);
+            if (!viewNames.add(unit.viewFqcn)) {
+                throw new CompileException(location + ": another FXML already compiles to " + unit.viewFqcn);
+            }
+            write(unit.viewFqcn, unit.source);
+            units.put(location, unit);
+        }
+        write(registryClass, registry(units));
+        System.out.println("[fxml] compiled " + units.size() + " FXML file(s) into " + output);
+    }
+
+    private void write(String fqcn, String source) throws IOException {
+        Path file = output.resolve(fqcn.replace('.', '/') + ".java");
+        Files.createDirectories(file.getParent());
+        byte[] bytes = source.getBytes(StandardCharsets.UTF_8);
+        if (Files.exists(file) && Arrays.equals(Files.readAllBytes(file), bytes)) {
+            return; // unchanged; keep the timestamp so the compiler can skip it
+        }
+        Files.write(file, bytes);
+    }
+
+    /* ===================== One FXML file ===================== */
+
+    /** Per-file compilation state. */
+    private static final class Unit {
+        final String location;
+        final List<String> imports = new ArrayList<>(List.of("java.lang.*"));
+        final Map<String, Var> namespace = new HashMap<>();
+        final Set<String> locals = new HashSet<>(RESERVED);
+        final StringBuilder body = new StringBuilder();
+        /** Cached images the builder requests, in source order. */
+        final Set<ImageSpec> images = new java.util.LinkedHashSet<>();
+        /** Fit attributes of the {@code ImageView} whose children are being emitted. */
+        Map<String, String> imageView;
+        ControllerInfo controller;
+        String viewFqcn;
+        String source;
+        Class<?> rootType;
+
+        Unit(String location) {
+            this.location = location;
+        }
+    }
+
+    /** A generated local variable holding an FXML object. */
+    private record Var(String name, Class<?> type) {}
+
+    /** An image asset at the size an {@code ImageView} displays it. */
+    private record ImageSpec(String path, double width, double height, boolean preserveRatio, boolean smooth) {
+        String args() {
+            return literal(path) + ", " + doubleLiteral(width) + ", " + doubleLiteral(height) + ", "
+                    + preserveRatio + ", " + smooth;
+        }
+    }
+
+    private Unit compile(Path file, String location) throws Exception {
+        Unit u = new Unit(location);
+        El root = parse(file, u);
+        String controllerClass = root.attrs.getOrDefault("fx:controller", "");
+        if (!controllerClass.isEmpty()) {
+            u.controller = readController(controllerClass, location);
+        }
+        String base = file.getFileName().toString().replaceFirst("\\.fxml$", "");
+        String pkg = u.controller != null ? packageOf(u.controller.className) : packageOf(registryClass);
+        u.viewFqcn = (pkg.isEmpty() ? "" : pkg + ".") + pascal(base) + "View";
+
+        Var rootVar = instance(root, u);
+        u.rootType = rootVar.type;
+        if (u.controller != null) {
+            if (u.controller.initializable) {
+                u.body.append("        controller.initialize(location, null);\n");
+            } else if (u.controller.initialize != null) {
+                u.controller.requireAccessible("initialize", u.controller.initialize, location);
+                u.body.append("        controller.initialize();\n");
+            }
+        }
+        u.body.append("        return ").append(rootVar.name).append(";\n");
+        u.source = viewSource(u);
+        return u;
+    }
+
+    private String viewSource(Unit u) {
+        String simple = simpleName(u.viewFqcn);
+        StringBuilder s = new StringBuilder();
+        String pkg = packageOf(u.viewFqcn);
+        if (!pkg.isEmpty()) {
+            s.append("package ").append(pkg).append(";\n\n");
+        }
+        s.append("/**\n")
+         .append(" * Builds the view declared in {@code ").append(u.location).append("} without parsing XML.\n")
+         .append(" * <p>\n")
+         .append(" * Generated by FxmlCompiler at build time; do not edit.\n")
+         .append(" * </p>\n")
+         .append(" */\n")
+         .append("public final class ").append(simple).append(" {\n\n")
+         .append("    /** Classpath location of the source FXML. */\n")
+         .append("    public static final String FXML = ").append(literal(u.location)).append(";\n\n")
+         .append("    private ").append(simple).append("() {\n    }\n\n")
+         .append("    /**\n")
+         .append("     * Builds a new instance of the view");
+        if (u.controller != null) {
+            s.append(", injects it into {@code controller} and initializes the controller.\n")
+             .append("     *\n")
+             .append("     * @param controller controller declared by {@code fx:controller}\n");
+        } else {
+            s.append(".\n     *\n");
+        }
+        s.append("     * @param images     shared cache of decoded images\n")
+         .append("     * @return root node\n")
+         .append("     */\n")
+         .append("    @SuppressWarnings({\"rawtypes\", \"unchecked\"})\n")
+         .append("    public static ").append(canonical(u.rootType)).append(" build(");
+        if (u.controller != null) {
+            s.append(u.controller.className).append(" controller, ");
+        }
+        s.append(imageCacheClass).append(" images) {\n");
+        if (u.controller != null && u.controller.initializable) {
+            s.append("        java.net.URL location = ").append(simple).append(".class.getResource(FXML);\n");
+        }
+        s.append(u.body)
+         .append("    }\n\n")
+         .append("    private static String resource(String path) {\n")
+         .append("        return java.util.Objects.requireNonNull(").append(simple)
+         .append(".class.getResource(path), path).toExternalForm();\n")
+         .append("    }\n")
+         .append("}\n");
+        return s.toString();
+    }
+
+    private String registry(Map<String, Unit> units) {
+        String simple = simpleName(registryClass);
+        String pkg = packageOf(registryClass);
+        StringBuilder s = new StringBuilder();
+        if (!pkg.isEmpty()) {
+            s.append("package ").append(pkg).append(";\n\n");
+        }
+        s.append("/**\n")
+         .append(" * Index of the FXML files compiled into Java builders, keyed by classpath location.\n")
+         .append(" * <p>\n")
+         .append(" * Generated by FxmlCompiler at build time; do not edit.\n")
+         .append(" * </p>\n")
+         .append(" */\n")
+         .append("public final class ").append(simple).append(" {\n\n")
+         .append("    /** Locations of every compiled FXML file. */\n")
+         .append("    public static final java.util.Set<String> LOCATIONS = java.util.Set.of(")
+         .append(units.keySet().stream().map(FxmlCompiler::literal).collect(Collectors.joining(", ")))
+         .append(");\n\n")
+         .append("    private ").append(simple).append("() {\n    }\n\n")
+         .append("    /**\n")
+         .append("     * Decodes every image the compiled views display into {@code images}, at display size.\n")
+         .append("     *\n")
+         .append("     * @param images shared image cache\n")
+         .append("     */\n")
+         .append("    public static void preloadImages(").append(imageCacheClass).append(" images) {\n");
+        Set<ImageSpec> specs = new java.util.LinkedHashSet<>();
+        units.values().forEach(u -> specs.addAll(u.images));
+        for (ImageSpec spec : specs) {
+            s.append("        images.preload(").append(spec.args()).append(");\n");
+        }
+        s.append("    }\n\n")
+         .append("    /**\n")
+         .append("     * Builds the view compiled from {@code location}.\n")
+         .append("     *\n")
+         .append("     * @param location          classpath location of the FXML, e.g. {@code /Fxml/Home.fxml}\n")
+         .append("     * @param controllerFactory creates the controller declared by {@code fx:controller}\n")
+         .append("     * @param images            shared cache of decoded images\n")
+         .append("     * @param result            combines the root node and the controller\n")
+         .append("     * @param <V>               result type\n")
+         .append("     * @return the combined result, or {@code null} if {@code location} was not compiled\n")
+         .append("     */\n")
+         .append("    public static <V> V build(String location,\n")
+         .append("                              javafx.util.Callback<Class<?>, Object> controllerFactory,\n")
+         .append("                              ").append(imageCacheClass).append(" images,\n")
+         .append("                              java.util.function.BiFunction<javafx.scene.Parent, Object, V> result) {\n")
+         .append("        switch (location) {\n");
+        for (Unit u : units.values()) {
+            s.append("            case ").append(literal(u.location)).append(": {\n");
+            if (u.controller != null) {
+                s.append("                ").append(u.controller.className).append(" controller = (")
+                 .append(u.controller.className).append(") controllerFactory.call(")
+                 .append(u.controller.className).append(".class);\n")
+                 .append("                return result.apply(").append(u.viewFqcn).append(".build(controller, images), controller);\n");
+            } else {
+                s.append("                return result.apply(").append(u.viewFqcn).append(".build(images), null);\n");
+            }
+            s.append("            }\n");
+        }
+        s.append("            default:\n")
+         .append("                return null;\n")
+         .append("        }\n")
+         .append("    }\n")
+         .append("}\n");
+        return s.toString();
+    }
+
+    /* ===================== Parsing ===================== */
+
+    /** Minimal element tree; unlike DOM it keeps attributes in source order, as FXMLLoader applies them. */
+    private static final class El {
+        final String tag;
+        final Map<String, String> attrs = new LinkedHashMap<>();
+        final List<El> children = new ArrayList<>();
+        final StringBuilder text = new StringBuilder();
+
+        El(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private static El parse(Path file, Unit u) throws IOException, XMLStreamException {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        try (InputStream in = Files.newInputStream(file)) {
+            XMLStreamReader r = factory.createXMLStreamReader(in);
+            Deque<El> stack = new ArrayDeque<>();
+            El root = null;
+            while (r.hasNext()) {
+                switch (r.next()) {
+                    case XMLStreamConstants.PROCESSING_INSTRUCTION -> {
+                        if (r.getPITarget().equals("import")) {
+                            u.imports.add(r.getPIData().trim());
+                        }
+                    }
+                    case XMLStreamConstants.START_ELEMENT -> {
+                        El el = new El(qualified(r.getPrefix(), r.getLocalName()));
+                        for (int i = 0; i < r.getAttributeCount(); i++) {
+                            el.attrs.put(qualified(r.getAttributePrefix(i), r.getAttributeLocalName(i)),
+                                    r.getAttributeValue(i));
+                        }
+                        if (stack.isEmpty()) {
+                            root = el;
+                        } else {
+                            stack.peek().children.add(el);
+                        }
+                        stack.push(el);
+                    }
+                    case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA -> {
+                        if (!stack.isEmpty()) {
+                            stack.peek().text.append(r.getText());
+                        }
+                    }
+                    case XMLStreamConstants.END_ELEMENT -> stack.pop();
+                    default -> {
+                        // comments, whitespace and the document prolog carry no content
+                    }
+                }
+            }
+            r.close();
+            return root;
+        }
+    }
+
+    /** {@code fx:id} rather than {@code id}, whichever way the parser splits the name. */
+    private static String qualified(String prefix, String local) {
+        return prefix == null || prefix.isEmpty() || local.contains(":") ? local : prefix + ":" + local;
+    }
+
+    /* ===================== Elements ===================== */
+
+    /**
+     * Emits code creating the object declared by {@code el} and everything below it,
+     * following FXMLLoader's order: construct, register {@code fx:id}, children,
+     * instance attributes, event handlers, static properties.
+     */
+    private Var instance(El el, Unit u) throws Exception {
+        String tag = el.tag;
+        if (tag.startsWith("fx:")) {
+            throw new CompileException(u.location + ": <" + tag + "> is not supported");
+        }
+        Class<?> type = resolve(tag, u);
+        Map<String, String> attrs = new LinkedHashMap<>(el.attrs);
+        String fxId = attrs.remove("fx:id");
+        attrs.remove("fx:controller");
+
+        Var var;
+        ImageSpec cached = cachedImage(type, fxId, attrs, u);
+        if (cached != null) {
+            u.images.add(cached);
+            return declare(u, type, null, "images.get(" + cached.args() + ")");
+        }
+        if (attrs.containsKey("fx:value")) {
+            Method valueOf = staticValueOf(type);
+            if (valueOf == null) {
+                throw new CompileException(u.location + ": " + type.getName() + " has no valueOf(String)");
+            }
+            var = declare(u, type, fxId, canonical(type) + ".valueOf(" + literal(attrs.remove("fx:value")) + ")");
+        } else if (attrs.containsKey("fx:constant")) {
+            String name = attrs.remove("fx:constant");
+            try {
+                var = declare(u, type.getField(name).getType(), fxId, canonical(type) + "." + name);
+            } catch (NoSuchFieldException e) {
+                throw new CompileException(u.location + ": " + type.getName() + " has no constant " + name);
+            }
+        } else if (attrs.containsKey("fx:factory")) {
+            String name = attrs.remove("fx:factory");
+            Method factory;
+            try {
+                factory = type.getMethod(name);
+            } catch (NoSuchMethodException e) {
+                throw new CompileException(u.location + ": " + type.getName() + " has no factory " + name + "()");
+            }
+            var = declare(u, factory.getReturnType(), fxId, canonical(type) + "." + name + "()");
+        } else if (hasPublicNoArgConstructor(type)) {
+            var = declare(u, type, fxId, "new " + canonical(type) + "()");
+        } else {
+            var = declare(u, type, fxId, namedArgConstruction(type, attrs, u));
+        }
+        attrs.keySet().removeIf(k -> k.startsWith("fx:") || k.equals("xmlns") || k.startsWith("xmlns:"));
+
+        if (fxId != null) {
+            u.namespace.put(fxId, var);
+            if (setter(var.type, "id", String.class) != null) {
+                stmt(u, var.name + ".setId(" + literal(fxId) + ");");
+            }
+            if (u.controller != null && u.controller.fields.containsKey(fxId)) {
+                u.controller.requireAccessible(fxId, u.controller.fields.get(fxId), u.location);
+                stmt(u, "controller." + fxId + " = " + var.name + ";");
+            }
+        }
+
+        // Children
+        Map<String, String> outerImageView = u.imageView;
+        u.imageView = isImageView(type) ? attrs : null;
+        List<El> staticElements = new ArrayList<>();
+        if (!el.text.toString().isBlank()) {
+            throw new CompileException(u.location + ": text content in <" + tag + "> is not supported");
+        }
+        for (El child : el.children) {
+            String name = child.tag;
+            if (name.equals("fx:define")) {
+                for (El def : child.children) {
+                    instance(def, u);
+                }
+            } else if (isStaticProperty(name)) {
+                staticElements.add(child);
+            } else if (Character.isLowerCase(name.charAt(0)) && !name.contains(".")) {
+                propertyElement(var, name, child, u);
+            } else {
+                Var value = instance(child, u);
+                if (List.class.isAssignableFrom(var.type)) {
+                    stmt(u, var.name + ".add(" + value.name + ");");
+                    continue;
+                }
+                String dflt = defaultProperty(var.type);
+                if (dflt == null) {
+                    throw new CompileException(u.location + ": " + var.type.getName()
+                            + " has no default property for <" + name + ">");
+                }
+                assign(var, dflt, List.of(value), u);
+            }
+        }
+        u.imageView = outerImageView;
+
+        // Instance properties and event handlers
+        List<Map.Entry<String, String>> statics = new ArrayList<>();
+        List<Map.Entry<String, String>> handlers = new ArrayList<>();
+        for (Map.Entry<String, String> a : attrs.entrySet()) {
+            if (isStaticProperty(a.getKey())) {
+                statics.add(a);
+            } else if (isEventHandler(a.getKey())) {
+                handlers.add(a);
+            } else {
+                attribute(var, a.getKey(), a.getValue(), u);
+            }
+        }
+        for (Map.Entry<String, String> h : handlers) {
+            handler(var, h.getKey(), h.getValue(), u);
+        }
+        for (Map.Entry<String, String> a : statics) {
+            staticAttribute(var, a.getKey(), a.getValue(), u);
+        }
+        for (El e : staticElements) {
+            if (e.children.size() != 1) {
+                throw new CompileException(u.location + ": <" + e.tag + "> needs exactly one value");
+            }
+            Var value = instance(e.children.get(0), u);
+            Method m = staticSetter(e.tag, var.type, u);
+            stmt(u, canonical(m.getDeclaringClass()) + "." + m.getName() + "(" + var.name + ", "
+                    + cast(m.getParameterTypes()[1], value) + ");");
+        }
+        return var;
+    }
+
+    /**
+     * Returns the cache request for an {@code <Image url="@...">} directly inside an
+     * {@code ImageView} whose fit attributes are constants, or {@code null} if the
+     * image has to be constructed as written.
+     */
+    private ImageSpec cachedImage(Class<?> type, String fxId, Map<String, String> attrs, Unit u) throws CompileException {
+        if (u.imageView == null || fxId != null || !type.getName().equals("javafx.scene.image.Image")
+                || !attrs.keySet().equals(Set.of("url")) || !attrs.get("url").startsWith("@")) {
+            return null;
+        }
+        Map<String, String> view = u.imageView;
+        try {
+            double width = Double.parseDouble(view.getOrDefault("fitWidth", "0").trim());
+            double height = Double.parseDouble(view.getOrDefault("fitHeight", "0").trim());
+            String preserve = view.getOrDefault("preserveRatio", "false").trim();
+            String smooth = view.getOrDefault("smooth", "true").trim();
+            if (!preserve.matches("true|false") || !smooth.matches("true|false")) {
+                return null;
+            }
+            return new ImageSpec(resolveLocation(attrs.get("url").substring(1), u), width, height,
+                    Boolean.parseBoolean(preserve), Boolean.parseBoolean(smooth));
+        } catch (NumberFormatException e) {
+            return null; // $reference or expression; leave it to the ImageView
+        }
+    }
+
+    private static boolean isImageView(Class<?> type) {
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            if (c.getName().equals("javafx.scene.image.ImageView")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** {@code <top>}, {@code <children>}, {@code <padding>} and similar. */
+    private void propertyElement(Var owner, String property, El el, Unit u) throws Exception {
+        if (el.children.isEmpty()) {
+            if (!el.text.toString().isBlank()) {
+                attribute(owner, property, el.text.toString().trim(), u);
+            }
+            return;
+        }
+        List<Var> values = new ArrayList<>();
+        for (El c : el.children) {
+            values.add(instance(c, u));
+        }
+        assign(owner, property, values, u);
+    }
+
+    /** Sets a writable property or adds to a read-only list property. */
+    private void assign(Var owner, String property, List<Var> values, Unit u) throws CompileException {
+        Method getter = getter(owner.type, property);
+        Method set = setter(owner.type, property, null);
+        if (set == null && getter != null && List.class.isAssignableFrom(getter.getReturnType())) {
+            for (Var v : values) {
+                stmt(u, owner.name + "." + getter.getName() + "().add(" + v.name + ");");
+            }
+            return;
+        }
+        if (set == null) {
+            throw new CompileException(u.location + ": " + owner.type.getName() + " has no property '" + property + "'");
+        }
+        if (values.size() != 1) {
+            throw new CompileException(u.location + ": property '" + property + "' takes a single value");
+        }
+        stmt(u, owner.name + "." + set.getName() + "(" + cast(set.getParameterTypes()[0], values.get(0)) + ");");
+    }
+
+    /** A plain {@code name="value"} attribute. */
+    private void attribute(Var owner, String property, String raw, Unit u) throws CompileException {
+        Method set = setter(owner.type, property, null);
+        if (set != null) {
+            stmt(u, owner.name + "." + set.getName() + "(" + coerce(set.getParameterTypes()[0], raw, u) + ");");
+            return;
+        }
+        Method getter = getter(owner.type, property);
+        if (getter != null && List.class.isAssignableFrom(getter.getReturnType())) {
+            Class<?> element = listElementType(getter.getGenericReturnType());
+            List<String> items = new ArrayList<>();
+            for (String part : raw.split(",")) {
+                items.add(coerce(element, part.trim(), u));
+            }
+            stmt(u, owner.name + "." + getter.getName() + "().addAll(" + String.join(", ", items) + ");");
+            return;
+        }
+        throw new CompileException(u.location + ": " + owner.type.getName() + " has no property '" + property + "'");
+    }
+
+    /** {@code HBox.hgrow="ALWAYS"} and similar. */
+    private void staticAttribute(Var owner, String name, String raw, Unit u) throws CompileException {
+        Method m = staticSetter(name, owner.type, u);
+        stmt(u, canonical(m.getDeclaringClass()) + "." + m.getName() + "(" + owner.name + ", "
+                + coerce(m.getParameterTypes()[1], raw, u) + ");");
+    }
+
+    /** {@code onAction="#handler"} and similar. */
+    private void handler(Var owner, String name, String raw, Unit u) throws CompileException {
+        if (!raw.startsWith("#")) {
+            throw new CompileException(u.location + ": " + name + "=\"" + raw + "\" must reference a controller method");
+        }
+        if (u.controller == null) {
+            throw new CompileException(u.location + ": " + name + " needs an fx:controller");
+        }
+        String method = raw.substring(1);
+        Member m = u.controller.handlers.get(method);
+        if (m == null) {
+            throw new CompileException(u.location + ": " + simpleName(u.controller.className)
+                    + " has no handler method " + method + "(...)");
+        }
+        u.controller.requireAccessible(method, m, u.location);
+        Method set = setter(owner.type, name, null);
+        if (set == null) {
+            throw new CompileException(u.location + ": " + owner.type.getName() + " has no event '" + name + "'");
+        }
+        String expr;
+        if (m.arity == 0) {
+            expr = "e -> controller." + method + "()";
+        } else if (owner.type.getTypeParameters().length > 0) {
+            // Raw receiver: give the method reference an explicit target type
+            expr = "(javafx.event.EventHandler<" + canonical(eventType(set)) + ">) controller::" + method;
+        } else {
+            expr = "controller::" + method;
+        }
+        stmt(u, owner.name + "." + set.getName() + "(" + expr + ");");
+    }
+
+    /* ===================== Values ===================== */
+
+    /** Returns a Java expression converting the attribute text {@code raw} to {@code type}. */
+    private String coerce(Class<?> type, String raw, Unit u) throws CompileException {
+        if (raw.startsWith("$")) {
+            Var v = u.namespace.get(raw.substring(1));
+            if (v == null) {
+                throw new CompileException(u.location + ": unknown reference " + raw);
+            }
+            return cast(type, v);
+        }
+        if (raw.startsWith("%")) {
+            throw new CompileException(u.location + ": resource keys (" + raw + ") are not supported");
+        }
+        if (raw.startsWith("@")) {
+            if (type != String.class && type != Object.class) {
+                throw new CompileException(u.location + ": location " + raw + " cannot be assigned to " + type.getName());
+            }
+            return "resource(" + literal(resolveLocation(raw.substring(1), u)) + ")";
+        }
+        if (raw.startsWith("\\")) {
+            raw = raw.substring(1);
+        }
+        try {
+            if (type == String.class || type == Object.class || type == CharSequence.class) {
+                return literal(raw);
+            }
+            if (type == boolean.class || type == Boolean.class) {
+                return Boolean.toString(Boolean.parseBoolean(raw.trim()));
+            }
+            if (type == int.class || type == Integer.class) {
+                return Integer.toString(Integer.parseInt(raw.trim()));
+            }
+            if (type == long.class || type == Long.class) {
+                return Long.parseLong(raw.trim()) + "L";
+            }
+            if (type == short.class || type == Short.class) {
+                return "(short) " + Short.parseShort(raw.trim());
+            }
+            if (type == byte.class || type == Byte.class) {
+                return "(byte) " + Byte.parseByte(raw.trim());
+            }
+            if (type == double.class || type == Double.class) {
+                return doubleLiteral(Double.parseDouble(raw.trim()));
+            }
+            if (type == float.class || type == Float.class) {
+                float f = Float.parseFloat(raw.trim());
+                return Float.isFinite(f) ? f + "f" : "(float) " + doubleLiteral(f);
+            }
+            if (type == Number.class) {
+                return "(Number) " + doubleLiteral(Double.parseDouble(raw.trim()));
+            }
+        } catch (NumberFormatException e) {
+            throw new CompileException(u.location + ": '" + raw + "' is not a valid " + type.getSimpleName());
+        }
+        if (type.isEnum()) {
+            String constant = raw.trim().toUpperCase(java.util.Locale.ROOT);
+            for (Object c : type.getEnumConstants()) {
+                if (((Enum<?>) c).name().equals(constant)) {
+                    return canonical(type) + "." + constant;
+                }
+            }
+            throw new CompileException(u.location + ": " + type.getName() + " has no constant " + raw);
+        }
+        if (staticValueOf(type) != null) {
+            return canonical(type) + ".valueOf(" + literal(raw) + ")";
+        }
+        throw new CompileException(u.location + ": cannot convert '" + raw + "' to " + type.getName());
+    }
+
+    /** Constructor call for classes without a no-arg constructor, e.g. Insets, Image, Font. */
+    private String namedArgConstruction(Class<?> type, Map<String, String> attrs, Unit u) throws CompileException {
+        Set<String> given = new HashSet<>(attrs.keySet());
+        given.removeIf(k -> k.startsWith("fx:") || k.startsWith("xmlns"));
+        Constructor<?> best = null;
+        for (Constructor<?> c : type.getConstructors()) {
+            List<String> names = new ArrayList<>();
+            for (Parameter p : c.getParameters()) {
+                NamedArg arg = p.getAnnotation(NamedArg.class);
+                if (arg == null) {
+                    names = null;
+                    break;
+                }
+                names.add(arg.value());
+            }
+            if (names != null && names.containsAll(given)
+                    && (best == null || c.getParameterCount() < best.getParameterCount())) {
+                best = c;
+            }
+        }
+        if (best == null) {
+            throw new CompileException(u.location + ": no constructor of " + type.getName() + " accepts " + given);
+        }
+        List<String> args = new ArrayList<>();
+        for (Parameter p : best.getParameters()) {
+            NamedArg arg = p.getAnnotation(NamedArg.class);
+            String raw = attrs.remove(arg.value());
+            if (raw == null && !arg.defaultValue().isEmpty()) {
+                raw = arg.defaultValue();
+            }
+            args.add(raw != null ? coerce(p.getType(), raw, u) : defaultLiteral(p.getType()));
+        }
+        return "new " + canonical(type) + "(" + String.join(", ", args) + ")";
+    }
+
+    /* ===================== Controller source ===================== */
+
+    /** Visibility and arity of a controller member found in source. */
+    private record Member(boolean isPrivate, int arity) {}
+
+    /** What the builder needs to know about a controller class. */
+    private static final class ControllerInfo {
+        final String className;
+        final Map<String, Member> fields = new HashMap<>();
+        final Map<String, Member> handlers = new HashMap<>();
+        boolean initializable;
+        Member initialize;
+
+        ControllerInfo(String className) {
+            this.className = className;
+        }
+
+        void requireAccessible(String name, Member m, String location) throws CompileException {
+            if (m.isPrivate) {
+                throw new CompileException(location + ": " + simpleName(className) + "." + name
+                        + " is private; compiled views need @FXML members to be at least package-private");
+            }
+        }
+    }
+
+    private static final Pattern FXML_FIELD = Pattern.compile(
+            "@FXML\\s+((?:(?:public|protected|private|final|transient|volatile)\\s+)*)([^;(){}=]+);");
+    private static final Pattern PUBLIC_FIELD = Pattern.compile(
+            "\\bpublic\\s+(?:final\\s+)?(?!static\\b|class\\b|interface\\b|enum\\b|void\\b|abstract\\b)([\\w.<>?,\\s\\[\\]]+?)\\s+(\\w+)\\s*;");
+    private static final Pattern METHOD = Pattern.compile(
+            "((?:(?:public|protected|private|static|final|synchronized)\\s+)*)void\\s+(\\w+)\\s*\\(([^)]*)\\)");
+    private static final Pattern INITIALIZABLE = Pattern.compile("\\bimplements\\s+[^{]*\\bInitializable\\b");
+
+    private ControllerInfo readController(String className, String location) throws IOException, CompileException {
+        Path file = sources.resolve(className.replace('.', '/') + ".java");
+        if (!Files.exists(file)) {
+            throw new CompileException(location + ": controller source not found: " + file);
+        }
+        String src = stripComments(Files.readString(file, StandardCharsets.UTF_8));
+        ControllerInfo info = new ControllerInfo(className);
+
+        Matcher f = FXML_FIELD.matcher(src);
+        while (f.find()) {
+            boolean priv = f.group(1).contains("private");
+            String decl = f.group(2);
+            String prev;
+            do {
+                prev = decl;
+                decl = decl.replaceAll("<[^<>]*>", "");
+            } while (!decl.equals(prev));
+            for (String part : decl.split(",")) {
+                String[] tokens = part.trim().split("\\s+");
+                info.fields.put(tokens[tokens.length - 1], new Member(priv, 0));
+            }
+        }
+        Matcher p = PUBLIC_FIELD.matcher(src);
+        while (p.find()) {
+            info.fields.putIfAbsent(p.group(2), new Member(false, 0));
+        }
+        Matcher m = METHOD.matcher(src);
+        while (m.find()) {
+            String name = m.group(2);
+            int arity = m.group(3).isBlank() ? 0 : m.group(3).split(",").length;
+            Member member = new Member(m.group(1).contains("private"), arity);
+            if (name.equals("initialize") && arity == 0) {
+                info.initialize = member;
+            }
+            Member existing = info.handlers.get(name);
+            // FXMLLoader prefers the overload that takes the event
+            if (arity <= 1 && (existing == null || arity > existing.arity)) {
+                info.handlers.put(name, member);
+            }
+        }
+        info.initializable = INITIALIZABLE.matcher(src).find();
+        return info;
+    }
+
+    /** Removes comments so commented-out members are not picked up. */
+    private static String stripComments(String s) {
+        StringBuilder out = new StringBuilder(s.length());
+        int i = 0;
+        int n = s.length();
+        while (i < n) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\'') {
+                int j = i + 1;
+                while (j < n && s.charAt(j) != c) {
+                    j += s.charAt(j) == '\\' ? 2 : 1;
+                }
+                out.append(s, i, Math.min(n, j + 1));
+                i = j + 1;
+            } else if (s.startsWith("//", i)) {
+                while (i < n && s.charAt(i) != '\n') i++;
+            } else if (s.startsWith("/*", i)) {
+                int end = s.indexOf("*/", i + 2);
+                i = end < 0 ? n : end + 2;
+                out.append(' ');
+            } else {
+                out.append(c);
+                i++;
+            }
+        }
+        return out.toString();
+    }
+
+    /* ===================== Reflection helpers ===================== */
+
+    private Class<?> resolve(String name, Unit u) throws CompileException {
+        if (Character.isLowerCase(name.charAt(0))) {
+            Class<?> c = load(name);
+            if (c == null) throw new CompileException(u.location + ": class not found: " + name);
+            return c;
+        }
+        String outer = name.contains(".") ? name.substring(0, name.indexOf('.')) : name;
+        for (String imp : u.imports) {
+            String candidate = null;
+            if (imp.endsWith(".*")) {
+                candidate = imp.substring(0, imp.length() - 1) + name;
+            } else if (imp.endsWith("." + outer)) {
+                candidate = imp + name.substring(outer.length());
+            }
+            if (candidate != null) {
+                Class<?> c = load(candidate.replaceFirst("\\.(?=[^.]*$)", name.contains(".") ? "\\$" : "."));
+                if (c == null) c = load(candidate);
+                if (c != null) return c;
+            }
+        }
+        throw new CompileException(u.location + ": cannot resolve <" + name + "> from the imports");
+    }
+
+    private Class<?> load(String name) {
+        try {
+            return Class.forName(name, false, loader);
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+    }
+
+    private Method staticSetter(String qualified, Class<?> target, Unit u) throws CompileException {
+        int dot = qualified.lastIndexOf('.');
+        Class<?> owner = resolve(qualified.substring(0, dot), u);
+        String name = "set" + capitalize(qualified.substring(dot + 1));
+        for (Method m : owner.getMethods()) {
+            if (m.getName().equals(name) && Modifier.isStatic(m.getModifiers()) && m.getParameterCount() == 2
+                    && m.getParameterTypes()[0].isAssignableFrom(target)) {
+                return m;
+            }
+        }
+        throw new CompileException(u.location + ": " + owner.getName() + " has no static property '"
+                + qualified.substring(dot + 1) + "' for " + target.getName());
+    }
+
+    /**
+     * Public instance setter for {@code property}. As in FXMLLoader, when the property
+     * has a getter the setter must take the getter's type; otherwise the property is
+     * treated as read-only (e.g. {@code styleClass} on glyph icons).
+     */
+    private static Method setter(Class<?> type, String property, Class<?> preferred) {
+        String name = "set" + capitalize(property);
+        Method getter = getter(type, property);
+        Method found = null;
+        for (Method m : type.getMethods()) {
+            if (m.getName().equals(name) && m.getParameterCount() == 1 && !Modifier.isStatic(m.getModifiers())) {
+                Class<?> p = m.getParameterTypes()[0];
+                if (getter != null && box(p) != box(getter.getReturnType())) {
+                    continue;
+                }
+                if (found == null || p == preferred || (p == String.class && found.getParameterTypes()[0] != preferred)) {
+                    found = m;
+                }
+            }
+        }
+        return found;
+    }
+
+    private static Method getter(Class<?> type, String property) {
+        for (String prefix : new String[]{"get", "is"}) {
+            try {
+                Method m = type.getMethod(prefix + capitalize(property));
+                if (!Modifier.isStatic(m.getModifiers())) return m;
+            } catch (NoSuchMethodException ignored) {
+                // try the next prefix
+            }
+        }
+        return null;
+    }
+
+    private static String defaultProperty(Class<?> type) {
+        DefaultProperty d = type.getAnnotation(DefaultProperty.class);
+        return d == null ? null : d.value();
+    }
+
+    private static Method staticValueOf(Class<?> type) {
+        try {
+            Method m = type.getMethod("valueOf", String.class);
+            return Modifier.isStatic(m.getModifiers()) && type.isAssignableFrom(m.getReturnType()) ? m : null;
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static boolean hasPublicNoArgConstructor(Class<?> type) {
+        if (Modifier.isAbstract(type.getModifiers())) return false;
+        try {
+            type.getConstructor();
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static Class<?> listElementType(Type generic) {
+        if (generic instanceof ParameterizedType pt && pt.getActualTypeArguments()[0] instanceof Class<?> c) {
+            return c;
+        }
+        return Object.class;
+    }
+
+    /** Event class of an {@code EventHandler<? super E>} setter. */
+    private static Class<?> eventType(Method setter) {
+        Type t = setter.getGenericParameterTypes()[0];
+        if (t instanceof ParameterizedType pt) {
+            Type arg = pt.getActualTypeArguments()[0];
+            if (arg instanceof WildcardType w) {
+                arg = w.getLowerBounds().length > 0 ? w.getLowerBounds()[0] : w.getUpperBounds()[0];
+            }
+            if (arg instanceof Class<?> c) return c;
+        }
+        return javafx.event.Event.class;
+    }
+
+    /* ===================== Emission helpers ===================== */
+
+    private Var declare(Unit u, Class<?> type, String fxId, String init) {
+        String name = fxId != null && isIdentifier(fxId) && !u.locals.contains(fxId) ? fxId : fresh(u, type);
+        u.locals.add(name);
+        stmt(u, canonical(type) + " " + name + " = " + init + ";");
+        return new Var(name, type);
+    }
+
+    private static String fresh(Unit u, Class<?> type) {
+        String base = type.getSimpleName();
+        base = Character.toLowerCase(base.charAt(0)) + base.substring(1);
+        int i = 1;
+        while (u.locals.contains(base + i)) i++;
+        return base + i;
+    }
+
+    private static void stmt(Unit u, String code) {
+        u.body.append("        ").append(code).append('\n');
+    }
+
+    private static String cast(Class<?> target, Var v) {
+        Class<?> boxed = box(target);
+        return boxed.isAssignableFrom(v.type) || target.isAssignableFrom(v.type)
+                ? v.name : "(" + canonical(target) + ") " + v.name;
+    }
+
+    private String resolveLocation(String path, Unit u) throws CompileException {
+        Deque<String> parts = new ArrayDeque<>();
+        String base = path.startsWith("/") ? "" : u.location.substring(0, u.location.lastIndexOf('/'));
+        for (String part : (base + "/" + path).split("/")) {
+            if (part.equals("..")) {
+                parts.pollLast();
+            } else if (!part.isEmpty() && !part.equals(".")) {
+                parts.addLast(part);
+            }
+        }
+        String resolved = "/" + String.join("/", parts);
+        if (!Files.exists(resources.resolve(resolved.substring(1)))) {
+            throw new CompileException(u.location + ": resource not found: " + path + " (" + resolved + ")");
+        }
+        return resolved;
+    }
+
+    private static boolean isStaticProperty(String name) {
+        return name.indexOf('.') > 0 && Character.isUpperCase(name.charAt(0))
+                && Character.isLowerCase(name.charAt(name.lastIndexOf('.') + 1));
+    }
+
+    private static boolean isEventHandler(String name) {
+        return name.length() > 2 && name.startsWith("on") && Character.isUpperCase(name.charAt(2));
+    }
+
+    private static String canonical(Class<?> type) {
+        return type.getCanonicalName();
+    }
+
+    private static Class<?> box(Class<?> type) {
+        if (!type.isPrimitive()) return type;
+        if (type == int.class) return Integer.class;
+        if (type == double.class) return Double.class;
+        if (type == boolean.class) return Boolean.class;
+        if (type == long.class) return Long.class;
+        if (type == float.class) return Float.class;
+        if (type == short.class) return Short.class;
+        if (type == byte.class) return Byte.class;
+        if (type == char.class) return Character.class;
+        return Void.class;
+    }
+
+    private static String defaultLiteral(Class<?> type) {
+        if (!type.isPrimitive()) return "null";
+        if (type == boolean.class) return "false";
+        if (type == double.class) return "0.0";
+        if (type == float.class) return "0f";
+        if (type == long.class) return "0L";
+        return "0";
+    }
+
+    private static String doubleLiteral(double d) {
+        if (d == Double.POSITIVE_INFINITY) return "Double.POSITIVE_INFINITY";
+        if (d == Double.NEGATIVE_INFINITY) return "Double.NEGATIVE_INFINITY";
+        if (Double.isNaN(d)) return "Double.NaN";
+        return Double.toString(d);
+    }
+
+    /** Java string literal; non-ASCII characters are escaped so the output is encoding-independent. */
+    private static String literal(String s) {
+        StringBuilder b = new StringBuilder("\"");
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> b.append("\\\"");
+                case '\\' -> b.append("\\\\");
+                case '\n' -> b.append("\\n");
+                case '\r' -> b.append("\\r");
+                case '\t' -> b.append("\\t");
+                default -> {
+                    if (c < 0x20 || c > 0x7e) b.append(String.format("\\u%04x", (int) c));
+                    else b.append(c);
+                }
+            }
+        }
+        return b.append('"').toString();
+    }
+
+    private static boolean isIdentifier(String s) {
+        if (s.isEmpty() || !Character.isJavaIdentifierStart(s.charAt(0)) || JAVA_KEYWORDS.contains(s)) return false;
+        for (int i = 1; i < s.length(); i++) {
+            if (!Character.isJavaIdentifierPart(s.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    private static String capitalize(String s) {
+        return Character.toUpperCase(s.charAt(0)) + s.substring(1);
+    }
+
+    private static String pascal(String s) {
+        StringBuilder b = new StringBuilder();
+        for (String part : s.split("[^A-Za-z0-9]+")) {
+            if (!part.isEmpty()) b.append(capitalize(part));
+        }
+        return b.toString();
+    }
+
+    private static String packageOf(String fqcn) {
+        int dot = fqcn.lastIndexOf('.');
+        return dot < 0 ? "" : fqcn.substring(0, dot);
+    }
+
+    private static String simpleName(String fqcn) {
+        return fqcn.substring(fqcn.lastIndexOf('.') + 1);
+    }
+
+    /** A problem in an FXML file that would otherwise surface as a runtime LoadException. */
+    private static final class CompileException extends Exception {
+        CompileException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,345 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Build-time message table compiler.
+ * <p>
+ * Reads {@code <basename>_<lang>.properties} for every language and generates an enum
+ * with one constant per message key, holding the text of every language in arrays
+ * indexed by ordinal. A lookup at runtime is then two array reads instead of a
+ * resource-bundle search, and code names keys as constants, so a key that does not
+ * exist is a compile error.
+ * </p>
+ * <p>
+ * The build fails if a file is not valid UTF-8, if a key is missing from any
+ * language, if a pattern with arguments does not parse as a {@link MessageFormat},
+ * if the languages disagree on the number of arguments of a message, or if two keys
+ * map to the same constant name.
+ * </p>
+ *
+ * <h3>Usage</h3>
+ * Run by {@code exec-maven-plugin} in {@code generate-sources}:
+ * <pre>
+ * java MessageKeyCompiler.java &lt;bundle dir&gt; &lt;basename&gt; &lt;default lang&gt; &lt;output dir&gt; &lt;enum class&gt;
+ * </pre>
+ */
+public final class MessageKeyCompiler {
+
+    /** Argument placeholders such as {@code {0}} or {@code {1,number}}. */
+    private static final Pattern ARGUMENT = Pattern.compile("\\{(\\d+)[,}]");
+
+    private final List<String> errors = new ArrayList<>();
+
+    private MessageKeyCompiler() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 5) {
+            System.err.println("usage: MessageKeyCompiler <bundle dir> <basename> <default lang> <output dir> <enum class>");
+            System.exit(2);
+        }
+        new MessageKeyCompiler().run(Path.of(args[0]), args[1], args[2], Path.of(args[3]), args[4]);
+    }
+
+    private void run(Path dir, String basename, String defaultLang, Path outDir, String enumClass) throws IOException {
+        Pattern fileName = Pattern.compile(Pattern.quote(basename) + "_([a-z]{2,3})\\.properties");
+        Map<String, Path> files = new TreeMap<>();
+        try (Stream<Path> list = Files.list(dir)) {
+            list.forEach(p -> {
+                Matcher m = fileName.matcher(p.getFileName().toString());
+                if (m.matches()) {
+                    files.put(m.group(1), p);
+                }
+            });
+        }
+        if (!files.containsKey(defaultLang)) {
+            fail("no " + basename + "_" + defaultLang + ".properties in " + dir);
+            exit();
+        }
+
+        // Default language first; its file order is the constant order
+        List<String> languages = new ArrayList<>(files.keySet());
+        languages.remove(defaultLang);
+        languages.add(0, defaultLang);
+        Map<String, Map<String, String>> bundles = new LinkedHashMap<>();
+        for (String lang : languages) {
+            bundles.put(lang, load(files.get(lang)));
+        }
+        exit();
+
+        Set<String> keys = new LinkedHashSet<>();
+        bundles.values().forEach(b -> keys.addAll(b.keySet()));
+        Map<String, String> constants = new LinkedHashMap<>();
+        Map<String, String> constantOwner = new HashMap<>();
+        for (String key : keys) {
+            for (String lang : languages) {
+                if (!bundles.get(lang).containsKey(key)) {
+                    fail(files.get(lang).getFileName() + ": missing key " + key);
+                }
+            }
+            checkArguments(key, bundles, languages);
+            String constant = constantName(key);
+            String previous = constantOwner.putIfAbsent(constant, key);
+            if (previous != null) {
+                fail("keys " + previous + " and " + key + " both map to " + constant);
+            }
+            constants.put(key, constant);
+        }
+        exit();
+
+        int dot = enumClass.lastIndexOf('.');
+        String pkg = enumClass.substring(0, dot);
+        String simpleName = enumClass.substring(dot + 1);
+        Path out = outDir.resolve(pkg.replace('.', '/')).resolve(simpleName + ".java");
+        Files.createDirectories(out.getParent());
+        Files.writeString(out, generate(pkg, simpleName, basename, languages, bundles, constants), StandardCharsets.UTF_8);
+        System.out.println("[messages] " + constants.size() + " key(s) x " + languages.size()
+                + " language(s) " + languages + " -> " + simpleName);
+    }
+
+    /** Loads a properties file in key order, rejecting bytes that are not UTF-8. */
+    private Map<String, String> load(Path file) throws IOException {
+        Map<String, String> entries = new LinkedHashMap<>();
+        Properties ordered = new Properties() {
+            @Override
+            public synchronized Object put(Object key, Object value) {
+                if (entries.put((String) key, (String) value) != null) {
+                    fail(file.getFileName() + ": duplicate key " + key);
+                }
+                return super.put(key, value);
+            }
+        };
+        try (InputStream in = Files.newInputStream(file);
+             Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8.newDecoder()
+                     .onMalformedInput(CodingErrorAction.REPORT)
+                     .onUnmappableCharacter(CodingErrorAction.REPORT))) {
+            ordered.load(reader);
+        } catch (CharacterCodingException e) {
+            fail(file.getFileName() + ": not valid UTF-8 (" + e.getMessage() + "); use \\uXXXX escapes or re-save as UTF-8");
+        }
+        return entries;
+    }
+
+    /** Checks that patterns with arguments parse and that every language uses the same arguments. */
+    private void checkArguments(String key, Map<String, Map<String, String>> bundles, List<String> languages) {
+        Integer expected = null;
+        for (String lang : languages) {
+            String text = bundles.get(lang).get(key);
+            if (text == null) {
+                continue;
+            }
+            int count = 0;
+            Matcher m = ARGUMENT.matcher(text);
+            while (m.find()) {
+                count = Math.max(count, Integer.parseInt(m.group(1)) + 1);
+            }
+            if (count > 0) {
+                try {
+                    new MessageFormat(text, Locale.forLanguageTag(lang));
+                } catch (IllegalArgumentException e) {
+                    fail(lang + ": " + key + " is not a valid message pattern: " + e.getMessage());
+                }
+            }
+            if (expected == null) {
+                expected = count;
+            } else if (expected != count) {
+                fail(key + ": languages disagree on the number of arguments (" + expected + " vs " + count + " in " + lang + ")");
+            }
+        }
+    }
+
+    /** {@code home.buyBtn.accessible} -> {@code HOME_BUY_BTN_ACCESSIBLE}. */
+    private static String constantName(String key) {
+        StringBuilder out = new StringBuilder(key.length() + 8);
+        char prev = '_';
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (!Character.isLetterOrDigit(c)) {
+                c = '_';
+            } else if (Character.isUpperCase(c) && Character.isLowerCase(prev)) {
+                out.append('_');
+            }
+            if (c == '_' && prev == '_') {
+                continue;
+            }
+            out.append(Character.toUpperCase(c));
+            prev = c;
+        }
+        if (out.length() == 0 || Character.isDigit(out.charAt(0))) {
+            out.insert(0, '_');
+        }
+        return out.toString();
+    }
+
+    private static String generate(String pkg, String simpleName, String basename, List<String> languages,
+                                   Map<String, Map<String, String>> bundles, Map<String, String> constants) {
+        String defaultLang = languages.get(0);
+        StringBuilder s = new StringBuilder(64 * 1024);
+        s.append("// Generated by src/build/java/MessageKeyCompiler.java from ").append(basename)
+                .append("_*.properties. Do not edit.\n");
+        s.append("package ").append(pkg).append(";\n\n");
+        s.append("import java.util.Locale;\n\n");
+        s.append("/**\n");
+        s.append(" * Message keys of {@code ").append(basename).append("_*.properties}, with their text in ")
+                .append(String.join(", ", languages)).append(".\n");
+        s.append(" * <p>\n");
+        s.append(" * The text of every language is held in arrays indexed by ordinal, so\n");
+        s.append(" * {@link #text(Locale)} is two array reads. Languages without a table fall back\n");
+        s.append(" * to {@code ").append(defaultLang).append("}.\n");
+        s.append(" * </p>\n");
+        s.append(" */\n");
+        s.append("public enum ").append(simpleName).append(" {\n");
+        int i = 0;
+        for (Map.Entry<String, String> e : constants.entrySet()) {
+            s.append("    /** {@code ").append(javadoc(e.getKey())).append("}: ")
+                    .append(javadoc(bundles.get(defaultLang).get(e.getKey()))).append(" */\n");
+            s.append("    ").append(e.getValue()).append("(\"").append(literal(e.getKey())).append("\")")
+                    .append(++i == constants.size() ? ";\n\n" : ",\n");
+        }
+        s.append("    /** Languages with a message table; the first is the fallback. */\n");
+        s.append("    private static final String[] LANGUAGES = {");
+        for (int l = 0; l < languages.size(); l++) {
+            s.append(l == 0 ? "" : ", ").append('"').append(languages.get(l)).append('"');
+        }
+        s.append("};\n\n");
+        s.append("    /** Message text per language (same order as {@link #LANGUAGES}), indexed by ordinal. */\n");
+        s.append("    private static final String[][] TEXT = {\n");
+        for (String lang : languages) {
+            s.append("        { // ").append(lang).append('\n');
+            for (String key : constants.keySet()) {
+                s.append("            \"").append(literal(bundles.get(lang).get(key))).append("\",\n");
+            }
+            s.append("        },\n");
+        }
+        s.append("    };\n\n");
+        s.append("    /** Key in the properties files. */\n");
+        s.append("    private final String key;\n\n");
+        s.append("    ").append(simpleName).append("(String key) {\n");
+        s.append("        this.key = key;\n");
+        s.append("    }\n\n");
+        s.append("    /**\n");
+        s.append("     * @return key in the properties files, e.g. {@code home.title}\n");
+        s.append("     */\n");
+        s.append("    public String key() {\n");
+        s.append("        return key;\n");
+        s.append("    }\n\n");
+        s.append("    /**\n");
+        s.append("     * Returns the text of this message in {@code locale}'s language, or in\n");
+        s.append("     * {@code ").append(defaultLang).append("} if there is no table for it. The text is the raw pattern;\n");
+        s.append("     * messages with arguments still need formatting.\n");
+        s.append("     *\n");
+        s.append("     * @param locale locale to look up\n");
+        s.append("     * @return message text\n");
+        s.append("     */\n");
+        s.append("    public String text(Locale locale) {\n");
+        s.append("        return TEXT[table(locale)][ordinal()];\n");
+        s.append("    }\n\n");
+        s.append("    /**\n");
+        s.append("     * Returns the constant for a key, for keys composed at runtime.\n");
+        s.append("     *\n");
+        s.append("     * @param key key in the properties files\n");
+        s.append("     * @return the constant, or {@code null} if there is no such key\n");
+        s.append("     */\n");
+        s.append("    public static ").append(simpleName).append(" of(String key) {\n");
+        s.append("        switch (key) {\n");
+        for (Map.Entry<String, String> e : constants.entrySet()) {
+            s.append("            case \"").append(literal(e.getKey())).append("\": return ").append(e.getValue()).append(";\n");
+        }
+        s.append("            default: return null;\n");
+        s.append("        }\n");
+        s.append("    }\n\n");
+        s.append("    /**\n");
+        s.append("     * @param locale a locale\n");
+        s.append("     * @return whether {@code locale}'s language has its own message table\n");
+        s.append("     */\n");
+        s.append("    public static boolean isSupported(Locale locale) {\n");
+        s.append("        return table(locale) != 0 || LANGUAGES[0].equals(locale.getLanguage());\n");
+        s.append("    }\n\n");
+        s.append("    private static int table(Locale locale) {\n");
+        s.append("        String language = locale.getLanguage();\n");
+        s.append("        for (int i = 1; i < LANGUAGES.length; i++) {\n");
+        s.append("            if (LANGUAGES[i].equals(language)) {\n");
+        s.append("                return i;\n");
+        s.append("            }\n");
+        s.append("        }\n");
+        s.append("        return 0;\n");
+        s.append("    }\n");
+        s.append("}\n");
+        return s.toString();
+    }
+
+    private static String literal(String text) {
+        StringBuilder out = new StringBuilder(text.length() + 8);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20 || c > 0x7e) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        return out.toString();
+    }
+
+    private static String javadoc(String text) {
+        StringBuilder out = new StringBuilder(text.length() + 8);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '&' -> out.append("&amp;");
+                case '@' -> out.append("&#64;");
+                case '{' -> out.append("&#123;");
+                case '}' -> out.append("&#125;");
+                case '*' -> out.append("&#42;");
+                case '\\' -> out.append("&#92;");
+                case '\n', '\r' -> out.append(' ');
+                default -> out.append(c > 0x7e ? String.format("&#%d;", (int) c) : String.valueOf(c));
+            }
+        }
+        return out.toString();
+    }
+
+    private void fail(String message) {
+        errors.add(message);
+    }
+
+    private void exit() {
+        if (!errors.isEmpty()) {
+            errors.forEach(e -> System.err.println("[messages] " + e));
+            System.err.println("[messages] " + errors.size() + " error(s); fix the message bundles above");
+            System.exit(1);
+        }
+    }
+}
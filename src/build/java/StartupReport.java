@@ -0,0 +1,124 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Build-time startup comparison for the {@code faststart} profile.
+ * <p>
+ * Starts the kiosk several times as the default build ({@code java -jar} on the
+ * packaged jar) and as the fast-start build (extracted jar, Spring AOT initializers,
+ * AppCDS archive), each time with {@code --igo.startup.exit-when-ready=true}. It reads
+ * the {@code Kiosk ready in N ms} line the application logs once its first stage is
+ * shown and also times the whole process. Medians are printed and written to the
+ * report file.
+ * </p>
+ *
+ * <h3>Usage</h3>
+ * Run by {@code exec-maven-plugin} in {@code verify} with {@code -Pfaststart}:
+ * <pre>
+ * java StartupReport.java &lt;fat jar&gt; &lt;extracted jar&gt; &lt;cds archive&gt; &lt;runs&gt; &lt;report file&gt;
+ * </pre>
+ * Needs a display (or Xvfb), like the kiosk itself.
+ */
+public final class StartupReport {
+
+    private static final Pattern READY = Pattern.compile("Kiosk ready in (\\d+) ms");
+
+    private StartupReport() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 5) {
+            System.err.println("usage: StartupReport <fat jar> <extracted jar> <cds archive> <runs> <report file>");
+            System.exit(2);
+        }
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        Path fatJar = Path.of(args[0]);
+        Path extractedJar = Path.of(args[1]);
+        Path archive = Path.of(args[2]);
+        int runs = Integer.parseInt(args[3]);
+        Path report = Path.of(args[4]);
+        if (!Files.exists(archive)) {
+            System.err.println("[startup] no CDS archive at " + archive + "; run the training step first");
+            System.exit(1);
+        }
+
+        List<String> baseline = List.of(java, "-jar", fatJar.toString(), "--igo.startup.exit-when-ready=true");
+        List<String> fast = List.of(java,
+                "-XX:SharedArchiveFile=" + archive,
+                "-Dspring.aot.enabled=true",
+                "-jar", extractedJar.toString(),
+                "--igo.startup.exit-when-ready=true");
+
+        // One untimed start each so the OS file cache is warm for both
+        measure(baseline);
+        measure(fast);
+
+        long[][] baselineRuns = new long[runs][];
+        long[][] fastRuns = new long[runs][];
+        for (int i = 0; i < runs; i++) {
+            // Interleave so drift in machine load affects both alike
+            baselineRuns[i] = measure(baseline);
+            fastRuns[i] = measure(fast);
+        }
+
+        long baselineReady = median(baselineRuns, 0);
+        long fastReady = median(fastRuns, 0);
+        long baselineTotal = median(baselineRuns, 1);
+        long fastTotal = median(fastRuns, 1);
+        Files.createDirectories(report.toAbsolutePath().getParent());
+        try (PrintWriter w = new PrintWriter(Files.newBufferedWriter(report))) {
+            w.printf("Startup, median of %d runs%n", runs);
+            w.printf("%-10s %12s %12s%n", "build", "ready (ms)", "process (ms)");
+            w.printf("%-10s %12d %12d%n", "default", baselineReady, baselineTotal);
+            w.printf("%-10s %12d %12d%n", "faststart", fastReady, fastTotal);
+            w.printf("ready time saved: %d ms (%.0f%%)%n", baselineReady - fastReady,
+                    100.0 * (baselineReady - fastReady) / baselineReady);
+        }
+        System.out.println("[startup] " + String.join(System.lineSeparator() + "[startup] ", Files.readAllLines(report)));
+    }
+
+    /** Starts the kiosk once and returns {ready ms, process wall-clock ms}. */
+    private static long[] measure(List<String> command) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        Process p = new ProcessBuilder(command).redirectErrorStream(true).start();
+        long ready = -1;
+        List<String> tail = new ArrayList<>();
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8))) {
+            for (String line; (line = in.readLine()) != null; ) {
+                Matcher m = READY.matcher(line);
+                if (m.find()) {
+                    ready = Long.parseLong(m.group(1));
+                }
+                tail.add(line);
+                if (tail.size() > 20) {
+                    tail.remove(0);
+                }
+            }
+        }
+        if (!p.waitFor(2, TimeUnit.MINUTES)) {
+            p.destroyForcibly();
+        }
+        long total = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        if (ready < 0) {
+            tail.forEach(System.err::println);
+            throw new IllegalStateException("kiosk never reported ready: " + String.join(" ", command));
+        }
+        return new long[] {ready, total};
+    }
+
+    private static long median(long[][] runs, int column) {
+        long[] values = Arrays.stream(runs).mapToLong(r -> r[column]).sorted().toArray();
+        return values[values.length / 2];
+    }
+}
@@ -1,39 +1,67 @@
 package concordia.soen6611.igo_tvm;
 
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
+import concordia.soen6611.igo_tvm.Services.ScreenNavigator;
+import concordia.soen6611.igo_tvm.Services.TrainingRun;
+import concordia.soen6611.igo_tvm.models.Screen;
+import javafx.application.Platform;
 import javafx.scene.Scene;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
 import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
 
 import javafx.application.Application;
 import javafx.stage.Stage;
 
+import java.io.IOException;
+import java.nio.file.Path;
+
 /**
  * JavaFX + Spring Boot entry point for the iGo Ticket Vending Machine application.
  * <p>
  * This class bootstraps a headless Spring context (no embedded web server) and
  * wires JavaFX controllers via Spring's {@code ApplicationContext}. The initial
- * view is loaded from {@code /welcome-screen.fxml}.
+ * view is the {@link Screen#WELCOME} screen, shown through the {@link ScreenNavigator}
+ * which owns the application scene from then on.
  * </p>
  *
  * <h3>Lifecycle</h3>
  * <ol>
- *   <li>{@link #init()} – starts the Spring context.</li>
- *   <li>{@link #start(Stage)} – loads the initial FXML, sets up the primary stage, and shows the UI.</li>
+ *   <li>{@link #init()} – starts the Spring context in the background ({@link KioskBootstrap}).</li>
+ *   <li>{@link #start(Stage)} – shows the attract screen at once, then the welcome screen
+ *       once the context is ready.</li>
  *   <li>{@link #stop()} – gracefully closes the Spring context.</li>
  * </ol>
+ *
+ * <h3>Startup</h3>
+ * The time since JVM start is logged as {@code First frame in N ms} when the attract
+ * screen is drawn and as {@code Kiosk ready in N ms} when the welcome screen is drawn
+ * and takes input. The phases in between are recorded in a {@link StartupTimeline},
+ * logged as one JSON line per boot and appended to {@code igo.startup.timeline-file}
+ * when that is set. Two properties support the {@code faststart} build
+ * profile: {@code igo.startup.exit-when-ready=true} exits right after that (startup
+ * measurements), and {@code igo.startup.training-run=true} walks through the purchase
+ * flow with {@link TrainingRun} and then exits (class-data-sharing training).
  */
 @SpringBootApplication
 public class IGoApplication extends Application {
 
-    /** Spring application context backing controller creation and services. */
-    private ConfigurableApplicationContext context;
+    /** Logger for startup milestones. */
+    private static final Logger logger = LoggerFactory.getLogger(IGoApplication.class);
+
+    /** System property Spring sets while it processes the application ahead of time. */
+    private static final String AOT_PROCESSING = "spring.aot.processing";
+
+    /** Starts and owns the Spring application context backing controllers and services. */
+    private KioskBootstrap bootstrap;
 
     /**
-     * Initializes the Spring application context before the JavaFX UI starts.
+     * Starts the Spring application context on a background thread and returns
+     * without waiting for it, so the JavaFX UI can start in parallel.
      * <p>
      * Uses {@link SpringApplicationBuilder} with {@link WebApplicationType#NONE}
      * to disable the embedded web server, as this is a desktop JavaFX app.
@@ -41,35 +69,137 @@ public class IGoApplication extends Application {
      */
     @Override
     public void init() {
-        context = new SpringApplicationBuilder(IGoApplication.class)
+        bootstrap = KioskBootstrap.start(getParameters().getRaw().toArray(new String[0]));
+    }
+
+    /**
+     * Creates the Spring application used both at runtime and for AOT processing.
+     * <p>
+     * The main class is set explicitly: {@link #init()} runs on the JavaFX launcher
+     * thread, where Spring cannot deduce it, and it names the AOT-generated
+     * initializer used when {@code spring.aot.enabled=true}.
+     * </p>
+     *
+     * @return configured Spring application
+     */
+    static SpringApplication springApplication() {
+        return new SpringApplicationBuilder(IGoApplication.class)
+                .main(IGoApplication.class)
                 .web(WebApplicationType.NONE) // disable embedded web server
-                .run();
+                .build();
     }
 
     /**
-     * Starts the JavaFX application, loads the welcome screen, and shows the primary stage.
+     * Shows the primary stage with the attract screen, then the welcome screen once the
+     * Spring context is ready.
      * <p>
-     * Controllers referenced by {@code welcome-screen.fxml} are created via the Spring
-     * controller factory to enable dependency injection.
+     * The attract screen needs nothing from Spring, so it is the first frame even while
+     * the context is still starting. The {@link ScreenNavigator} then takes over the
+     * scene, loads screens through the Spring controller factory and swaps the scene
+     * root on navigation. If the context fails to start, the attract screen stays up
+     * with an out-of-service notice.
      * </p>
      *
      * @param primaryStage the primary JavaFX stage provided by the runtime
-     * @throws Exception if the FXML cannot be loaded
      */
     @Override
-    public void start(Stage primaryStage) throws Exception {
-        // Load FXML with Spring beans
-        FXMLLoader loader = new FXMLLoader(getClass().getResource("/welcome-screen.fxml"));
-        loader.setControllerFactory(context::getBean); // Let Spring manage controllers
-
-        Parent root = loader.load();
-        Scene scene = new Scene(root, 1200, 700);
+    public void start(Stage primaryStage) {
+        StartupTimeline timeline = bootstrap.timeline();
+        timeline.begin(StartupTimeline.Phase.FIRST_PULSE);
+        KioskBootstrap.AttractScreen attract = new KioskBootstrap.AttractScreen();
+        Scene scene = new Scene(attract.getRoot(), 1200, 700);
 
         primaryStage.setTitle("iGo Ticket Vending Machine");
         primaryStage.setScene(scene);
         primaryStage.setWidth(1200);
         primaryStage.setHeight(700);
+        onNextPulse(scene, () -> {
+            timeline.end(StartupTimeline.Phase.FIRST_PULSE);
+            logger.info("First frame in {} ms", timeline.getEndMillis(StartupTimeline.Phase.FIRST_PULSE));
+        });
         primaryStage.show();
+
+        bootstrap.context().whenCompleteAsync((context, ex) -> {
+            if (ex != null) {
+                attract.showOutOfService();
+                return;
+            }
+            try {
+                showWelcome(context, scene, timeline);
+            } catch (IOException | RuntimeException loadFailure) {
+                logger.error("Welcome screen failed to load: {}", loadFailure.getMessage(), loadFailure);
+                attract.showOutOfService();
+            }
+        }, Platform::runLater);
+    }
+
+    /**
+     * Hands the scene to the {@link ScreenNavigator} with the welcome screen, which
+     * makes the kiosk interactive.
+     *
+     * @param context refreshed Spring context
+     * @param scene    application scene showing the attract screen
+     * @param timeline timeline of this boot
+     * @throws IOException if the welcome screen cannot be loaded
+     */
+    private void showWelcome(ConfigurableApplicationContext context, Scene scene, StartupTimeline timeline)
+            throws IOException {
+        // The navigator owns the scene and every screen shown in it from here on
+        timeline.begin(StartupTimeline.Phase.WELCOME_LOAD);
+        context.getBean(ScreenNavigator.class).adoptScene(scene, Screen.WELCOME);
+        timeline.end(StartupTimeline.Phase.WELCOME_LOAD);
+        timeline.begin(StartupTimeline.Phase.INTERACTIVE_FRAME);
+        onNextPulse(scene, () -> timeline.end(StartupTimeline.Phase.INTERACTIVE_FRAME));
+        timeline.completion().thenAccept(t -> ready(context, t));
+    }
+
+    /**
+     * Runs once the first interactive frame is drawn: records the timeline and starts
+     * the training run or exits if asked to.
+     *
+     * @param context  refreshed Spring context
+     * @param timeline completed timeline of this boot
+     */
+    private void ready(ConfigurableApplicationContext context, StartupTimeline timeline) {
+        logger.info("Kiosk ready in {} ms", timeline.getTotalMillis());
+        Environment env = context.getEnvironment();
+        String timelineFile = env.getProperty("igo.startup.timeline-file", "");
+        if (!timelineFile.isBlank()) {
+            try {
+                timeline.appendTo(Path.of(timelineFile));
+            } catch (IOException | RuntimeException ex) {
+                logger.warn("Could not write startup timeline to {}: {}", timelineFile, ex.getMessage());
+            }
+        }
+        if (env.getProperty("igo.startup.training-run", Boolean.class, false)) {
+            context.getBean(TrainingRun.class).start(Platform::exit);
+        } else if (env.getProperty("igo.startup.exit-when-ready", Boolean.class, false)) {
+            Platform.exit();
+        }
+    }
+
+    /**
+     * Runs {@code action} once, after the next pulse has laid out {@code scene}.
+     *
+     * @param scene  scene to watch
+     * @param action called on the FX thread
+     */
+    private static void onNextPulse(Scene scene, Runnable action) {
+        Runnable once = new Runnable() {
+            private boolean done;
+
+            @Override
+            public void run() {
+                if (done) {
+                    return;
+                }
+                done = true;
+                // Removed later: the scene is iterating its listeners right now
+                Platform.runLater(() -> scene.removePostLayoutPulseListener(this));
+                action.run();
+            }
+        };
+        scene.addPostLayoutPulseListener(once);
     }
 
     /**
@@ -77,15 +207,23 @@ public class IGoApplication extends Application {
      */
     @Override
     public void stop() {
-        context.close();
+        bootstrap.close();
     }
 
     /**
      * Standard Java entry point that delegates to {@link Application#launch(String...)}.
+     * <p>
+     * During Spring AOT processing (the {@code faststart} profile) only the Spring
+     * context is needed, so it is run without starting JavaFX.
+     * </p>
      *
-     * @param args CLI arguments (ignored)
+     * @param args CLI arguments, passed on to Spring (e.g. {@code --igo.views.compiled=false})
      */
     public static void main(String[] args) {
-        launch();
+        if (Boolean.getBoolean(AOT_PROCESSING)) {
+            springApplication().run(args);
+            return;
+        }
+        launch(args);
     }
 }
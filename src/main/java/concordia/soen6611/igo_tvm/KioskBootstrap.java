@@ -0,0 +1,204 @@
+package concordia.soen6611.igo_tvm;
+
+import javafx.geometry.Pos;
+import javafx.scene.Parent;
+import javafx.scene.layout.Background;
+import javafx.scene.layout.BackgroundFill;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.CycleMethod;
+import javafx.scene.paint.LinearGradient;
+import javafx.scene.paint.Stop;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.Text;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.metrics.StartupStep;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Starts the Spring context off the JavaFX threads so the kiosk can paint before it is ready.
+ * <p>
+ * {@link IGoApplication#init()} used to block until the whole context was refreshed,
+ * and nothing was drawn until then. Now {@link #start(String[])} refreshes the
+ * context on a background thread and returns at once, and
+ * {@link IGoApplication#start(javafx.stage.Stage)} shows an {@link AttractScreen}
+ * (plain shapes and text, no FXML, CSS or Spring beans) as the first frame. Work that
+ * does not depend on other beans runs in parallel with the refresh: the fare tables
+ * load on their own thread ({@code FareRateServiceImpl}) and the kiosk artwork is
+ * decoded as soon as the view loader exists ({@code ImageCache}). When
+ * {@link #context()} completes, the application swaps in the interactive welcome
+ * screen.
+ * </p>
+ * <p>
+ * The bootstrap also owns the boot's {@link StartupTimeline}: it marks the end of
+ * {@link StartupTimeline.Phase#JVM_TO_INIT JVM_TO_INIT} when started, times the Spring
+ * refresh with per-bean instantiation times, and registers the timeline in the
+ * context as the {@code startupTimeline} bean.
+ * </p>
+ *
+ * <h3>Threading</h3>
+ * {@link #start(String[])} and {@link #close()} may be called from any thread;
+ * {@link AttractScreen} must be used on the JavaFX Application Thread.
+ */
+public final class KioskBootstrap implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(KioskBootstrap.class);
+
+    /** Startup step Spring records for each bean instantiation. */
+    private static final String BEAN_INSTANTIATE = "spring.beans.instantiate";
+
+    /** Startup steps buffered during the refresh; well above what the context records. */
+    private static final int STARTUP_STEP_CAPACITY = 10_000;
+
+    /** Spring context, completed when the refresh finishes. */
+    private final CompletableFuture<ConfigurableApplicationContext> context;
+
+    /** Phase timings of this boot. */
+    private final StartupTimeline timeline;
+
+    private KioskBootstrap(CompletableFuture<ConfigurableApplicationContext> context, StartupTimeline timeline) {
+        this.context = context;
+        this.timeline = timeline;
+    }
+
+    /**
+     * Starts refreshing the Spring context on a daemon thread named {@code kiosk-bootstrap}.
+     *
+     * @param args arguments passed on to Spring
+     * @return the running bootstrap
+     */
+    public static KioskBootstrap start(String[] args) {
+        StartupTimeline timeline = new StartupTimeline();
+        timeline.end(StartupTimeline.Phase.JVM_TO_INIT);
+        CompletableFuture<ConfigurableApplicationContext> context = new CompletableFuture<>();
+        Thread t = new Thread(() -> {
+            BufferingApplicationStartup startup = new BufferingApplicationStartup(STARTUP_STEP_CAPACITY);
+            SpringApplication application = IGoApplication.springApplication();
+            application.setApplicationStartup(startup);
+            application.addInitializers(ctx -> ctx.getBeanFactory().registerSingleton("startupTimeline", timeline));
+            timeline.begin(StartupTimeline.Phase.SPRING_REFRESH);
+            try {
+                ConfigurableApplicationContext refreshed = application.run(args);
+                timeline.end(StartupTimeline.Phase.SPRING_REFRESH);
+                timeline.setBeanTimings(beanTimings(startup));
+                logger.debug("Spring context ready in {} ms",
+                        timeline.getDurationMillis(StartupTimeline.Phase.SPRING_REFRESH));
+                context.complete(refreshed);
+            } catch (Throwable ex) {
+                logger.error("Spring context failed to start: {}", ex.getMessage(), ex);
+                context.completeExceptionally(ex);
+            }
+        }, "kiosk-bootstrap");
+        t.setDaemon(true);
+        t.start();
+        return new KioskBootstrap(context, timeline);
+    }
+
+    /**
+     * Drains the recorded startup steps and returns the bean instantiation times.
+     *
+     * @param startup startup recorder used for the refresh
+     * @return time per instantiated bean
+     */
+    private static List<StartupTimeline.BeanTiming> beanTimings(BufferingApplicationStartup startup) {
+        List<StartupTimeline.BeanTiming> beans = new ArrayList<>();
+        startup.drainBufferedTimeline().getEvents().forEach(event -> {
+            StartupStep step = event.getStartupStep();
+            if (!BEAN_INSTANTIATE.equals(step.getName())) {
+                return;
+            }
+            for (StartupStep.Tag tag : step.getTags()) {
+                if ("beanName".equals(tag.getKey())) {
+                    Duration duration = event.getDuration();
+                    beans.add(new StartupTimeline.BeanTiming(tag.getValue(), duration.toMillis()));
+                }
+            }
+        });
+        return beans;
+    }
+
+    /**
+     * Returns the Spring context being started.
+     *
+     * @return future completed with the refreshed context, or exceptionally if it failed
+     */
+    public CompletableFuture<ConfigurableApplicationContext> context() {
+        return context;
+    }
+
+    /**
+     * Returns the phase timings of this boot.
+     *
+     * @return startup timeline
+     */
+    public StartupTimeline timeline() {
+        return timeline;
+    }
+
+    /**
+     * Closes the Spring context, now or as soon as it has started.
+     */
+    @Override
+    public void close() {
+        context.thenAccept(ConfigurableApplicationContext::close);
+    }
+
+    /**
+     * Screen shown while the context starts: the welcome screen's background and
+     * title, without controls. It takes no input.
+     */
+    public static final class AttractScreen {
+
+        /** Root node shown in the stage. */
+        private final StackPane root;
+
+        /** Status line under the title. */
+        private final Text status;
+
+        /**
+         * Builds the attract screen.
+         */
+        public AttractScreen() {
+            Text title = new Text("Metro Ticket System");
+            title.setFont(Font.font("System", FontWeight.BOLD, 42));
+            title.setFill(Color.WHITE);
+
+            status = new Text("Starting… / Démarrage…");
+            status.setFont(Font.font("System", 16));
+            status.setFill(Color.rgb(255, 255, 255, 0.9));
+
+            VBox content = new VBox(30, title, status);
+            content.setAlignment(Pos.CENTER);
+
+            root = new StackPane(content);
+            root.setBackground(new Background(new BackgroundFill(new LinearGradient(0, 0, 1, 1, true,
+                    CycleMethod.NO_CYCLE, new Stop(0, Color.web("#2563eb")), new Stop(1, Color.web("#4f46e5"))),
+                    null, null)));
+        }
+
+        /**
+         * @return root node to put in the scene
+         */
+        public Parent getRoot() {
+            return root;
+        }
+
+        /**
+         * Replaces the status line with an out-of-service notice, for when the
+         * kiosk could not start.
+         */
+        public void showOutOfService() {
+            status.setText("Out of service / Hors service");
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package concordia.soen6611.igo_tvm;
+
+/**
+ * Plain entry point for running the kiosk from a jar with JavaFX on the class path.
+ * <p>
+ * The {@code java} launcher refuses to start a main class that extends
+ * {@link javafx.application.Application} unless JavaFX is on the module path. This
+ * class does not, so {@code java -jar} works on the packaged jar and on the
+ * extracted layout the {@code faststart} profile builds.
+ * </p>
+ */
+public final class KioskLauncher {
+
+    private KioskLauncher() {
+    }
+
+    /**
+     * Starts the kiosk.
+     *
+     * @param args CLI arguments, passed on to {@link IGoApplication#main(String[])}
+     */
+    public static void main(String[] args) {
+        IGoApplication.main(args);
+    }
+}
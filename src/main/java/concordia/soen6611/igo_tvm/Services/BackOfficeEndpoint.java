@@ -0,0 +1,26 @@
+package concordia.soen6611.igo_tvm.Services;
+
+import concordia.soen6611.igo_tvm.exceptions.NetworkException;
+import concordia.soen6611.igo_tvm.models.SettlementBatch;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Back-office service that receives the kiosk's completed sales.
+ * <p>
+ * Implementations must not block: {@link #upload(SettlementBatch)} starts the request
+ * and returns. They must also accept the same batch more than once, answering a
+ * repeat as a success, since a batch whose answer was lost is sent again.
+ * </p>
+ */
+public interface BackOfficeEndpoint {
+
+    /**
+     * Sends one batch.
+     *
+     * @param batch batch to send
+     * @return a future completed once the back office has stored the batch, or
+     *         exceptionally, usually with a {@link NetworkException}, if it has not
+     */
+    CompletableFuture<Void> upload(SettlementBatch batch);
+}
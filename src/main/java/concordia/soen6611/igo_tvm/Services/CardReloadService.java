@@ -1,6 +1,9 @@
 package concordia.soen6611.igo_tvm.Services;
 
 import concordia.soen6611.igo_tvm.exceptions.NetworkException;
+import concordia.soen6611.igo_tvm.models.FareProduct;
+import concordia.soen6611.igo_tvm.models.Money;
+import concordia.soen6611.igo_tvm.models.RiderType;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
@@ -71,13 +74,13 @@ public class CardReloadService {
     }
 
     /**
-     * Retrieves a fare for a given rider and pass type by delegating to {@link FareRateService}.
+     * Retrieves a fare for a given rider and product by delegating to {@link FareRateService}.
      *
-     * @param riderType rider category (e.g., "Adult", "Student", "Senior")
-     * @param passType  pass/trip type (e.g., "Single Trip", "Weekly Pass")
-     * @return the base fare amount for the specified rider and pass type
+     * @param rider   rider category
+     * @param product fare product
+     * @return the base fare amount for the specified rider and product
      */
-    public double getFare(String riderType, String passType) {
-        return fareRateService.getRate(riderType, passType);
+    public Money getFare(RiderType rider, FareProduct product) {
+        return fareRateService.getRate(rider, product);
     }
 }
@@ -0,0 +1,158 @@
+package concordia.soen6611.igo_tvm.Services;
+
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.scene.control.Labeled;
+import javafx.util.Duration;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Application-wide wall clock shown in every screen header.
+ * <p>
+ * Replaces the per-controller {@code Timeline}s that ticked every second and were
+ * never stopped. A single timer fires once per minute, aligned to the minute
+ * boundary, and publishes the current time through read-only JavaFX properties.
+ * Screens display it with {@link #bind(Labeled)} and release it with
+ * {@link #unbind(Labeled)} when they leave; a bound label that is never unbound is
+ * still collectable because JavaFX bindings observe their source weakly.
+ * </p>
+ *
+ * <h3>Threading</h3>
+ * The timer runs and updates the properties on the JavaFX Application Thread.
+ * {@link #bind(Labeled)} may also be called while a screen is built in the background.
+ */
+@Service
+public class ClockService {
+
+    /** Header clock format shared by all screens. */
+    public static final DateTimeFormatter CLOCK_FMT = DateTimeFormatter.ofPattern("MMM dd, yyyy\nhh : mm a");
+
+    /** Source of the current time. */
+    private final Clock clock;
+
+    /** Current time truncated to the minute. */
+    private final ReadOnlyObjectWrapper<LocalDateTime> time = new ReadOnlyObjectWrapper<>(this, "time");
+
+    /** {@link #time} formatted with {@link #CLOCK_FMT}. */
+    private final ReadOnlyStringWrapper text = new ReadOnlyStringWrapper(this, "text");
+
+    /** Single timer that fires at the next minute boundary; created on first bind. */
+    private PauseTransition tick;
+
+    /**
+     * Creates a clock backed by the system default time zone.
+     */
+    public ClockService() {
+        this(Clock.systemDefaultZone());
+    }
+
+    /**
+     * Creates a clock backed by the given time source.
+     *
+     * @param clock source of the current time
+     */
+    public ClockService(Clock clock) {
+        this.clock = clock;
+        update();
+    }
+
+    /**
+     * Returns the current time, truncated to the minute.
+     *
+     * @return read-only time property
+     */
+    public ReadOnlyObjectProperty<LocalDateTime> timeProperty() {
+        return time.getReadOnlyProperty();
+    }
+
+    /**
+     * Returns the current time formatted for the screen header.
+     *
+     * @return read-only text property
+     */
+    public ReadOnlyStringProperty textProperty() {
+        return text.getReadOnlyProperty();
+    }
+
+    /**
+     * Binds {@code label}'s text to the header clock and starts the timer if needed.
+     * May be called from a background thread while a screen is being preloaded; the
+     * timer is then started on the FX thread.
+     *
+     * @param label header clock label
+     */
+    public void bind(Labeled label) {
+        if (Platform.isFxApplicationThread()) {
+            start();
+        } else {
+            Platform.runLater(this::start);
+        }
+        label.textProperty().bind(text.getReadOnlyProperty());
+    }
+
+    /**
+     * Releases the binding created by {@link #bind(Labeled)}. The label keeps the last
+     * displayed time.
+     *
+     * @param label header clock label
+     */
+    public void unbind(Labeled label) {
+        label.textProperty().unbind();
+    }
+
+    /**
+     * Starts the minute timer once. Must run on the FX thread.
+     */
+    private void start() {
+        if (tick != null) {
+            return;
+        }
+        tick = new PauseTransition();
+        tick.setOnFinished(e -> {
+            update();
+            schedule();
+        });
+        update();
+        schedule();
+    }
+
+    /**
+     * Re-arms {@link #tick} to fire just after the next minute boundary.
+     */
+    private void schedule() {
+        tick.setDuration(Duration.millis(millisUntilNextMinute(LocalDateTime.now(clock))));
+        tick.playFromStart();
+    }
+
+    /**
+     * Publishes the current minute. Listeners only fire when the minute changes.
+     */
+    private void update() {
+        LocalDateTime now = LocalDateTime.now(clock).truncatedTo(ChronoUnit.MINUTES);
+        if (!now.equals(time.get())) {
+            time.set(now);
+            text.set(now.format(CLOCK_FMT));
+        }
+    }
+
+    /**
+     * Returns the delay from {@code now} to the start of the next minute, never less
+     * than one millisecond.
+     *
+     * @param now current time
+     * @return delay in milliseconds
+     */
+    public static long millisUntilNextMinute(LocalDateTime now) {
+        LocalDateTime next = now.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+        return Math.max(1, ChronoUnit.MILLIS.between(now, next));
+    }
+}
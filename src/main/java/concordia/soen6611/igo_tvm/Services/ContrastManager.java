@@ -18,8 +18,9 @@ import java.util.prefs.Preferences;
  *
  * <h3>Usage</h3>
  * <pre>{@code
- * // In a controller's initialize (typically via Platform.runLater):
+ * // When a screen is shown / replaced:
  * ContrastManager.getInstance().attach(root.getScene(), root);
+ * ContrastManager.getInstance().detach(root);
  *
  * // Hook up buttons:
  * ContrastManager.getInstance().increase();
@@ -72,13 +73,12 @@ public class ContrastManager {
 
     /**
      * Attaches the contrast/brightness effect to the given scene root and applies
-     * the current level. Call once per page (e.g., in controller {@code initialize}
-     * via {@code Platform.runLater}).
+     * the current level. Call each time a page is shown (e.g., from the controller's
+     * {@code onEnter}) and pair it with {@link #detach(Parent)}.
      *
      * @param scene the active JavaFX {@link Scene}
      * @param root  the root {@link Parent} to which the effect will be applied
      */
-    /** Call once per page (e.g., in controller initialize via Platform.runLater). */
     public void attach(Scene scene, Parent root) {
         this.attachedRoot = root;
         if (attachedRoot.getEffect() != effect) {
@@ -87,6 +87,21 @@ public class ContrastManager {
         apply();
     }
 
+    /**
+     * Removes the effect from {@code root} if it is the currently attached root, so the
+     * manager no longer references a screen that has left the scene.
+     *
+     * @param root the root previously passed to {@link #attach(Scene, Parent)}
+     */
+    public void detach(Parent root) {
+        if (root.getEffect() == effect) {
+            root.setEffect(null);
+        }
+        if (attachedRoot == root) {
+            attachedRoot = null;
+        }
+    }
+
     // ---- API for buttons ----
 
     /**
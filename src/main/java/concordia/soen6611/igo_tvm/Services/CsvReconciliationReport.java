@@ -0,0 +1,83 @@
+package concordia.soen6611.igo_tvm.Services;
+
+import concordia.soen6611.igo_tvm.models.Money;
+import concordia.soen6611.igo_tvm.models.PeriodTotals;
+import concordia.soen6611.igo_tvm.models.ReconciliationSummary;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * {@link ReconciliationReport} written as CSV, one line per sales or payment method line.
+ * <p>
+ * Columns:
+ * <pre>
+ *   period_start,period_end,line,rider_type,product,method,count,items,amount,expected,collected,discrepancy,declined,cancelled,unmatched
+ * </pre>
+ * {@code line} is {@code sales} for a {@link PeriodTotals.Sales} line, which fills
+ * {@code rider_type} to {@code amount}, and {@code payment} for a
+ * {@link PeriodTotals.Method} line, which fills {@code method}, {@code count} (completed
+ * payments) and {@code expected} to {@code unmatched}. A last {@code in_doubt} line,
+ * without period, gives the payments left in doubt and their amount. Times are ISO-8601
+ * with offset, amounts plain decimals; other columns are left empty.
+ * </p>
+ *
+ * <h3>Threading</h3>
+ * Not thread-safe; used by the reconciliation that writes it. The writer is flushed on
+ * {@link #finish(ReconciliationSummary)} but not closed.
+ */
+public final class CsvReconciliationReport implements ReconciliationReport {
+
+    static final String HEADER = "period_start,period_end,line,rider_type,product,method,count,items,amount,"
+            + "expected,collected,discrepancy,declined,cancelled,unmatched";
+
+    private final Writer out;
+    private boolean started;
+
+    /**
+     * @param out where to write the CSV
+     */
+    public CsvReconciliationReport(Writer out) {
+        this.out = out;
+    }
+
+    @Override
+    public void period(PeriodTotals totals) throws IOException {
+        header();
+        String period = totals.getStart().toOffsetDateTime() + "," + totals.getEnd().toOffsetDateTime();
+        for (PeriodTotals.Sales sales : totals.getSales()) {
+            out.write(period + ",sales," + field(sales.getRiderType()) + "," + field(sales.getProduct()) + ","
+                    + field(sales.getMethod()) + "," + sales.getCount() + "," + sales.getItems() + ","
+                    + sales.getTotal() + ",,,,,,\n");
+        }
+        for (PeriodTotals.Method method : totals.getMethods()) {
+            out.write(period + ",payment,,," + field(method.getMethod()) + "," + method.getCompleted() + ",,,"
+                    + method.getExpected() + "," + method.getCollected() + "," + method.getDiscrepancy() + ","
+                    + method.getDeclined() + "," + method.getCancelled() + "," + method.getUnmatched() + "\n");
+        }
+    }
+
+    @Override
+    public void finish(ReconciliationSummary summary) throws IOException {
+        header();
+        Money amount = summary.getInDoubtAmount();
+        out.write(",,in_doubt,,,," + summary.getInDoubt() + ",," + amount + ",,,,,,\n");
+        out.flush();
+    }
+
+    private void header() throws IOException {
+        if (!started) {
+            out.write(HEADER + "\n");
+            started = true;
+        }
+    }
+
+    /** Quotes a value holding a comma, quote or line break, doubling its quotes. */
+    private static String field(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,233 @@
+package concordia.soen6611.igo_tvm.Services;
+
+import concordia.soen6611.igo_tvm.models.PeriodTotals;
+import concordia.soen6611.igo_tvm.models.ReconciliationPeriod;
+import concordia.soen6611.igo_tvm.models.ReconciliationSummary;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reconciles each day's sales once the day is over, and writes the result next to the
+ * kiosk's other records.
+ * <p>
+ * Every day at {@code igo.reconciliation.run-at}, local time in
+ * {@code igo.reconciliation.zone}, the {@link SalesReconciler} reads the sales journal
+ * and totals the day before. The totals are written to {@code <day>.csv} and
+ * {@code <day>.json} in {@code igo.reconciliation.dir}, e.g. {@code 2025-03-03.csv}. A
+ * run a little after midnight leaves the payments being authorized at midnight time to
+ * end. Each file is written under a temporary name and moved into place, the CSV last,
+ * so a day with a CSV report is complete.
+ * </p>
+ * <p>
+ * A kiosk that was off at the run time reconciles the day it missed when it starts, if
+ * that day has no report yet. Days further back are not caught up. The job is off when
+ * {@code igo.reconciliation.dir} is empty or the sales are not journaled.
+ * </p>
+ *
+ * <h3>Threading</h3>
+ * Runs on a daemon thread named {@code end-of-day-reconciliation}. The journal is
+ * read while sales are still being appended to it, as the settlement uploader does, so
+ * a run never holds up the purchase path.
+ */
+@Service
+public class EndOfDayReconciliation implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(EndOfDayReconciliation.class);
+
+    private final TransactionJournal journal;
+    private final Path reportDir;
+    private final ZoneId zone;
+    private final LocalTime runAt;
+    private final Clock clock;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread t = new Thread(task, "end-of-day-reconciliation");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private boolean started;
+
+    /**
+     * Creates the job from the {@code igo.reconciliation.*} properties and starts it, if
+     * both the sales journal and the report directory are configured.
+     *
+     * @param sales     journal of the sales
+     * @param dir       directory the reports are written to; empty to write none
+     * @param zone      time zone whose days are reconciled; empty for the kiosk's own
+     * @param runAt     local time, after midnight, at which the day before is reconciled
+     * @throws java.time.DateTimeException if the zone or the time cannot be read
+     */
+    @Autowired
+    public EndOfDayReconciliation(SalesJournal sales,
+                                  @Value("${igo.reconciliation.dir:}") String dir,
+                                  @Value("${igo.reconciliation.zone:}") String zone,
+                                  @Value("${igo.reconciliation.run-at:00:05}") String runAt) {
+        this(sales.getJournal(), dir == null || dir.isBlank() ? null : Path.of(dir.trim()),
+                zone == null || zone.isBlank() ? ZoneId.systemDefault() : ZoneId.of(zone.trim()),
+                LocalTime.parse(runAt.trim()), Clock.systemUTC());
+        if (journal == null || reportDir == null) {
+            logger.info("Sales are not reconciled at the end of the day (needs igo.journal.dir and "
+                    + "igo.reconciliation.dir)");
+        } else {
+            start();
+        }
+    }
+
+    /**
+     * Creates the job; {@link #start()} starts it.
+     *
+     * @param journal   journal of the sales, or {@code null} for none
+     * @param reportDir directory the reports are written to, or {@code null} for none
+     * @param zone      time zone whose days are reconciled
+     * @param runAt     local time at which the day before is reconciled
+     * @param clock     clock the runs are timed with
+     */
+    public EndOfDayReconciliation(TransactionJournal journal, Path reportDir, ZoneId zone, LocalTime runAt,
+                                  Clock clock) {
+        this.journal = journal;
+        this.reportDir = reportDir;
+        this.zone = zone;
+        this.runAt = runAt;
+        this.clock = clock;
+    }
+
+    /**
+     * Reconciles the last day missed, if any, and schedules the daily runs.
+     *
+     * @throws IllegalStateException if there is no journal or no report directory
+     */
+    public synchronized void start() {
+        if (journal == null || reportDir == null) {
+            throw new IllegalStateException("end-of-day reconciliation needs a journal and a report directory");
+        }
+        if (started) {
+            return;
+        }
+        started = true;
+        ZonedDateTime now = ZonedDateTime.now(clock.withZone(zone));
+        ZonedDateTime lastRun = ZonedDateTime.of(now.toLocalDate(), runAt, zone);
+        if (lastRun.isAfter(now)) {
+            lastRun = ZonedDateTime.of(now.toLocalDate().minusDays(1), runAt, zone);
+        }
+        LocalDate missed = lastRun.toLocalDate().minusDays(1);
+        if (!Files.exists(csvReport(missed))) {
+            executor.execute(() -> run(missed));
+        }
+        scheduleNext();
+    }
+
+    /** Schedules the run after now, which reconciles the day before it and schedules the next. */
+    private void scheduleNext() {
+        if (executor.isShutdown()) {
+            return;
+        }
+        ZonedDateTime now = ZonedDateTime.now(clock.withZone(zone));
+        ZonedDateTime next = ZonedDateTime.of(now.toLocalDate(), runAt, zone);
+        if (!next.isAfter(now)) {
+            next = ZonedDateTime.of(now.toLocalDate().plusDays(1), runAt, zone);
+        }
+        LocalDate day = next.toLocalDate().minusDays(1);
+        executor.schedule(() -> {
+            run(day);
+            scheduleNext();
+        }, Duration.between(now, next).toMillis(), TimeUnit.MILLISECONDS);
+        logger.debug("Sales of {} are reconciled at {}", day, next);
+    }
+
+    private void run(LocalDate day) {
+        try {
+            reconcile(day);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not reconcile the sales of {}: {}", day, e.toString());
+        }
+    }
+
+    /**
+     * Reconciles the sales of one day and writes its reports, replacing any already there.
+     *
+     * @param day day to reconcile, in the job's time zone
+     * @return the CSV report
+     * @throws IOException if the journal cannot be read or the reports written
+     */
+    public synchronized Path reconcile(LocalDate day) throws IOException {
+        Files.createDirectories(reportDir);
+        Path csv = csvReport(day);
+        Path json = reportDir.resolve(day + ".json");
+        Path csvTmp = reportDir.resolve(csv.getFileName() + ".tmp");
+        Path jsonTmp = reportDir.resolve(json.getFileName() + ".tmp");
+        ReconciliationSummary summary;
+        try {
+            try (Writer csvOut = Files.newBufferedWriter(csvTmp);
+                 Writer jsonOut = Files.newBufferedWriter(jsonTmp)) {
+                summary = new SalesReconciler(ReconciliationPeriod.DAY, zone, day.atStartOfDay(zone).toInstant(),
+                        day.plusDays(1).atStartOfDay(zone).toInstant(),
+                        new Both(new CsvReconciliationReport(csvOut), new JsonReconciliationReport(jsonOut)))
+                        .reconcile(journal);
+            }
+            Files.move(jsonTmp, json, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.move(csvTmp, csv, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(jsonTmp);
+            Files.deleteIfExists(csvTmp);
+        }
+        logger.info("Sales of {} reconciled into {}: {} sale(s), {} in doubt", day, csv, summary.getSales(),
+                summary.getInDoubt());
+        return csv;
+    }
+
+    private Path csvReport(LocalDate day) {
+        return reportDir.resolve(day + ".csv");
+    }
+
+    /**
+     * Stops the daily runs.
+     */
+    @PreDestroy
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /** Hands the reconciliation to two reports. */
+    private static final class Both implements ReconciliationReport {
+        final ReconciliationReport first;
+        final ReconciliationReport second;
+
+        Both(ReconciliationReport first, ReconciliationReport second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public void period(PeriodTotals totals) throws IOException {
+            first.period(totals);
+            second.period(totals);
+        }
+
+        @Override
+        public void finish(ReconciliationSummary summary) throws IOException {
+            first.finish(summary);
+            second.finish(summary);
+        }
+    }
+}
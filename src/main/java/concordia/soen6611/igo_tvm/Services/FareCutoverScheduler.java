@@ -0,0 +1,115 @@
+package concordia.soen6611.igo_tvm.Services;
+
+import concordia.soen6611.igo_tvm.models.FareSnapshot;
+import concordia.soen6611.igo_tvm.models.MetroRatePassProxy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Flips a {@link MetroRatePassProxy} to its upcoming fares at their effective instant.
+ * <p>
+ * The proxy already serves the upcoming snapshot to any lookup made after its
+ * effective instant, so pricing is exact without this class. The scheduler makes the
+ * cutover happen on time even when the kiosk is idle, so it is logged when it happens
+ * and the proxy's listeners hear of it. Whenever the upcoming snapshot changes, the
+ * pending cutover is rescheduled for the new one.
+ * </p>
+ *
+ * <h3>Threading</h3>
+ * Cutovers run on a daemon thread named {@code fare-cutover}. The flip is one atomic
+ * swap in the proxy, so lookups never pause for it.
+ */
+public final class FareCutoverScheduler implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(FareCutoverScheduler.class);
+
+    /** Proxy whose upcoming snapshot is scheduled. */
+    private final MetroRatePassProxy proxy;
+
+    /** Clock the delays are measured with; the proxy's. */
+    private final Clock clock;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread t = new Thread(task, "fare-cutover");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /** Snapshot the pending cutover is for; guarded by {@code this}. */
+    private FareSnapshot scheduledFor;
+
+    /** Pending cutover, or {@code null}; guarded by {@code this}. */
+    private ScheduledFuture<?> pending;
+
+    /**
+     * @param proxy proxy to flip
+     * @param clock clock the proxy was created with
+     */
+    public FareCutoverScheduler(MetroRatePassProxy proxy, Clock clock) {
+        this.proxy = proxy;
+        this.clock = clock;
+    }
+
+    /**
+     * Schedules the proxy's upcoming snapshot, if any, and every one published later.
+     */
+    public void start() {
+        proxy.addListener(this::reschedule);
+        reschedule();
+    }
+
+    /**
+     * @return the snapshot a cutover is pending for, or {@code null}
+     */
+    public synchronized FareSnapshot getScheduled() {
+        return scheduledFor;
+    }
+
+    private synchronized void reschedule() {
+        FareSnapshot next = proxy.getUpcoming();
+        if (next == scheduledFor || executor.isShutdown()) {
+            return;
+        }
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+        scheduledFor = next;
+        if (next != null) {
+            long delay = Math.max(0, next.getEffectiveFrom().toEpochMilli() - clock.millis());
+            pending = executor.schedule(() -> cutOver(next), delay, TimeUnit.MILLISECONDS);
+            logger.info("Fare version {} takes effect at {}", next.getVersion(), next.getEffectiveFrom());
+        }
+    }
+
+    private void cutOver(FareSnapshot next) {
+        // Reading the snapshot makes the proxy flip if the instant has passed
+        if (proxy.getSnapshot() == next) {
+            logger.info("Fare version {} is now in effect", next.getVersion());
+            return;
+        }
+        synchronized (this) {
+            if (scheduledFor == next) {
+                // Woke before the wall clock reached the instant; try again
+                scheduledFor = null;
+                reschedule();
+            }
+        }
+    }
+
+    /**
+     * Cancels the pending cutover. The proxy still cuts over on its next lookup.
+     */
+    @Override
+    public synchronized void close() {
+        executor.shutdownNow();
+        scheduledFor = null;
+        pending = null;
+    }
+}
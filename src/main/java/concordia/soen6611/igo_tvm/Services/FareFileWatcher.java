@@ -0,0 +1,141 @@
+package concordia.soen6611.igo_tvm.Services;
+
+import concordia.soen6611.igo_tvm.models.FareFile;
+import concordia.soen6611.igo_tvm.models.FareSnapshot;
+import concordia.soen6611.igo_tvm.models.MetroRatePassProxy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+/**
+ * Publishes the fare file to a {@link MetroRatePassProxy} whenever it changes.
+ * <p>
+ * Fares used to be compiled into the proxy, so a fare change meant a new build on every
+ * kiosk. The watcher reads the {@link FareFile} once on {@link #reload()} and then on
+ * every change seen by a {@link WatchService} on its directory. A valid file with a
+ * newer version is published as a whole; a file that fails its checksum or validation
+ * is logged and ignored, and the last good snapshot stays in use. Publishers should
+ * write the file with {@link FareFile#write(FareSnapshot, Path)}, which replaces it
+ * atomically; a file edited in place is simply rejected until it is complete.
+ * </p>
+ *
+ * <h3>Threading</h3>
+ * Changes are read on a daemon thread named {@code fare-watch}; {@link #reload()} may
+ * also be called from any thread. Publication is an atomic swap in the proxy, so
+ * pricing never waits for a reload.
+ */
+public final class FareFileWatcher implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(FareFileWatcher.class);
+
+    /** Fare file, absolute. */
+    private final Path file;
+
+    /** Proxy the snapshots are published to. */
+    private final MetroRatePassProxy proxy;
+
+    /** Watch on the file's directory, once started. */
+    private WatchService watchService;
+
+    /**
+     * @param file  fare file to read; it need not exist yet
+     * @param proxy proxy to publish to
+     */
+    public FareFileWatcher(Path file, MetroRatePassProxy proxy) {
+        this.file = file.toAbsolutePath();
+        this.proxy = proxy;
+    }
+
+    /**
+     * Reads the fare file and publishes it if it is valid and newer than the snapshots
+     * in use and upcoming; see {@link MetroRatePassProxy#publish(FareSnapshot)}.
+     *
+     * @return {@code true} if a new snapshot was published
+     */
+    public boolean reload() {
+        if (!Files.exists(file)) {
+            logger.info("No fare file at {}; keeping fare version {}", file, proxy.getSnapshot().getVersion());
+            return false;
+        }
+        FareSnapshot next;
+        try {
+            next = FareFile.read(file);
+        } catch (IOException e) {
+            logger.warn("Rejected fare file: {}; keeping fare version {}", e.getMessage(), proxy.getSnapshot().getVersion());
+            return false;
+        }
+        if (!proxy.publish(next)) {
+            FareSnapshot upcoming = proxy.getUpcoming();
+            logger.info("Ignored fare file {} version {}: version {} is in use{}", file, next.getVersion(),
+                    proxy.getSnapshot().getVersion(), upcoming == null ? "" : " and " + upcoming.getVersion() + " is upcoming");
+            return false;
+        }
+        if (proxy.getUpcoming() == next) {
+            logger.info("Published fare version {} from {}, effective {}", next.getVersion(), file, next.getEffectiveFrom());
+        } else {
+            logger.info("Published fare version {} from {}", next.getVersion(), file);
+        }
+        return true;
+    }
+
+    /**
+     * Starts watching the file's directory for changes.
+     *
+     * @throws IOException if the directory cannot be watched
+     */
+    public synchronized void start() throws IOException {
+        if (watchService != null) {
+            return;
+        }
+        Path dir = file.getParent();
+        watchService = dir.getFileSystem().newWatchService();
+        dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        WatchService watching = watchService;
+        Thread t = new Thread(() -> watch(watching), "fare-watch");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    private void watch(WatchService watching) {
+        try {
+            while (true) {
+                WatchKey key = watching.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    // An overflow may have dropped an event for the file
+                    changed |= event.kind() == StandardWatchEventKinds.OVERFLOW
+                            || file.getFileName().equals(event.context());
+                }
+                if (changed) {
+                    reload();
+                }
+                if (!key.reset()) {
+                    logger.warn("Fare directory {} can no longer be watched", file.getParent());
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed
+        }
+    }
+
+    /**
+     * Stops watching. The snapshot in use is kept.
+     *
+     * @throws IOException if the watch cannot be closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+}
@@ -1,5 +1,11 @@
 package concordia.soen6611.igo_tvm.Services;
 
+import concordia.soen6611.igo_tvm.models.FareProduct;
+import concordia.soen6611.igo_tvm.models.FareSnapshot;
+import concordia.soen6611.igo_tvm.models.Money;
+import concordia.soen6611.igo_tvm.models.RiderType;
+import concordia.soen6611.igo_tvm.models.TaxRate;
+
 /**
  * Abstraction for retrieving fare pricing and tax information used by the kiosk.
  * <p>
@@ -7,45 +13,72 @@ package concordia.soen6611.igo_tvm.Services;
  * or a remote API. Consumers (controllers/services) use this interface to:
  * <ul>
  *   <li>Obtain the base fare for a rider/pass combination.</li>
- *   <li>Retrieve applicable sales tax fractions (GST, QST) and their combined rate.</li>
+ *   <li>Take the whole fare version in effect ({@link #getSnapshot()}), to quote an
+ *       order and charge it from the same fares.</li>
+ *   <li>Retrieve applicable sales tax rates (GST, QST) and their combined rate.</li>
+ *   <li>Compute the tax on a subtotal with the GST/QST rounding rules ({@link #taxOn(Money)}).</li>
  * </ul>
  * <p>
  * <strong>Units &amp; semantics:</strong>
  * <ul>
- *   <li>All monetary values are in the kiosk's currency (e.g., CAD) unless otherwise noted.</li>
- *   <li>Tax getters return fractional rates (e.g., {@code 0.05} for 5%).</li>
+ *   <li>All monetary values are exact {@link Money} amounts in CAD.</li>
+ *   <li>Tax getters return exact {@link TaxRate}s (e.g., 5% for GST).</li>
  * </ul>
  */
 public interface FareRateService {
 
     /**
-     * Returns the base fare for a given rider and pass type.
+     * Returns the fares and tax rates in effect now, as one immutable version.
+     * <p>An order priced from one snapshot keeps its price if the fares change before
+     * it is paid; keep the snapshot a quote was made from and charge from it.</p>
+     *
+     * @return the current fare snapshot
+     */
+    FareSnapshot getSnapshot();
+
+    /**
+     * Returns the base fare for a given rider and product.
+     *
+     * @param rider   rider category
+     * @param product fare product
+     * @return the pre-tax price of one {@code product} for {@code rider}; every
+     *         combination has a positive fare
+     */
+    Money getRate(RiderType rider, FareProduct product);
+
+    /**
+     * Returns the combined sales tax rate applied to fares, for display.
+     * <p>Typically {@code GST + QST} (e.g., 14.975%). Tax amounts are computed with
+     * {@link #taxOn(Money)}, which rounds each tax separately.</p>
      *
-     * @param riderType rider category (e.g., {@code "Adult"}, {@code "Student"}, {@code "Senior"})
-     * @param passType  pass/trip type (e.g., {@code "Single Trip"}, {@code "Weekly Pass"})
-     * @return the base fare amount; implementations may return {@code 0.0} if unknown
+     * @return total tax rate
      */
-    double getRate(String riderType, String passType);
+    TaxRate getTax();
 
     /**
-     * Returns the combined sales tax fraction applied to fares.
-     * <p>Typically {@code GST + QST} (e.g., {@code 0.14975} for 14.975%).</p>
+     * Returns the Goods and Services Tax (GST) rate.
      *
-     * @return total tax fraction
+     * @return GST (e.g., 5%)
      */
-    double getTax();
+    TaxRate getGST();
 
     /**
-     * Returns the Goods and Services Tax (GST) fraction.
+     * Returns the Quebec Sales Tax (QST) rate.
      *
-     * @return GST as a fraction (e.g., {@code 0.05} for 5%)
+     * @return QST (e.g., 9.975%)
      */
-    double getGST();
+    TaxRate getQST();
 
     /**
-     * Returns the Quebec Sales Tax (QST) fraction.
+     * Computes the sales tax due on a pre-tax amount.
+     * <p>GST and QST are each computed on {@code subtotal} and rounded to the cent on
+     * their own (halves away from zero), then added, as on a Quebec receipt. Rounding the
+     * combined 14.975% once can differ from this by a cent.</p>
      *
-     * @return QST as a fraction (e.g., {@code 0.09975} for 9.975%)
+     * @param subtotal pre-tax amount
+     * @return {@code GST + QST} on {@code subtotal}
      */
-    double getQST();
+    default Money taxOn(Money subtotal) {
+        return getGST().on(subtotal).plus(getQST().on(subtotal));
+    }
 }
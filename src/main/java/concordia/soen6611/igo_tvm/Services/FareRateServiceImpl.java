@@ -1,67 +1,228 @@
 package concordia.soen6611.igo_tvm.Services;
 
+import concordia.soen6611.igo_tvm.models.FareProduct;
+import concordia.soen6611.igo_tvm.models.FareSnapshot;
 import concordia.soen6611.igo_tvm.models.MetroRatePassProxy;
+import concordia.soen6611.igo_tvm.models.Money;
+import concordia.soen6611.igo_tvm.models.RiderType;
+import concordia.soen6611.igo_tvm.models.TaxRate;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Default implementation of {@link FareRateService} that retrieves fares and tax
- * fractions from an in-memory {@link MetroRatePassProxy}.
+ * rates from an in-memory {@link MetroRatePassProxy}.
  * <p>
- * This implementation composes a lookup key in the form
- * {@code "<riderType>_<passType>"} (e.g., {@code "Adult_Single Trip"}) and
- * delegates all values to the proxy. It is suitable for demos or as a simple
+ * This implementation delegates all values to the proxy, whose fare table has a
+ * price for every rider and product. It is suitable for demos or as a simple
  * cache-backed provider; replace the proxy with a DB/API-backed source for
  * production.
  * </p>
+ * <p>
+ * The fare tables are loaded on a background thread from construction, so during
+ * kiosk startup they load while the rest of the Spring context is being built.
+ * The first lookup waits for the load if it has not finished yet.
+ * </p>
+ * <p>
+ * When {@code igo.fares.file} names a {@link concordia.soen6611.igo_tvm.models.FareFile},
+ * it is read as part of that load and then watched by a {@link FareFileWatcher}: a
+ * newer valid file replaces the fares while the kiosk runs, and a bad one is ignored.
+ * Without a file, or until a valid one appears, the proxy's built-in fares are used.
+ * </p>
+ * <p>
+ * A fare file dated in the future is held as the upcoming version, and a
+ * {@link FareCutoverScheduler} makes it current at its effective instant. Callers that
+ * quote a price should keep the {@link #getSnapshot() snapshot} they quoted from, so
+ * the order is charged what was shown even if the fares change in between.
+ * </p>
+ * <p>
+ * {@link #close()} stops the watcher and the scheduler, including when it is called
+ * before the load has finished: the load then leaves nothing running.
+ * </p>
  */
 @Service
-public class FareRateServiceImpl implements FareRateService {
+public class FareRateServiceImpl implements FareRateService, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(FareRateServiceImpl.class);
+
+    /** In-memory proxy/cache used to serve rate and tax data, once loaded. */
+    private final CompletableFuture<MetroRatePassProxy> rates;
+
+    /** Watcher of the fare file, once started; {@code null} without a file. Guarded by {@code this}. */
+    private FareFileWatcher watcher;
+
+    /** Scheduler of fare changes, once loaded. Guarded by {@code this}. */
+    private FareCutoverScheduler cutovers;
+
+    /** Set by {@link #close()}; a load finishing after it starts nothing. Guarded by {@code this}. */
+    private boolean closed;
+
+    /**
+     * Creates the service with the built-in fares and starts loading them in the background.
+     */
+    public FareRateServiceImpl() {
+        this("");
+    }
+
+    /**
+     * Creates the service and starts loading the fare tables in the background.
+     *
+     * @param fareFile path of the fare file to load and watch; empty for the built-in fares
+     */
+    @Autowired
+    public FareRateServiceImpl(@Value("${igo.fares.file:}") String fareFile) {
+        rates = CompletableFuture.supplyAsync(() -> load(fareFile), task -> {
+            Thread t = new Thread(task, "fare-tables");
+            t.setDaemon(true);
+            t.start();
+        });
+    }
+
+    /**
+     * Creates the proxy and, if a fare file is configured, publishes it and starts watching
+     * it; then starts scheduling fare changes, unless the service was closed meanwhile.
+     *
+     * @param fareFile fare file path, or empty
+     * @return the loaded proxy
+     */
+    private MetroRatePassProxy load(String fareFile) {
+        Clock clock = Clock.systemDefaultZone();
+        MetroRatePassProxy proxy = new MetroRatePassProxy(clock);
+        FareFileWatcher w = null;
+        if (fareFile != null && !fareFile.isBlank()) {
+            w = new FareFileWatcher(Path.of(fareFile.trim()), proxy);
+            w.reload();
+            try {
+                w.start();
+            } catch (IOException e) {
+                logger.warn("Cannot watch fare file {} for changes: {}", fareFile, e.toString());
+                w = null;
+            }
+        }
+        synchronized (this) {
+            if (!closed) {
+                FareCutoverScheduler scheduler = new FareCutoverScheduler(proxy, clock);
+                scheduler.start();
+                cutovers = scheduler;
+                watcher = w;
+                return proxy;
+            }
+        }
+        if (w != null) {
+            try {
+                w.close();
+            } catch (IOException e) {
+                logger.warn("Cannot close the watch of fare file {}: {}", fareFile, e.toString());
+            }
+        }
+        return proxy;
+    }
 
-    /** In-memory proxy/cache used to serve rate and tax data. */
-    private final MetroRatePassProxy rateProxy = new MetroRatePassProxy();
+    /**
+     * Stops watching the fare file and scheduling fare changes, or keeps a load still in
+     * progress from starting them.
+     *
+     * @throws IOException if the watch cannot be closed
+     */
+    @PreDestroy
+    @Override
+    public void close() throws IOException {
+        FareCutoverScheduler scheduler;
+        FareFileWatcher w;
+        synchronized (this) {
+            closed = true;
+            scheduler = cutovers;
+            w = watcher;
+            cutovers = null;
+            watcher = null;
+        }
+        if (scheduler != null) {
+            scheduler.close();
+        }
+        if (w != null) {
+            w.close();
+        }
+    }
 
     /**
-     * Returns the base fare for the given rider and pass type by composing a key
-     * {@code "<riderType>_<passType>"} and querying {@link MetroRatePassProxy}.
+     * Returns the fares in effect from {@link MetroRatePassProxy}.
      *
-     * @param riderType rider category (e.g., {@code "Adult"}, {@code "Student"}, {@code "Senior"})
-     * @param passType  pass/trip type (e.g., {@code "Single Trip"}, {@code "Weekly Pass"})
-     * @return base fare amount, or {@code 0.0} if the key is unknown
+     * @return the current snapshot
      */
     @Override
-    public double getRate(String riderType, String passType) {
-        // Compose key, e.g. "Adult_SingleTrip"
-        String key = riderType + "_" + passType;
-        return rateProxy.getRate(key);
+    public FareSnapshot getSnapshot() {
+        return rateProxy().getSnapshot();
     }
 
     /**
-     * Returns the combined sales tax fraction (e.g., {@code GST + QST}).
+     * Returns the base fare for the given rider and product from {@link MetroRatePassProxy}.
      *
-     * @return total tax fraction
+     * @param rider   rider category
+     * @param product fare product
+     * @return base fare amount
      */
     @Override
-    public double getTax(){
-        return rateProxy.getTAX_RATE();
+    public Money getRate(RiderType rider, FareProduct product) {
+        return rateProxy().getRate(rider, product);
     }
 
     /**
-     * Returns the Goods and Services Tax (GST) fraction.
+     * Returns the combined sales tax rate (e.g., {@code GST + QST}).
      *
-     * @return GST as a fraction (e.g., {@code 0.05})
+     * @return total tax rate
      */
     @Override
-    public double getGST() {
-        return rateProxy.getGST();
+    public TaxRate getTax(){
+        return rateProxy().getTAX_RATE();
     }
 
     /**
-     * Returns the Quebec Sales Tax (QST) fraction.
+     * Returns the Goods and Services Tax (GST) rate.
      *
-     * @return QST as a fraction (e.g., {@code 0.09975})
+     * @return GST (e.g., 5%)
      */
     @Override
-    public double getQST() {
-        return rateProxy.getQST();
+    public TaxRate getGST() {
+        return rateProxy().getGST();
+    }
+
+    /**
+     * Returns the Quebec Sales Tax (QST) rate.
+     *
+     * @return QST (e.g., 9.975%)
+     */
+    @Override
+    public TaxRate getQST() {
+        return rateProxy().getQST();
+    }
+
+    /**
+     * Computes the tax from the GST and QST of one snapshot, so a fare change
+     * published in between cannot mix rates.
+     *
+     * @param subtotal pre-tax amount
+     * @return {@code GST + QST} on {@code subtotal}
+     */
+    @Override
+    public Money taxOn(Money subtotal) {
+        return rateProxy().getSnapshot().taxOn(subtotal);
+    }
+
+    /**
+     * Returns the loaded fare tables, waiting for the background load if needed.
+     *
+     * @return the rate proxy
+     */
+    private MetroRatePassProxy rateProxy() {
+        return rates.join();
     }
 }
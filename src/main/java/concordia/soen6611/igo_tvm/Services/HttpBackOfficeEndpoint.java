@@ -0,0 +1,77 @@
+package concordia.soen6611.igo_tvm.Services;
+
+import concordia.soen6611.igo_tvm.exceptions.NetworkException;
+import concordia.soen6611.igo_tvm.models.SettlementBatch;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * {@link BackOfficeEndpoint} that POSTs each batch over HTTP.
+ * <p>
+ * The gzip body of the batch is sent as is to {@code <base>/settlements}, with
+ * <ul>
+ *   <li>{@code Content-Encoding: gzip},</li>
+ *   <li>{@code Idempotency-Key} set to the batch id,</li>
+ *   <li>{@code X-Kiosk-Id}, {@code X-First-Sequence} and {@code X-Last-Sequence}.</li>
+ * </ul>
+ * A 2xx answer means the batch is stored; 409 Conflict means it was stored before, and
+ * counts as a success too. Anything else, or no answer within the timeout, fails the
+ * upload with a {@link NetworkException}.
+ * </p>
+ *
+ * <h3>Threading</h3>
+ * Thread-safe. Requests run on the HTTP client's own threads.
+ */
+public final class HttpBackOfficeEndpoint implements BackOfficeEndpoint {
+
+    private final URI settlements;
+    private final Duration timeout;
+    private final HttpClient client;
+
+    /**
+     * @param base          base URL of the back office, e.g. {@code https://backoffice.example/api}
+     * @param timeoutMillis time allowed for connecting and for each request
+     */
+    public HttpBackOfficeEndpoint(URI base, long timeoutMillis) {
+        String path = base.toString();
+        this.settlements = URI.create(path.endsWith("/") ? path + "settlements" : path + "/settlements");
+        this.timeout = Duration.ofMillis(timeoutMillis);
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .build();
+    }
+
+    @Override
+    public CompletableFuture<Void> upload(SettlementBatch batch) {
+        HttpRequest request = HttpRequest.newBuilder(settlements)
+                .timeout(timeout)
+                .header("Content-Type", "application/octet-stream")
+                .header("Content-Encoding", "gzip")
+                .header("Idempotency-Key", batch.getId())
+                .header("X-Kiosk-Id", batch.getKioskId())
+                .header("X-First-Sequence", Long.toString(batch.getFirstSequence()))
+                .header("X-Last-Sequence", Long.toString(batch.getLastSequence()))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(batch.getBody()))
+                .build();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, error) -> {
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause() : error;
+                        throw new NetworkException("Back office unreachable", cause);
+                    }
+                    int status = response.statusCode();
+                    if ((status < 200 || status > 299) && status != 409) {
+                        throw new NetworkException("Back office refused batch " + batch.getId()
+                                + " with HTTP " + status);
+                    }
+                    return null;
+                });
+    }
+}
@@ -1,82 +1,175 @@
 package concordia.soen6611.igo_tvm.Services;
 
+import javafx.beans.binding.Bindings;
+import javafx.beans.binding.StringBinding;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.ReadOnlyObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
-import org.springframework.context.MessageSource;
-import org.springframework.context.NoSuchMessageException;
+import javafx.beans.value.ObservableValue;
 import org.springframework.stereotype.Service;
 
+import java.text.MessageFormat;
+import java.util.EnumMap;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Internationalization (i18n) service that provides localized message lookup
  * and a bindable/current {@link Locale} for the application UI.
  * <p>
- * This service wraps a Spring {@link MessageSource} and exposes:
+ * Messages come from the {@link MessageKey} table the build generates from
+ * {@code i18n/messages_*.properties}. This service exposes:
  * <ul>
  *   <li>A reactive {@link #localeProperty()} to observe or change the current locale.</li>
- *   <li>{@link #get(String, Object...)} for retrieving localized strings using message codes.</li>
+ *   <li>{@link #get(MessageKey)} and {@link #get(MessageKey, Object...)} for retrieving
+ *       localized strings.</li>
+ *   <li>{@link #text(MessageKey)} and {@link #text(ObservableValue)}: bindings that follow
+ *       the locale, for UI text.</li>
  * </ul>
- * Controllers may listen for locale changes and re-apply translations to their UI.
+ * Screens bind their labels to {@link #text(MessageKey)} while visible (see
+ * {@code ScreenSubscriptions#bind}) instead of listening for locale changes and
+ * re-applying every string. A language switch then invalidates the bindings, and each
+ * visible label re-reads its text in the next pulse. Screens that are cached but hidden
+ * are not bound; they pick up the current language when they are shown again.
+ * <p>
+ * There is one binding per key, created on first use and shared by every label showing
+ * that key, so the listeners on {@link #localeProperty()} are bounded by the number of
+ * keys, however often screens are shown. Labels observe the shared binding through weak
+ * listeners and unbinding removes them.
+ * <p>
+ * A lookup without arguments is an array read: it neither logs nor allocates. A
+ * parameterized message is formatted by a {@link MessageTemplate} compiled the first
+ * time its pattern is used and shared afterwards; with a single text or integer argument
+ * ({@link #get(MessageKey, CharSequence)}, {@link #get(MessageKey, long)}) it allocates
+ * only the resulting string. Keys are
+ * checked when the application is built (a missing key does not compile, and the build
+ * fails if a language lacks a key), so nothing is reported at runtime.
  * <p>
  * Default locale is {@link Locale#ENGLISH}.
+ *
+ * <h3>Threading</h3>
+ * Use from the JavaFX Application Thread, like the properties it exposes. Message
+ * lookups and formatting are also safe from other threads.
  */
 @Service
 public class I18nService {
 
-    /** Backing Spring message source used for resolving message codes. */
-    public final MessageSource messages;
-
     /** Observable/Settable current locale property (defaults to English). */
     private final ObjectProperty<Locale> locale = new SimpleObjectProperty<>(Locale.ENGLISH);
 
+    /** Compiled templates by pattern text, created on first use. */
+    private final ConcurrentMap<String, MessageTemplate> templates = new ConcurrentHashMap<>();
+
+    /** Shared text binding per key, created on first use. */
+    private final Map<MessageKey, StringBinding> bindings = new EnumMap<>(MessageKey.class);
+
+    /**
+     * Resolves a message in the current {@link Locale}.
+     *
+     * @param key message key
+     * @return the localized string
+     */
+    public String get(MessageKey key) {
+        return key.text(getLocale());
+    }
+
     /**
-     * Constructs the service with the required {@link MessageSource}.
-     * Performs a simple sanity check by attempting to load the {@code "welcome"} key
-     * in English and French (logging results for diagnostics).
+     * Resolves a parameterized message in the current {@link Locale}, formatted as
+     * {@link MessageFormat} would. Without arguments the text is returned as is, as for
+     * {@link #get(MessageKey)}.
      *
-     * @param messages configured Spring {@link MessageSource} (e.g., ReloadableResourceBundleMessageSource)
+     * @param key  message key
+     * @param args message arguments
+     * @return the localized, formatted string
      */
-    public I18nService(MessageSource messages) {
-        this.messages = messages;
-        System.out.println("[I18nService] Initialized with MessageSource: " + messages.getClass().getName());
-
-        // Test loading a message
-        try {
-            String testEn = messages.getMessage("welcome", null, Locale.ENGLISH);
-            String testFr = messages.getMessage("welcome", null, Locale.FRENCH);
-            System.out.println("[I18nService] Test EN: " + testEn);
-            System.out.println("[I18nService] Test FR: " + testFr);
-        } catch (Exception e) {
-            System.err.println("[I18nService] ERROR loading test messages!");
-            e.printStackTrace();
+    public String get(MessageKey key, Object... args) {
+        Locale current = getLocale();
+        String text = key.text(current);
+        if (args == null || args.length == 0) {
+            return text;
         }
+        return template(text).format(current, args);
     }
 
     /**
-     * Resolves a localized message for the given code in the current {@link Locale}.
+     * Resolves a message with one text argument in the current {@link Locale}, e.g. an
+     * amount rendered into a reused buffer by
+     * {@link MoneyFormatter#appendTo(StringBuilder, long, Locale)}.
+     *
+     * @param key message key
+     * @param arg argument {@code {0}}
+     * @return the localized, formatted string
+     */
+    public String get(MessageKey key, CharSequence arg) {
+        Locale current = getLocale();
+        return template(key.text(current)).format(current, arg);
+    }
+
+    /**
+     * Resolves a message with one integer argument in the current {@link Locale},
+     * grouped as {@link MessageFormat} groups it.
+     *
+     * @param key message key
+     * @param arg argument {@code {0}}
+     * @return the localized, formatted string
+     */
+    public String get(MessageKey key, long arg) {
+        Locale current = getLocale();
+        return template(key.text(current)).format(current, arg);
+    }
+
+    private MessageTemplate template(String text) {
+        return templates.computeIfAbsent(text, MessageTemplate::compile);
+    }
+
+    /**
+     * Resolves a message whose key is composed at runtime (e.g.
+     * {@code "exceptionType." + type}).
      * <p>
-     * This method delegates to {@link MessageSource#getMessage(String, Object[], Locale)}.
-     * If the code is not found, the method logs the error and returns the code itself
-     * as a fallback, allowing the UI to render a sensible placeholder.
+     * Prefer {@link #get(MessageKey)}; this variant cannot be checked at build time and
+     * returns {@code code} itself if there is no such key, so the UI renders a
+     * placeholder.
      *
      * @param code message key (e.g., {@code "home.title"})
      * @param args optional message arguments for parameterized messages
      * @return the resolved localized string, or {@code code} if not found
      */
     public String get(String code, Object... args) {
-        try {
-            // Correct parameter order: code, args, defaultMessage, locale
-            String result = messages.getMessage(code, args, getLocale());
-            System.out.println("[I18n] Code: " + code + " | Locale: " + getLocale() + " | Result: " + result);
-            return result;
-        } catch (NoSuchMessageException e) {
-            System.err.println("[ERROR] Message not found for code: " + code + " in locale: " + getLocale());
-            System.err.println("[ERROR] MessageSource type: " + messages.getClass().getName());
-            e.printStackTrace();
-            return code; // Return code as fallback
-        }
+        MessageKey key = MessageKey.of(code);
+        return key == null ? code : get(key, args);
+    }
+
+    /**
+     * Returns the text of {@code key} in the current locale as a binding, for UI text.
+     * <p>
+     * The binding is shared: every call with the same key returns the same instance. It
+     * is lazy, so after a locale change the text is only looked up again when something
+     * reads it.
+     *
+     * @param key message key
+     * @return binding to the localized text of {@code key}
+     */
+    public StringBinding text(MessageKey key) {
+        return bindings.computeIfAbsent(key, k -> Bindings.createStringBinding(() -> k.text(getLocale()), locale));
+    }
+
+    /**
+     * Returns the text of a key that changes with the screen's state (e.g. a status line)
+     * as a binding that follows both the key and the locale.
+     * <p>
+     * Unlike {@link #text(MessageKey)} the binding is not shared; it belongs to the
+     * caller, and stops observing the locale once the caller no longer references it.
+     *
+     * @param key current message key; {@code null} renders as an empty string
+     * @return binding to the localized text of the current key
+     */
+    public StringBinding text(ObservableValue<MessageKey> key) {
+        return Bindings.createStringBinding(() -> {
+            MessageKey k = key.getValue();
+            return k == null ? "" : k.text(getLocale());
+        }, key, locale);
     }
 
     /**
@@ -89,8 +182,9 @@ public class I18nService {
     }
 
     /**
-     * Updates the current {@link Locale}. Listeners of {@link #localeProperty()}
-     * will be notified, enabling controllers to re-localize their views.
+     * Updates the current {@link Locale}. Text bindings are invalidated and listeners of
+     * {@link #localeProperty()} notified, so bound labels show the new language in the
+     * next pulse.
      *
      * @param l new locale to apply (non-null recommended)
      */
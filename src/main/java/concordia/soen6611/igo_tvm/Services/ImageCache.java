@@ -0,0 +1,149 @@
+package concordia.soen6611.igo_tvm.Services;
+
+import javafx.scene.image.Image;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.net.URL;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+
+/**
+ * Shared registry of decoded kiosk artwork.
+ * <p>
+ * Each (asset, display size) pair is decoded once, straight to the size the
+ * {@code ImageView} shows it at, and the same {@link Image} instance is handed to
+ * every screen that displays it. Without this every FXML load decoded its images
+ * again at full resolution (about 1 MB of PNG for the iGo card alone) and kept a
+ * separate pixel buffer per screen instance.
+ * </p>
+ * <p>
+ * The compiled views (see {@link ViewLoader}) request their images from here, and
+ * {@link #preloadInBackground(Consumer)} decodes all of them on a background thread
+ * at startup so the first visit to a screen finds them ready. A request for an image
+ * that is still being decoded waits for that decode instead of starting another.
+ * </p>
+ *
+ * <h3>Threading</h3>
+ * Thread-safe. {@link Image} may be created off the JavaFX Application Thread.
+ */
+@Service
+public class ImageCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageCache.class);
+
+    /** Decoded images (or decodes in progress) keyed by asset and requested size. */
+    private final ConcurrentMap<String, CompletableFuture<Image>> images = new ConcurrentHashMap<>();
+
+    /** Display pixels per layout pixel; above 1 on HiDPI panels so scaled art stays sharp. */
+    private final double renderScale;
+
+    /**
+     * Creates the cache.
+     *
+     * @param renderScale device pixels per layout pixel the images are decoded for
+     */
+    public ImageCache(@Value("${igo.images.render-scale:1.0}") double renderScale) {
+        if (!(renderScale > 0)) {
+            throw new IllegalArgumentException("igo.images.render-scale must be positive: " + renderScale);
+        }
+        this.renderScale = renderScale;
+    }
+
+    /**
+     * Returns the classpath image at {@code path} decoded for display at the given size.
+     * <p>
+     * The arguments mirror the {@code ImageView} that shows it: a fit size of {@code 0}
+     * leaves that dimension to the aspect ratio (or the source size), as in
+     * {@link Image#Image(String, double, double, boolean, boolean)}.
+     * </p>
+     *
+     * @param path          classpath location, e.g. {@code /images/maple.png}
+     * @param width         display width, or {@code 0}
+     * @param height        display height, or {@code 0}
+     * @param preserveRatio whether to keep the aspect ratio within the bounding box
+     * @param smooth        whether to use the better-quality filter when scaling
+     * @return shared decoded image
+     * @throws IllegalArgumentException if no resource exists at {@code path}
+     */
+    public Image get(String path, double width, double height, boolean preserveRatio, boolean smooth) {
+        String key = key(path, width, height, preserveRatio, smooth);
+        CompletableFuture<Image> existing = images.get(key);
+        if (existing == null) {
+            CompletableFuture<Image> mine = new CompletableFuture<>();
+            existing = images.putIfAbsent(key, mine);
+            if (existing == null) {
+                return decode(key, mine, path, width, height, preserveRatio, smooth);
+            }
+        }
+        return existing.join();
+    }
+
+    /**
+     * Decodes an image ahead of its first use; same arguments as
+     * {@link #get(String, double, double, boolean, boolean)}. Failures are logged, not thrown.
+     */
+    public void preload(String path, double width, double height, boolean preserveRatio, boolean smooth) {
+        try {
+            get(path, width, height, preserveRatio, smooth);
+        } catch (RuntimeException e) {
+            log.warn("Could not preload image {}", path, e);
+        }
+    }
+
+    /**
+     * Runs {@code preloader} (typically {@code CompiledViews::preloadImages}) on a
+     * daemon thread so startup does not wait for the decodes.
+     *
+     * @param preloader issues {@link #preload} calls against this cache
+     */
+    public void preloadInBackground(Consumer<ImageCache> preloader) {
+        Thread t = new Thread(() -> {
+            long start = System.nanoTime();
+            preloader.accept(this);
+            log.debug("Preloaded {} image(s) in {} ms", images.size(), (System.nanoTime() - start) / 1_000_000);
+        }, "image-preload");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /**
+     * Returns how many distinct (asset, size) pairs have been decoded or are being decoded.
+     *
+     * @return number of cached images
+     */
+    public int size() {
+        return images.size();
+    }
+
+    private Image decode(String key, CompletableFuture<Image> slot, String path, double width, double height,
+                         boolean preserveRatio, boolean smooth) {
+        try {
+            URL url = ImageCache.class.getResource(path);
+            if (url == null) {
+                throw new IllegalArgumentException("Image not found: " + path);
+            }
+            Image image = new Image(url.toExternalForm(), width * renderScale, height * renderScale,
+                    preserveRatio, smooth, false);
+            if (image.isError()) {
+                log.warn("Failed to decode image {}", path, image.getException());
+            }
+            slot.complete(image);
+            return image;
+        } catch (RuntimeException | Error e) {
+            // Let a later request retry instead of caching the failure
+            images.remove(key, slot);
+            slot.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static String key(String path, double width, double height, boolean preserveRatio, boolean smooth) {
+        return String.format(Locale.ROOT, "%s|%sx%s|%s|%s", path, width, height, preserveRatio, smooth);
+    }
+}
@@ -0,0 +1,104 @@
+package concordia.soen6611.igo_tvm.Services;
+
+import concordia.soen6611.igo_tvm.models.PeriodTotals;
+import concordia.soen6611.igo_tvm.models.ReconciliationSummary;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * {@link ReconciliationReport} written as one JSON document:
+ * <pre>
+ *   {"periods":[
+ *     {"start":"2025-03-03T00:00-05:00","end":"2025-03-04T00:00-05:00",
+ *      "sales":[{"riderType":"Adult","product":"Day Pass","method":"Card","count":2,"items":3,"amount":"16.50"}],
+ *      "methods":[{"method":"Card","completed":2,"expected":"16.50","collected":"16.50","discrepancy":"0.00",
+ *                  "declined":1,"cancelled":0,"unmatched":0}]}],
+ *    "summary":{"records":9,"firstSequence":1,"lastSequence":9,"periods":1,"sales":2,"unmatched":0,
+ *               "inDoubt":0,"inDoubtAmount":"0.00","outOfOrder":0,"forgotten":0}}
+ * </pre>
+ * Amounts are strings holding plain decimals, so they keep their cents exactly. Each
+ * period is written as soon as it is handed over; the document is complete once
+ * {@link #finish(ReconciliationSummary)} has run.
+ *
+ * <h3>Threading</h3>
+ * Not thread-safe; used by the reconciliation that writes it. The writer is flushed on
+ * {@link #finish(ReconciliationSummary)} but not closed.
+ */
+public final class JsonReconciliationReport implements ReconciliationReport {
+
+    private final Writer out;
+    private boolean started;
+
+    /**
+     * @param out where to write the JSON
+     */
+    public JsonReconciliationReport(Writer out) {
+        this.out = out;
+    }
+
+    @Override
+    public void period(PeriodTotals totals) throws IOException {
+        out.write(started ? ",\n" : "{\"periods\":[\n");
+        started = true;
+        StringBuilder json = new StringBuilder(256);
+        json.append("{\"start\":\"").append(totals.getStart().toOffsetDateTime())
+                .append("\",\"end\":\"").append(totals.getEnd().toOffsetDateTime())
+                .append("\",\"sales\":[");
+        String sep = "";
+        for (PeriodTotals.Sales sales : totals.getSales()) {
+            json.append(sep).append("{\"riderType\":\"").append(escape(sales.getRiderType()))
+                    .append("\",\"product\":\"").append(escape(sales.getProduct()))
+                    .append("\",\"method\":\"").append(escape(sales.getMethod()))
+                    .append("\",\"count\":").append(sales.getCount())
+                    .append(",\"items\":").append(sales.getItems())
+                    .append(",\"amount\":\"").append(sales.getTotal()).append("\"}");
+            sep = ",";
+        }
+        json.append("],\"methods\":[");
+        sep = "";
+        for (PeriodTotals.Method method : totals.getMethods()) {
+            json.append(sep).append("{\"method\":\"").append(escape(method.getMethod()))
+                    .append("\",\"completed\":").append(method.getCompleted())
+                    .append(",\"expected\":\"").append(method.getExpected())
+                    .append("\",\"collected\":\"").append(method.getCollected())
+                    .append("\",\"discrepancy\":\"").append(method.getDiscrepancy())
+                    .append("\",\"declined\":").append(method.getDeclined())
+                    .append(",\"cancelled\":").append(method.getCancelled())
+                    .append(",\"unmatched\":").append(method.getUnmatched()).append('}');
+            sep = ",";
+        }
+        out.write(json.append("]}").toString());
+    }
+
+    @Override
+    public void finish(ReconciliationSummary summary) throws IOException {
+        out.write(started ? "\n],\n" : "{\"periods\":[],\n");
+        out.write("\"summary\":{\"records\":" + summary.getRecords()
+                + ",\"firstSequence\":" + summary.getFirstSequence()
+                + ",\"lastSequence\":" + summary.getLastSequence()
+                + ",\"periods\":" + summary.getPeriods()
+                + ",\"sales\":" + summary.getSales()
+                + ",\"unmatched\":" + summary.getUnmatched()
+                + ",\"inDoubt\":" + summary.getInDoubt()
+                + ",\"inDoubtAmount\":\"" + summary.getInDoubtAmount() + "\""
+                + ",\"outOfOrder\":" + summary.getOutOfOrder()
+                + ",\"forgotten\":" + summary.getForgotten() + "}}\n");
+        out.flush();
+    }
+
+    private static String escape(String s) {
+        StringBuilder out = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+}
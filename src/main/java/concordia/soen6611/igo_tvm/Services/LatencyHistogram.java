@@ -0,0 +1,104 @@
+package concordia.soen6611.igo_tvm.Services;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts latencies in logarithmic buckets so that percentiles can be read at any time.
+ * <p>
+ * Each power of two is split into 32 buckets, so a percentile is reported within about
+ * 3&nbsp;% of the true value, from microseconds to hours, in a fixed 15&nbsp;KiB.
+ * Recording is one atomic increment and never allocates, so it can sit on the payment
+ * path. {@link #percentileMicros(double)} returns the upper edge of the bucket holding
+ * the requested rank.
+ * </p>
+ *
+ * <h3>Threading</h3>
+ * Thread-safe and lock-free. A percentile read while values are being recorded
+ * reflects some of them.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    /** Values below {@link #SUB_BUCKETS} have a bucket each; then 32 per power of two. */
+    private final AtomicLongArray counts = new AtomicLongArray(SUB_BUCKETS + (63 - SUB_BITS) * SUB_BUCKETS);
+
+    /**
+     * Records one latency.
+     *
+     * @param micros latency in microseconds; a negative value counts as zero
+     */
+    public void record(long micros) {
+        counts.incrementAndGet(bucket(Math.max(0, micros)));
+    }
+
+    /**
+     * @return the number of latencies recorded
+     */
+    public long count() {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Returns a percentile of the recorded latencies.
+     *
+     * @param percent percentile to read, above 0 and at most 100, e.g. {@code 99}
+     * @return the latency, in microseconds, that {@code percent} percent of the
+     *         recorded ones do not exceed; {@code 0} if none were recorded
+     * @throws IllegalArgumentException if {@code percent} is out of range
+     */
+    public long percentileMicros(double percent) {
+        if (!(percent > 0 && percent <= 100)) {
+            throw new IllegalArgumentException("percentile must be in (0, 100]: " + percent);
+        }
+        long[] snapshot = new long[counts.length()];
+        long total = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * percent / 100));
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return upperEdge(i);
+            }
+        }
+        return upperEdge(snapshot.length - 1);
+    }
+
+    /**
+     * @param percent percentile to read, e.g. {@code 50}
+     * @return the percentile in whole milliseconds, rounded up
+     */
+    public long percentileMillis(double percent) {
+        return (percentileMicros(percent) + 999) / 1000;
+    }
+
+    private static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        int sub = (int) (value >>> shift) - SUB_BUCKETS;
+        return SUB_BUCKETS + shift * SUB_BUCKETS + sub;
+    }
+
+    private static long upperEdge(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+        int sub = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + sub + 1) << shift) - 1;
+    }
+}
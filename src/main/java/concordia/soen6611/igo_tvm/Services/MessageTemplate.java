@@ -0,0 +1,276 @@
+package concordia.soen6611.igo_tvm.Services;
+
+import java.text.DateFormat;
+import java.text.DecimalFormat;
+import java.text.MessageFormat;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A message pattern compiled once and formatted many times, with the output of
+ * {@link MessageFormat}.
+ * <p>
+ * {@link I18nService} used to build a {@code MessageFormat} (parsing the pattern and
+ * creating its sub-formats) for every parameterized lookup, several times a second for
+ * labels such as the cash total. A template splits the pattern once into literal text
+ * and argument slots, applying the quoting rules, and then only appends: a text
+ * argument ({@link CharSequence}, e.g. an amount from
+ * {@link MoneyFormatter#appendTo(StringBuilder, long, Locale)}) is copied as is, and an
+ * integer is grouped from the locale's symbols without a {@code NumberFormat}. Other
+ * arguments are rendered as {@code MessageFormat} renders them. Rendering goes through
+ * a per-thread buffer, so a formatted message costs only the returned string.
+ * </p>
+ * <p>
+ * Patterns with typed arguments ({@code {0,number,#.##}}, {@code {0,choice,...}}) are not
+ * split; they fall back to a {@code MessageFormat} per call. The bundles have none.
+ * </p>
+ *
+ * <h3>Threading</h3>
+ * Immutable and thread-safe; one template is shared by every thread and locale.
+ */
+public final class MessageTemplate {
+
+    /** Longest argument index handled here; {@link MessageFormat} rejects indexes from 10000. */
+    private static final int MAX_INDEX_DIGITS = 4;
+
+    /** Integer rendering per locale, read from its {@link NumberFormat}. */
+    private static final ConcurrentMap<Locale, IntegerStyle> INTEGER_STYLES = new ConcurrentHashMap<>();
+
+    /** Rendering buffer of the current thread; {@code null} while in use. */
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(128));
+
+    /** Original pattern. */
+    private final String pattern;
+
+    /** Literal text around the arguments: one more than {@link #arguments}. */
+    private final String[] literals;
+
+    /** Argument index of each slot, in order. */
+    private final int[] arguments;
+
+    /** Whether the pattern has typed arguments and is formatted by {@link MessageFormat}. */
+    private final boolean complex;
+
+    private MessageTemplate(String pattern, String[] literals, int[] arguments, boolean complex) {
+        this.pattern = pattern;
+        this.literals = literals;
+        this.arguments = arguments;
+        this.complex = complex;
+    }
+
+    /**
+     * Compiles a {@link MessageFormat} pattern.
+     *
+     * @param pattern message pattern
+     * @return the compiled template
+     * @throws IllegalArgumentException if the pattern is not valid
+     */
+    public static MessageTemplate compile(String pattern) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> arguments = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '\'') {
+                if (i + 1 < pattern.length() && pattern.charAt(i + 1) == '\'') {
+                    literal.append('\'');
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+            } else if (quoted || c != '{') {
+                literal.append(c);
+            } else {
+                int close = pattern.indexOf('}', i);
+                int index = close < 0 ? -1 : argumentIndex(pattern, i + 1, close);
+                if (index < 0) {
+                    // Typed argument, or invalid: let MessageFormat parse (and reject) it
+                    new MessageFormat(pattern, Locale.ROOT);
+                    return new MessageTemplate(pattern, null, null, true);
+                }
+                literals.add(literal.toString());
+                literal.setLength(0);
+                arguments.add(index);
+                i = close;
+            }
+        }
+        literals.add(literal.toString());
+        return new MessageTemplate(pattern, literals.toArray(new String[0]),
+                arguments.stream().mapToInt(Integer::intValue).toArray(), false);
+    }
+
+    /** Returns the argument index between {@code from} and {@code to}, or {@code -1} if not plain digits. */
+    private static int argumentIndex(String pattern, int from, int to) {
+        if (from == to || to - from > MAX_INDEX_DIGITS) {
+            return -1;
+        }
+        int index = 0;
+        for (int i = from; i < to; i++) {
+            char c = pattern.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            index = index * 10 + (c - '0');
+        }
+        return index;
+    }
+
+    /**
+     * Formats the message.
+     *
+     * @param locale locale for number and date arguments
+     * @param args   message arguments
+     * @return the formatted message, as {@code new MessageFormat(pattern, locale).format(args)}
+     */
+    public String format(Locale locale, Object... args) {
+        if (complex) {
+            return new MessageFormat(pattern, locale).format(args);
+        }
+        StringBuilder out = take();
+        try {
+            for (int i = 0; i < arguments.length; i++) {
+                out.append(literals[i]);
+                int index = arguments[i];
+                if (args == null || index >= args.length) {
+                    out.append('{').append(index).append('}');
+                } else {
+                    appendArgument(out, args[index], locale);
+                }
+            }
+            return out.append(literals[arguments.length]).toString();
+        } finally {
+            release(out);
+        }
+    }
+
+    /**
+     * Formats a message with a single text argument, e.g. an amount already rendered by
+     * {@link MoneyFormatter}.
+     *
+     * @param locale locale, for patterns with typed arguments
+     * @param arg    argument {@code {0}}, appended without copying it to a string first
+     * @return the formatted message
+     */
+    public String format(Locale locale, CharSequence arg) {
+        return complex || arg == null ? format(locale, new Object[] {arg}) : formatSingle(arg, 0, locale);
+    }
+
+    /**
+     * Formats a message with a single integer argument.
+     *
+     * @param locale locale whose digit grouping is used
+     * @param arg    argument {@code {0}}
+     * @return the formatted message
+     */
+    public String format(Locale locale, long arg) {
+        return complex ? format(locale, new Object[] {arg}) : formatSingle(null, arg, locale);
+    }
+
+    private String formatSingle(CharSequence text, long number, Locale locale) {
+        StringBuilder out = take();
+        try {
+            for (int i = 0; i < arguments.length; i++) {
+                out.append(literals[i]);
+                if (arguments[i] != 0) {
+                    out.append('{').append(arguments[i]).append('}');
+                } else if (text != null) {
+                    out.append(text);
+                } else {
+                    appendInteger(out, number, locale);
+                }
+            }
+            return out.append(literals[arguments.length]).toString();
+        } finally {
+            release(out);
+        }
+    }
+
+    /**
+     * @return the pattern this template was compiled from
+     */
+    public String pattern() {
+        return pattern;
+    }
+
+    /** Appends one argument the way {@link MessageFormat} renders an untyped argument. */
+    private static void appendArgument(StringBuilder out, Object arg, Locale locale) {
+        if (arg instanceof CharSequence) {
+            out.append((CharSequence) arg);
+        } else if (arg instanceof Long || arg instanceof Integer || arg instanceof Short || arg instanceof Byte) {
+            appendInteger(out, ((Number) arg).longValue(), locale);
+        } else if (arg instanceof Number) {
+            out.append(NumberFormat.getInstance(locale).format(arg));
+        } else if (arg instanceof Date) {
+            out.append(DateFormat.getDateTimeInstance(DateFormat.SHORT, DateFormat.SHORT, locale).format(arg));
+        } else {
+            out.append(arg);
+        }
+    }
+
+    private static void appendInteger(StringBuilder out, long value, Locale locale) {
+        IntegerStyle style = INTEGER_STYLES.computeIfAbsent(locale, IntegerStyle::new);
+        if (value == Long.MIN_VALUE) {
+            out.append(NumberFormat.getInstance(locale).format(value));
+        } else if (value < 0) {
+            out.append(style.negativePrefix);
+            MoneyFormatter.appendDigits(out, -value, style.grouping, style.groupSize);
+            out.append(style.negativeSuffix);
+        } else {
+            out.append(style.positivePrefix);
+            MoneyFormatter.appendDigits(out, value, style.grouping, style.groupSize);
+            out.append(style.positiveSuffix);
+        }
+    }
+
+    /** Takes this thread's buffer, or a new one if a format is already in progress on it. */
+    private static StringBuilder take() {
+        StringBuilder out = BUFFER.get();
+        if (out == null) {
+            return new StringBuilder(128);
+        }
+        BUFFER.set(null);
+        return out;
+    }
+
+    private static void release(StringBuilder out) {
+        out.setLength(0);
+        BUFFER.set(out);
+    }
+
+    /** Integer pattern of one locale. */
+    private static final class IntegerStyle {
+
+        private final String positivePrefix;
+        private final String positiveSuffix;
+        private final String negativePrefix;
+        private final String negativeSuffix;
+        private final char grouping;
+        private final int groupSize;
+
+        IntegerStyle(Locale locale) {
+            NumberFormat format = NumberFormat.getInstance(locale);
+            if (format instanceof DecimalFormat) {
+                DecimalFormat decimal = (DecimalFormat) format;
+                positivePrefix = decimal.getPositivePrefix();
+                positiveSuffix = decimal.getPositiveSuffix();
+                negativePrefix = decimal.getNegativePrefix();
+                negativeSuffix = decimal.getNegativeSuffix();
+                grouping = decimal.getDecimalFormatSymbols().getGroupingSeparator();
+                groupSize = decimal.isGroupingUsed() ? decimal.getGroupingSize() : 0;
+            } else {
+                positivePrefix = "";
+                positiveSuffix = "";
+                negativePrefix = "-";
+                negativeSuffix = "";
+                grouping = ',';
+                groupSize = 0;
+            }
+        }
+    }
+}
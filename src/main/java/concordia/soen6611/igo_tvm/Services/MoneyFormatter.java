@@ -0,0 +1,160 @@
+package concordia.soen6611.igo_tvm.Services;
+
+import concordia.soen6611.igo_tvm.models.Money;
+import org.springframework.stereotype.Service;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.util.Locale;
+
+/**
+ * Formats amounts of Canadian dollars, given in cents, for display.
+ * <p>
+ * Screens used to build a {@code NumberFormat.getCurrencyInstance} every time they
+ * showed an amount (on every cash tick, three per payment screen), or printed
+ * {@code "$%.2f"} whatever the language. This service reads the currency pattern of
+ * each supported locale, {@link Locale#CANADA en-CA} and {@link Locale#CANADA_FRENCH
+ * fr-CA}, once when it is created and renders amounts itself from those symbols. The
+ * output is the same as {@code NumberFormat}'s for the locale (prefix, suffix,
+ * grouping every three digits, two decimals, and the JDK's non-breaking spaces in
+ * French).
+ * </p>
+ * <p>
+ * A language other than French is rendered as en-CA, as the rest of the UI falls back
+ * to English. {@link #appendTo(StringBuilder, long, Locale)} writes into a caller's
+ * buffer and allocates nothing; {@link #format(long, Locale)} allocates one right-sized
+ * buffer and the returned string.
+ * </p>
+ *
+ * <h3>Threading</h3>
+ * Thread-safe: the cached patterns are immutable, and formatting keeps its state on
+ * the stack.
+ */
+@Service
+public class MoneyFormatter {
+
+    /** Buffer size that holds any amount a kiosk shows without growing. */
+    private static final int CAPACITY = 32;
+
+    /** Pattern for en-CA. */
+    private final Style english = new Style(Locale.CANADA);
+
+    /** Pattern for fr-CA. */
+    private final Style french = new Style(Locale.CANADA_FRENCH);
+
+    /**
+     * Formats {@code cents} as currency for {@code locale}'s language.
+     *
+     * @param cents  amount in cents
+     * @param locale display locale; French renders as fr-CA, anything else as en-CA
+     * @return the formatted amount, e.g. {@code $1,234.50} in en-CA
+     */
+    public String format(long cents, Locale locale) {
+        StringBuilder out = new StringBuilder(CAPACITY);
+        style(locale).append(out, cents);
+        return out.toString();
+    }
+
+    /**
+     * Formats {@code amount} as currency for {@code locale}'s language.
+     *
+     * @param amount amount to format
+     * @param locale display locale; French renders as fr-CA, anything else as en-CA
+     * @return the formatted amount
+     */
+    public String format(Money amount, Locale locale) {
+        return format(amount.cents(), locale);
+    }
+
+    /**
+     * Appends {@code cents} formatted as currency for {@code locale}'s language to
+     * {@code out}, without allocating beyond the buffer's own growth.
+     *
+     * @param out    buffer to append to
+     * @param cents  amount in cents
+     * @param locale display locale; French renders as fr-CA, anything else as en-CA
+     * @return {@code out}
+     */
+    public StringBuilder appendTo(StringBuilder out, long cents, Locale locale) {
+        style(locale).append(out, cents);
+        return out;
+    }
+
+    /**
+     * Appends {@code amount} formatted as currency for {@code locale}'s language to
+     * {@code out}, without allocating beyond the buffer's own growth.
+     *
+     * @param out    buffer to append to
+     * @param amount amount to format
+     * @param locale display locale; French renders as fr-CA, anything else as en-CA
+     * @return {@code out}
+     */
+    public StringBuilder appendTo(StringBuilder out, Money amount, Locale locale) {
+        return appendTo(out, amount.cents(), locale);
+    }
+
+    /**
+     * Appends the decimal digits of {@code value}, with {@code grouping} between each
+     * group of {@code groupSize} digits counted from the right.
+     *
+     * @param out       buffer to append to
+     * @param value     non-negative number
+     * @param grouping  group separator
+     * @param groupSize digits per group, or {@code 0} for no grouping
+     */
+    static void appendDigits(StringBuilder out, long value, char grouping, int groupSize) {
+        long divisor = 1;
+        int digits = 1;
+        while (divisor <= value / 10) {
+            divisor *= 10;
+            digits++;
+        }
+        for (; divisor > 0; divisor /= 10, digits--) {
+            out.append((char) ('0' + (value / divisor) % 10));
+            if (groupSize > 0 && digits > 1 && (digits - 1) % groupSize == 0) {
+                out.append(grouping);
+            }
+        }
+    }
+
+    private Style style(Locale locale) {
+        return locale != null && "fr".equals(locale.getLanguage()) ? french : english;
+    }
+
+    /** Currency pattern of one locale, read from its {@link DecimalFormat}. */
+    private static final class Style {
+
+        private final String positivePrefix;
+        private final String positiveSuffix;
+        private final String negativePrefix;
+        private final String negativeSuffix;
+        private final char grouping;
+        private final char decimal;
+        private final int groupSize;
+
+        Style(Locale locale) {
+            DecimalFormat format = (DecimalFormat) NumberFormat.getCurrencyInstance(locale);
+            DecimalFormatSymbols symbols = format.getDecimalFormatSymbols();
+            positivePrefix = format.getPositivePrefix();
+            positiveSuffix = format.getPositiveSuffix();
+            negativePrefix = format.getNegativePrefix();
+            negativeSuffix = format.getNegativeSuffix();
+            grouping = symbols.getMonetaryGroupingSeparator();
+            decimal = symbols.getMonetaryDecimalSeparator();
+            groupSize = format.isGroupingUsed() ? format.getGroupingSize() : 0;
+        }
+
+        void append(StringBuilder out, long cents) {
+            boolean negative = cents < 0;
+            out.append(negative ? negativePrefix : positivePrefix);
+            // Split the negative value so Long.MIN_VALUE needs no special case
+            long n = negative ? cents : -cents;
+            long dollars = -(n / 100);
+            int fraction = (int) -(n % 100);
+            appendDigits(out, dollars, grouping, groupSize);
+            out.append(decimal).append((char) ('0' + fraction / 10)).append((char) ('0' + fraction % 10));
+            out.append(negative ? negativeSuffix : positiveSuffix);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package concordia.soen6611.igo_tvm.Services;
+
+import concordia.soen6611.igo_tvm.models.Authorization;
+import concordia.soen6611.igo_tvm.models.Money;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Service provider interface to the network that authorizes card and mobile wallet
+ * payments.
+ * <p>
+ * Authorization takes from a fraction of a second to several seconds, so the call
+ * never blocks: it returns a future that completes when the network answers. Timeouts
+ * and retries are the caller's business ({@link PaymentService}); an implementation
+ * only reports what happened to one request.
+ * </p>
+ * <ul>
+ *   <li>An answer, approved or declined, completes the future normally with an
+ *       {@link Authorization}.</li>
+ *   <li>A request that could not be made or answered completes it exceptionally with an
+ *       {@link java.io.IOException}; it may be retried.</li>
+ *   <li>Cancelling the future abandons the request.</li>
+ * </ul>
+ * <p>
+ * A retry reuses the idempotency key of the charge it repeats, and an implementation
+ * must answer it as it answered the first request that got through, so a rider is
+ * never charged twice for one payment.
+ * </p>
+ *
+ * <h3>Threading</h3>
+ * Implementations are thread-safe, and complete the futures on their own threads.
+ */
+public interface PaymentGateway {
+
+    /**
+     * Requests authorization of a charge.
+     *
+     * @param idempotencyKey identifies the charge; the same for every attempt at it
+     * @param method         payment method label, {@code "Card"} or {@code "MobileWallet"}
+     * @param amount         amount to charge
+     * @return a future completed with the network's answer
+     */
+    CompletableFuture<Authorization> authorize(String idempotencyKey, String method, Money amount);
+}
@@ -1,39 +1,161 @@
 package concordia.soen6611.igo_tvm.Services;
 
+import concordia.soen6611.igo_tvm.models.Authorization;
+import concordia.soen6611.igo_tvm.models.Money;
 import concordia.soen6611.igo_tvm.models.Payment;
+import concordia.soen6611.igo_tvm.models.PaymentListener;
+import concordia.soen6611.igo_tvm.models.PaymentStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
 /**
  * Service layer component responsible for orchestrating the lifecycle of a {@link Payment}.
  * <p>
- * This simple implementation holds a single in-memory {@link Payment} instance and
- * provides methods to start, process, and cancel the payment. It is primarily used
+ * This implementation holds a single in-memory {@link Payment} instance and provides
+ * methods to start, authorize or process, and cancel the payment. It is primarily used
  * by controllers to drive UI state in the kiosk flow.
  * </p>
  *
  * <h3>Lifecycle</h3>
  * <pre>
- * startPayment(...) -> processPayment() -> getCurrentPayment()
- *                          \-------------------------------> cancelPayment()
+ * startPayment(...) -> authorizePayment() (card, mobile wallet) -> getCurrentPayment()
+ *                   \-> processPayment(tendered, change)   (cash)
+ *                   \----------------------------------------------> cancelPayment()
  * </pre>
  *
- * <p><strong>Note:</strong> No external I/O or gateway integration is performed here;
- * status transitions are simulated and intended for demo/testing flows.</p>
+ * <h3>Authorization</h3>
+ * <p>
+ * Card and mobile wallet payments are authorized through the {@link PaymentGateway}
+ * without blocking: {@link #authorizePayment()} returns a future that completes when
+ * the network has answered, and the screens react to it instead of waiting a fixed
+ * time. Each attempt has a time limit per method ({@code igo.payment.timeout.*}); an
+ * attempt that fails or times out is retried after a doubling back-off, up to
+ * {@code igo.payment.max-attempts} in all, with the payment's idempotency key so that
+ * a retry cannot charge twice. A decline is an answer and is not retried. Cancelling
+ * the future, or {@link #cancelPayment()}, abandons the attempt in flight.
+ * </p>
+ * <p>
+ * The payment's {@link PaymentStatus} is the single record of the outcome: the
+ * gateway's answer and a cancel both try to move it out of
+ * {@link PaymentStatus#PROCESSING}, the first to do so wins, and the future is
+ * completed from the transition that won. A cancel that loses to an approval
+ * therefore leaves the payment completed and the future with it, never one of each.
+ * </p>
+ * <p>
+ * The time from the start of an authorization to its answer, retries included, is
+ * recorded in {@link #getAuthorizationLatency()} and logged with its running p50 and p99.
+ * </p>
+ *
+ * <h3>Threading</h3>
+ * The start, process and cancel methods are called on the FX thread; an authorization
+ * completes on the gateway's or the retry timer's thread, so callers switch back with
+ * {@code Platform.runLater} before touching the UI.
  */
 @Service
 public class PaymentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentService.class);
+
+    /** Network that authorizes card and mobile wallet payments. */
+    private final PaymentGateway gateway;
+
+    /** Time allowed for one card authorization attempt. */
+    private final long cardTimeoutMillis;
+
+    /** Time allowed for one mobile wallet authorization attempt. */
+    private final long walletTimeoutMillis;
+
+    /** Attempts per authorization, the first included. */
+    private final int maxAttempts;
+
+    /** Delay before the first retry; doubled for each one after. */
+    private final long retryBackoffMillis;
+
+    /** Start-to-answer time of every authorization. */
+    private final LatencyHistogram authorizationLatency = new LatencyHistogram();
+
+    /** Told of every payment started. */
+    private final List<Consumer<Payment>> startListeners = new CopyOnWriteArrayList<>();
+
     /** Currently active payment instance for the user/session. */
-    private Payment currentPayment;
+    private volatile Payment currentPayment;
+
+    /**
+     * Creates the service with a gateway that approves every payment at once.
+     */
+    public PaymentService() {
+        this(new SimulatedPaymentGateway(0, 0, 0, 0, 0), 8_000, 15_000, 3, 250);
+    }
+
+    /**
+     * Creates the service.
+     *
+     * @param gateway             network that authorizes card and mobile wallet payments
+     * @param cardTimeoutMillis   time allowed for one card authorization attempt
+     * @param walletTimeoutMillis time allowed for one mobile wallet authorization attempt
+     * @param maxAttempts         attempts per authorization, at least 1
+     * @param retryBackoffMillis  delay before the first retry, doubled for each one after
+     */
+    @Autowired
+    public PaymentService(PaymentGateway gateway,
+                          @Value("${igo.payment.timeout.card-ms:8000}") long cardTimeoutMillis,
+                          @Value("${igo.payment.timeout.mobile-wallet-ms:15000}") long walletTimeoutMillis,
+                          @Value("${igo.payment.max-attempts:3}") int maxAttempts,
+                          @Value("${igo.payment.retry-backoff-ms:250}") long retryBackoffMillis) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("igo.payment.max-attempts must be at least 1: " + maxAttempts);
+        }
+        this.gateway = gateway;
+        this.cardTimeoutMillis = cardTimeoutMillis;
+        this.walletTimeoutMillis = walletTimeoutMillis;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMillis = retryBackoffMillis;
+    }
 
     /**
-     * Creates a new {@link Payment} with the given method and amount and sets its
-     * initial status to {@code "Pending"}.
+     * Creates a new {@link Payment} with the given method and amount, in
+     * {@link PaymentStatus#PENDING} status.
      *
      * @param method human-readable payment method (e.g., {@code "Card"}, {@code "Cash"})
      * @param amount amount to charge/collect
      */
-    public void startPayment(String method, double amount) {
-        currentPayment = new Payment(method, amount);
+    public void startPayment(String method, Money amount) {
+        currentPayment = newPayment(method, amount);
+    }
+
+    /**
+     * Registers a callback told of every payment started from now on, before anything
+     * happens to it, so that it can follow the payment's transitions.
+     *
+     * @param listener callback; it runs on the thread that starts the payment
+     */
+    public void addStartListener(Consumer<Payment> listener) {
+        startListeners.add(listener);
+    }
+
+    private Payment newPayment(String method, Money amount) {
+        Payment payment = new Payment(method, amount);
+        for (Consumer<Payment> listener : startListeners) {
+            try {
+                listener.accept(payment);
+            } catch (RuntimeException e) {
+                logger.warn("Payment start listener failed", e);
+            }
+        }
+        return payment;
     }
 
     /**
@@ -46,29 +168,215 @@ public class PaymentService {
     }
 
     /**
-     * Simulates payment processing by setting the status to {@code "Processing"}
-     * and then immediately to {@code "Completed"}.
+     * Completes a payment collected at the kiosk itself (cash) by moving it to
+     * {@link PaymentStatus#PROCESSING} and then immediately to
+     * {@link PaymentStatus#COMPLETED}, with the cash tendered as its
+     * {@linkplain Payment#getCaptured() captured amount} and the change given back.
      * <p>
-     * If no payment is active, this method is a no-op.
+     * If no payment is active, or it was cancelled, this method is a no-op.
      * </p>
+     *
+     * @param tendered cash the rider inserted
+     * @param change   cash given back to the rider
      */
-    public void processPayment() {
-        if (currentPayment != null) {
-            currentPayment.setStatus("Processing");
-            // Simulate processing
-            currentPayment.setStatus("Completed");
+    public void processPayment(Money tendered, Money change) {
+        Payment payment = currentPayment;
+        if (payment != null && payment.compareAndSet(PaymentStatus.PENDING, PaymentStatus.PROCESSING)) {
+            payment.setCaptured(tendered, change);
+            payment.moveTo(PaymentStatus.COMPLETED);
         }
     }
 
     /**
-     * Cancels the current payment by setting its status to {@code "Cancelled"}.
+     * Authorizes the current card or mobile wallet payment through the gateway.
+     * <p>
+     * The payment is {@link PaymentStatus#PROCESSING} until the future completes:
+     * normally with the payment {@link PaymentStatus#COMPLETED} or
+     * {@link PaymentStatus#DECLINED}, or exceptionally with the last {@link IOException}
+     * or {@link TimeoutException} once every attempt has failed, the payment then being
+     * {@link PaymentStatus#FAILED}. Cancelling the future cancels the payment, unless it
+     * already has its answer.
+     * </p>
      * <p>
-     * If no payment is active, this method is a no-op.
+     * A failed payment may be authorized again under the same idempotency key. A
+     * declined one is replaced by a new payment with the same method and amount, so that
+     * the next card is not given the previous card's answer.
      * </p>
+     *
+     * @return a future completed with the payment once it has an answer
      */
-    public void cancelPayment() {
-        if (currentPayment != null) {
-            currentPayment.setStatus("Cancelled");
+    public synchronized CompletableFuture<Payment> authorizePayment() {
+        Payment payment = currentPayment;
+        if (payment == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("No payment to authorize"));
+        }
+        long timeout;
+        switch (payment.getMethod()) {
+            case "Card":
+                timeout = cardTimeoutMillis;
+                break;
+            case "MobileWallet":
+                timeout = walletTimeoutMillis;
+                break;
+            default:
+                return CompletableFuture.failedFuture(
+                        new IllegalStateException(payment.getMethod() + " payments are not authorized online"));
+        }
+        if (payment.getStatus() == PaymentStatus.DECLINED) {
+            payment = newPayment(payment.getMethod(), payment.getAmount());
+            currentPayment = payment;
+        }
+        PaymentStatus from = payment.getStatus();
+        if (from != PaymentStatus.PENDING && from != PaymentStatus.FAILED) {
+            return CompletableFuture.failedFuture(
+                    new IllegalStateException("Payment cannot be authorized while " + from.label()));
+        }
+        Authorizing result = new Authorizing(payment);
+        payment.addListener(result);
+        if (!payment.compareAndSet(from, PaymentStatus.PROCESSING)) {
+            // Cancelled, or authorized from elsewhere, in the meantime
+            payment.removeListener(result);
+            return CompletableFuture.failedFuture(
+                    new IllegalStateException("Payment cannot be authorized while " + payment.getStatus().label()));
+        }
+        attempt(result, timeout, 1, System.nanoTime());
+        return result;
+    }
+
+    /**
+     * Makes one authorization attempt and, when it ends, settles the payment or
+     * schedules the next attempt.
+     */
+    private void attempt(Authorizing result, long timeoutMillis, int number, long started) {
+        Payment payment = result.payment;
+        if (payment.getStatus() != PaymentStatus.PROCESSING) {
+            return;
+        }
+        CompletableFuture<Authorization> call = gateway.authorize(payment.getId(), payment.getMethod(), payment.getAmount());
+        result.inFlight = call;
+        if (payment.getStatus() != PaymentStatus.PROCESSING) {
+            // Cancelled while the request was being made
+            call.cancel(true);
+            return;
+        }
+        call.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS).whenComplete((answer, error) -> {
+            if (payment.getStatus() != PaymentStatus.PROCESSING) {
+                return;
+            }
+            if (error == null) {
+                answered(payment, answer, started);
+                return;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause instanceof CancellationException) {
+                return;
+            }
+            boolean retryable = cause instanceof IOException || cause instanceof TimeoutException;
+            if (retryable && number < maxAttempts) {
+                long backoff = retryBackoffMillis << (number - 1);
+                logger.warn("{} authorization attempt {} of {} failed ({}); retrying in {} ms",
+                        payment.getMethod(), number, maxAttempts, describe(cause, timeoutMillis), backoff);
+                CompletableFuture.delayedExecutor(backoff, TimeUnit.MILLISECONDS)
+                        .execute(() -> attempt(result, timeoutMillis, number + 1, started));
+            } else {
+                result.lastError = cause;
+                if (payment.moveTo(PaymentStatus.FAILED)) {
+                    logger.warn("{} authorization failed after {} attempt(s): {}",
+                            payment.getMethod(), number, describe(cause, timeoutMillis));
+                }
+            }
+        });
+    }
+
+    private void answered(Payment payment, Authorization answer, long started) {
+        authorizationLatency.record((System.nanoTime() - started) / 1_000);
+        PaymentStatus outcome = answer.isApproved() ? PaymentStatus.COMPLETED : PaymentStatus.DECLINED;
+        if (answer.isApproved()) {
+            payment.setCaptured(answer.getCaptured(), Money.ZERO);
+        }
+        if (!payment.moveTo(outcome)) {
+            logger.info("{} answer {} arrived after the payment was {}", payment.getMethod(), answer,
+                    payment.getStatus().label());
+            return;
+        }
+        logger.info("{} payment {} in {} ms ({}); authorization p50 {} ms, p99 {} ms over {}",
+                payment.getMethod(), outcome.label(), (System.nanoTime() - started) / 1_000_000, answer,
+                authorizationLatency.percentileMillis(50), authorizationLatency.percentileMillis(99),
+                authorizationLatency.count());
+    }
+
+    private static String describe(Throwable cause, long timeoutMillis) {
+        return cause instanceof TimeoutException ? "no answer in " + timeoutMillis + " ms" : cause.toString();
+    }
+
+    /**
+     * @return start-to-answer times of the authorizations made so far, retries included
+     */
+    public LatencyHistogram getAuthorizationLatency() {
+        return authorizationLatency;
+    }
+
+    /**
+     * Cancels the current payment, and abandons its authorization if one is in progress.
+     * <p>
+     * A payment that already has its answer, or no payment at all, is left as it is.
+     * </p>
+     *
+     * @return {@code true} if the payment is now cancelled because of this call
+     */
+    public boolean cancelPayment() {
+        Payment payment = currentPayment;
+        return payment != null && payment.moveTo(PaymentStatus.CANCELLED);
+    }
+
+    /**
+     * Future of one authorization, completed from the payment's final transition.
+     * Cancelling it cancels the payment, and succeeds only if the payment is cancelled.
+     */
+    private static final class Authorizing extends CompletableFuture<Payment> implements PaymentListener {
+
+        final Payment payment;
+
+        /** Gateway call of the current attempt. */
+        volatile CompletableFuture<Authorization> inFlight;
+
+        /** Error of the last attempt, reported when the payment fails. */
+        volatile Throwable lastError;
+
+        Authorizing(Payment payment) {
+            this.payment = payment;
+        }
+
+        @Override
+        public void onTransition(Payment p, PaymentStatus from, PaymentStatus to) {
+            switch (to) {
+                case COMPLETED:
+                case DECLINED:
+                    complete(p);
+                    break;
+                case FAILED:
+                    completeExceptionally(lastError != null ? lastError
+                            : new IOException(p.getMethod() + " authorization failed"));
+                    break;
+                case CANCELLED:
+                    CompletableFuture<Authorization> call = inFlight;
+                    if (call != null) {
+                        call.cancel(true);
+                    }
+                    super.cancel(false);
+                    logger.info("{} authorization cancelled", p.getMethod());
+                    break;
+                default:
+                    return;
+            }
+            p.removeListener(this);
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            payment.moveTo(PaymentStatus.CANCELLED);
+            // The listener may be running on another thread; settle the future here too
+            return payment.getStatus() == PaymentStatus.CANCELLED && super.cancel(false) || isCancelled();
         }
     }
 }
@@ -0,0 +1,124 @@
+package concordia.soen6611.igo_tvm.Services;
+
+import concordia.soen6611.igo_tvm.models.FareProduct;
+import concordia.soen6611.igo_tvm.models.FareSnapshot;
+import concordia.soen6611.igo_tvm.models.Quote;
+import concordia.soen6611.igo_tvm.models.RiderType;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Prices orders for the ticket and card reload screens.
+ * <p>
+ * Both screens used to compute unit price, subtotal, tax and total themselves on every
+ * selection change, and again when the rider went on to pay. The engine returns one
+ * immutable {@link Quote} for a rider, product and quantity under the fares in effect,
+ * and remembers it: asking again for the same order under the same fare version
+ * returns the same instance without computing or allocating. The memo belongs to one
+ * {@link FareSnapshot} and is dropped as a whole when a new fare version takes effect,
+ * so a quote is never served from stale fares.
+ * </p>
+ * <p>
+ * Quantities up to {@value #MEMOIZED_QUANTITY} are remembered; larger ones, which a
+ * kiosk rarely sees, are computed each time.
+ * </p>
+ *
+ * <h3>Threading</h3>
+ * Thread-safe and lock-free. Two threads asking for the same new quote at once may
+ * both compute it; either result is correct, and one of them is kept.
+ */
+@Service
+public class QuoteEngine {
+
+    /** Largest quantity whose quotes are remembered. */
+    static final int MEMOIZED_QUANTITY = 20;
+
+    private static final int PRODUCTS = FareProduct.values().length;
+
+    private final FareRateService fareRateService;
+
+    /** Quotes for the fare version seen last. */
+    private final AtomicReference<Memo> memo = new AtomicReference<>();
+
+    /**
+     * @param fareRateService source of the fares in effect
+     */
+    public QuoteEngine(FareRateService fareRateService) {
+        this.fareRateService = fareRateService;
+    }
+
+    /**
+     * Prices an order under the fares in effect.
+     *
+     * @param rider    rider category
+     * @param product  fare product
+     * @param quantity number of items, at least 1
+     * @return the quote
+     * @throws IllegalArgumentException if {@code quantity} is less than 1
+     */
+    public Quote quote(RiderType rider, FareProduct product, int quantity) {
+        return quote(fareRateService.getSnapshot(), rider, product, quantity);
+    }
+
+    /**
+     * Prices an order under the given fares.
+     *
+     * @param fares    fares to price from
+     * @param rider    rider category
+     * @param product  fare product
+     * @param quantity number of items, at least 1
+     * @return the quote
+     * @throws IllegalArgumentException if {@code quantity} is less than 1
+     */
+    public Quote quote(FareSnapshot fares, RiderType rider, FareProduct product, int quantity) {
+        if (quantity < 1 || quantity > MEMOIZED_QUANTITY) {
+            return Quote.of(fares, rider, product, quantity);
+        }
+        Memo m = memoFor(fares);
+        if (m == null) {
+            return Quote.of(fares, rider, product, quantity);
+        }
+        int slot = (rider.ordinal() * PRODUCTS + product.ordinal()) * MEMOIZED_QUANTITY + quantity - 1;
+        Quote quote = m.quotes.get(slot);
+        if (quote == null) {
+            quote = Quote.of(fares, rider, product, quantity);
+            if (!m.quotes.compareAndSet(slot, null, quote)) {
+                quote = m.quotes.get(slot);
+            }
+        }
+        return quote;
+    }
+
+    /**
+     * Returns the memo for {@code fares}, replacing the memo of an older version;
+     * {@code null} for fares older than the memo's, which are quoted without one.
+     */
+    private Memo memoFor(FareSnapshot fares) {
+        Memo m = memo.get();
+        if (m != null && m.fares == fares) {
+            return m;
+        }
+        if (m != null && fares.getVersion() <= m.fares.getVersion()) {
+            return null;
+        }
+        Memo fresh = new Memo(fares);
+        if (memo.compareAndSet(m, fresh)) {
+            return fresh;
+        }
+        m = memo.get();
+        return m != null && m.fares == fares ? m : null;
+    }
+
+    /** Quotes priced from one snapshot, indexed by rider, product and quantity. */
+    private static final class Memo {
+        final FareSnapshot fares;
+        final AtomicReferenceArray<Quote> quotes =
+                new AtomicReferenceArray<>(RiderType.values().length * PRODUCTS * MEMOIZED_QUANTITY);
+
+        Memo(FareSnapshot fares) {
+            this.fares = fares;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package concordia.soen6611.igo_tvm.Services;
+
+import concordia.soen6611.igo_tvm.models.PeriodTotals;
+import concordia.soen6611.igo_tvm.models.ReconciliationSummary;
+
+import java.io.IOException;
+
+/**
+ * Receives the results of a {@link SalesReconciler} as it goes.
+ * <p>
+ * Each period is handed over as soon as it is closed, in period order, then
+ * {@link #finish(ReconciliationSummary)} is called once. A report should write
+ * periods out rather than keep them, so that a reconciliation over months of journal
+ * holds one period at a time.
+ * </p>
+ */
+public interface ReconciliationReport {
+
+    /**
+     * @param totals sales of a closed period; periods without any payment are skipped
+     * @throws IOException if the report cannot be written
+     */
+    void period(PeriodTotals totals) throws IOException;
+
+    /**
+     * @param summary what the reconciliation read and could not settle
+     * @throws IOException if the report cannot be written
+     */
+    void finish(ReconciliationSummary summary) throws IOException;
+}
@@ -0,0 +1,163 @@
+package concordia.soen6611.igo_tvm.Services;
+
+import concordia.soen6611.igo_tvm.models.JournalRecord;
+import concordia.soen6611.igo_tvm.models.Money;
+import concordia.soen6611.igo_tvm.models.OrderSummary;
+import concordia.soen6611.igo_tvm.models.Payment;
+import concordia.soen6611.igo_tvm.models.PaymentStatus;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keeps a durable record of what the kiosk sells in a {@link TransactionJournal}.
+ * <p>
+ * The order and payment of a sale used to live only in {@link PaymentSession} and
+ * {@link PaymentService}, and were gone once the session was cleared or the kiosk
+ * stopped. This service journals every payment as it is started, with the order it
+ * pays for, and then each of its {@link PaymentStatus} transitions.
+ * </p>
+ * <p>
+ * On startup the journal is recovered and its latest records are replayed to find
+ * the payments the previous run left open. A pending payment never reached the payment
+ * network, cannot have been charged and is journaled as cancelled. A payment that was
+ * being authorized, or whose authorization failed without an answer, is in doubt: it is
+ * logged with its id, which is the idempotency key to look it up with the network, and
+ * left open.
+ * </p>
+ * <p>
+ * The journal is kept in {@code igo.journal.dir}; when it is empty, nothing is journaled.
+ * </p>
+ *
+ * <h3>Threading</h3>
+ * Records are queued from the thread that starts or moves the payment and written by
+ * the journal's writer thread, so the purchase flow never waits for the disk.
+ */
+@Service
+public class SalesJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesJournal.class);
+
+    private final PaymentSession session;
+
+    /** The journal, or {@code null} when journaling is off or the journal could not be opened. */
+    private final TransactionJournal journal;
+
+    /**
+     * Opens the journal, settles the payments the previous run left open, and starts
+     * journaling every payment.
+     *
+     * @param payments     service whose payments are journaled
+     * @param session      session holding the order each payment is for
+     * @param dir          journal directory; empty to journal nothing
+     * @param segmentBytes size of each journal segment file
+     */
+    public SalesJournal(PaymentService payments, PaymentSession session,
+                        @Value("${igo.journal.dir:}") String dir,
+                        @Value("${igo.journal.segment-bytes:16777216}") int segmentBytes) {
+        this.session = session;
+        this.journal = dir == null || dir.isBlank() ? null : open(Path.of(dir.trim()), segmentBytes);
+        if (journal != null) {
+            payments.addStartListener(this::started);
+        } else {
+            logger.info("Sales are not journaled (igo.journal.dir is not set or cannot be used)");
+        }
+    }
+
+    private TransactionJournal open(Path dir, int segmentBytes) {
+        Map<UUID, JournalRecord> open = new LinkedHashMap<>();
+        TransactionJournal opened;
+        try {
+            opened = TransactionJournal.open(dir, segmentBytes, record -> track(open, record));
+        } catch (IOException | IllegalArgumentException e) {
+            logger.error("Cannot open the sales journal in {}", dir, e);
+            return null;
+        }
+        for (JournalRecord last : open.values()) {
+            settle(opened, last);
+        }
+        return opened;
+    }
+
+    /** Keeps the last record of each payment not final yet. */
+    private static void track(Map<UUID, JournalRecord> open, JournalRecord record) {
+        if (record instanceof JournalRecord.Transition && ((JournalRecord.Transition) record).getTo().isFinal()) {
+            open.remove(record.getPaymentId());
+        } else {
+            open.put(record.getPaymentId(), record);
+        }
+    }
+
+    /** Settles a payment the previous run left open, given its last record. */
+    private static void settle(TransactionJournal journal, JournalRecord last) {
+        PaymentStatus status;
+        String method;
+        long cents;
+        if (last instanceof JournalRecord.Order) {
+            JournalRecord.Order order = (JournalRecord.Order) last;
+            status = PaymentStatus.PENDING;
+            method = order.getMethod();
+            cents = order.getTotal().cents();
+        } else {
+            JournalRecord.Transition transition = (JournalRecord.Transition) last;
+            status = transition.getTo();
+            method = transition.getMethod();
+            cents = transition.getAmount().cents();
+        }
+        if (status == PaymentStatus.PROCESSING || status == PaymentStatus.FAILED) {
+            logger.warn("{} payment {} of {} cents was {} when the kiosk stopped; its outcome is unknown",
+                    method, last.getPaymentId(), cents,
+                    status == PaymentStatus.FAILED ? "left without an answer" : "being authorized");
+            return;
+        }
+        logger.info("{} payment {} was left {}; journaling it as cancelled", method, last.getPaymentId(), status);
+        journal.append(JournalRecord.transition(last.getPaymentId(), method, Money.ofCents(cents),
+                status, PaymentStatus.CANCELLED, Instant.now()));
+    }
+
+    /** Journals a payment just started, with its order, and follows it. */
+    private void started(Payment payment) {
+        OrderSummary order = session.getCurrentOrder();
+        if (order != null) {
+            append(JournalRecord.order(payment, order, payment.enteredAt(PaymentStatus.PENDING)));
+        }
+        payment.addListener((p, from, to) -> {
+            Instant at = p.enteredAt(to);
+            append(JournalRecord.transition(p, from, to, at != null ? at : Instant.now()));
+        });
+    }
+
+    private void append(JournalRecord record) {
+        journal.append(record).whenComplete((sequence, error) -> {
+            if (error != null) {
+                logger.error("Could not journal {}", record, error);
+            }
+        });
+    }
+
+    /**
+     * @return the journal, or {@code null} when sales are not journaled
+     */
+    public TransactionJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Writes the records already queued and closes the journal.
+     */
+    @PreDestroy
+    public void close() {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+}
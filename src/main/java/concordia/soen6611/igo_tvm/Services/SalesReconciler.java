@@ -0,0 +1,314 @@
+package concordia.soen6611.igo_tvm.Services;
+
+import concordia.soen6611.igo_tvm.models.JournalRecord;
+import concordia.soen6611.igo_tvm.models.Money;
+import concordia.soen6611.igo_tvm.models.PaymentStatus;
+import concordia.soen6611.igo_tvm.models.PeriodTotals;
+import concordia.soen6611.igo_tvm.models.ReconciliationPeriod;
+import concordia.soen6611.igo_tvm.models.ReconciliationSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * End-of-day reconciliation: totals the sales in the {@link TransactionJournal} per
+ * period, rider type, product and payment method, and checks what each payment method
+ * collected against what its orders were priced at.
+ * <p>
+ * The journal is read once, in sequence order, straight from its memory-mapped
+ * segments. Records are not kept: each order waits in a table of open payments until
+ * its payment ends, and each ending is added to the totals of the current period. When
+ * a payment ends in a later period, the current one is handed to the
+ * {@link ReconciliationReport} and its totals are dropped. Memory therefore depends on
+ * the number of payments open at once and of rider type, product and method
+ * combinations, not on the length of the journal; the table of open payments is capped
+ * at {@value #MAX_OPEN} entries, the oldest dropped beyond that.
+ * </p>
+ * <p>
+ * A payment counts in the period in which it completed, was declined or was cancelled.
+ * What a completion collected is the amount it captured, the cash tendered or the amount
+ * the payment network captured, less the change given back; a completion journaled
+ * without one, by an older kiosk, counts its payment's amount. A completion whose order is not in the journal, e.g. because its segment was
+ * removed, is counted as collected but unmatched. A payment still being authorized when the
+ * journal ends is in doubt, and reported in the {@link ReconciliationSummary}. Only
+ * payments ending within {@code [from, to)} are counted, but the whole journal is read
+ * so that orders placed before {@code from} are known.
+ * </p>
+ * <p>
+ * Use it once: {@link #reconcile(TransactionJournal)} for the kiosk's open journal,
+ * {@link #reconcile(Path)} for a journal directory on its own (a copy, or the
+ * directory of a stopped kiosk), or feed records to {@link #accept(JournalRecord)} and
+ * call {@link #finish()}.
+ * </p>
+ *
+ * <h3>Threading</h3>
+ * Not thread-safe; a reconciliation runs on the thread that calls it.
+ */
+public final class SalesReconciler implements Consumer<JournalRecord> {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesReconciler.class);
+
+    /** Most payments kept open at once. */
+    static final int MAX_OPEN = 65_536;
+
+    private static final int COMPLETED = 0;
+    private static final int EXPECTED = 1;
+    private static final int COLLECTED = 2;
+    private static final int DECLINED = 3;
+    private static final int CANCELLED = 4;
+    private static final int UNMATCHED = 5;
+
+    private final ReconciliationPeriod period;
+    private final ZoneId zone;
+    private final long fromMillis;
+    private final long toMillis;
+    private final ReconciliationReport report;
+
+    /** Payments not yet ended, by id; in the order they were started. */
+    private final Map<UUID, Open> open = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, Open> eldest) {
+            if (size() > MAX_OPEN) {
+                forgotten++;
+                return true;
+            }
+            return false;
+        }
+    };
+
+    /** Current period: rider type to product to method to {count, items, cents}. */
+    private final Map<String, Map<String, Map<String, long[]>>> sales = new TreeMap<>();
+    /** Current period: method to the counters indexed by {@link #COMPLETED} and others. */
+    private final Map<String, long[]> methods = new TreeMap<>();
+
+    private ZonedDateTime start;
+    private ZonedDateTime end;
+    private long startMillis;
+    private long endMillis;
+
+    private long records;
+    private long firstSequence;
+    private long lastSequence;
+    private long periods;
+    private long sold;
+    private long unmatched;
+    private long outOfOrder;
+    private long forgotten;
+    private ReconciliationSummary summary;
+
+    /**
+     * @param period length of the periods to total over
+     * @param zone   time zone whose calendar the periods follow
+     * @param from   first instant counted; {@code null} for the start of the journal
+     * @param to     instant at which counting stops; {@code null} for the end of the journal
+     * @param report receives each period and the summary
+     * @throws IllegalArgumentException if {@code to} is before {@code from}
+     */
+    public SalesReconciler(ReconciliationPeriod period, ZoneId zone, Instant from, Instant to,
+                           ReconciliationReport report) {
+        this.period = period;
+        this.zone = zone;
+        this.fromMillis = from == null ? Long.MIN_VALUE : from.toEpochMilli();
+        this.toMillis = to == null ? Long.MAX_VALUE : to.toEpochMilli();
+        if (toMillis < fromMillis) {
+            throw new IllegalArgumentException("reconciliation ends at " + to + ", before it starts at " + from);
+        }
+        this.report = report;
+    }
+
+    /**
+     * Reconciles every record of an open journal.
+     *
+     * @param journal the journal
+     * @return what was read and could not be settled
+     * @throws IOException if the journal cannot be read or the report written
+     */
+    public ReconciliationSummary reconcile(TransactionJournal journal) throws IOException {
+        long began = System.nanoTime();
+        try {
+            journal.replay(this);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return finished(began);
+    }
+
+    /**
+     * Reconciles every record of a journal directory, reading it without opening the
+     * journal, see {@link TransactionJournal#readDirectory(Path, Consumer)}.
+     *
+     * @param journalDir the journal directory
+     * @return what was read and could not be settled
+     * @throws IOException if the journal cannot be read or the report written
+     */
+    public ReconciliationSummary reconcile(Path journalDir) throws IOException {
+        long began = System.nanoTime();
+        try {
+            TransactionJournal.readDirectory(journalDir, this);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return finished(began);
+    }
+
+    private ReconciliationSummary finished(long began) throws IOException {
+        ReconciliationSummary result = finish();
+        logger.info("Reconciled {} in {} ms", result, (System.nanoTime() - began) / 1_000_000);
+        return result;
+    }
+
+    /**
+     * Takes the next journal record.
+     *
+     * @param record a record, in sequence order
+     * @throws UncheckedIOException if a closed period cannot be written to the report
+     * @throws IllegalStateException if the reconciliation is finished
+     */
+    @Override
+    public void accept(JournalRecord record) {
+        if (summary != null) {
+            throw new IllegalStateException("reconciliation is finished");
+        }
+        if (records++ == 0) {
+            firstSequence = record.getSequence();
+        }
+        lastSequence = record.getSequence();
+        if (record instanceof JournalRecord.Order) {
+            open.put(record.getPaymentId(), new Open((JournalRecord.Order) record));
+            return;
+        }
+        JournalRecord.Transition transition = (JournalRecord.Transition) record;
+        PaymentStatus to = transition.getTo();
+        if (!to.isFinal()) {
+            Open payment = open.get(record.getPaymentId());
+            if (payment == null) {
+                payment = new Open(null);
+                open.put(record.getPaymentId(), payment);
+            }
+            payment.status = to;
+            payment.amountCents = transition.getAmount().cents();
+            return;
+        }
+        Open payment = open.remove(record.getPaymentId());
+        long time = record.getTimeMillis();
+        if (time < fromMillis || time >= toMillis) {
+            return;
+        }
+        try {
+            enterPeriod(time);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        long[] method = methods.computeIfAbsent(transition.getMethod(), m -> new long[UNMATCHED + 1]);
+        if (to == PaymentStatus.DECLINED) {
+            method[DECLINED]++;
+        } else if (to == PaymentStatus.CANCELLED) {
+            method[CANCELLED]++;
+        } else {
+            sold++;
+            method[COMPLETED]++;
+            Money captured = transition.getCaptured();
+            method[COLLECTED] += captured != null ? captured.cents() - transition.getChange().cents()
+                    : transition.getAmount().cents();
+            JournalRecord.Order order = payment == null ? null : payment.order;
+            if (order == null) {
+                unmatched++;
+                method[UNMATCHED]++;
+            } else {
+                long total = order.getTotal().cents();
+                method[EXPECTED] += total;
+                long[] line = sales.computeIfAbsent(order.getRiderType(), r -> new TreeMap<>())
+                        .computeIfAbsent(order.getTripType(), p -> new TreeMap<>())
+                        .computeIfAbsent(transition.getMethod(), m -> new long[3]);
+                line[0]++;
+                line[1] += order.getQuantity();
+                line[2] += total;
+            }
+        }
+    }
+
+    /**
+     * Reports the last period and the summary. Further calls return the same summary.
+     *
+     * @return what was read and could not be settled
+     * @throws IOException if the report cannot be written
+     */
+    public ReconciliationSummary finish() throws IOException {
+        if (summary != null) {
+            return summary;
+        }
+        closePeriod();
+        long inDoubt = 0;
+        long inDoubtCents = 0;
+        for (Open payment : open.values()) {
+            if (payment.status == PaymentStatus.PROCESSING) {
+                inDoubt++;
+                inDoubtCents += payment.amountCents;
+            }
+        }
+        summary = new ReconciliationSummary(records, firstSequence, lastSequence, periods, sold, unmatched,
+                inDoubt, inDoubtCents, outOfOrder, forgotten);
+        report.finish(summary);
+        return summary;
+    }
+
+    /** Makes the period holding {@code time} current, reporting the one it follows. */
+    private void enterPeriod(long time) throws IOException {
+        if (start != null && time >= startMillis && time < endMillis) {
+            return;
+        }
+        if (start != null && time < startMillis) {
+            outOfOrder++; // clock set back: counted in the current period rather than reopening one
+            return;
+        }
+        closePeriod();
+        start = period.start(Instant.ofEpochMilli(time), zone);
+        end = period.next(start);
+        startMillis = start.toInstant().toEpochMilli();
+        endMillis = end.toInstant().toEpochMilli();
+    }
+
+    private void closePeriod() throws IOException {
+        if (start == null) {
+            return;
+        }
+        List<PeriodTotals.Sales> salesLines = new ArrayList<>();
+        sales.forEach((rider, products) -> products.forEach((product, byMethod) -> byMethod.forEach(
+                (method, line) -> salesLines.add(new PeriodTotals.Sales(rider, product, method,
+                        line[0], line[1], line[2])))));
+        List<PeriodTotals.Method> methodLines = new ArrayList<>(methods.size());
+        methods.forEach((method, c) -> methodLines.add(new PeriodTotals.Method(method, c[COMPLETED],
+                c[EXPECTED], c[COLLECTED], c[DECLINED], c[CANCELLED], c[UNMATCHED])));
+        sales.clear();
+        methods.clear();
+        ZonedDateTime closed = start;
+        start = null;
+        periods++;
+        report.period(new PeriodTotals(closed, end, salesLines, methodLines));
+    }
+
+    /** A payment started but not yet ended. */
+    private static final class Open {
+        final JournalRecord.Order order;
+        PaymentStatus status = PaymentStatus.PENDING;
+        long amountCents;
+
+        Open(JournalRecord.Order order) {
+            this.order = order;
+            this.amountCents = order == null ? 0 : order.getTotal().cents();
+        }
+    }
+}
@@ -0,0 +1,513 @@
+package concordia.soen6611.igo_tvm.Services;
+
+import concordia.soen6611.igo_tvm.controllers.ScreenLifecycle;
+import concordia.soen6611.igo_tvm.models.NavigationGraph;
+import concordia.soen6611.igo_tvm.models.Screen;
+import jakarta.annotation.PreDestroy;
+import javafx.application.Platform;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Central navigation service that owns every kiosk {@link Screen}.
+ * <p>
+ * Controllers used to build a new {@code FXMLLoader} on every tap, re-parsing the
+ * FXML and rebuilding the whole scene graph. This service builds each screen through
+ * the {@link ViewLoader} (compiled view builders, Spring-managed controllers), keeps
+ * {@linkplain Screen#isCacheable() cacheable} views (root + controller) in memory, and
+ * navigates by swapping {@link Scene#setRoot(Parent)} on the single application scene.
+ * </p>
+ *
+ * <h3>Preloading</h3>
+ * <p>
+ * After every navigation the screens the {@link NavigationGraph} lists as likely next
+ * are built on a background thread, so the tap that eventually shows them does not
+ * pay for building the scene graph or decoding images. Their stylesheets are then
+ * parsed once on the FX thread while it is idle and kept referenced, so showing the
+ * screen reuses the parsed CSS. A preloaded non-cacheable view is shown at most once. With
+ * {@code igo.navigation.warm-all-on-boot=true}, every screen is built in parallel as
+ * soon as the scene exists.
+ * </p>
+ *
+ * <h3>Lifecycle</h3>
+ * <p>
+ * Controllers implementing {@link ScreenLifecycle} get {@link ScreenLifecycle#onExit()}
+ * before their screen is replaced and {@link ScreenLifecycle#onEnter()} once their root
+ * is in the scene with CSS applied. Screens read per-visit state and acquire
+ * application-wide subscriptions in {@code onEnter}, which is what makes building
+ * them ahead of time safe.
+ * </p>
+ *
+ * <h3>Latency</h3>
+ * <p>
+ * Every navigation is timed from the request to the root swap and recorded per
+ * target screen; see {@link #getLatencyStats()}. Each navigation is also logged at
+ * {@code DEBUG} level.
+ * </p>
+ *
+ * <h3>Threading</h3>
+ * All public methods must be called on the JavaFX Application Thread. Background
+ * threads only build views for screens not yet shown.
+ */
+@Service
+public class ScreenNavigator {
+
+    /** Logger for navigation events and latency. */
+    private static final Logger logger = LoggerFactory.getLogger(ScreenNavigator.class);
+
+    /** Builds screen views with Spring-managed controllers. */
+    private final ViewLoader viewLoader;
+
+    /** Likely next screens used to decide what to preload. */
+    private final NavigationGraph graph;
+
+    /** Whether every screen is built in parallel when the scene is created. */
+    private final boolean warmAllOnBoot;
+
+    /** Daemon threads that build views ahead of navigation. */
+    private final ExecutorService preloader;
+
+    /** Loaded views for cacheable screens. */
+    private final Map<Screen, View> cache = new EnumMap<>(Screen.class);
+
+    /** Background loads not yet claimed by a navigation. */
+    private final Map<Screen, CompletableFuture<View>> pending = new EnumMap<>(Screen.class);
+
+    /** Stylesheet URLs already parsed and held by {@link #stylesheetHolder}. */
+    private final Set<String> parsedStylesheets = new HashSet<>();
+
+    /**
+     * Off-screen scene whose children reference every parsed stylesheet, keeping the
+     * parsed CSS alive in the JavaFX style cache while screens come and go.
+     */
+    private Scene stylesheetHolder;
+
+    /** Accumulated navigation latency per target screen. */
+    private final Map<Screen, LatencyStats> stats = new EnumMap<>(Screen.class);
+
+    /** The application scene whose root is swapped on navigation. */
+    private Scene scene;
+
+    /** Screen currently shown, or {@code null} before the first navigation. */
+    private Screen current;
+
+    /** View currently shown, or {@code null} before the first navigation. */
+    private View currentView;
+
+    /**
+     * Creates the navigator.
+     *
+     * @param viewLoader    builds screen views with Spring-managed controllers
+     * @param graph         likely next screens used for preloading
+     * @param warmAllOnBoot whether to build every screen when the scene is created
+     */
+    public ScreenNavigator(ViewLoader viewLoader,
+                           NavigationGraph graph,
+                           @Value("${igo.navigation.warm-all-on-boot:false}") boolean warmAllOnBoot) {
+        this.viewLoader = viewLoader;
+        this.graph = graph;
+        this.warmAllOnBoot = warmAllOnBoot;
+        int threads = Math.min(Screen.values().length, Math.max(2, Runtime.getRuntime().availableProcessors()));
+        AtomicInteger seq = new AtomicInteger();
+        this.preloader = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "screen-preload-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Creates the application scene showing {@code initial} and takes ownership of it.
+     * Subsequent {@link #goTo(Screen)} calls swap the root of this scene.
+     *
+     * @param initial first screen to show
+     * @param width   scene width
+     * @param height  scene height
+     * @return the new scene
+     * @throws IOException if the initial screen cannot be loaded
+     */
+    public Scene createScene(Screen initial, double width, double height) throws IOException {
+        long start = System.nanoTime();
+        View view = obtain(initial);
+        show(new Scene(view.root, width, height), initial, view, start);
+        return scene;
+    }
+
+    /**
+     * Shows {@code initial} in an existing scene, such as the one that displayed the
+     * startup attract screen, and takes ownership of it. Subsequent
+     * {@link #goTo(Screen)} calls swap the root of this scene.
+     *
+     * @param existing scene already on the stage
+     * @param initial  first screen to show
+     * @throws IOException if the initial screen cannot be loaded
+     */
+    public void adoptScene(Scene existing, Screen initial) throws IOException {
+        long start = System.nanoTime();
+        View view = obtain(initial);
+        existing.setRoot(view.root);
+        show(existing, initial, view, start);
+    }
+
+    /**
+     * Takes ownership of {@code owned}, which now shows {@code view}, and starts preloading.
+     *
+     * @param owned   application scene
+     * @param initial screen shown
+     * @param view    its view
+     * @param start   {@link System#nanoTime()} when the navigation was requested
+     */
+    private void show(Scene owned, Screen initial, View view, long start) {
+        scene = owned;
+        current = initial;
+        currentView = view;
+        enter(initial, view);
+        record(initial, view, System.nanoTime() - start);
+        if (warmAllOnBoot) {
+            warmAll();
+        } else {
+            preloadNext(initial);
+        }
+    }
+
+    /**
+     * Shows {@code target} by swapping the scene root. Cacheable screens are loaded on
+     * first use and reused afterwards; other screens are loaded fresh unless a preloaded
+     * view is ready. The outgoing screen's {@code onExit} runs before the swap and the
+     * incoming screen's {@code onEnter} after it. The likely next screens are then
+     * preloaded.
+     *
+     * @param target screen to show
+     * @return {@code true} if the screen is now shown; {@code false} if loading failed
+     *         (the current screen stays visible)
+     */
+    public boolean goTo(Screen target) {
+        Objects.requireNonNull(scene, "createScene must be called before goTo");
+        long start = System.nanoTime();
+        View view;
+        try {
+            view = obtain(target);
+        } catch (IOException ex) {
+            logger.error("Navigation failed to {}: {}", target, ex.getMessage(), ex);
+            return false;
+        }
+        if (currentView != null) {
+            exit(current, currentView);
+        }
+        scene.setRoot(view.root);
+        current = target;
+        currentView = view;
+        enter(target, view);
+        record(target, view, System.nanoTime() - start);
+        preloadNext(target);
+        return true;
+    }
+
+    /**
+     * Starts building, in parallel, every screen that is not already cached or being
+     * built.
+     */
+    public void warmAll() {
+        for (Screen screen : Screen.values()) {
+            preload(screen);
+        }
+    }
+
+    /**
+     * Starts building the screens likely to follow {@code from}.
+     *
+     * @param from screen just shown
+     */
+    private void preloadNext(Screen from) {
+        for (Screen next : graph.likelyNext(from)) {
+            preload(next);
+        }
+    }
+
+    /**
+     * Starts building {@code screen} on a background thread unless it is already
+     * cached or being built. Once built, its stylesheets are parsed on the FX thread.
+     *
+     * @param screen screen to build ahead of navigation
+     */
+    private void preload(Screen screen) {
+        if (cache.containsKey(screen) || pending.containsKey(screen)) {
+            return;
+        }
+        CompletableFuture<View> future = CompletableFuture.supplyAsync(() -> {
+            try {
+                return load(screen);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }, preloader);
+        pending.put(screen, future);
+        future.whenCompleteAsync((view, ex) -> {
+            if (ex != null) {
+                logger.warn("Preload of {} failed: {}", screen, ex.getMessage());
+            } else {
+                parseStylesheets(view.root);
+            }
+        }, Platform::runLater);
+    }
+
+    /**
+     * Returns the screen currently shown.
+     *
+     * @return current screen, or {@code null} before the scene is created
+     */
+    public Screen getCurrentScreen() { return current; }
+
+    /**
+     * Returns a snapshot of navigation latency per target screen.
+     *
+     * @return unmodifiable map of screen to its latency statistics
+     */
+    public Map<Screen, LatencyStats> getLatencyStats() {
+        Map<Screen, LatencyStats> copy = new EnumMap<>(Screen.class);
+        stats.forEach((s, l) -> copy.put(s, l.copy()));
+        return Collections.unmodifiableMap(copy);
+    }
+
+    /**
+     * Applies CSS to the newly shown root and calls {@link ScreenLifecycle#onEnter()}.
+     * A failing callback is logged and does not abort the navigation.
+     *
+     * @param screen screen just shown
+     * @param view   its view
+     */
+    private void enter(Screen screen, View view) {
+        view.root.applyCss();
+        if (view.controller instanceof ScreenLifecycle lifecycle) {
+            try {
+                lifecycle.onEnter();
+            } catch (RuntimeException ex) {
+                logger.error("onEnter failed for {}: {}", screen, ex.getMessage(), ex);
+            }
+        }
+    }
+
+    /**
+     * Calls {@link ScreenLifecycle#onExit()} on the screen being replaced.
+     * A failing callback is logged and does not abort the navigation.
+     *
+     * @param screen screen being replaced
+     * @param view   its view
+     */
+    private void exit(Screen screen, View view) {
+        if (view.controller instanceof ScreenLifecycle lifecycle) {
+            try {
+                lifecycle.onExit();
+            } catch (RuntimeException ex) {
+                logger.error("onExit failed for {}: {}", screen, ex.getMessage(), ex);
+            }
+        }
+    }
+
+    /**
+     * Returns the cached view for {@code screen}, loading it if necessary.
+     *
+     * @param screen screen to obtain
+     * @return loaded view (fresh if the screen is not cacheable)
+     * @throws IOException if the view cannot be built
+     */
+    private View obtain(Screen screen) throws IOException {
+        View view = cache.get(screen);
+        if (view != null) {
+            view.cached = true;
+            return view;
+        }
+        view = claimPreloaded(screen);
+        if (view == null) {
+            view = load(screen);
+        }
+        if (screen.isCacheable()) cache.put(screen, view);
+        return view;
+    }
+
+    /**
+     * Takes the background-built view for {@code screen}, waiting for it if it is
+     * still being built.
+     *
+     * @param screen screen to claim
+     * @return the preloaded view, or {@code null} if none was started or it failed
+     */
+    private View claimPreloaded(Screen screen) {
+        CompletableFuture<View> future = pending.remove(screen);
+        if (future == null) {
+            return null;
+        }
+        try {
+            View view = future.join();
+            view.cached = true;
+            return view;
+        } catch (CompletionException | CancellationException ex) {
+            logger.warn("Discarding failed preload of {}: {}", screen, ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Parses every stylesheet referenced under {@code root} that has not been parsed
+     * yet, and keeps it referenced from {@link #stylesheetHolder} so JavaFX does not
+     * discard the parsed form when the screen leaves the scene.
+     *
+     * @param root root of a preloaded screen
+     */
+    private void parseStylesheets(Parent root) {
+        Set<String> urls = new LinkedHashSet<>();
+        collectStylesheets(root, urls);
+        urls.removeAll(parsedStylesheets);
+        if (urls.isEmpty()) {
+            return;
+        }
+        if (stylesheetHolder == null) {
+            stylesheetHolder = new Scene(new Group());
+        }
+        Group holder = new Group();
+        holder.getStylesheets().setAll(urls);
+        ((Group) stylesheetHolder.getRoot()).getChildren().add(holder);
+        holder.applyCss();
+        parsedStylesheets.addAll(urls);
+    }
+
+    /**
+     * Adds the stylesheets of {@code node} and its descendants to {@code out}.
+     *
+     * @param node subtree root
+     * @param out  collected stylesheet URLs
+     */
+    private static void collectStylesheets(Node node, Set<String> out) {
+        if (node instanceof Parent parent) {
+            out.addAll(parent.getStylesheets());
+            for (Node child : parent.getChildrenUnmodifiable()) {
+                collectStylesheets(child, out);
+            }
+        }
+    }
+
+    /**
+     * Builds a new view for {@code screen}.
+     *
+     * @param screen screen to load
+     * @return freshly loaded view
+     * @throws IOException if the view cannot be built
+     */
+    private View load(Screen screen) throws IOException {
+        ViewLoader.LoadedView loaded = viewLoader.load(screen.fxml());
+        return new View(loaded.getRoot(), loaded.getController());
+    }
+
+    /**
+     * Records and logs one navigation.
+     *
+     * @param target screen navigated to
+     * @param view   view that was shown
+     * @param nanos  elapsed time in nanoseconds
+     */
+    private void record(Screen target, View view, long nanos) {
+        stats.computeIfAbsent(target, s -> new LatencyStats()).add(nanos, view.cached);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Navigated to {} in {} ms ({})", target,
+                    String.format("%.2f", nanos / 1_000_000.0), view.cached ? "ready" : "loaded");
+        }
+    }
+
+    /**
+     * Stops the preload threads when the Spring context closes.
+     */
+    @PreDestroy
+    public void shutdown() {
+        preloader.shutdownNow();
+    }
+
+    /** A loaded screen: its root node and controller. */
+    private static final class View {
+        /** Root node of the screen. */
+        final Parent root;
+        /** Controller instance created by the Spring controller factory. */
+        final Object controller;
+        /** Whether the last navigation to this view did not build it (cached or preloaded). */
+        boolean cached;
+
+        View(Parent root, Object controller) {
+            this.root = root;
+            this.controller = controller;
+        }
+    }
+
+    /**
+     * Navigation latency statistics for a single target screen.
+     * <p>
+     * Instances returned by {@link #getLatencyStats()} are snapshots and do not change.
+     * </p>
+     */
+    public static final class LatencyStats {
+        private long count;
+        private long loads;
+        private long totalNanos;
+        private long maxNanos;
+        private long lastNanos;
+
+        private void add(long nanos, boolean cached) {
+            count++;
+            if (!cached) loads++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+            lastNanos = nanos;
+        }
+
+        private LatencyStats copy() {
+            LatencyStats c = new LatencyStats();
+            c.count = count;
+            c.loads = loads;
+            c.totalNanos = totalNanos;
+            c.maxNanos = maxNanos;
+            c.lastNanos = lastNanos;
+            return c;
+        }
+
+        /** @return number of navigations to the screen */
+        public long getCount() { return count; }
+
+        /** @return number of those navigations that had to build the view on the tap */
+        public long getLoads() { return loads; }
+
+        /** @return mean navigation time in milliseconds */
+        public double getAverageMillis() { return count == 0 ? 0.0 : totalNanos / (count * 1_000_000.0); }
+
+        /** @return slowest navigation time in milliseconds */
+        public double getMaxMillis() { return maxNanos / 1_000_000.0; }
+
+        /** @return most recent navigation time in milliseconds */
+        public double getLastMillis() { return lastNanos / 1_000_000.0; }
+
+        @Override
+        public String toString() {
+            return String.format("count=%d loads=%d avg=%.2fms max=%.2fms last=%.2fms",
+                    count, loads, getAverageMillis(), getMaxMillis(), getLastMillis());
+        }
+    }
+}
@@ -0,0 +1,476 @@
+package concordia.soen6611.igo_tvm.Services;
+
+import concordia.soen6611.igo_tvm.models.JournalRecord;
+import concordia.soen6611.igo_tvm.models.PaymentStatus;
+import concordia.soen6611.igo_tvm.models.SettlementBatch;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Forwards the completed sales in the {@link TransactionJournal} to the back office.
+ * <p>
+ * The kiosk's uplink comes and goes, so sales are stored first and forwarded later:
+ * the journal holds them durably, and this uploader reads it from where it left off,
+ * packs the sales completed since into {@link SettlementBatch}es of up to
+ * {@code igo.settlement.batch-size}, compresses them and sends them to the
+ * {@link BackOfficeEndpoint}. A sale's order is sent together with its completion;
+ * cancelled, declined and failed payments are not sent.
+ * </p>
+ *
+ * <h3>Backpressure and retries</h3>
+ * <p>
+ * At most {@code igo.settlement.max-in-flight} batches are sent at a time; while that
+ * many are unanswered the uploader reads no further, so an outage of any length costs
+ * a fixed amount of memory, and the backlog stays in the journal. A batch that fails is
+ * sent again, unchanged and under the same id, after an exponential back-off with
+ * jitter between {@code igo.settlement.backoff-ms} and {@code igo.settlement.max-backoff-ms}.
+ * </p>
+ *
+ * <h3>Progress</h3>
+ * <p>
+ * The sequence number up to which every batch is acknowledged is kept in
+ * {@code upload.cursor} in the journal directory, and reading resumes after it on the
+ * next start. It is written after the acknowledgement, so a crash in between sends the
+ * batch again; the back office drops what it already has by record sequence number.
+ * The cursor only moves with an acknowledgement, so records read after the last sale
+ * sent are read again after a restart.
+ * Next to it the cursor file holds a low-water mark: the record before the oldest order
+ * whose payment had not completed, or whose completion is after the cursor. On
+ * start, only the journal from the low-water mark up to the cursor is read once more, to
+ * find those orders again. Orders waiting for their payment are capped at
+ * {@value #MAX_OPEN}, the oldest dropped beyond that; a completion whose order was
+ * dropped is sent without it.
+ * </p>
+ *
+ * <h3>Threading</h3>
+ * All the uploader's state belongs to its daemon thread {@code settlement-uploader};
+ * answers from the endpoint are handed back to it. Nothing here runs on, or waits for,
+ * the purchase path: sales only ever wait for the journal's disk write.
+ */
+@Service
+public class SettlementUploader implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SettlementUploader.class);
+
+    /** Name of the file, in the journal directory, holding the acknowledged sequence number. */
+    static final String CURSOR_FILE = "upload.cursor";
+
+    /** Most orders kept waiting for their payment to end. */
+    static final int MAX_OPEN = 65_536;
+
+    private final TransactionJournal journal;
+    private final BackOfficeEndpoint endpoint;
+    private final Path cursorFile;
+    private final String kioskId;
+    private final int batchSize;
+    private final int maxInFlight;
+    private final long pollMillis;
+    private final long backoffMillis;
+    private final long maxBackoffMillis;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread t = new Thread(task, "settlement-uploader");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /** Orders read whose payment has not ended yet, by payment id, oldest first; uploader thread only. */
+    private final Map<UUID, JournalRecord> openOrders = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, JournalRecord> eldest) {
+            if (size() > MAX_OPEN) {
+                logger.warn("More than {} payments open; forgetting the order of payment {}", MAX_OPEN,
+                        eldest.getKey());
+                return true;
+            }
+            return false;
+        }
+    };
+
+    /** Batches sent and not all acknowledged, oldest first; uploader thread only. */
+    private final Deque<InFlight> window = new ArrayDeque<>();
+
+    /** Sequence number of the last journal record read; written by the uploader thread only. */
+    private volatile long scanned;
+
+    /** Sequence number up to which every batch is acknowledged. */
+    private final AtomicLong acknowledged = new AtomicLong();
+
+    /** Value of {@link #acknowledged} last written to {@link #cursorFile}. */
+    private long saved;
+
+    /** Low-water mark read from {@link #cursorFile}: the journal up to it is not needed again. */
+    private long replayFrom;
+
+    private final AtomicLong batchesAcknowledged = new AtomicLong();
+    private final AtomicLong resends = new AtomicLong();
+    private volatile int inFlight;
+    private volatile boolean started;
+
+    /**
+     * Creates the uploader from the {@code igo.settlement.*} properties and starts it,
+     * if both the sales journal and the back-office URL are configured.
+     *
+     * @param sales            journal of the sales
+     * @param url              base URL of the back office; empty to send nothing
+     * @param kioskId          id of this kiosk in the back office
+     * @param batchSize        completed sales per batch at most
+     * @param maxInFlight      batches sent at a time at most
+     * @param pollMillis       interval between looks at the journal for new sales
+     * @param backoffMillis    delay before the first resend of a failed batch
+     * @param maxBackoffMillis longest delay between resends
+     * @param timeoutMillis    time allowed for each request
+     */
+    @Autowired
+    public SettlementUploader(SalesJournal sales,
+                              @Value("${igo.settlement.url:}") String url,
+                              @Value("${igo.settlement.kiosk-id:kiosk}") String kioskId,
+                              @Value("${igo.settlement.batch-size:100}") int batchSize,
+                              @Value("${igo.settlement.max-in-flight:2}") int maxInFlight,
+                              @Value("${igo.settlement.poll-ms:5000}") long pollMillis,
+                              @Value("${igo.settlement.backoff-ms:1000}") long backoffMillis,
+                              @Value("${igo.settlement.max-backoff-ms:300000}") long maxBackoffMillis,
+                              @Value("${igo.settlement.timeout-ms:10000}") long timeoutMillis) {
+        this(sales.getJournal(),
+                url == null || url.isBlank() ? null : new HttpBackOfficeEndpoint(URI.create(url.trim()), timeoutMillis),
+                kioskId, batchSize, maxInFlight, pollMillis, backoffMillis, maxBackoffMillis);
+        if (journal == null || endpoint == null) {
+            logger.info("Sales are not sent to the back office (needs igo.journal.dir and igo.settlement.url)");
+        } else {
+            start();
+        }
+    }
+
+    /**
+     * Creates an uploader; {@link #start()} starts it.
+     *
+     * @param journal          journal of the sales, or {@code null} for none
+     * @param endpoint         back office, or {@code null} for none
+     * @param kioskId          id of this kiosk in the back office
+     * @param batchSize        completed sales per batch at most, at least 1
+     * @param maxInFlight      batches sent at a time at most, at least 1
+     * @param pollMillis       interval between looks at the journal for new sales
+     * @param backoffMillis    delay before the first resend of a failed batch
+     * @param maxBackoffMillis longest delay between resends
+     * @throws IllegalArgumentException if a value is out of range
+     */
+    public SettlementUploader(TransactionJournal journal, BackOfficeEndpoint endpoint, String kioskId, int batchSize,
+                              int maxInFlight, long pollMillis, long backoffMillis, long maxBackoffMillis) {
+        if (batchSize < 1 || maxInFlight < 1 || pollMillis < 1 || backoffMillis < 1
+                || maxBackoffMillis < backoffMillis) {
+            throw new IllegalArgumentException("igo.settlement needs batch-size, max-in-flight, poll-ms and "
+                    + "backoff-ms of at least 1 and max-backoff-ms of at least backoff-ms");
+        }
+        this.journal = journal;
+        this.endpoint = endpoint;
+        this.cursorFile = journal == null ? null : journal.getDirectory().resolve(CURSOR_FILE);
+        this.kioskId = kioskId;
+        this.batchSize = batchSize;
+        this.maxInFlight = maxInFlight;
+        this.pollMillis = pollMillis;
+        this.backoffMillis = backoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    /**
+     * Resumes from the saved cursor and starts looking for sales to send.
+     *
+     * @throws IllegalStateException if there is no journal or no endpoint
+     */
+    public synchronized void start() {
+        if (journal == null || endpoint == null) {
+            throw new IllegalStateException("settlement uploads need a journal and an endpoint");
+        }
+        if (started) {
+            return;
+        }
+        started = true;
+        executor.execute(this::resume);
+        executor.scheduleWithFixedDelay(this::pump, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Reads the cursor and the orders before it whose payment completes after it, from
+     * the low-water mark on.
+     */
+    private void resume() {
+        long cursor = readCursor();
+        acknowledged.set(cursor);
+        saved = cursor;
+        scanned = cursor;
+        if (cursor > replayFrom) {
+            try {
+                journal.replay(replayFrom, record -> {
+                    if (record.getSequence() > cursor) {
+                        return false;
+                    }
+                    track(record);
+                    return true;
+                });
+            } catch (IOException e) {
+                logger.warn("Cannot read the journal before the upload cursor {}: {}", cursor, e.toString());
+            }
+        }
+        logger.info("Settlement uploads resume after record {}, with the orders after record {}", cursor,
+                replayFrom);
+        pump();
+    }
+
+    /** Sends new batches while the window has room, and saves the cursor. */
+    private void pump() {
+        try {
+            while (window.size() < maxInFlight) {
+                InFlight next = nextBatch();
+                if (next == null) {
+                    break;
+                }
+                window.addLast(next);
+                send(next);
+            }
+            inFlight = window.size();
+            saveCursor();
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Settlement upload pass failed: {}", e.toString());
+        }
+    }
+
+    /**
+     * Reads the journal after {@link #scanned} up to the next {@link #batchSize} completed
+     * sales.
+     *
+     * @return the batch, or {@code null} if no sale completed in what was read
+     */
+    private InFlight nextBatch() throws IOException {
+        long first = scanned + 1;
+        List<JournalRecord> records = new ArrayList<>();
+        int[] sales = {0};
+        long[] oldestOrder = {Long.MAX_VALUE};
+        journal.replay(scanned, record -> {
+            scanned = record.getSequence();
+            JournalRecord order = track(record);
+            if (order != null) {
+                records.add(order);
+                oldestOrder[0] = Math.min(oldestOrder[0], order.getSequence());
+            }
+            if (isCompletion(record)) {
+                records.add(record);
+                sales[0]++;
+            }
+            return sales[0] < batchSize;
+        });
+        if (sales[0] == 0) {
+            return null;
+        }
+        return new InFlight(SettlementBatch.of(kioskId, first, scanned, records), sales[0], oldestOrder[0]);
+    }
+
+    /**
+     * Keeps orders until their payment ends.
+     *
+     * @return the order of a payment that just completed, or {@code null}
+     */
+    private JournalRecord track(JournalRecord record) {
+        if (record instanceof JournalRecord.Order) {
+            openOrders.put(record.getPaymentId(), record);
+            return null;
+        }
+        JournalRecord.Transition transition = (JournalRecord.Transition) record;
+        if (!transition.getTo().isFinal()) {
+            return null;
+        }
+        JournalRecord order = openOrders.remove(record.getPaymentId());
+        return isCompletion(record) ? order : null;
+    }
+
+    private static boolean isCompletion(JournalRecord record) {
+        return record instanceof JournalRecord.Transition
+                && ((JournalRecord.Transition) record).getTo() == PaymentStatus.COMPLETED;
+    }
+
+    private void send(InFlight batch) {
+        batch.attempts++;
+        endpoint.upload(batch.batch).whenComplete((ok, error) -> executor.execute(() -> answered(batch, error)));
+    }
+
+    /** Handles the endpoint's answer, on the uploader thread. */
+    private void answered(InFlight batch, Throwable error) {
+        if (executor.isShutdown()) {
+            return;
+        }
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            long ceiling = Math.min(maxBackoffMillis, backoffMillis << Math.min(batch.attempts - 1, 30));
+            long delay = ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+            resends.incrementAndGet();
+            logger.warn("Settlement batch {} not delivered (attempt {}: {}); resending in {} ms",
+                    batch.batch.getId(), batch.attempts, cause.getMessage(), delay);
+            executor.schedule(() -> send(batch), delay, TimeUnit.MILLISECONDS);
+            return;
+        }
+        batch.acknowledged = true;
+        batchesAcknowledged.incrementAndGet();
+        logger.info("Settlement batch {} delivered: {} sale(s), {} of {} bytes compressed, attempt {}",
+                batch.batch.getId(), batch.sales, batch.batch.getCompressedBytes(),
+                batch.batch.getUncompressedBytes(), batch.attempts);
+        while (!window.isEmpty() && window.peekFirst().acknowledged) {
+            acknowledged.set(window.pollFirst().batch.getLastSequence());
+        }
+        pump();
+    }
+
+    /**
+     * Reads the cursor, and sets {@link #replayFrom} from the low-water mark on its second
+     * line; a cursor without one, as written by earlier versions, is read from the start
+     * of the journal.
+     */
+    private long readCursor() {
+        replayFrom = 0;
+        try {
+            String[] lines = Files.readString(cursorFile).trim().split("\\s+");
+            long cursor = Long.parseLong(lines[0]);
+            if (lines.length > 1) {
+                replayFrom = Math.min(cursor, Long.parseLong(lines[1]));
+            }
+            return cursor;
+        } catch (NoSuchFileException e) {
+            return 0;
+        } catch (IOException | NumberFormatException e) {
+            logger.warn("Ignoring unreadable upload cursor {}: {}; sending the journal again", cursorFile,
+                    e.toString());
+            replayFrom = 0;
+            return 0;
+        }
+    }
+
+    /**
+     * Writes the cursor and the low-water mark if the cursor moved; replaced atomically so
+     * that it is never half written.
+     */
+    private void saveCursor() throws IOException {
+        long cursor = acknowledged.get();
+        if (cursor == saved) {
+            return;
+        }
+        Path tmp = cursorFile.resolveSibling(CURSOR_FILE + ".tmp");
+        Files.writeString(tmp, cursor + "\n" + lowWater(cursor));
+        Files.move(tmp, cursorFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        saved = cursor;
+    }
+
+    /**
+     * @return the record before the oldest order that a restart at {@code cursor} needs:
+     *         an order still open, or one in a batch after the cursor, which is sent again
+     */
+    private long lowWater(long cursor) {
+        long oldest = cursor + 1;
+        Iterator<JournalRecord> open = openOrders.values().iterator();
+        if (open.hasNext()) {
+            oldest = Math.min(oldest, open.next().getSequence());
+        }
+        for (InFlight batch : window) {
+            oldest = Math.min(oldest, batch.oldestOrder);
+        }
+        return oldest - 1;
+    }
+
+    /**
+     * @return the sequence number up to which every completed sale has been delivered
+     */
+    public long getAcknowledgedSequence() {
+        return acknowledged.get();
+    }
+
+    /**
+     * @return the sequence number of the last journal record read, whether or not it is
+     *         part of a sale
+     */
+    public long getScannedSequence() {
+        return scanned;
+    }
+
+    /**
+     * @return the number of batches sent and not yet acknowledged, as of the last pass
+     */
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * @return the number of batches delivered
+     */
+    public long getBatchesAcknowledged() {
+        return batchesAcknowledged.get();
+    }
+
+    /**
+     * @return the number of times a failed batch was scheduled to be sent again
+     */
+    public long getResends() {
+        return resends.get();
+    }
+
+    /**
+     * Stops sending and saves the cursor. Batches not acknowledged are sent again on the
+     * next start.
+     */
+    @PreDestroy
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        if (!started) {
+            return;
+        }
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                logger.warn("Settlement uploader did not stop; upload cursor not saved");
+                return;
+            }
+            saveCursor(); // the uploader thread is gone, so its last acknowledgements are saved here
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            logger.warn("Cannot save the upload cursor {}: {}", cursorFile, e.toString());
+        }
+    }
+
+    /** A batch being sent. */
+    private static final class InFlight {
+        final SettlementBatch batch;
+        final int sales;
+        /** Sequence number of the oldest order in the batch, {@link Long#MAX_VALUE} if none. */
+        final long oldestOrder;
+        int attempts;
+        boolean acknowledged;
+
+        InFlight(SettlementBatch batch, int sales, long oldestOrder) {
+            this.batch = batch;
+            this.sales = sales;
+            this.oldestOrder = oldestOrder;
+        }
+    }
+}
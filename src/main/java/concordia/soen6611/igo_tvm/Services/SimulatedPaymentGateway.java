@@ -0,0 +1,147 @@
+package concordia.soen6611.igo_tvm.Services;
+
+import concordia.soen6611.igo_tvm.models.Authorization;
+import concordia.soen6611.igo_tvm.models.Money;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for the payment network, with configurable latency and failures.
+ * <p>
+ * The payment screens used to wait a fixed 5 to 5.5 seconds and then report success.
+ * This gateway answers each request after a random delay drawn from a log-normal
+ * distribution, the usual shape of network latency: most answers come near the
+ * median and a long tail reaches the 99th percentile. Both are configured, as are the
+ * share of requests that fail (an {@link IOException}, which the caller may retry)
+ * and the share of charges that are declined.
+ * </p>
+ * <p>
+ * Answers are kept by idempotency key: a retry of a charge that was already answered
+ * gets the same answer, with the same reference, as a real network would give.
+ * </p>
+ *
+ * <h3>Threading</h3>
+ * Thread-safe. Answers are delivered on a daemon thread named {@code payment-gateway};
+ * cancelling a request's future drops its pending answer.
+ */
+@Service
+public class SimulatedPaymentGateway implements PaymentGateway {
+
+    /** z-score of the 99th percentile of a normal distribution. */
+    private static final double Z_99 = 2.3263;
+
+    /** Longest simulated delay, whatever the distribution draws. */
+    private static final long MAX_DELAY_MILLIS = 60_000;
+
+    /** Mean of the latency's logarithm, in log-milliseconds; {@code NaN} for no delay. */
+    private final double mu;
+
+    /** Standard deviation of the latency's logarithm. */
+    private final double sigma;
+
+    private final double failureRate;
+    private final double declineRate;
+    private final Random random;
+
+    /** Answers given so far, by idempotency key. */
+    private final Map<String, Authorization> answers = new ConcurrentHashMap<>();
+
+    private final AtomicLong references = new AtomicLong();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread t = new Thread(task, "payment-gateway");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * Creates the gateway from the {@code igo.payment.sim.*} properties.
+     *
+     * @param medianMillis median latency of an answer
+     * @param p99Millis    99th percentile of the latency
+     * @param failureRate  share of requests, 0 to 1, that fail
+     * @param declineRate  share of charges, 0 to 1, that are declined
+     */
+    @Autowired
+    public SimulatedPaymentGateway(@Value("${igo.payment.sim.median-ms:1200}") long medianMillis,
+                                   @Value("${igo.payment.sim.p99-ms:3500}") long p99Millis,
+                                   @Value("${igo.payment.sim.failure-rate:0.02}") double failureRate,
+                                   @Value("${igo.payment.sim.decline-rate:0}") double declineRate) {
+        this(medianMillis, p99Millis, failureRate, declineRate, System.nanoTime());
+    }
+
+    /**
+     * @param medianMillis median latency of an answer
+     * @param p99Millis    99th percentile of the latency, at least the median
+     * @param failureRate  share of requests, 0 to 1, that fail
+     * @param declineRate  share of charges, 0 to 1, that are declined
+     * @param seed         seed of the random draws, for repeatable runs
+     * @throws IllegalArgumentException if a value is out of range
+     */
+    public SimulatedPaymentGateway(long medianMillis, long p99Millis, double failureRate, double declineRate,
+                                   long seed) {
+        if (medianMillis < 0 || p99Millis < medianMillis) {
+            throw new IllegalArgumentException("latency needs 0 <= median <= p99, got median " + medianMillis
+                    + " ms and p99 " + p99Millis + " ms");
+        }
+        if (!(failureRate >= 0 && failureRate <= 1) || !(declineRate >= 0 && declineRate <= 1)) {
+            throw new IllegalArgumentException("rates must be between 0 and 1: failure " + failureRate
+                    + ", decline " + declineRate);
+        }
+        this.mu = medianMillis == 0 ? Double.NaN : Math.log(medianMillis);
+        this.sigma = medianMillis == 0 ? 0 : (Math.log(p99Millis) - Math.log(medianMillis)) / Z_99;
+        this.failureRate = failureRate;
+        this.declineRate = declineRate;
+        this.random = new Random(seed);
+    }
+
+    @Override
+    public CompletableFuture<Authorization> authorize(String idempotencyKey, String method, Money amount) {
+        long delay = sampleDelayMillis();
+        boolean fail = random.nextDouble() < failureRate;
+        boolean decline = random.nextDouble() < declineRate;
+        CompletableFuture<Authorization> answer = new CompletableFuture<>();
+        ScheduledFuture<?> task = scheduler.schedule(() -> {
+            if (fail) {
+                answer.completeExceptionally(new IOException("Simulated " + method + " gateway failure"));
+                return;
+            }
+            answer.complete(answers.computeIfAbsent(idempotencyKey, key -> decline
+                    ? Authorization.declined("Simulated decline")
+                    : Authorization.approved(String.format("SIM-%06d", references.incrementAndGet()), amount)));
+        }, delay, TimeUnit.MILLISECONDS);
+        // Cancelled or timed out by the caller: the answer is no longer wanted
+        answer.whenComplete((a, e) -> task.cancel(false));
+        return answer;
+    }
+
+    /** Draws one latency from the configured distribution. */
+    private long sampleDelayMillis() {
+        if (Double.isNaN(mu)) {
+            return 0;
+        }
+        double millis = Math.exp(mu + sigma * random.nextGaussian());
+        return Math.min(MAX_DELAY_MILLIS, Math.round(millis));
+    }
+
+    /**
+     * Stops answering; pending requests are never completed.
+     */
+    @PreDestroy
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
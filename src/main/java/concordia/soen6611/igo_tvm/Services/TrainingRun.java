@@ -0,0 +1,88 @@
+package concordia.soen6611.igo_tvm.Services;
+
+import concordia.soen6611.igo_tvm.models.Screen;
+import javafx.animation.PauseTransition;
+import javafx.util.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Scripted walk through the purchase flow, used to train the class-data-sharing
+ * archive of the fast-start build.
+ * <p>
+ * With {@code igo.startup.training-run=true} the application shows every screen from
+ * the welcome screen to payment confirmation, pausing on each long enough for it to be
+ * laid out, styled and rendered, then exits. The JVM records every class it loaded on
+ * the way ({@code -XX:ArchiveClassesAtExit}), so a kiosk started with that archive
+ * skips loading and verifying them. See the {@code faststart} Maven profile.
+ * </p>
+ *
+ * <h3>Threading</h3>
+ * {@link #start(Runnable)} must be called on the JavaFX Application Thread.
+ */
+@Service
+public class TrainingRun {
+
+    private static final Logger log = LoggerFactory.getLogger(TrainingRun.class);
+
+    /** Screens shown after the welcome screen, in order. */
+    static final List<Screen> FLOW = List.of(
+            Screen.HOME,
+            Screen.BUY_TICKET,
+            Screen.PAYMENT,
+            Screen.CASH_SUBMISSION,
+            Screen.MOBILE_WALLET,
+            Screen.PAYMENT_SUCCESS,
+            Screen.CARD_RELOAD,
+            Screen.CARD_RELOAD_AMOUNT,
+            Screen.WELCOME);
+
+    /** Navigator that shows the screens. */
+    private final ScreenNavigator navigator;
+
+    /** Time each screen stays up. */
+    private final Duration dwell;
+
+    /**
+     * Creates the training run.
+     *
+     * @param navigator navigator that owns the application scene
+     * @param dwellMs   milliseconds each screen stays up
+     */
+    public TrainingRun(ScreenNavigator navigator,
+                       @Value("${igo.startup.training-dwell-ms:500}") long dwellMs) {
+        this.navigator = navigator;
+        this.dwell = Duration.millis(dwellMs);
+    }
+
+    /**
+     * Starts walking through {@link #FLOW} and runs {@code done} after the last screen.
+     *
+     * @param done called on the FX thread when the walk is over
+     */
+    public void start(Runnable done) {
+        log.info("Training run: walking {} screens", FLOW.size());
+        step(0, done);
+    }
+
+    private void step(int index, Runnable done) {
+        PauseTransition pause = new PauseTransition(dwell);
+        pause.setOnFinished(e -> {
+            if (index == FLOW.size()) {
+                log.info("Training run finished");
+                done.run();
+                return;
+            }
+            Screen screen = FLOW.get(index);
+            if (!navigator.goTo(screen)) {
+                log.warn("Training run could not show {}", screen);
+            }
+            step(index + 1, done);
+        });
+        pause.play();
+    }
+}
@@ -0,0 +1,755 @@
+package concordia.soen6611.igo_tvm.Services;
+
+import concordia.soen6611.igo_tvm.models.JournalRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only, crash-safe journal of {@link JournalRecord}s in memory-mapped segment files.
+ * <p>
+ * A segment is a file of fixed size, zero-filled when it is created so that appends
+ * never grow it, named after the sequence number of its first record
+ * ({@code journal-00000000000000000001.seg}). It starts with a 32-byte header
+ * (magic {@code IGOJ}, format, first sequence number, creation time) followed by
+ * records, each framed as
+ * <pre>
+ *   int  length     payload bytes; 0 marks the end of the records
+ *   int  crc        CRC-32C of the sequence number and the payload
+ *   long sequence   one more than the previous record's
+ *   byte[length]    the record, see {@link JournalRecord}
+ * </pre>
+ * When a record does not fit in what is left of a segment, the segment is closed and
+ * moved to the {@code archive} subdirectory, and a new one is started. The next segment
+ * is zero-filled ahead of time, off the commit path.
+ * </p>
+ *
+ * <h3>Group commit</h3>
+ * <p>
+ * {@link #append(JournalRecord)} queues the record and returns at once; the future it
+ * returns completes with the record's sequence number once the record is on disk. A
+ * single writer thread takes every record queued, writes them all and then forces the
+ * segment to disk once for the whole batch: records that arrive while one flush is in
+ * progress share the next one, so a burst costs a few flushes rather than one each,
+ * while no record is acknowledged before it is durable.
+ * </p>
+ *
+ * <h3>Recovery</h3>
+ * <p>
+ * {@link #open(Path, int, Consumer)} scans the segments left by the previous run.
+ * Records are read while their frame, checksum and sequence number are valid; the
+ * first one that is not, a record torn by a crash, ends the journal, and everything
+ * from it on is zeroed so that new records cannot be mistaken for stale ones. Segments that a crash
+ * left unarchived are archived. Every record that was acknowledged is recovered, and
+ * {@link #replay(Consumer)} reads them back in order.
+ * </p>
+ *
+ * <h3>Threading</h3>
+ * Thread-safe. Records are written and flushed on a daemon thread named
+ * {@code journal-writer}; their futures complete on it, so callers should not block in
+ * their callbacks. {@link #replay(Consumer)} may run while records are being appended
+ * and reads those acknowledged when it starts.
+ */
+public final class TransactionJournal implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionJournal.class);
+
+    /** {@code "IGOJ"}, the first bytes of every segment. */
+    static final int MAGIC = 0x49474F4A;
+
+    /** Version of the segment format. */
+    static final short FORMAT = 1;
+
+    /** Bytes before the first record of a segment. */
+    static final int HEADER_BYTES = 32;
+
+    /** Bytes of framing before each record's payload. */
+    static final int FRAME_BYTES = 4 + 4 + 8;
+
+    /** Smallest segment size accepted. */
+    static final int MIN_SEGMENT_BYTES = 4096;
+
+    /** Name of the subdirectory closed segments are moved to. */
+    public static final String ARCHIVE = "archive";
+
+    private static final String PREFIX = "journal-";
+    private static final String SUFFIX = ".seg";
+    private static final String SPARE = "spare.tmp";
+
+    /** Queued by {@link #close()}: the writer finishes the queue and stops. */
+    private static final Pending CLOSE = new Pending(null);
+
+    /** Records written per flush at most, so that one flush never waits on an endless burst. */
+    private static final int MAX_BATCH = 1024;
+
+    private final Path dir;
+    private final Path archiveDir;
+    private final int segmentBytes;
+
+    private final LinkedBlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private volatile boolean closed;
+
+    /** Segment being written; replaced on rollover under {@link #view}. */
+    private Segment active;
+
+    /** Zero-filled file ready to become the next segment, or {@code null}. */
+    private Path spare;
+
+    /** Sequence number the next record gets; writer thread only after opening. */
+    private long nextSequence;
+
+    /** Sequence number of the last record on disk. */
+    private final AtomicLong committedSequence = new AtomicLong();
+
+    /** Position in {@link #active} up to which records are on disk; guarded by {@link #view}. */
+    private int committedPosition;
+
+    /** Guards the segment list that {@link #replay(Consumer)} reads against rollover. */
+    private final Object view = new Object();
+
+    private final AtomicLong flushes = new AtomicLong();
+    private final long recovered;
+
+    private TransactionJournal(Path dir, int segmentBytes, Segment active, long nextSequence, long recovered) {
+        this.dir = dir;
+        this.archiveDir = dir.resolve(ARCHIVE);
+        this.segmentBytes = segmentBytes;
+        this.active = active;
+        this.nextSequence = nextSequence;
+        this.committedSequence.set(nextSequence - 1);
+        this.committedPosition = active.end;
+        this.recovered = recovered;
+        this.writer = new Thread(this::writeLoop, "journal-writer");
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * Opens the journal in a directory, recovering the records of the previous run, and
+     * starts its writer.
+     *
+     * @param dir          directory of the segments; created if missing
+     * @param segmentBytes size of each segment file, at least 4096
+     * @param recovery     receives the records of the segments not archived yet and of
+     *                     the last archived one, in order; may be {@code null}
+     * @return the open journal
+     * @throws IOException              if the directory or a segment cannot be read or written,
+     *                                  or records are missing between segments
+     * @throws IllegalArgumentException if {@code segmentBytes} is too small
+     */
+    public static TransactionJournal open(Path dir, int segmentBytes, Consumer<JournalRecord> recovery)
+            throws IOException {
+        if (segmentBytes < MIN_SEGMENT_BYTES) {
+            throw new IllegalArgumentException("journal segments must be at least " + MIN_SEGMENT_BYTES
+                    + " bytes: " + segmentBytes);
+        }
+        Path archiveDir = dir.resolve(ARCHIVE);
+        Files.createDirectories(archiveDir);
+        Files.deleteIfExists(dir.resolve(SPARE));
+
+        // The last archived segment holds the start of payments still open when it was closed
+        List<Path> archived = segments(archiveDir);
+        long next = 1;
+        if (!archived.isEmpty()) {
+            Path last = archived.get(archived.size() - 1);
+            next = baseOf(last) + readSegment(last, recovery);
+        }
+        long recovered = 0;
+        List<Path> segments = segments(dir);
+        Segment active = null;
+        for (int i = 0; i < segments.size(); i++) {
+            Segment segment = Segment.map(segments.get(i));
+            if (segment == null) {
+                // Crashed while creating it, before its header was written
+                if (i < segments.size() - 1) {
+                    throw new IOException("journal segment " + segments.get(i).getFileName() + " has no header");
+                }
+                Files.delete(segments.get(i));
+                break;
+            }
+            if (segment.base != next && (i > 0 || !archived.isEmpty())) {
+                throw new IOException("journal segment " + segment.path.getFileName() + " starts at record "
+                        + segment.base + ", expected " + next);
+            }
+            long count = segment.scan(recovery);
+            recovered += count;
+            next = segment.base + count;
+            if (i < segments.size() - 1) {
+                // Closed by a rollover that crashed before archiving it
+                segment.force();
+                archive(segment.path, archiveDir);
+            } else {
+                segment.zeroTail();
+                active = segment;
+            }
+        }
+        if (active == null) {
+            active = Segment.create(dir.resolve(segmentName(next)), segmentBytes, next, null);
+        }
+        TransactionJournal journal = new TransactionJournal(dir, segmentBytes, active, next, recovered);
+        journal.writer.start();
+        logger.info("Journal {} open: {} record(s) recovered, next is {}", dir, recovered, next);
+        return journal;
+    }
+
+    /**
+     * Queues a record for writing.
+     *
+     * @param record record to append
+     * @return a future completed with the record's sequence number once it is on disk,
+     *         or exceptionally if it cannot be written or the journal is closed
+     */
+    public CompletableFuture<Long> append(JournalRecord record) {
+        Pending pending = new Pending(record);
+        if (closed) {
+            pending.done.completeExceptionally(new IllegalStateException("journal is closed"));
+            return pending.done;
+        }
+        queue.add(pending);
+        if (closed && queue.remove(pending)) {
+            // Closed while queuing, and neither the writer nor close() took it
+            pending.done.completeExceptionally(new IllegalStateException("journal is closed"));
+        }
+        return pending.done;
+    }
+
+    /**
+     * Reads every record on disk, the archived segments' first, in sequence order.
+     *
+     * @param visitor receives each record
+     * @throws IOException if a segment cannot be read
+     */
+    public void replay(Consumer<JournalRecord> visitor) throws IOException {
+        replay(0, record -> {
+            visitor.accept(record);
+            return true;
+        });
+    }
+
+    /**
+     * Reads the records on disk after a given one, in sequence order, until the visitor
+     * asks to stop. Archived segments holding only earlier records are not opened, so
+     * resuming from a recent position costs little however long the journal is.
+     *
+     * @param after   sequence number of the last record not wanted; {@code 0} for all
+     * @param visitor receives each record, and returns {@code false} to stop
+     * @throws IOException if a segment cannot be read
+     */
+    public void replay(long after, Predicate<JournalRecord> visitor) throws IOException {
+        List<Path> archived;
+        ByteBuffer current;
+        long currentBase;
+        synchronized (view) {
+            archived = segments(archiveDir);
+            current = active.buffer.duplicate();
+            current.limit(committedPosition);
+            currentBase = active.base;
+        }
+        for (int i = 0; i < archived.size(); i++) {
+            long nextBase = i + 1 < archived.size() ? baseOf(archived.get(i + 1)) : currentBase;
+            if (nextBase <= after + 1) {
+                continue;
+            }
+            try (FileChannel channel = FileChannel.open(archived.get(i), StandardOpenOption.READ)) {
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (!scan(buffer, readHeader(buffer, archived.get(i)), after, visitor)) {
+                    return;
+                }
+            }
+        }
+        scan(current, currentBase, after, visitor);
+    }
+
+    /**
+     * Reads the records of one segment file, active or archived.
+     *
+     * @param segment segment file
+     * @param visitor receives each record; may be {@code null}
+     * @return the number of records read
+     * @throws IOException if the file cannot be read or is not a segment
+     */
+    public static long readSegment(Path segment, Consumer<JournalRecord> visitor) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            long base = readHeader(buffer, segment);
+            return count(buffer, base, visitor);
+        }
+    }
+
+    /**
+     * Reads every record of a journal directory without opening the journal: the
+     * archived segments, then those left in the directory. Nothing is written, so this
+     * may read the journal of another process, or a copy of one; records being appended
+     * meanwhile may or may not be seen.
+     *
+     * @param dir     journal directory
+     * @param visitor receives each record, in sequence order
+     * @return the number of records read
+     * @throws IOException if a segment cannot be read
+     */
+    public static long readDirectory(Path dir, Consumer<JournalRecord> visitor) throws IOException {
+        long read = 0;
+        for (Path segment : segments(dir.resolve(ARCHIVE))) {
+            read += readSegment(segment, visitor);
+        }
+        for (Path segment : segments(dir)) {
+            read += readSegment(segment, visitor);
+        }
+        return read;
+    }
+
+    /**
+     * @return the sequence number of the last record on disk; {@code 0} if there is none
+     */
+    public long getCommittedSequence() {
+        return committedSequence.get();
+    }
+
+    /**
+     * @return the number of records recovered when the journal was opened
+     */
+    public long getRecovered() {
+        return recovered;
+    }
+
+    /**
+     * @return the number of times the writer has forced records to disk
+     */
+    public long getFlushes() {
+        return flushes.get();
+    }
+
+    /**
+     * @return the directory of the segments
+     */
+    public Path getDirectory() {
+        return dir;
+    }
+
+    /**
+     * @return the directory closed segments are moved to
+     */
+    public Path getArchiveDirectory() {
+        return archiveDir;
+    }
+
+    /**
+     * Writes the records already queued, then stops the writer. Records appended later
+     * fail.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        queue.add(CLOSE);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Pending left;
+        while ((left = queue.poll()) != null) {
+            left.done.completeExceptionally(new IllegalStateException("journal is closed"));
+        }
+    }
+
+    /** Writer thread: writes and flushes batches until {@link #CLOSE} is taken. */
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>();
+        boolean stopping = false;
+        while (!stopping) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                // Not interrupted by close(), which queues CLOSE instead: keep writing
+                continue;
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+            stopping = batch.remove(CLOSE);
+            if (stopping) {
+                queue.drainTo(batch);
+                batch.remove(CLOSE);
+            }
+            if (!batch.isEmpty()) {
+                commit(batch);
+            }
+            batch.clear();
+            if (!stopping) {
+                prepareSpare();
+            }
+        }
+    }
+
+    /**
+     * Writes a batch, forces it to disk once, and completes its futures.
+     * <p>
+     * A record is acknowledged exactly when recovery would find it. A record that cannot
+     * be encoded fails on its own, its bytes zeroed, and the rest of the batch is written.
+     * If writing or forcing fails, what was written since the last force is zeroed and
+     * taken back, and those records fail with the ones not written yet; records forced
+     * before a rollover in the same batch are still acknowledged.
+     * </p>
+     */
+    private void commit(List<Pending> batch) {
+        int from = active.end;          // start of what is not forced yet
+        long fromSequence = nextSequence;
+        List<Pending> written = new ArrayList<>(batch.size());
+        int forced = 0;                 // leading records of written that are on disk
+        try {
+            for (Pending pending : batch) {
+                int size;
+                try {
+                    size = pending.record.encodedSize();
+                } catch (RuntimeException e) {
+                    pending.done.completeExceptionally(e);
+                    continue;
+                }
+                if (HEADER_BYTES + FRAME_BYTES + size > segmentBytes) {
+                    pending.done.completeExceptionally(new IllegalArgumentException(
+                            "journal record of " + size + " bytes does not fit in a segment"));
+                    continue;
+                }
+                if (active.end + FRAME_BYTES + size > active.buffer.capacity()) {
+                    active.force(from, active.end - from);
+                    forced = written.size();
+                    from = active.end;
+                    fromSequence = nextSequence;
+                    roll();
+                    from = active.end;
+                }
+                int position = active.end;
+                try {
+                    active.write(nextSequence, pending.record, size);
+                } catch (RuntimeException e) {
+                    active.zero(position, position + FRAME_BYTES + size);
+                    active.end = position;
+                    pending.done.completeExceptionally(e);
+                    continue;
+                }
+                pending.sequence = nextSequence++;
+                written.add(pending);
+            }
+            active.force(from, active.end - from);
+            forced = written.size();
+        } catch (IOException | RuntimeException e) {
+            logger.error("Journal write failed; {} record(s) written since the last flush are taken back",
+                    written.size() - forced, e);
+            takeBack(from);
+            nextSequence = fromSequence;
+            for (Pending pending : batch) {
+                if (!pending.done.isDone() && written.indexOf(pending) >= forced) {
+                    pending.done.completeExceptionally(e);
+                }
+            }
+            written = written.subList(0, forced);
+        }
+        flushes.incrementAndGet();
+        synchronized (view) {
+            committedPosition = active.end;
+        }
+        if (!written.isEmpty()) {
+            committedSequence.set(written.get(written.size() - 1).sequence);
+        }
+        for (Pending pending : written) {
+            pending.done.complete(pending.sequence);
+        }
+    }
+
+    /**
+     * Zeroes the active segment from {@code from} on, where records were written but
+     * not forced, so that recovery cannot find them, and moves its end back there.
+     */
+    private void takeBack(int from) {
+        int dirty = Math.max(active.end, Math.min(active.buffer.capacity(), from + FRAME_BYTES));
+        active.zero(from, dirty);
+        active.end = from;
+        try {
+            active.force(from, dirty - from);
+        } catch (RuntimeException e) {
+            // The zeros stay in the mapped pages and reach the disk with their next write-back
+            logger.warn("Cannot flush the journal after taking records back: {}", e.toString());
+        }
+    }
+
+    /** Closes the active segment, archives it, and starts the next one. */
+    private void roll() throws IOException {
+        Segment next = Segment.create(dir.resolve(segmentName(nextSequence)), segmentBytes, nextSequence, spare);
+        spare = null;
+        Segment done = active;
+        synchronized (view) {
+            archive(done.path, archiveDir);
+            active = next;
+            committedPosition = next.end;
+        }
+        logger.info("Journal segment {} archived ({} bytes used)", done.path.getFileName(), done.end);
+    }
+
+    /** Zero-fills the next segment ahead of time, once the active one is half full. */
+    private void prepareSpare() {
+        if (spare != null || active.end < active.buffer.capacity() / 2 || !queue.isEmpty()) {
+            return;
+        }
+        Path path = dir.resolve(SPARE);
+        try {
+            zeroFill(path, segmentBytes);
+            spare = path;
+        } catch (IOException e) {
+            logger.warn("Cannot prepare the next journal segment: {}", e.toString());
+        }
+    }
+
+    private static void archive(Path segment, Path archiveDir) throws IOException {
+        Files.move(segment, archiveDir.resolve(segment.getFileName()), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads all the records of a segment buffer.
+     *
+     * @return the number of records read
+     */
+    private static long count(ByteBuffer buffer, long base, Consumer<JournalRecord> visitor) {
+        long[] count = {0};
+        scan(buffer, base, 0, record -> {
+            count[0]++;
+            if (visitor != null) {
+                visitor.accept(record);
+            }
+            return true;
+        });
+        return count[0];
+    }
+
+    /**
+     * Reads the records of a segment buffer, from after the header to the first invalid
+     * frame or the buffer's limit, passing those after {@code after} to the visitor.
+     *
+     * @return {@code false} if the visitor asked to stop
+     */
+    private static boolean scan(ByteBuffer buffer, long base, long after, Predicate<JournalRecord> visitor) {
+        ByteBuffer in = buffer.duplicate();
+        int position = HEADER_BYTES;
+        long expected = base;
+        CRC32C crc = new CRC32C();
+        while (position + FRAME_BYTES <= in.limit()) {
+            int length = in.getInt(position);
+            if (length <= 0 || length > in.limit() - position - FRAME_BYTES) {
+                break;
+            }
+            int checksum = in.getInt(position + 4);
+            long sequence = in.getLong(position + 8);
+            crc.reset();
+            in.limit(position + FRAME_BYTES + length).position(position + 8);
+            crc.update(in);
+            in.limit(buffer.limit());
+            if ((int) crc.getValue() != checksum || sequence != expected) {
+                break;
+            }
+            in.position(position + FRAME_BYTES).limit(position + FRAME_BYTES + length);
+            JournalRecord record;
+            try {
+                record = JournalRecord.decode(sequence, in.slice());
+            } catch (IllegalArgumentException e) {
+                break;
+            } finally {
+                in.limit(buffer.limit());
+            }
+            position += FRAME_BYTES + length;
+            expected++;
+            if (sequence > after && !visitor.test(record)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Checks a segment header and returns its first sequence number. */
+    private static long readHeader(ByteBuffer buffer, Path path) throws IOException {
+        if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException(path.getFileName() + " is not a journal segment");
+        }
+        if (buffer.getShort(4) != FORMAT) {
+            throw new IOException(path.getFileName() + " has unsupported journal format " + buffer.getShort(4));
+        }
+        return buffer.getLong(8);
+    }
+
+    /** Segment files of a directory, in sequence order. */
+    static List<Path> segments(Path dir) throws IOException {
+        List<Path> found = new ArrayList<>();
+        if (!Files.isDirectory(dir)) {
+            return found;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, PREFIX + "*" + SUFFIX)) {
+            stream.forEach(found::add);
+        }
+        found.sort(null); // names are zero-padded, so name order is sequence order
+        return found;
+    }
+
+    private static String segmentName(long base) {
+        return String.format("%s%020d%s", PREFIX, base, SUFFIX);
+    }
+
+    private static long baseOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    private static void zeroFill(Path path, int bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer zeros = ByteBuffer.allocate(64 * 1024);
+            long written = 0;
+            while (written < bytes) {
+                zeros.clear().limit((int) Math.min(zeros.capacity(), bytes - written));
+                written += channel.write(zeros, written);
+            }
+            channel.force(true);
+        }
+    }
+
+    /** A record waiting to be written, and its acknowledgement. */
+    private static final class Pending {
+        final JournalRecord record;
+        final CompletableFuture<Long> done = new CompletableFuture<>();
+        long sequence;
+
+        Pending(JournalRecord record) {
+            this.record = record;
+        }
+    }
+
+    /** One mapped segment file. */
+    private static final class Segment {
+        final Path path;
+        final long base;
+        final MappedByteBuffer buffer;
+        /** Position after the last record; writer thread only. */
+        int end;
+
+        private Segment(Path path, long base, MappedByteBuffer buffer, int end) {
+            this.path = path;
+            this.base = base;
+            this.buffer = buffer;
+            this.end = end;
+        }
+
+        /** Maps an existing segment and finds the end of its records; {@code null} if it has no header yet. */
+        static Segment map(Path path) throws IOException {
+            MappedByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            }
+            if (buffer.limit() >= HEADER_BYTES && buffer.getInt(0) == 0) {
+                return null;
+            }
+            long base = readHeader(buffer, path);
+            Segment segment = new Segment(path, base, buffer, HEADER_BYTES);
+            segment.end = segment.findEnd();
+            return segment;
+        }
+
+        /** Creates a segment, from a zero-filled spare file if there is one. */
+        static Segment create(Path path, int bytes, long base, Path spare) throws IOException {
+            if (spare != null) {
+                Files.move(spare, path, StandardCopyOption.ATOMIC_MOVE);
+            } else {
+                zeroFill(path, bytes);
+            }
+            MappedByteBuffer buffer;
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+            }
+            buffer.putInt(0, MAGIC);
+            buffer.putShort(4, FORMAT);
+            buffer.putLong(8, base);
+            buffer.putLong(16, System.currentTimeMillis());
+            buffer.force(0, HEADER_BYTES);
+            return new Segment(path, base, buffer, HEADER_BYTES);
+        }
+
+        long scan(Consumer<JournalRecord> visitor) {
+            return count(buffer, base, visitor);
+        }
+
+        private int findEnd() {
+            int position = HEADER_BYTES;
+            long count = scan(null);
+            for (long i = 0; i < count; i++) {
+                position += FRAME_BYTES + buffer.getInt(position);
+            }
+            return position;
+        }
+
+        /** Zeroes everything after the records, if a torn or stale record left bytes there. */
+        void zeroTail() {
+            int dirty = -1;
+            for (int i = end; i < buffer.limit(); i += 8) {
+                if (i + 8 <= buffer.limit() ? buffer.getLong(i) != 0 : buffer.get(i) != 0) {
+                    dirty = i;
+                    break;
+                }
+            }
+            if (dirty < 0) {
+                return;
+            }
+            logger.warn("Journal segment {}: discarding a torn record after byte {}", path.getFileName(), end);
+            for (int i = end; i < buffer.limit(); i++) {
+                buffer.put(i, (byte) 0);
+            }
+            buffer.force();
+        }
+
+        /** Writes one framed record at the end. */
+        void write(long sequence, JournalRecord record, int size) {
+            int position = end;
+            ByteBuffer out = buffer.duplicate();
+            out.position(position + FRAME_BYTES);
+            record.encode(out);
+            out.putLong(position + 8, sequence);
+            CRC32C crc = new CRC32C();
+            out.limit(position + FRAME_BYTES + size).position(position + 8);
+            crc.update(out);
+            buffer.putInt(position + 4, (int) crc.getValue());
+            buffer.putInt(position, size);
+            end = position + FRAME_BYTES + size;
+        }
+
+        /** Zeroes bytes {@code [from, to)}, as far as the segment goes. */
+        void zero(int from, int to) {
+            for (int i = from; i < Math.min(to, buffer.limit()); i++) {
+                buffer.put(i, (byte) 0);
+            }
+        }
+
+        void force(int from, int length) {
+            if (length > 0) {
+                buffer.force(from, length);
+            }
+        }
+
+        void force() {
+            buffer.force();
+        }
+    }
+}
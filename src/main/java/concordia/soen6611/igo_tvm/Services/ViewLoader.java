@@ -0,0 +1,142 @@
+package concordia.soen6611.igo_tvm.Services;
+
+import concordia.soen6611.igo_tvm.controllers.CompiledViews;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.net.URL;
+
+/**
+ * Builds views from their FXML location with Spring-managed controllers.
+ * <p>
+ * At build time every FXML file is compiled into a Java builder (see
+ * {@code src/build/java/FxmlCompiler.java}) that creates the scene graph with plain
+ * constructors and setters and injects the controller's {@code @FXML} members
+ * directly. This loader uses those builders, so no XML is parsed and no reflection
+ * is involved on the startup path. {@link FXMLLoader} remains the fallback for
+ * locations that were not compiled, or for every view when
+ * {@code igo.views.compiled=false} (handy while editing FXML in Scene Builder).
+ * </p>
+ * <p>
+ * Compiled views take their images from the shared {@link ImageCache}, decoded at
+ * display size; the loader starts decoding all of them in the background as soon as
+ * it is created. Views built by {@link FXMLLoader} decode their own copies.
+ * </p>
+ *
+ * <h3>Threading</h3>
+ * Stateless; may be called from background threads that preload screens.
+ */
+@Service
+public class ViewLoader {
+
+    /** Spring application context used as the controller factory. */
+    private final ApplicationContext appContext;
+
+    /** Whether compiled builders are used when available. */
+    private final boolean compiled;
+
+    /** Shared decoded images for compiled views. */
+    private final ImageCache images;
+
+    /**
+     * Creates the loader.
+     *
+     * @param appContext Spring application context used to create controllers
+     * @param compiled   whether to use the build-time compiled views
+     * @param images     shared image cache used by the compiled views
+     */
+    public ViewLoader(ApplicationContext appContext,
+                      @Value("${igo.views.compiled:true}") boolean compiled,
+                      ImageCache images) {
+        this.appContext = appContext;
+        this.compiled = compiled;
+        this.images = images;
+        if (compiled) {
+            images.preloadInBackground(CompiledViews::preloadImages);
+        }
+    }
+
+    /**
+     * Builds the view declared in the FXML at {@code location}.
+     *
+     * @param location classpath location, e.g. {@code /Fxml/Home.fxml}
+     * @return the root node and its controller
+     * @throws IOException if the FXML cannot be found or loaded
+     */
+    public LoadedView load(String location) throws IOException {
+        if (compiled) {
+            LoadedView view = CompiledViews.build(location, appContext::getBean, images,
+                    (root, controller) -> new LoadedView(root, controller, true));
+            if (view != null) {
+                return view;
+            }
+        }
+        return parse(location);
+    }
+
+    /**
+     * Builds the view with {@link FXMLLoader}, regardless of configuration.
+     *
+     * @param location classpath location of the FXML
+     * @return the root node and its controller
+     * @throws IOException if the FXML cannot be found or loaded
+     */
+    public LoadedView parse(String location) throws IOException {
+        URL url = ViewLoader.class.getResource(location);
+        if (url == null) {
+            throw new IOException("FXML not found: " + location);
+        }
+        FXMLLoader loader = new FXMLLoader(url);
+        loader.setControllerFactory(appContext::getBean);
+        Parent root = loader.load();
+        return new LoadedView(root, loader.getController(), false);
+    }
+
+    /**
+     * Returns whether {@link #load(String)} builds {@code location} without parsing it.
+     *
+     * @param location classpath location of the FXML
+     * @return {@code true} if a compiled builder is used
+     */
+    public boolean isCompiled(String location) {
+        return compiled && CompiledViews.LOCATIONS.contains(location);
+    }
+
+    /** A freshly built view: its root node and controller. */
+    public static final class LoadedView {
+        private final Parent root;
+        private final Object controller;
+        private final boolean compiled;
+
+        private LoadedView(Parent root, Object controller, boolean compiled) {
+            this.root = root;
+            this.controller = controller;
+            this.compiled = compiled;
+        }
+
+        /** @return root node of the view */
+        public Parent getRoot() {
+            return root;
+        }
+
+        /**
+         * Returns the controller declared by {@code fx:controller}.
+         *
+         * @param <T> controller type
+         * @return controller instance, or {@code null} if the FXML declares none
+         */
+        @SuppressWarnings("unchecked")
+        public <T> T getController() {
+            return (T) controller;
+        }
+
+        /** @return {@code true} if built by a compiled builder rather than {@link FXMLLoader} */
+        public boolean isCompiled() {
+            return compiled;
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package concordia.soen6611.igo_tvm;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongSupplier;
+
+/**
+ * Where the time goes while the kiosk boots, one record per JVM.
+ * <p>
+ * Each {@link Phase} is marked with its start and end in milliseconds since JVM
+ * start, and the Spring refresh also keeps the {@linkplain #getSlowestBeans() slowest
+ * bean instantiations}. Once the last phase ends the record is
+ * {@linkplain #completion() complete}: it is logged as a single JSON line
+ * ({@code Startup timeline {...}}), can be appended to a file for fleet collection
+ * ({@code igo.startup.timeline-file}), and stays readable through the getters; the
+ * running application registers it in the Spring context as the
+ * {@code startupTimeline} bean.
+ * </p>
+ *
+ * <h3>Threading</h3>
+ * Thread-safe. Phases are marked from the launcher, bootstrap and JavaFX threads.
+ */
+public final class StartupTimeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupTimeline.class);
+
+    /** Boot phases, in the order they happen. */
+    public enum Phase {
+        /** JVM start until {@code Application.init()}: class loading, JavaFX toolkit start. */
+        JVM_TO_INIT("jvmToInit"),
+        /** {@code SpringApplication.run}: context refresh including every singleton bean. */
+        SPRING_REFRESH("springRefresh"),
+        /** {@code Application.start()} until the first pulse has laid out the attract screen. */
+        FIRST_PULSE("firstPulse"),
+        /** First load of the welcome screen and handing the scene to the navigator. */
+        WELCOME_LOAD("welcomeLoad"),
+        /** Welcome screen shown until the pulse that lays it out: the first interactive frame. */
+        INTERACTIVE_FRAME("interactiveFrame");
+
+        /** Name used in the JSON record. */
+        private final String key;
+
+        Phase(String key) {
+            this.key = key;
+        }
+
+        /**
+         * @return name of the phase in the JSON record
+         */
+        public String key() {
+            return key;
+        }
+    }
+
+    /** How many of the slowest bean instantiations are kept. */
+    static final int SLOWEST_BEANS = 10;
+
+    /** Milliseconds since JVM start. */
+    private final LongSupplier uptime;
+
+    /** Wall-clock time the JVM started, epoch milliseconds. */
+    private final long jvmStartEpochMillis;
+
+    /** Start mark per phase. */
+    private final Map<Phase, Long> starts = new EnumMap<>(Phase.class);
+
+    /** End mark per phase. */
+    private final Map<Phase, Long> ends = new EnumMap<>(Phase.class);
+
+    /** Slowest bean instantiations, slowest first. */
+    private List<BeanTiming> slowestBeans = List.of();
+
+    /** Completed once the last phase has ended. */
+    private final CompletableFuture<StartupTimeline> completion = new CompletableFuture<>();
+
+    /**
+     * Creates a timeline measured against the running JVM's start.
+     */
+    public StartupTimeline() {
+        this(ManagementFactory.getRuntimeMXBean()::getUptime, ManagementFactory.getRuntimeMXBean().getStartTime());
+    }
+
+    /**
+     * Creates a timeline with its own clock (tests).
+     *
+     * @param uptime              milliseconds since JVM start
+     * @param jvmStartEpochMillis wall-clock time the JVM started
+     */
+    StartupTimeline(LongSupplier uptime, long jvmStartEpochMillis) {
+        this.uptime = uptime;
+        this.jvmStartEpochMillis = jvmStartEpochMillis;
+        starts.put(Phase.JVM_TO_INIT, 0L);
+    }
+
+    /**
+     * Marks the start of {@code phase} now. Only the first mark counts.
+     *
+     * @param phase phase starting
+     */
+    public synchronized void begin(Phase phase) {
+        starts.putIfAbsent(phase, uptime.getAsLong());
+    }
+
+    /**
+     * Marks the end of {@code phase} now. Only the first mark counts; ending
+     * {@link Phase#INTERACTIVE_FRAME} completes the timeline.
+     *
+     * @param phase phase ending
+     * @throws IllegalStateException if the phase was never started
+     */
+    public void end(Phase phase) {
+        synchronized (this) {
+            if (!starts.containsKey(phase)) {
+                throw new IllegalStateException(phase + " ended before it began");
+            }
+            if (ends.putIfAbsent(phase, uptime.getAsLong()) != null || phase != Phase.INTERACTIVE_FRAME) {
+                return;
+            }
+        }
+        logger.info("Startup timeline {}", toJson());
+        completion.complete(this);
+    }
+
+    /**
+     * Keeps the {@value #SLOWEST_BEANS} slowest of the given bean instantiations.
+     *
+     * @param beans bean instantiation times, in any order
+     */
+    public synchronized void setBeanTimings(List<BeanTiming> beans) {
+        List<BeanTiming> sorted = new ArrayList<>(beans);
+        sorted.sort(Comparator.comparingLong(BeanTiming::getMillis).reversed());
+        slowestBeans = List.copyOf(sorted.subList(0, Math.min(SLOWEST_BEANS, sorted.size())));
+    }
+
+    /**
+     * Returns a future completed with this timeline once the first interactive frame
+     * has been drawn.
+     *
+     * @return completion of the boot
+     */
+    public CompletableFuture<StartupTimeline> completion() {
+        return completion;
+    }
+
+    /**
+     * @param phase a phase
+     * @return when it started, in milliseconds since JVM start, or {@code -1} if it has not
+     */
+    public synchronized long getStartMillis(Phase phase) {
+        return starts.getOrDefault(phase, -1L);
+    }
+
+    /**
+     * @param phase a phase
+     * @return when it ended, in milliseconds since JVM start, or {@code -1} if it has not
+     */
+    public synchronized long getEndMillis(Phase phase) {
+        return ends.getOrDefault(phase, -1L);
+    }
+
+    /**
+     * @param phase a phase
+     * @return how long it took in milliseconds, or {@code -1} if it has not ended
+     */
+    public synchronized long getDurationMillis(Phase phase) {
+        Long end = ends.get(phase);
+        return end == null ? -1 : end - starts.get(phase);
+    }
+
+    /**
+     * @return milliseconds from JVM start to the first interactive frame, or {@code -1} before it
+     */
+    public long getTotalMillis() {
+        return getEndMillis(Phase.INTERACTIVE_FRAME);
+    }
+
+    /**
+     * @return wall-clock time the JVM started, epoch milliseconds
+     */
+    public long getJvmStartEpochMillis() {
+        return jvmStartEpochMillis;
+    }
+
+    /**
+     * @return the slowest bean instantiations of the Spring refresh, slowest first
+     */
+    public synchronized List<BeanTiming> getSlowestBeans() {
+        return Collections.unmodifiableList(slowestBeans);
+    }
+
+    /**
+     * Renders the timeline as one line of JSON.
+     *
+     * @return JSON record of this boot
+     */
+    public synchronized String toJson() {
+        StringBuilder json = new StringBuilder(512);
+        json.append("{\"jvmStartEpochMs\":").append(jvmStartEpochMillis)
+                .append(",\"totalMs\":").append(getTotalMillis())
+                .append(",\"phases\":{");
+        String sep = "";
+        for (Phase phase : Phase.values()) {
+            if (!starts.containsKey(phase)) {
+                continue;
+            }
+            json.append(sep).append('"').append(phase.key()).append("\":{\"startMs\":").append(getStartMillis(phase))
+                    .append(",\"endMs\":").append(getEndMillis(phase))
+                    .append(",\"durationMs\":").append(getDurationMillis(phase)).append('}');
+            sep = ",";
+        }
+        json.append("},\"slowestBeans\":[");
+        sep = "";
+        for (BeanTiming bean : slowestBeans) {
+            json.append(sep).append("{\"bean\":\"").append(escape(bean.getName()))
+                    .append("\",\"ms\":").append(bean.getMillis()).append('}');
+            sep = ",";
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * Appends {@link #toJson()} as one line to {@code file}, creating it if needed.
+     *
+     * @param file JSON-lines file collecting one record per boot
+     * @throws IOException if the file cannot be written
+     */
+    public void appendTo(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.writeString(file, toJson() + System.lineSeparator(), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private static String escape(String s) {
+        StringBuilder out = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    /** Time spent instantiating one bean, including the beans it created as dependencies. */
+    public static final class BeanTiming {
+
+        private final String name;
+        private final long millis;
+
+        /**
+         * @param name   bean name
+         * @param millis instantiation time in milliseconds
+         */
+        public BeanTiming(String name, long millis) {
+            this.name = name;
+            this.millis = millis;
+        }
+
+        /** @return bean name */
+        public String getName() { return name; }
+
+        /** @return instantiation time in milliseconds */
+        public long getMillis() { return millis; }
+
+        @Override
+        public String toString() {
+            return name + "=" + millis + "ms";
+        }
+    }
+}
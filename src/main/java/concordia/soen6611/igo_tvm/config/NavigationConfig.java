@@ -0,0 +1,36 @@
+package concordia.soen6611.igo_tvm.config;
+
+import concordia.soen6611.igo_tvm.models.NavigationGraph;
+import concordia.soen6611.igo_tvm.models.Screen;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Declares the kiosk purchase and reload flows used for predictive preloading.
+ */
+@Configuration
+public class NavigationConfig {
+
+    /**
+     * Screens likely to follow each screen, most likely first.
+     *
+     * @return navigation graph of the kiosk flows
+     */
+    @Bean
+    public NavigationGraph navigationGraph() {
+        return NavigationGraph.builder()
+                .flow(Screen.WELCOME, Screen.HOME)
+                .flow(Screen.HOME, Screen.BUY_TICKET, Screen.CARD_RELOAD)
+                // Purchase flow
+                .flow(Screen.BUY_TICKET, Screen.PAYMENT, Screen.HOME)
+                // Reload flow
+                .flow(Screen.CARD_RELOAD, Screen.CARD_RELOAD_AMOUNT, Screen.HOME)
+                .flow(Screen.CARD_RELOAD_AMOUNT, Screen.PAYMENT, Screen.HOME)
+                // Payment
+                .flow(Screen.PAYMENT, Screen.PAYMENT_SUCCESS, Screen.CASH_SUBMISSION, Screen.MOBILE_WALLET)
+                .flow(Screen.CASH_SUBMISSION, Screen.WELCOME, Screen.HOME)
+                .flow(Screen.MOBILE_WALLET, Screen.PAYMENT_SUCCESS, Screen.PAYMENT)
+                .flow(Screen.PAYMENT_SUCCESS, Screen.HOME)
+                .build();
+    }
+}
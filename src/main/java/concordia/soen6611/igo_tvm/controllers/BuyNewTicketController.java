@@ -1,30 +1,25 @@
 package concordia.soen6611.igo_tvm.controllers;
 
 import concordia.soen6611.igo_tvm.Services.*;
+import concordia.soen6611.igo_tvm.models.FareProduct;
 import concordia.soen6611.igo_tvm.models.OrderSummary;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
-import javafx.application.Platform;
+import concordia.soen6611.igo_tvm.models.Quote;
+import concordia.soen6611.igo_tvm.models.RiderType;
+import concordia.soen6611.igo_tvm.models.Screen;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
-import javafx.scene.Parent;
 import javafx.scene.control.*;
 import javafx.scene.input.Clipboard;
 import javafx.scene.input.ClipboardContent;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
-import javafx.util.Duration;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Controller;
 
-import java.io.IOException;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.Locale;
 
 /**
  * JavaFX controller for the “Buy New Ticket” flow.
@@ -32,7 +27,7 @@ import java.time.format.DateTimeFormatter;
  * Responsibilities:
  * <ul>
  *   <li>Initialize and localize the UI (via {@link I18nService}).</li>
- *   <li>Bind rider/trip selection controls and quantity to ticket pricing (via {@link FareRateService}).</li>
+ *   <li>Bind rider/trip selection controls and quantity to ticket pricing (via {@link QuoteEngine}).</li>
  *   <li>Compute subtotal, tax, and total in real time and render them.</li>
  *   <li>Persist the current order into {@link PaymentSession} and navigate to the payment screen.</li>
  *   <li>Provide accessibility helpers (text zoom via {@code TextZoomService} and contrast via {@code ContrastManager}).</li>
@@ -40,7 +35,8 @@ import java.time.format.DateTimeFormatter;
  * Notes:
  * <ul>
  *   <li>Quantity is only editable for <em>Single Trip</em>. For all other trip types quantity is forced to 1.</li>
- *   <li>Taxes are applied using the composite tax rate supplied by {@link FareRateService#getTax()}.</li>
+ *   <li>Prices come from one {@link Quote}, which rounds GST and QST separately; the order is made from
+ *       the quote on screen.</li>
  *   <li>This controller uses Spring’s prototype scope so each navigation creates a fresh instance.</li>
  * </ul>
  *
@@ -49,7 +45,7 @@ import java.time.format.DateTimeFormatter;
  */
 @Controller
 @org.springframework.context.annotation.Scope("prototype")
-public class BuyNewTicketController {
+public class BuyNewTicketController implements ScreenLifecycle {
 
     /** Left menu: Weekly button (injected via FXML). */
     public Button menuWeeklyBtn;
@@ -57,58 +53,65 @@ public class BuyNewTicketController {
     /** Label for the tax header. */
     public Label taxLabel;
 
-    @FXML private Button incBtn;
-    @FXML private Button decBtn;
+    @FXML Button incBtn;
+    @FXML Button decBtn;
 
     // ==== Headings and labels ====
-    @FXML private Label buyNewTicketLabel;
-    @FXML private Label totalLabel;
-    @FXML private Label riderTypeLabel;
-    @FXML private Label tripTypeLabel;
-    @FXML private Label priceLabel;
-    @FXML private Label quantityLabel;
+    @FXML Label buyNewTicketLabel;
+    @FXML Label totalLabel;
+    @FXML Label riderTypeLabel;
+    @FXML Label tripTypeLabel;
+    @FXML Label priceLabel;
+    @FXML Label quantityLabel;
 
     // ==== Left menu (quick trip-type selectors) ====
-    @FXML private Button menuSingleBtn;
-    @FXML private Button menuDayBtn;
-    @FXML private Button menuMonthlyBtn;
-    @FXML private Button menuWeekendBtn;
+    @FXML Button menuSingleBtn;
+    @FXML Button menuDayBtn;
+    @FXML Button menuMonthlyBtn;
+    @FXML Button menuWeekendBtn;
 
     // ==== Misc. UI ====
-    @FXML private Label clockLabel;
-    @FXML private Label questionLabel;
-    @FXML private Label helpLabel;
+    @FXML Label clockLabel;
+    @FXML Label questionLabel;
+    @FXML Label helpLabel;
 
     // ==== Rider type ====
-    @FXML private ToggleButton adultBtn, studentBtn, seniorBtn;
-    @FXML private ToggleGroup riderGroup;
+    @FXML ToggleButton adultBtn, studentBtn, seniorBtn;
+    @FXML ToggleGroup riderGroup;
 
     // ==== Trip type ====
-    @FXML private ToggleButton tripSingle, tripDay, tripMonthly, tripWeekend, tripWeekly;
-    @FXML private ToggleGroup tripGroup;
+    @FXML ToggleButton tripSingle, tripDay, tripMonthly, tripWeekend, tripWeekly;
+    @FXML ToggleGroup tripGroup;
 
     // ==== Pricing I/O ====
-    @FXML private TextField qtyField;
-    @FXML private Label unitValueLabel, totalValue, taxValue;
-    @FXML private Button makePaymentBtn;
-    @FXML private Button backBtn;
+    @FXML TextField qtyField;
+    @FXML Label unitValueLabel, totalValue, taxValue;
+    @FXML Button makePaymentBtn;
+    @FXML Button backBtn;
 
     // ==== Infrastructure & services ====
-    @Autowired private ApplicationContext appContext;
+    @Autowired private ScreenNavigator navigator;
     @Autowired private PaymentSession paymentSession;
     @Autowired private I18nService i18n;
-    @Autowired private FareRateService fareRateService;
+    @Autowired private QuoteEngine quoteEngine;
+    @Autowired private ClockService clockService;
+    @Autowired private MoneyFormatter moneyFormatter;
 
-    /** Ticking clock that updates the header time every second. */
-    private Timeline clock;
+    /** Subscriptions held while the screen is visible. */
+    private final ScreenSubscriptions subscriptions = new ScreenSubscriptions();
 
-    /** Clock format used by the on-screen clock. */
-    private static final DateTimeFormatter CLOCK_FMT = DateTimeFormatter.ofPattern("MMM dd, yyyy\nhh:mm a");
+    /** Quote on screen; the order is made from the same one. */
+    private Quote quote;
 
-    //    @FXML private Button btnFontSizeIn, btnFontSizeOut;
+    /** Reprices once for all the listeners one input fires. */
+    private final PulseCoalescer repricing = new PulseCoalescer(this::recalc);
 
-    @FXML private Label brandLink;
-    @FXML private javafx.scene.Parent root;
+
+
+    //    @FXML Button btnFontSizeIn, btnFontSizeOut;
+
+    @FXML Label brandLink;
+    @FXML javafx.scene.Parent root;
 
     // ===============================================================
 
@@ -117,31 +120,20 @@ public class BuyNewTicketController {
      * <p>
      * Initializes:
      * <ul>
-     *   <li>Header clock and periodic updates.</li>
      *   <li>Default rider (Adult) and trip (Single Trip) selections (if none chosen).</li>
      *   <li>Listeners to recompute pricing on selection/quantity changes.</li>
      *   <li>Quantity field constraints (digits only, minimum of 1).</li>
-     *   <li>Localization of all visible labels and buttons.</li>
-     *   <li>Accessibility helpers: {@code TextZoomService} registration and {@code ContrastManager} attachment.</li>
      * </ul>
      */
     @FXML
-    private void initialize() {
-        clock = new Timeline(
-                new KeyFrame(Duration.ZERO,
-                        e -> clockLabel.setText(LocalDateTime.now().format(CLOCK_FMT))),
-                new KeyFrame(Duration.seconds(1))
-        );
-        clock.setCycleCount(Timeline.INDEFINITE);
-        clock.play();
-
+    void initialize() {
         if (riderGroup.getSelectedToggle() == null && adultBtn != null) adultBtn.setSelected(true);
         if (tripGroup.getSelectedToggle() == null && tripSingle != null) tripSingle.setSelected(true);
 
-        riderGroup.selectedToggleProperty().addListener((o, ov, nv) -> recalc());
+        riderGroup.selectedToggleProperty().addListener((o, ov, nv) -> repricing.request());
         tripGroup.selectedToggleProperty().addListener((o, ov, nv) -> {
             updateQtyAvailability();
-            recalc();
+            repricing.request();
         });
         updateQtyAvailability();
 
@@ -154,63 +146,74 @@ public class BuyNewTicketController {
                 qtyField.setText("1");
                 return;
             }
-            recalc();
+            repricing.request();
         });
         recalc();
+    }
 
-        Platform.runLater(() -> {
-            var zoom = TextZoomService.get();
-            zoom.register(brandLink, buyNewTicketLabel, questionLabel, helpLabel, clockLabel, menuSingleBtn,
-                    taxValue, menuDayBtn, menuMonthlyBtn, menuWeekendBtn, menuWeeklyBtn, riderTypeLabel,
-                    tripTypeLabel, priceLabel, quantityLabel, totalLabel, adultBtn, studentBtn, seniorBtn, tripSingle,
-                    tripDay, tripMonthly, tripWeekend, tripWeekly, qtyField, unitValueLabel, totalValue, makePaymentBtn,
-                    backBtn, incBtn, decBtn, taxLabel);
-        });
+    /**
+     * Screen shown. Binds the labels to their localized text and re-renders the prices
+     * (the view may have been built ahead of time, and the language may have changed
+     * since), binds the header clock, and attaches the accessibility helpers:
+     * {@code TextZoomService} registration and {@code ContrastManager} attachment.
+     */
+    @Override
+    public void onEnter() {
+        bindTexts();
+        recalc();
+        subscriptions.clock(clockService, clockLabel);
+        subscriptions.zoom(brandLink, buyNewTicketLabel, questionLabel, helpLabel, clockLabel, menuSingleBtn,
+                taxValue, menuDayBtn, menuMonthlyBtn, menuWeekendBtn, menuWeeklyBtn, riderTypeLabel,
+                tripTypeLabel, priceLabel, quantityLabel, totalLabel, adultBtn, studentBtn, seniorBtn, tripSingle,
+                tripDay, tripMonthly, tripWeekend, tripWeekly, qtyField, unitValueLabel, totalValue, makePaymentBtn,
+                backBtn, incBtn, decBtn, taxLabel);
+        subscriptions.contrast(root);
+    }
 
-        javafx.application.Platform.runLater(() -> {
-            ContrastManager.getInstance().attach(root.getScene(), root);
-        });
-        updateTexts();
+    /**
+     * Screen replaced. Releases the clock and text bindings and accessibility registrations.
+     */
+    @Override
+    public void onExit() {
+        subscriptions.dispose();
     }
 
     /**
-     * Localizes all visible strings from the {@link I18nService}.
-     * <p>
-     * Called at initialization; call again if the app language changes at runtime.
+     * Binds all visible strings to their localized text from the {@link I18nService}.
      */
-    private void updateTexts() {
-        buyNewTicketLabel.setText(i18n.get("buyNewTicket.title"));
-        questionLabel.setText(i18n.get("buyNewTicket.question"));
+    private void bindTexts() {
+        subscriptions.bind(buyNewTicketLabel.textProperty(), i18n.text(MessageKey.BUY_NEW_TICKET_TITLE));
+        subscriptions.bind(questionLabel.textProperty(), i18n.text(MessageKey.BUY_NEW_TICKET_QUESTION));
 
         // Rider buttons (no tourist)
-        adultBtn.setText(i18n.get("buyNewTicket.adult"));
-        studentBtn.setText(i18n.get("buyNewTicket.student"));
-        seniorBtn.setText(i18n.get("buyNewTicket.senior"));
+        subscriptions.bind(adultBtn.textProperty(), i18n.text(MessageKey.BUY_NEW_TICKET_ADULT));
+        subscriptions.bind(studentBtn.textProperty(), i18n.text(MessageKey.BUY_NEW_TICKET_STUDENT));
+        subscriptions.bind(seniorBtn.textProperty(), i18n.text(MessageKey.BUY_NEW_TICKET_SENIOR));
 
         // Trip types (no multiple)
-        tripSingle.setText(i18n.get("buyNewTicket.single"));
-        tripDay.setText(i18n.get("buyNewTicket.day"));
-        tripMonthly.setText(i18n.get("buyNewTicket.monthly"));
-        tripWeekend.setText(i18n.get("buyNewTicket.weekend"));
-        tripWeekly.setText(i18n.get("buyNewTicket.tripWeekly"));
+        subscriptions.bind(tripSingle.textProperty(), i18n.text(MessageKey.BUY_NEW_TICKET_SINGLE));
+        subscriptions.bind(tripDay.textProperty(), i18n.text(MessageKey.BUY_NEW_TICKET_DAY));
+        subscriptions.bind(tripMonthly.textProperty(), i18n.text(MessageKey.BUY_NEW_TICKET_MONTHLY));
+        subscriptions.bind(tripWeekend.textProperty(), i18n.text(MessageKey.BUY_NEW_TICKET_WEEKEND));
+        subscriptions.bind(tripWeekly.textProperty(), i18n.text(MessageKey.BUY_NEW_TICKET_TRIP_WEEKLY));
 
         // Labels
-        riderTypeLabel.setText(i18n.get("buyNewTicket.riderType"));
-        tripTypeLabel.setText(i18n.get("buyNewTicket.tripType"));
-        priceLabel.setText(i18n.get("buyNewTicket.priceEach"));
-        quantityLabel.setText(i18n.get("buyNewTicket.quantity"));
-        taxLabel.setText(i18n.get("buyNewTicket.tax"));
-        totalLabel.setText(i18n.get("buyNewTicket.total"));
+        subscriptions.bind(riderTypeLabel.textProperty(), i18n.text(MessageKey.BUY_NEW_TICKET_RIDER_TYPE));
+        subscriptions.bind(tripTypeLabel.textProperty(), i18n.text(MessageKey.BUY_NEW_TICKET_TRIP_TYPE));
+        subscriptions.bind(priceLabel.textProperty(), i18n.text(MessageKey.BUY_NEW_TICKET_PRICE_EACH));
+        subscriptions.bind(quantityLabel.textProperty(), i18n.text(MessageKey.BUY_NEW_TICKET_QUANTITY));
+        subscriptions.bind(taxLabel.textProperty(), i18n.text(MessageKey.BUY_NEW_TICKET_TAX));
+        subscriptions.bind(totalLabel.textProperty(), i18n.text(MessageKey.BUY_NEW_TICKET_TOTAL));
 
         // Left menu (no multiple)
-        menuSingleBtn.setText(i18n.get("buyNewTicket.menuSingle"));
-        menuDayBtn.setText(i18n.get("buyNewTicket.menuDay"));
-        menuMonthlyBtn.setText(i18n.get("buyNewTicket.menuMonthly"));
-        menuWeekendBtn.setText(i18n.get("buyNewTicket.menuWeekend"));
-        menuWeeklyBtn.setText(i18n.get("buyNewTicket.menuWeeklyBtn"));
-
-        makePaymentBtn.setText(i18n.get("buyNewTicket.makePayment"));
-        helpLabel.setText(i18n.get("help"));
+        subscriptions.bind(menuSingleBtn.textProperty(), i18n.text(MessageKey.BUY_NEW_TICKET_MENU_SINGLE));
+        subscriptions.bind(menuDayBtn.textProperty(), i18n.text(MessageKey.BUY_NEW_TICKET_MENU_DAY));
+        subscriptions.bind(menuMonthlyBtn.textProperty(), i18n.text(MessageKey.BUY_NEW_TICKET_MENU_MONTHLY));
+        subscriptions.bind(menuWeekendBtn.textProperty(), i18n.text(MessageKey.BUY_NEW_TICKET_MENU_WEEKEND));
+        subscriptions.bind(menuWeeklyBtn.textProperty(), i18n.text(MessageKey.BUY_NEW_TICKET_MENU_WEEKLY_BTN));
+
+        subscriptions.bind(makePaymentBtn.textProperty(), i18n.text(MessageKey.BUY_NEW_TICKET_MAKE_PAYMENT));
+        subscriptions.bind(helpLabel.textProperty(), i18n.text(MessageKey.HELP));
     }
 
     /**
@@ -240,7 +243,7 @@ public class BuyNewTicketController {
      * @param e action event fired by rider selection change
      */
     @FXML
-    private void onRiderTypeChange(ActionEvent e) {recalc();}
+    void onRiderTypeChange(ActionEvent e) {repricing.request();}
 
     /**
      * Event handler for trip toggle changes. Adjusts quantity availability and recalculates price.
@@ -248,46 +251,46 @@ public class BuyNewTicketController {
      * @param e action event fired by trip selection change
      */
     @FXML
-    private void onTripChange(ActionEvent e) {
+    void onTripChange(ActionEvent e) {
         updateQtyAvailability();
-        recalc();
+        repricing.request();
     }
 
     /**
      * Left-menu shortcut: selects <em>Single Trip</em>, updates quantity availability, and recalculates.
      * @param e menu action
      */
-    @FXML private void onMenuSingle(ActionEvent e) { if (tripSingle != null) { tripSingle.setSelected(true); updateQtyAvailability(); recalc(); } }
+    @FXML void onMenuSingle(ActionEvent e) { if (tripSingle != null) { tripSingle.setSelected(true); updateQtyAvailability(); repricing.request(); } }
 
     /**
      * Left-menu shortcut: selects <em>Day Pass</em>, updates quantity availability, and recalculates.
      * @param e menu action
      */
-    @FXML private void onMenuDay(ActionEvent e)    { if (tripDay != null)    { tripDay.setSelected(true);    updateQtyAvailability(); recalc(); } }
+    @FXML void onMenuDay(ActionEvent e)    { if (tripDay != null)    { tripDay.setSelected(true);    updateQtyAvailability(); repricing.request(); } }
 
     /**
      * Left-menu shortcut: selects <em>Monthly Pass</em>, updates quantity availability, and recalculates.
      * @param e menu action
      */
-    @FXML private void onMenuMonthly(ActionEvent e){ if (tripMonthly != null){ tripMonthly.setSelected(true); updateQtyAvailability(); recalc(); } }
+    @FXML void onMenuMonthly(ActionEvent e){ if (tripMonthly != null){ tripMonthly.setSelected(true); updateQtyAvailability(); repricing.request(); } }
 
     /**
      * Left-menu shortcut: selects <em>Weekend Pass</em>, updates quantity availability, and recalculates.
      * @param e menu action
      */
-    @FXML private void onMenuWeekend(ActionEvent e){ if (tripWeekend != null){ tripWeekend.setSelected(true); updateQtyAvailability(); recalc(); } }
+    @FXML void onMenuWeekend(ActionEvent e){ if (tripWeekend != null){ tripWeekend.setSelected(true); updateQtyAvailability(); repricing.request(); } }
 
     /**
      * Left-menu shortcut: selects <em>Weekly Pass</em>, updates quantity availability, and recalculates.
      * @param e menu action
      */
-    @FXML private void onMenuWeekly(ActionEvent e) { if (tripWeekly != null) { tripWeekly.setSelected(true);  updateQtyAvailability(); recalc(); } }
+    @FXML void onMenuWeekly(ActionEvent e) { if (tripWeekly != null) { tripWeekly.setSelected(true);  updateQtyAvailability(); repricing.request(); } }
 
     /**
      * Increments quantity by 1 (minimum enforced elsewhere).
      */
     @FXML
-    private void incrementQty() {
+    void incrementQty() {
         qtyField.setText(String.valueOf(qty() + 1));
     }
 
@@ -295,7 +298,7 @@ public class BuyNewTicketController {
      * Decrements quantity by 1 but never below 1.
      */
     @FXML
-    private void decrementQty() {
+    void decrementQty() {
         qtyField.setText(String.valueOf(Math.max(1, qty() - 1)));
     }
 
@@ -313,49 +316,28 @@ public class BuyNewTicketController {
     }
 
     /**
-     * Recomputes and renders unit price, tax, and total based on the current rider, trip, and quantity.
+     * Quotes the current rider, trip, and quantity and renders the unit price, tax, and total.
      * <p>
-     * Tax is computed using {@link FareRateService#getTax()} and rounding is applied to 2 decimals.
+     * The quote comes from {@link QuoteEngine} under the fares in effect and is kept in
+     * {@link #quote}, so that a fare change before payment does not change the price shown.
      */
     private void recalc() {
-        double unit = currentUnitPrice();
-        int q = qty();
-
-        double subtotal = unit * q;
-        double tax      = round2(subtotal * fareRateService.getTax());
-        double total    = round2(subtotal + tax);
-
-        unitValueLabel.setText(String.format("$%.2f", unit));
-        taxValue.setText(String.format("$%.2f", tax));
-        totalValue.setText(String.format("$%.2f", total));
-    }
-
-    /**
-     * Rounds a value to two decimal places using {@link Math#round(double)} on cents.
-     *
-     * @param v raw value
-     * @return value rounded to 2 decimals
-     */
-    private static double round2(double v) {
-        return Math.round(v * 100.0) / 100.0;
-    }
+        quote = quoteEngine.quote(selectedRider(), selectedProduct(), qty());
 
-    /**
-     * Retrieves the current unit price from {@link FareRateService} for the selected rider and trip.
-     *
-     * @return unit price for a single ticket/pass (pre-tax)
-     */
-    private double currentUnitPrice() {
-        String rider = selectedRiderName();
-        String trip  = selectedTripName();
-        // Fare service returns base price for one ticket (no multiple scaling needed anymore)
-        return fareRateService.getRate(rider, trip);
+        Locale locale = i18n.getLocale();
+        unitValueLabel.setText(moneyFormatter.format(quote.getUnitPrice(), locale));
+        taxValue.setText(moneyFormatter.format(quote.getTax(), locale));
+        totalValue.setText(moneyFormatter.format(quote.getTotal(), locale));
     }
 
     /**
      * Finalizes the current selection into an {@link OrderSummary}, stores it in {@link PaymentSession},
      * and navigates to the payment screen.
      * <p>
+     * The order is made from the quote on screen, so it costs what the screen showed even if
+     * new fares took effect in between.
+     * </p>
+     * <p>
      * Quantity rules:
      * <ul>
      *   <li>For Single Trip, quantity is user-selected.</li>
@@ -365,57 +347,46 @@ public class BuyNewTicketController {
      * @param event the action event from the “Make Payment” button
      */
     @FXML
-    private void onMakePayment(ActionEvent event) {
-        String rider = selectedRiderName();
-        String trip = selectedTripName();
-        int trips = 1;
-        int q = qty();
-        double unit = currentUnitPrice();
-
-        double subtotal = unit * q;
-        double tax      = round2(subtotal * fareRateService.getTax());
-        double total    = round2(subtotal + tax);
+    void onMakePayment(ActionEvent event) {
+        // A change made in this same event has not been repriced yet
+        repricing.flush();
+        if (quote == null) {
+            recalc();
+        }
 
         // Save current order in the session
         paymentSession.setOrigin(PaymentSession.Origin.BUY_TICKET);
-        paymentSession.setCurrentOrder(new OrderSummary(rider, trip, trips, q, unit, total));
+        paymentSession.setCurrentOrder(quote.toOrder());
 
         // Navigate to the Payment page
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/Fxml/Payment.fxml"));
-            loader.setControllerFactory(appContext::getBean);
-            Parent view = loader.load();
-            ((Node) event.getSource()).getScene().setRoot(view);
-        } catch (IOException ex) {
-            ex.printStackTrace();
-        }
+        navigator.goTo(Screen.PAYMENT);
     }
 
     /**
-     * Resolves the selected rider name for pricing and persistence.
+     * Resolves the selected rider for pricing and persistence.
      *
-     * @return one of {@code "Adult"}, {@code "Student"}, {@code "Senior"}; defaults to {@code "Adult"} if none selected
+     * @return {@link RiderType#ADULT}, {@link RiderType#STUDENT} or {@link RiderType#SENIOR};
+     * defaults to {@link RiderType#ADULT} if none selected
      */
-    private String selectedRiderName() {
-        if (adultBtn != null && adultBtn.isSelected()) return "Adult";
-        if (studentBtn != null && studentBtn.isSelected()) return "Student";
-        if (seniorBtn != null && seniorBtn.isSelected()) return "Senior";
-        return "Adult";
+    private RiderType selectedRider() {
+        if (adultBtn != null && adultBtn.isSelected()) return RiderType.ADULT;
+        if (studentBtn != null && studentBtn.isSelected()) return RiderType.STUDENT;
+        if (seniorBtn != null && seniorBtn.isSelected()) return RiderType.SENIOR;
+        return RiderType.ADULT;
     }
 
     /**
-     * Resolves the selected trip type for pricing and persistence.
+     * Resolves the selected fare product for pricing and persistence.
      *
-     * @return one of {@code "Single Trip"}, {@code "Day Pass"}, {@code "Monthly Pass"},
-     * {@code "Weekend Pass"}, {@code "Weekly Pass"}; defaults to {@code "Single Trip"} if none selected
+     * @return the selected product; defaults to {@link FareProduct#SINGLE_TRIP} if none selected
      */
-    private String selectedTripName() {
-        if (tripSingle != null && tripSingle.isSelected()) return "Single Trip";
-        if (tripDay != null && tripDay.isSelected()) return "Day Pass";
-        if (tripMonthly != null && tripMonthly.isSelected()) return "Monthly Pass";
-        if (tripWeekend != null && tripWeekend.isSelected()) return "Weekend Pass";
-        if (tripWeekly != null && tripWeekly.isSelected()) return "Weekly Pass";
-        return "Single Trip";
+    private FareProduct selectedProduct() {
+        if (tripSingle != null && tripSingle.isSelected()) return FareProduct.SINGLE_TRIP;
+        if (tripDay != null && tripDay.isSelected()) return FareProduct.DAY_PASS;
+        if (tripMonthly != null && tripMonthly.isSelected()) return FareProduct.MONTHLY_PASS;
+        if (tripWeekend != null && tripWeekend.isSelected()) return FareProduct.WEEKEND_PASS;
+        if (tripWeekly != null && tripWeekly.isSelected()) return FareProduct.WEEKLY_PASS;
+        return FareProduct.SINGLE_TRIP;
     }
 
     /**
@@ -424,21 +395,7 @@ public class BuyNewTicketController {
      * @param event action event from the “Back” button
      */
     public void onBack(ActionEvent event) {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/Fxml/Home.fxml"));
-            loader.setControllerFactory(appContext::getBean);
-            Parent home = loader.load();
-            ((Node) event.getSource()).getScene().setRoot(home);
-        } catch (IOException ex) {
-            ex.printStackTrace();
-        }
-    }
-
-    /**
-     * Stops the ticking clock. Call when the controller is being torn down to avoid leaks.
-     */
-    public void shutdown() {
-        if (clock != null) clock.stop();
+        navigator.goTo(Screen.HOME);
     }
 
     /**
@@ -447,25 +404,9 @@ public class BuyNewTicketController {
      * @param event mouse click on the brand area
      */
     @FXML
-    private void onBrandClick(MouseEvent event) {
+    void onBrandClick(MouseEvent event) {
         paymentSession.clear();
-        goWelcomeScreen((Node) event.getSource());
-    }
-
-    /**
-     * Replaces the current scene root with the Welcome screen.
-     *
-     * @param anyNodeInScene any node that belongs to the current scene
-     */
-    private void goWelcomeScreen(Node anyNodeInScene) {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/welcome-screen.fxml"));
-            loader.setControllerFactory(appContext::getBean);
-            Parent home = loader.load();
-            anyNodeInScene.getScene().setRoot(home);
-        } catch (Exception ex) {
-            ex.printStackTrace();
-        }
+        navigator.goTo(Screen.WELCOME);
     }
 
     /**
@@ -484,9 +425,9 @@ public class BuyNewTicketController {
      * Styles are applied from {@code /styles/Modal.css} if available.
      */
     @FXML
-    private void onHelpClick() {
+    void onHelpClick() {
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
-        alert.setTitle(i18n.get("home.help.dialogTitle"));  // i18n
+        alert.setTitle(i18n.get(MessageKey.HOME_HELP_DIALOG_TITLE));  // i18n
         alert.setHeaderText(null);
 
         // ---- Header row (icon + localized title)
@@ -494,15 +435,15 @@ public class BuyNewTicketController {
         header.setAlignment(Pos.CENTER_LEFT);
         Label icon  = new Label("🛠");
         icon.getStyleClass().add("help-icon");
-        Label title = new Label(i18n.get("home.help.header"));  // i18n
+        Label title = new Label(i18n.get(MessageKey.HOME_HELP_HEADER));  // i18n
         title.getStyleClass().add("help-title");
         header.getChildren().addAll(icon, title);
 
         // ---- Body (localized labels)
         VBox body = new VBox(8);
         body.getChildren().addAll(
-                contactRow(i18n.get("home.help.phone"), "+1 (514) 555-0137"),
-                contactRow(i18n.get("home.help.email"), "support@stm.example")
+                contactRow(i18n.get(MessageKey.HOME_HELP_PHONE), "+1 (514) 555-0137"),
+                contactRow(i18n.get(MessageKey.HOME_HELP_EMAIL), "support@stm.example")
         );
 
         VBox content = new VBox(14, header, body);
@@ -518,7 +459,7 @@ public class BuyNewTicketController {
         pane.getStyleClass().add("help-modal");
 
         // Localized Close button
-        ButtonType closeType = new ButtonType(i18n.get("home.help.close"), ButtonBar.ButtonData.CANCEL_CLOSE);
+        ButtonType closeType = new ButtonType(i18n.get(MessageKey.HOME_HELP_CLOSE), ButtonBar.ButtonData.CANCEL_CLOSE);
         alert.getButtonTypes().setAll(closeType);
         Node closeBtn = pane.lookupButton(closeType);
         if (closeBtn != null) closeBtn.getStyleClass().add("help-close-btn");
@@ -541,7 +482,7 @@ public class BuyNewTicketController {
         Label val = new Label(value);
         val.getStyleClass().add("help-value");
 
-        Button copy = new Button(i18n.get("home.help.copy")); // i18n
+        Button copy = new Button(i18n.get(MessageKey.HOME_HELP_COPY)); // i18n
         copy.getStyleClass().add("help-copy-btn");
         copy.setOnAction(e -> {
             ClipboardContent cc = new ClipboardContent();
@@ -1,17 +1,16 @@
 package concordia.soen6611.igo_tvm.controllers;
 
 import concordia.soen6611.igo_tvm.Services.*;
+import concordia.soen6611.igo_tvm.models.FareProduct;
 import concordia.soen6611.igo_tvm.models.OrderSummary;
 import concordia.soen6611.igo_tvm.models.PassType;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
-import javafx.application.Platform;
+import concordia.soen6611.igo_tvm.models.Quote;
+import concordia.soen6611.igo_tvm.models.RiderType;
+import concordia.soen6611.igo_tvm.models.Screen;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
 import javafx.scene.Node;
-import javafx.scene.Parent;
 import javafx.scene.control.Button;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.Label;
@@ -19,16 +18,10 @@ import javafx.scene.control.ListCell;
 import javafx.scene.image.ImageView;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.BorderPane;
-import javafx.util.Duration;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Controller;
 
-import java.io.IOException;
 import java.net.URL;
-import java.text.NumberFormat;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.Locale;
 import java.util.ResourceBundle;
 
@@ -39,25 +32,26 @@ import java.util.ResourceBundle;
  * <ul>
  *   <li>Localize and initialize UI controls and accessibility helpers.</li>
  *   <li>Allow the user to pick a {@link PassType} and (if applicable) a quantity.</li>
- *   <li>Estimate unit price, subtotal, tax, and total using {@link FareRateService}.</li>
+ *   <li>Estimate unit price, subtotal, tax, and total using {@link QuoteEngine}.</li>
  *   <li>Persist the current selection into {@link PaymentSession} and navigate to payment.</li>
  * </ul>
  *
  * Behavior notes:
  * <ul>
  *   <li>Quantity is enabled only for {@link PassType#SINGLE}; for all other pass types it is forced to 1.</li>
- *   <li>Composite tax is retrieved from {@link FareRateService#getTax()}.</li>
- *   <li>A live clock updates every second in the header.</li>
+ *   <li>Prices come from one {@link Quote} from the {@link QuoteEngine}; the order is made from the
+ *       quote on screen.</li>
+ *   <li>The header clock is bound to the shared {@link ClockService}.</li>
  * </ul>
  *
  * Scope: Spring {@code prototype}; each navigation instantiates a fresh controller.
  */
 @Controller
 @org.springframework.context.annotation.Scope("prototype")
-public class CardReloadAmountController implements Initializable {
+public class CardReloadAmountController implements Initializable, ScreenLifecycle {
 
-    /** Spring application context used as controller factory for navigation. */
-    private final ApplicationContext appContext;
+    /** Navigator that owns the application scene and cached screens. */
+    private final ScreenNavigator navigator;
 
     /** Session object for persisting origin and current order across screens. */
     private final PaymentSession paymentSession;
@@ -67,7 +61,7 @@ public class CardReloadAmountController implements Initializable {
     /** Clickable brand label; returns to welcome screen. */
     @FXML public Label brandLink;
 
-    /** Clock label in the header; updated every second. */
+    /** Clock label in the header; bound to the shared clock. */
     @FXML public Label clockLabel;
 
     // ===== Left (card) =====
@@ -138,34 +132,46 @@ public class CardReloadAmountController implements Initializable {
     /** Subtotal label text (localized). */
     public Label subTotalLabel;
 
-    /** Ticking timeline for the header clock. */
-    private Timeline clock;
 
-    /** CAD currency formatter used for all displayed monetary amounts. */
-    private final NumberFormat CAD = NumberFormat.getCurrencyInstance(Locale.CANADA);
+    /** Currency formatter used for all displayed monetary amounts. */
+    private final MoneyFormatter moneyFormatter;
 
-    /** Clock format shown in the header. */
-    private static final DateTimeFormatter CLOCK_FMT =
-            DateTimeFormatter.ofPattern("MMM dd, yyyy\nhh : mm a");
 
     /** i18n service providing localized strings and locale change notifications. */
     private final I18nService i18n;
 
-    /** Fare service returning base rates and tax percentage. */
+    /** Prices the selected rider, pass type and quantity. */
     @Autowired
-    private FareRateService fareRateService;
+    private QuoteEngine quoteEngine;
+
+    /** Shared header clock. */
+    private final ClockService clockService;
+
+    /** Subscriptions held while the screen is visible. */
+    private final ScreenSubscriptions subscriptions = new ScreenSubscriptions();
+
+    /** Quote on screen; the order is made from the same one. */
+    private Quote quote;
+
+    /** Reprices once for all the listeners one input fires. */
+    private final PulseCoalescer repricing = new PulseCoalescer(this::updateEstimate);
 
     /**
      * Constructs the controller with required Spring-managed collaborators.
      *
-     * @param appContext     application context used for controller factory during navigation
+     * @param navigator      screen navigator used to switch views
      * @param paymentSession session model to persist current order and origin
      * @param i18n           localization service for UI text and locale changes
+     * @param clockService   shared header clock
+     * @param moneyFormatter currency formatter for the estimate
      */
-    public CardReloadAmountController(ApplicationContext appContext, PaymentSession paymentSession, I18nService i18n) {
-        this.appContext = appContext;
+    public CardReloadAmountController(ScreenNavigator navigator, PaymentSession paymentSession, I18nService i18n,
+                                      ClockService clockService, MoneyFormatter moneyFormatter) {
+        this.navigator = navigator;
         this.paymentSession = paymentSession;
         this.i18n = i18n;
+        this.clockService = clockService;
+        this.moneyFormatter = moneyFormatter;
     }
 
     /**
@@ -174,25 +180,15 @@ public class CardReloadAmountController implements Initializable {
      * Initializes:
      * <ul>
      *   <li>Rider tag (defaults to "Adult" if none supplied).</li>
-     *   <li>Header clock and its periodic updates.</li>
      *   <li>Pass type and quantity combo boxes (with defaults).</li>
      *   <li>Listeners to keep estimates in sync with selections.</li>
-     *   <li>Text zoom and contrast accessibility helpers.</li>
-     *   <li>Localization for visible text and combo box cells; re-applies on locale change.</li>
+     *   <li>Combo box cells that show each pass type in the current language.</li>
      * </ul>
      */
     @Override
     @FXML
     public void initialize(URL location, ResourceBundle resources) {
-        riderTypeTag.setText("Adult"); // "Adult", "Student", etc.
-
-        // Live clock
-        clock = new Timeline(
-                new KeyFrame(Duration.ZERO, e -> clockLabel.setText(LocalDateTime.now().format(CCLOCK_FMT))),
-                new KeyFrame(Duration.seconds(1))
-        );
-        clock.setCycleCount(Timeline.INDEFINITE);
-        clock.play();
+        riderTypeTag.setText(RiderType.ADULT.label()); // "Adult", "Student", etc.
 
         // Populate enum items once
         if (passTypeBox.getItems().isEmpty()) {
@@ -209,76 +205,61 @@ public class CardReloadAmountController implements Initializable {
 
         passTypeBox.getSelectionModel().selectedItemProperty().addListener((obs, o, n) -> {
             updateQtyAvailability();
-            updateEstimate();
+            repricing.request();
         });
-        qtyBox.getSelectionModel().selectedItemProperty().addListener((o, ov, nv) -> updateEstimate());
+        qtyBox.getSelectionModel().selectedItemProperty().addListener((o, ov, nv) -> repricing.request());
 
         updateEstimate();
 
-        Platform.runLater(() -> {
-            var zoom = TextZoomService.get();
-            zoom.register((Node) brandLink, reloadCardLabel, clockLabel, youCardLabel, opusCardImage, passTypeBox,
-                    qtyLabel, qtyBox, estimatedTotalLabel, estTotalValue, proceedBtn, helpLabel);
-        });
-
-        javafx.application.Platform.runLater(() -> {
-            ContrastManager.getInstance().attach(root.getScene(), root);
-        });
+        // Localized cells, for the popup rows and the visible "button" part
+        passTypeBox.setCellFactory(cb -> new PassTypeCell());
+        passTypeBox.setButtonCell(new PassTypeCell());
+    }
 
-        // Localize UI
-        localizePassTypeCombo();
-        updateTexts();
+    /**
+     * Screen shown.
+     * <ul>
+     *   <li>Header clock binding to {@link ClockService}.</li>
+     *   <li>Text zoom and contrast accessibility helpers.</li>
+     *   <li>Labels and the combo prompt bound to their localized text.</li>
+     *   <li>The estimate, formatted for the current language.</li>
+     * </ul>
+     */
+    @Override
+    public void onEnter() {
+        subscriptions.clock(clockService, clockLabel);
+        subscriptions.zoom((Node) brandLink, reloadCardLabel, clockLabel, youCardLabel, opusCardImage, passTypeBox,
+                qtyLabel, qtyBox, estimatedTotalLabel, estTotalValue, proceedBtn, helpLabel);
+        subscriptions.contrast(root);
 
-        // React to locale changes
-        i18n.localeProperty().addListener((obs, oldL, newL) -> {
-            updateTexts();
-            localizePassTypeCombo();
-        });
+        bindTexts();
+        updateEstimate();
     }
 
     /**
-     * Applies localized strings to static labels and buttons.
-     * <p>
-     * Call again if the locale changes at runtime.
+     * Screen replaced. Releases the clock and text bindings and accessibility registrations.
      */
-    private void updateTexts() {
-        reloadCardLabel.setText(i18n.get("cardReloadAmount.title"));
-        youCardLabel.setText(i18n.get("cardReloadAmount.youCard"));
-//        opusCardLabel.setText(i18n.get("cardReloadAmount.opusCard"));
-        reloadOptionLabel.setText(i18n.get("cardReloadAmount.reloadOption"));
-        selectTypeLabel.setText(i18n.get("cardReloadAmount.selectType"));
-        qtyLabel.setText(i18n.get("cardReloadAmount.qty"));
-        estimatedTotalLabel.setText(i18n.get("cardReloadAmount.estimatedTotal"));
-        proceedBtn.setText(i18n.get("cardReloadAmount.proceed"));
-        unitPriceLabel.setText(i18n.get("cardReloadAmount.unitPrice"));
-        subTotalLabel.setText(i18n.get("cardReloadAmount.subTotal"));
-        taxLineLabel.setText(i18n.get("cardReloadAmount.taxLabel"));
+    @Override
+    public void onExit() {
+        subscriptions.dispose();
     }
 
     /**
-     * Localizes {@link #passTypeBox} prompt and items, both for the popup rows and the visible button cell.
+     * Binds static labels, buttons and the pass type prompt to their localized text.
      */
-    private void localizePassTypeCombo() {
-        // Localized prompt and field label
-        selectTypeLabel.setText(i18n.get("cardReloadAmount.selectType"));
-        passTypeBox.setPromptText(i18n.get("cardReloadAmount.selectPassPrompt", new Object[]{}));
-
-        // Each row in popup
-        passTypeBox.setCellFactory(cb -> new ListCell<>() {
-            @Override protected void updateItem(PassType item, boolean empty) {
-                super.updateItem(item, empty);
-                setText(empty || item == null ? null : i18n.get(item.key()));
-            }
-        });
-
-        // The visible "button" part
-        ListCell<PassType> buttonCell = new ListCell<>() {
-            @Override protected void updateItem(PassType item, boolean empty) {
-                super.updateItem(item, empty);
-                setText(empty || item == null ? null : i18n.get(item.key()));
-            }
-        };
-        passTypeBox.setButtonCell(buttonCell);
+    private void bindTexts() {
+        subscriptions.bind(reloadCardLabel.textProperty(), i18n.text(MessageKey.CARD_RELOAD_AMOUNT_TITLE));
+        subscriptions.bind(youCardLabel.textProperty(), i18n.text(MessageKey.CARD_RELOAD_AMOUNT_YOU_CARD));
+//        opusCardLabel.setText(i18n.get("cardReloadAmount.opusCard"));
+        subscriptions.bind(reloadOptionLabel.textProperty(), i18n.text(MessageKey.CARD_RELOAD_AMOUNT_RELOAD_OPTION));
+        subscriptions.bind(selectTypeLabel.textProperty(), i18n.text(MessageKey.CARD_RELOAD_AMOUNT_SELECT_TYPE));
+        subscriptions.bind(qtyLabel.textProperty(), i18n.text(MessageKey.CARD_RELOAD_AMOUNT_QTY));
+        subscriptions.bind(estimatedTotalLabel.textProperty(), i18n.text(MessageKey.CARD_RELOAD_AMOUNT_ESTIMATED_TOTAL));
+        subscriptions.bind(proceedBtn.textProperty(), i18n.text(MessageKey.CARD_RELOAD_AMOUNT_PROCEED));
+        subscriptions.bind(unitPriceLabel.textProperty(), i18n.text(MessageKey.CARD_RELOAD_AMOUNT_UNIT_PRICE));
+        subscriptions.bind(subTotalLabel.textProperty(), i18n.text(MessageKey.CARD_RELOAD_AMOUNT_SUB_TOTAL));
+        subscriptions.bind(taxLineLabel.textProperty(), i18n.text(MessageKey.CARD_RELOAD_AMOUNT_TAX_LABEL));
+        subscriptions.bind(passTypeBox.promptTextProperty(), i18n.text(MessageKey.CARD_RELOAD_AMOUNT_SELECT_PASS_PROMPT));
     }
 
     /**
@@ -298,13 +279,13 @@ public class CardReloadAmountController implements Initializable {
     // ===== Helpers (selection & pricing) =====
 
     /**
-     * Resolves the current rider label (defaults to "Adult" if missing).
+     * Resolves the rider shown on the tag (defaults to {@link RiderType#ADULT} if missing).
      *
-     * @return rider string used by the fare service
+     * @return rider category used by the fare service
      */
-    private String selectedRider() {
+    private RiderType selectedRider() {
         String tag = riderTypeTag.getText();
-        return (tag == null || tag.isBlank()) ? "Adult" : tag.trim();
+        return (tag == null || tag.isBlank()) ? RiderType.ADULT : RiderType.fromLabel(tag);
     }
 
     /**
@@ -318,18 +299,12 @@ public class CardReloadAmountController implements Initializable {
     }
 
     /**
-     * Maps the selected pass type to the fare service trip name keys.
+     * Maps the selected pass type to the fare product it sells.
      *
-     * @return one of "Weekly Pass", "Monthly Pass", "Day Pass", or "Single Trip"
+     * @return the product priced by the fare service
      */
-    private String selectedTripName() {
-        switch (selectedPassType()) {
-            case WEEKLY:  return "Weekly Pass";
-            case MONTHLY: return "Monthly Pass";
-            case DAY:     return "Day Pass";
-            case SINGLE:
-            default:      return "Single Trip";
-        }
+    private FareProduct selectedProduct() {
+        return selectedPassType().product();
     }
 
     /**
@@ -343,40 +318,19 @@ public class CardReloadAmountController implements Initializable {
     }
 
     /**
-     * Returns the base unit price for the currently selected rider and pass type.
-     *
-     * @return pre-tax unit price for one pass/ticket
-     */
-    private double unitPrice() {
-        return fareRateService.getRate(selectedRider(), selectedTripName());
-    }
-
-    /**
-     * Rounds to two decimal places.
-     *
-     * @param v value to round
-     * @return {@code v} rounded to two decimals
-     */
-    private static double round2(double v) { return Math.round(v * 100.0) / 100.0; }
-
-    /**
-     * Recomputes the price estimate (unit, subtotal, tax, total) and updates the UI labels.
+     * Quotes the selection and updates the estimate labels (unit, subtotal, tax, total).
      * <p>
-     * Uses {@link #unitPrice()}, {@link #quantity()}, and {@link FareRateService#getTax()}.
-     * Values are formatted in Canadian dollars.
+     * Uses {@link QuoteEngine} under the fares in effect; the quote is kept in {@link #quote}
+     * for the order. Values are formatted in Canadian dollars for the current language.
      */
     private void updateEstimate() {
-        double unit = unitPrice();
-        int qty = quantity();
+        quote = quoteEngine.quote(selectedRider(), selectedProduct(), quantity());
 
-        double subtotal = unit * qty;
-        double tax      = round2(subtotal * fareRateService.getTax());
-        double total    = round2(subtotal + tax);
-
-        estUnitValue.setText(CAD.format(unit));
-        estSubtotalValue.setText(CAD.format(subtotal));
-        taxValue.setText(CAD.format(tax));
-        estTotalValue.setText(CAD.format(total));
+        Locale locale = i18n.getLocale();
+        estUnitValue.setText(moneyFormatter.format(quote.getUnitPrice(), locale));
+        estSubtotalValue.setText(moneyFormatter.format(quote.getSubtotal(), locale));
+        taxValue.setText(moneyFormatter.format(quote.getTax(), locale));
+        estTotalValue.setText(moneyFormatter.format(quote.getTotal(), locale));
     }
 
     // ===== Event handlers =====
@@ -390,36 +344,24 @@ public class CardReloadAmountController implements Initializable {
      *   <li>{@link PassType#SINGLE}: user-selected quantity.</li>
      *   <li>Other pass types: quantity is forced to 1.</li>
      * </ul>
+     * The order is made from the quote on screen, so it costs what the estimate showed.
      *
      * @param event click event from the "Proceed" button
      */
     @FXML
-    private void onProceedToPayment(ActionEvent event) {
-        String rider = selectedRider();
-        String trip  = selectedTripName();
-        int trips    = 1;                 // no “Multiple Pass” anymore
-        int qty      = quantity();
-        double unit  = unitPrice();
-
-        double subtotal = unit * qty;
-        double tax      = round2(subtotal * fareRateService.getTax());
-        double total    = round2(subtotal + tax);
+    void onProceedToPayment(ActionEvent event) {
+        // A change made in this same event has not been repriced yet
+        repricing.flush();
+        if (quote == null) {
+            updateEstimate();
+        }
 
         // Save order in session
         paymentSession.setOrigin(PaymentSession.Origin.RELOAD_CARD);
-
-        // If your OrderSummary has (rider, trip, trips, quantity, unitPrice, total):
-        paymentSession.setCurrentOrder(new OrderSummary(rider, trip, trips, qty, unit, total));
+        paymentSession.setCurrentOrder(quote.toOrder());
 
         // Navigate to payment
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/Fxml/Payment.fxml"));
-            loader.setControllerFactory(appContext::getBean);
-            Parent view = loader.load();
-            ((Node) event.getSource()).getScene().setRoot(view);
-        } catch (IOException ex) {
-            ex.printStackTrace();
-        }
+        navigator.goTo(Screen.PAYMENT);
     }
 
     /**
@@ -428,23 +370,7 @@ public class CardReloadAmountController implements Initializable {
      * @param event mouse event from the brand link
      */
     @FXML
-    private void onBrandClick(MouseEvent event) { goWelcome((Node) event.getSource()); }
-
-    /**
-     * Loads and shows the welcome screen in the current scene.
-     *
-     * @param n any node in the current scene (used to resolve the scene/root)
-     */
-    private void goWelcome(Node n) {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/welcome-screen.fxml"));
-            loader.setControllerFactory(appContext::getBean);
-            Parent home = loader.load();
-            n.getScene().setRoot(home);
-        } catch (Exception ex) {
-            ex.printStackTrace();
-        }
-    }
+    void onBrandClick(MouseEvent event) { navigator.goTo(Screen.WELCOME); }
 
     /**
      * Back button handler. Navigates to the Home screen.
@@ -452,15 +378,8 @@ public class CardReloadAmountController implements Initializable {
      * @param event click from the "Back" button
      */
     @FXML
-    private void onBack(ActionEvent event) {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/Fxml/Home.fxml"));
-            loader.setControllerFactory(appContext::getBean);
-            Parent home = loader.load();
-            ((Node) event.getSource()).getScene().setRoot(home);
-        } catch (IOException ex) {
-            ex.printStackTrace();
-        }
+    void onBack(ActionEvent event) {
+        navigator.goTo(Screen.HOME);
     }
 
     /**
@@ -470,9 +389,24 @@ public class CardReloadAmountController implements Initializable {
      * @param e action event from a volume control
      */
     @FXML
-    private void onVolume(ActionEvent e) {}
+    void onVolume(ActionEvent e) {}
+
+    /**
+     * {@link #passTypeBox} cell showing its pass type's localized name. The text is bound
+     * to the shared binding of the key, so cells follow the language without being rebuilt.
+     */
+    private final class PassTypeCell extends ListCell<PassType> {
+        @Override
+        protected void updateItem(PassType item, boolean empty) {
+            super.updateItem(item, empty);
+            textProperty().unbind();
+            if (empty || item == null) {
+                setText(null);
+            } else {
+                textProperty().bind(i18n.text(item.key()));
+            }
+        }
+    }
 
     // ===== Internal constant typo fix (internal use only) =====
-    // Corrected local reference to the clock format within initialize.
-    private static final DateTimeFormatter CCLOCK_FMT = CLOCK_FMT;
 }
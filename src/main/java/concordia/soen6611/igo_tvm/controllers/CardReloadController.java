@@ -3,15 +3,17 @@ package concordia.soen6611.igo_tvm.controllers;
 import concordia.soen6611.igo_tvm.Services.*;
 import concordia.soen6611.igo_tvm.exceptions.*;
 import concordia.soen6611.igo_tvm.models.ExceptionDialog;
-import javafx.animation.KeyFrame;
+import concordia.soen6611.igo_tvm.models.FareProduct;
+import concordia.soen6611.igo_tvm.models.Money;
+import concordia.soen6611.igo_tvm.models.RiderType;
+import concordia.soen6611.igo_tvm.models.Screen;
 import javafx.animation.PauseTransition;
-import javafx.animation.Timeline;
 import javafx.application.Platform;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleObjectProperty;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.scene.Node;
-import javafx.scene.Parent;
 import javafx.scene.control.*;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.BorderPane;
@@ -19,10 +21,8 @@ import javafx.util.Duration;
 import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Controller;
 
-import java.io.IOException;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 
@@ -45,7 +45,7 @@ import java.util.concurrent.CompletionException;
  */
 @Controller
 @org.springframework.context.annotation.Scope("prototype")
-public class CardReloadController {
+public class CardReloadController implements ScreenLifecycle {
 
     /** Root container; used to attach contrast manager. */
     public BorderPane root;
@@ -61,22 +61,20 @@ public class CardReloadController {
 
     /** Button to start the card-reading sequence. */
     @FXML
-    private Button startReadBtn;
+    Button startReadBtn;
 
     /** Progress indicator shown while the card read is in progress. */
     @FXML
-    private ProgressIndicator readProgress;
+    ProgressIndicator readProgress;
 
     /** Status label reflecting the current read state (ready/reading/done/failed). */
     @FXML
-    private Label readStatus;
+    Label readStatus;
 
-    /** Live clock timeline that updates {@link #clockLabel} every second. */
-    private Timeline clock;
 
     /** Header clock label showing current date/time. */
     @FXML
-    private Label clockLabel;
+    Label clockLabel;
 
     /** i18n service to resolve localized strings and watch locale changes. */
     private final I18nService i18n;
@@ -84,12 +82,15 @@ public class CardReloadController {
     /** Fare service (not used directly here for pricing but injected for consistency/potential use). */
     private final FareRateService fareRateService;
 
-    /** Spring application context for controller-factory backed navigation. */
+    /** Spring application context, handed to {@link ExceptionDialog} for its controller factory. */
     private final ApplicationContext appContext;
 
-    /** Clock display format. */
-    private static final DateTimeFormatter CLOCK_FMT =
-            DateTimeFormatter.ofPattern("MMM dd, yyyy\nhh : mm a");
+    /** Navigator that owns the application scene and cached screens. */
+    private final ScreenNavigator navigator;
+
+    /** Shared header clock. */
+    private final ClockService clockService;
+
 
     /** Session model used to carry origin/state between screens. */
     private final PaymentSession paymentSession;
@@ -97,80 +98,90 @@ public class CardReloadController {
     /** Service that performs (or simulates) card read operations. */
     private final CardReloadService cardReloadService;
 
+    /** Message shown in {@link #readStatus}; the label is bound to its localized text. */
+    private final ObjectProperty<MessageKey> status =
+            new SimpleObjectProperty<>(MessageKey.CARD_RELOAD_READY_TO_READ_MESSAGE);
+
+    /** Subscriptions (clock, text bindings, read in progress, accessibility) held while visible. */
+    private final ScreenSubscriptions subscriptions = new ScreenSubscriptions();
+
+    /** Whether the screen is shown; late read callbacks are ignored once it has left. */
+    private boolean visible;
+
     /**
      * Constructs the controller with required collaborators.
      *
      * @param i18n               internationalization service
      * @param fareRateService    fare rate service
-     * @param appContext         Spring application context for navigation
+     * @param appContext         Spring application context for error dialogs
+     * @param navigator          screen navigator used to switch views
      * @param paymentSession     session container for cross-screen state
      * @param cardReloadService  async/simulated card read service
+     * @param clockService       shared header clock
      */
     public CardReloadController(I18nService i18n,
                                 FareRateService fareRateService,
                                 ApplicationContext appContext,
+                                ScreenNavigator navigator,
                                 PaymentSession paymentSession,
-                                CardReloadService cardReloadService) {
+                                CardReloadService cardReloadService,
+                                ClockService clockService) {
         this.i18n = i18n;
         this.fareRateService = fareRateService;
         this.appContext = appContext;
+        this.navigator = navigator;
         this.paymentSession = paymentSession;
         this.cardReloadService = cardReloadService;
+        this.clockService = clockService;
     }
 
     /**
-     * JavaFX initialization hook. Sets up:
+     * Screen shown. Sets up:
      * <ul>
-     *   <li>Localized text for all visible labels.</li>
-     *   <li>A locale-change listener to re-apply localized text.</li>
-     *   <li>A live clock that refreshes {@link #clockLabel} every second.</li>
+     *   <li>Labels bound to their localized text; the read status starts at ready.</li>
+     *   <li>{@link #clockLabel} bound to the shared {@link ClockService}.</li>
      *   <li>Accessibility helpers: {@link TextZoomService} and {@link ContrastManager}.</li>
      * </ul>
      */
-    @FXML
-    private void initialize() {
-        updateTexts();
-        i18n.localeProperty().addListener((obs, oldL, newL) -> updateTexts());
-
-        // Live clock
-        clock = new Timeline(
-                new KeyFrame(Duration.ZERO, e -> clockLabel.setText(LocalDateTime.now().format(CLOCK_FMT))),
-                new KeyFrame(Duration.seconds(1))
-        );
-        clock.setCycleCount(Timeline.INDEFINITE);
-        clock.play();
-
-        Platform.runLater(() -> {
-            var zoom = TextZoomService.get();
-            zoom.register(brandLink, reloadCardLabel, clockLabel, tapYouCardLabel, readStatus, reloadCardLabel);
-        });
-
-        javafx.application.Platform.runLater(() -> {
-            ContrastManager.getInstance().attach(root.getScene(), root);
-        });
+    @Override
+    public void onEnter() {
+        visible = true;
+        status.set(MessageKey.CARD_RELOAD_READY_TO_READ_MESSAGE);
+        bindTexts();
+        subscriptions.clock(clockService, clockLabel);
+        subscriptions.zoom(brandLink, reloadCardLabel, clockLabel, tapYouCardLabel, readStatus, reloadCardLabel);
+        subscriptions.contrast(root);
     }
 
     /**
-     * Applies localized text to visible labels on this screen.
-     * <p>
-     * Called on initialization and again whenever the locale changes.
+     * Screen replaced. Cancels a card read still in progress (including its delayed
+     * navigation) and releases all subscriptions.
      */
-    private void updateTexts() {
-        reloadCardLabel.setText(i18n.get("cardReload.title"));
-        tapYouCardLabel.setText(i18n.get("cardReload.message"));
-        readStatus.setText(i18n.get("cardReload.readyToReadMessage"));
+    @Override
+    public void onExit() {
+        visible = false;
+        subscriptions.dispose();
+    }
 
+    /**
+     * Binds the labels on this screen to their localized text, the status line to
+     * whichever message {@link #status} holds.
+     */
+    private void bindTexts() {
+        subscriptions.bind(reloadCardLabel.textProperty(), i18n.text(MessageKey.CARD_RELOAD_TITLE));
+        subscriptions.bind(tapYouCardLabel.textProperty(), i18n.text(MessageKey.CARD_RELOAD_MESSAGE));
+        subscriptions.bind(readStatus.textProperty(), i18n.text(status));
     }
 
     /**
-     * Delegates to {@link CardReloadService} to obtain a fare for a given rider/pass combination.
+     * Delegates to {@link CardReloadService} to obtain a fare for a given rider/product combination.
      *
-     * @param riderType rider type (e.g., "Adult", "Student")
-     * @param passType  pass type (e.g., "Single Trip", "Monthly Pass")
-     * @return fare amount for one unit of the specified rider/pass
+     * @param rider   rider category
+     * @param product fare product
+     * @return fare amount for one unit of the specified rider/product
      */
-    public double getFare(String riderType, String passType) {
-        return cardReloadService.getFare(riderType, passType);
+    public Money getFare(RiderType rider, FareProduct product) {
+        return cardReloadService.getFare(rider, product);
     }
 
     /**
@@ -179,25 +190,9 @@ public class CardReloadController {
      * @param event mouse event originating from the brand link
      */
     @FXML
-    private void onBrandClick(MouseEvent event) {
+    void onBrandClick(MouseEvent event) {
         paymentSession.clear();
-        goWelcomeScreen((Node) event.getSource());
-    }
-
-    /**
-     * Loads and displays the welcome screen by replacing the current scene's root.
-     *
-     * @param anyNodeInScene any node belonging to the current scene
-     */
-    private void goWelcomeScreen(Node anyNodeInScene) {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/welcome-screen.fxml"));
-            loader.setControllerFactory(appContext::getBean);
-            Parent home = loader.load();
-            anyNodeInScene.getScene().setRoot(home);
-        } catch (Exception ex) {
-            ex.printStackTrace();
-        }
+        navigator.goTo(Screen.WELCOME);
     }
 
     /**
@@ -206,14 +201,7 @@ public class CardReloadController {
      * @param event action event from the Back button
      */
     public void onBack(ActionEvent event) {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/Fxml/Home.fxml"));
-            loader.setControllerFactory(appContext::getBean);
-            Parent home = loader.load();
-            ((Node) event.getSource()).getScene().setRoot(home);
-        } catch (IOException ex) {
-            ex.printStackTrace();
-        }
+        navigator.goTo(Screen.HOME);
     }
 
     /**
@@ -235,13 +223,13 @@ public class CardReloadController {
      * @param event action event from the "Start Reading" button
      */
     @FXML
-    private void onStartReading(javafx.event.ActionEvent event) {
+    void onStartReading(javafx.event.ActionEvent event) {
         Map<String, String> optionMap = new HashMap<>();
-        optionMap.put("success", i18n.get("cardReload.option.success"));
-        optionMap.put("network", i18n.get("cardReload.option.network"));
-        optionMap.put("hardware", i18n.get("cardReload.option.hardware"));
-        optionMap.put("database", i18n.get("cardReload.option.database"));
-        optionMap.put("user", i18n.get("cardReload.option.user"));
+        optionMap.put("success", i18n.get(MessageKey.CARD_RELOAD_OPTION_SUCCESS));
+        optionMap.put("network", i18n.get(MessageKey.CARD_RELOAD_OPTION_NETWORK));
+        optionMap.put("hardware", i18n.get(MessageKey.CARD_RELOAD_OPTION_HARDWARE));
+        optionMap.put("database", i18n.get(MessageKey.CARD_RELOAD_OPTION_DATABASE));
+        optionMap.put("user", i18n.get(MessageKey.CARD_RELOAD_OPTION_USER));
 
         List<String> translatedOptions = new ArrayList<>(optionMap.values());
 
@@ -252,9 +240,9 @@ public class CardReloadController {
                 translatedOptions
         );
 
-        dialog.setTitle(i18n.get("cardReload.simulation.title"));
-        dialog.setHeaderText(i18n.get("cardReload.simulation.header"));
-        dialog.setContentText(i18n.get("cardReload.simulation.scenario"));
+        dialog.setTitle(i18n.get(MessageKey.CARD_RELOAD_SIMULATION_TITLE));
+        dialog.setHeaderText(i18n.get(MessageKey.CARD_RELOAD_SIMULATION_HEADER));
+        dialog.setContentText(i18n.get(MessageKey.CARD_RELOAD_SIMULATION_SCENARIO));
 
         Optional<String> result = dialog.showAndWait();
 
@@ -273,9 +261,10 @@ public class CardReloadController {
         startReadBtn.setDisable(true);
         readProgress.setVisible(true);
         readProgress.setManaged(true);
-        readStatus.setText(i18n.get("cardReload.readingStartedMessage"));
+        status.set(MessageKey.CARD_RELOAD_READING_STARTED_MESSAGE);
 
-        cardReloadService.readCardAsync(false) // Use false for normal flow
+        CompletableFuture<Void> read = subscriptions.track(cardReloadService.readCardAsync(false)); // Use false for normal flow
+        read
                 .thenCompose(v -> {
                     // After the read completes, check if we should simulate an exception
                     if (!choice.equals("success")) {
@@ -285,25 +274,25 @@ public class CardReloadController {
                             case "network":
                                 // Translated message
                                 failedFuture.completeExceptionally(new NetworkException(
-                                        i18n.get("cardReload.error.network")
+                                        i18n.get(MessageKey.CARD_RELOAD_ERROR_NETWORK)
                                 ));
                                 break;
                             case "hardware":
                                 // Translated message
                                 failedFuture.completeExceptionally(new HardwareException(
-                                        i18n.get("cardReload.error.hardware")
+                                        i18n.get(MessageKey.CARD_RELOAD_ERROR_HARDWARE)
                                 ));
                                 break;
                             case "database":
                                 // Translated message
                                 failedFuture.completeExceptionally(new DatabaseException(
-                                        i18n.get("cardReload.error.database")
+                                        i18n.get(MessageKey.CARD_RELOAD_ERROR_DATABASE)
                                 ));
                                 break;
                             case "user":
                                 // Translated message
                                 failedFuture.completeExceptionally(new UserException(
-                                        i18n.get("cardReload.error.user")
+                                        i18n.get(MessageKey.CARD_RELOAD_ERROR_USER)
                                 ));
                                 break;
                         }
@@ -312,18 +301,19 @@ public class CardReloadController {
                     return CompletableFuture.completedFuture(null);
                 })
                 .thenRun(() -> Platform.runLater(() -> {
-                    readStatus.setText(i18n.get("cardReload.readingDoneMessage"));
+                    if (!visible) return;
+                    status.set(MessageKey.CARD_RELOAD_READING_DONE_MESSAGE);
                     readProgress.setVisible(false);
                     readProgress.setManaged(false);
 
                     Alert ok = new Alert(Alert.AlertType.INFORMATION);
-                    ok.setTitle(i18n.get("cardReload.modalTitle"));
+                    ok.setTitle(i18n.get(MessageKey.CARD_RELOAD_MODAL_TITLE));
                     ok.setHeaderText(null);
-                    ok.setContentText(i18n.get("cardReload.readingSuccessfulMessage"));
+                    ok.setContentText(i18n.get(MessageKey.CARD_RELOAD_READING_SUCCESSFUL_MESSAGE));
 
                     Button okButton = (Button) ok.getDialogPane().lookupButton(ButtonType.OK);
                     if (okButton != null) {
-                        okButton.setText(i18n.get("cardReload.ok"));
+                        okButton.setText(i18n.get(MessageKey.CARD_RELOAD_OK));
                     }
 
                     ok.show();
@@ -331,13 +321,18 @@ public class CardReloadController {
                     PauseTransition after = new PauseTransition(Duration.seconds(2));
                     after.setOnFinished(x -> {
                         ok.close();
-                        goNext((Node) event.getSource());
+                        goNext();
                     });
-                    after.play();
+                    subscriptions.play(after);
+                    subscriptions.onDispose(ok::close);
                 }))
                 .exceptionally(t -> {
                     Throwable cause = (t instanceof CompletionException && t.getCause() != null) ? t.getCause() : t;
+                    if (cause instanceof CancellationException) {
+                        return null; // screen left while reading
+                    }
                     Platform.runLater(() -> {
+                        if (!visible) return;
                         // Show dialog for known AbstractCustomException or wrap otherwise
                         if (cause instanceof AbstractCustomException) {
                             ExceptionDialog.show((AbstractCustomException) cause, ((Node) event.getSource()).getScene().getWindow(), appContext);
@@ -348,7 +343,7 @@ public class CardReloadController {
                         startReadBtn.setDisable(false);
                         readProgress.setVisible(false);
                         readProgress.setManaged(false);
-                        readStatus.setText(i18n.get("cardReload.readingFailedMessage"));
+                        status.set(MessageKey.CARD_RELOAD_READING_FAILED_MESSAGE);
                     });
                     return null;
                 });
@@ -358,17 +353,9 @@ public class CardReloadController {
      * Navigates to the amount-selection screen after a successful read.
      * <p>
      * If loading fails, re-enables the start button to allow the user to retry.
-     *
-     * @param source any node in the current scene (used to resolve the scene/root)
      */
-    private void goNext(Node source) {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/Fxml/CardReloadAmount.fxml"));
-            loader.setControllerFactory(appContext::getBean);
-            Parent next = loader.load();
-            source.getScene().setRoot(next);
-        } catch (Exception ex) {
-            ex.printStackTrace();
+    private void goNext() {
+        if (!navigator.goTo(Screen.CARD_RELOAD_AMOUNT)) {
             startReadBtn.setDisable(false);
         }
     }
@@ -1,20 +1,24 @@
 package concordia.soen6611.igo_tvm.controllers;
 
 import concordia.soen6611.igo_tvm.Services.I18nService;
+import concordia.soen6611.igo_tvm.Services.MessageKey;
+import concordia.soen6611.igo_tvm.Services.MoneyFormatter;
+import concordia.soen6611.igo_tvm.Services.ClockService;
 import concordia.soen6611.igo_tvm.Services.ContrastManager;
+import concordia.soen6611.igo_tvm.Services.PaymentService;
 import concordia.soen6611.igo_tvm.Services.PaymentSession;
+import concordia.soen6611.igo_tvm.Services.ScreenNavigator;
 import concordia.soen6611.igo_tvm.Services.TextZoomService;
+import concordia.soen6611.igo_tvm.models.Money;
 import concordia.soen6611.igo_tvm.models.OrderSummary;
+import concordia.soen6611.igo_tvm.models.Screen;
 import javafx.animation.Animation;
 import javafx.animation.KeyFrame;
 import javafx.animation.PauseTransition;
 import javafx.animation.Timeline;
-import javafx.application.Platform;
+import javafx.beans.binding.Bindings;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Node;
-import javafx.scene.Parent;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
@@ -22,12 +26,8 @@ import javafx.scene.control.ProgressIndicator;
 import javafx.scene.image.ImageView;
 import javafx.scene.input.MouseEvent;
 import javafx.util.Duration;
-import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Controller;
 
-import java.io.IOException;
-import java.text.NumberFormat;
-import java.util.Locale;
 
 /**
  * Controller for the Cash Submission screen.
@@ -43,141 +43,169 @@ import java.util.Locale;
  * Behavior:
  * <ul>
  *   <li>Cash counting is simulated using a {@link Timeline} ticking every second.</li>
- *   <li>When inserted amount reaches total, a success dialog is shown and the app returns to welcome.</li>
+ *   <li>When inserted amount reaches total, the payment is completed, a success dialog is shown
+ *       and the app returns to welcome.</li>
+ *   <li>Cancelling, or leaving through the brand link, cancels the payment: cash not fully
+ *       inserted is never recorded as a sale.</li>
  * </ul>
  */
 @Controller
 @org.springframework.context.annotation.Scope("prototype")
-public class CashSubmissionController {
+public class CashSubmissionController implements ScreenLifecycle {
 
     /** i18n service providing localized strings and current locale. */
     private final I18nService i18n;
 
     /** Brand link and clock labels in the header. */
-    @FXML private Label brandLink, clockLabel;
+    @FXML Label brandLink, clockLabel;
 
     /** Bilingual "Total Due" label. */
-    @FXML private Label totalDueLabel;
+    @FXML Label totalDueLabel;
 
     /** Instruction text for inserting cash. */
-    @FXML private Label instructionLabel;
+    @FXML Label instructionLabel;
 
     /** Current inserted amount (localized currency). */
-    @FXML private Label insertedValue;
+    @FXML Label insertedValue;
 
     /** Remaining amount to be paid (localized currency). */
     @FXML
-    private Label remainingValue;
+    Label remainingValue;
 
     /** Spinner shown while processing/printing after payment completes. */
-    @FXML private ProgressIndicator processingIndicator;
+    @FXML ProgressIndicator processingIndicator;
 
     /** Illustration for cash insertion. */
-    @FXML private ImageView cashIllustration;
+    @FXML ImageView cashIllustration;
 
-    /** Spring application context for controller-factory-backed navigation. */
-    private final ApplicationContext appContext;
+    /** Navigator that owns the application scene and cached screens. */
+    private final ScreenNavigator navigator;
 
     /** Session container holding the current {@link OrderSummary}. */
     private final PaymentSession paymentSession;
 
+    /** Payment service holding the cash payment being collected. */
+    private final PaymentService paymentService;
+
+    /** Shared header clock. */
+    private final ClockService clockService;
+
+    /** Currency rendering for the total and the amounts counted. */
+    private final MoneyFormatter moneyFormatter;
+
+    /** Buffer the amounts are rendered into on every tick, reused. */
+    private final StringBuilder amountBuffer = new StringBuilder(32);
+
+    /** Subscriptions (clock, ticker, text bindings, locale listener, accessibility) held while visible. */
+    private final ScreenSubscriptions subscriptions = new ScreenSubscriptions();
+
     /** Screen title label ("Cash Payment"). */
-    @FXML private Label cashPaymentLabel;
+    @FXML Label cashPaymentLabel;
 
     /** "Amount Inserted" label. */
-    @FXML private Label amountInsertedLabel;
+    @FXML Label amountInsertedLabel;
 
     /** "Remaining" label. */
-    @FXML private Label remainingLabel;
+    @FXML Label remainingLabel;
 
     /** Back/Cancel button. */
-    @FXML private Button backBtn;
+    @FXML Button backBtn;
+
+    /** Denominations the simulated customer inserts, largest first. */
+    private static final Money FIVE_DOLLARS = Money.ofCents(500);
+    private static final Money TWO_DOLLARS  = Money.ofCents(200);
+    private static final Money ONE_DOLLAR   = Money.ofCents(100);
 
     /** Amount due for this order (read from session). */
-    private double total;       // amount due
+    private Money total = Money.ZERO;       // amount due
 
     /** Simulated amount of cash inserted so far. */
-    private double inserted;    // simulated inserted cash
+    private Money inserted = Money.ZERO;    // simulated inserted cash
 
     /** Timeline that simulates cash being counted in steps. */
     private Timeline ticker;    // counts cash up
 
     /** Root node of this scene, used for attaching contrast handling. */
-    @FXML private javafx.scene.Parent root;
+    @FXML javafx.scene.Parent root;
 
     /**
      * Constructs the controller with required collaborators.
      *
-     * @param appContext      Spring application context for navigation
+     * @param navigator       screen navigator used to switch views
      * @param paymentSession  session storing current order and app state
      * @param i18n            internationalization service
+     * @param clockService    shared header clock
+     * @param moneyFormatter  currency formatter
+     * @param paymentService  service holding the cash payment being collected
      */
-    public CashSubmissionController(ApplicationContext appContext,
-                                    PaymentSession paymentSession, I18nService i18n) {
-        this.appContext = appContext;
+    public CashSubmissionController(ScreenNavigator navigator,
+                                    PaymentSession paymentSession, I18nService i18n,
+                                    ClockService clockService, MoneyFormatter moneyFormatter,
+                                    PaymentService paymentService) {
+        this.navigator = navigator;
         this.paymentSession = paymentSession;
+        this.paymentService = paymentService;
         this.i18n = i18n;
+        this.clockService = clockService;
+        this.moneyFormatter = moneyFormatter;
     }
 
     /**
-     * JavaFX lifecycle hook. Initializes totals, starts the cash counting simulation,
-     * registers accessibility helpers, and wires i18n updates.
+     * Screen shown. Binds the header clock, initializes totals, starts the cash
+     * counting simulation, registers accessibility helpers, and binds the labels to
+     * their localized text. The view may be built before an order exists, so the total
+     * is read here.
      */
-    @FXML
-    private void initialize() {
-        // 1) Read total from session (fallback 0.0)
+    @Override
+    public void onEnter() {
+        // Header clock
+        subscriptions.clock(clockService, clockLabel);
+
+        // 1) Read total from session (fallback zero)
         OrderSummary o = paymentSession != null ? paymentSession.getCurrentOrder() : null;
-        total = (o != null) ? o.getTotal() : 0.0;
+        total = (o != null) ? o.getTotal() : Money.ZERO;
 
-        // 2) Show bilingual total
-        NumberFormat en = NumberFormat.getCurrencyInstance(Locale.CANADA);
-        NumberFormat fr = NumberFormat.getCurrencyInstance(Locale.CANADA_FRENCH);
-        totalDueLabel.setText(String.format("Total Due: %s | Total à Payer: %s",
-                en.format(total), fr.format(total)));
+        // 2) Localized labels, including the total in the current locale's currency format
+        bindTexts();
 
         // 3) Initialize amounts
-        inserted = 0.0;
+        inserted = Money.ZERO;
         updateAmounts();
 
         // 4) Simulate bills/coins being counted every ~700ms
         ticker = new Timeline(new KeyFrame(Duration.millis(1000), e -> stepInsert()));
         ticker.setCycleCount(Animation.INDEFINITE);
-        ticker.play();
-
-        Platform.runLater(() -> {
-            // Register text nodes for zooming
-            TextZoomService.get().register(brandLink, cashPaymentLabel, clockLabel, totalDueLabel, instructionLabel, insertedValue, remainingValue,
-                    amountInsertedLabel, remainingLabel, backBtn);
-        });
+        subscriptions.play(ticker);
 
-        javafx.application.Platform.runLater(() -> {
-            ContrastManager.getInstance().attach(root.getScene(), root);
-        });
+        // Register text nodes for zooming
+        subscriptions.zoom(brandLink, cashPaymentLabel, clockLabel, totalDueLabel, instructionLabel, insertedValue, remainingValue,
+                amountInsertedLabel, remainingLabel, backBtn);
+        subscriptions.contrast(root);
 
-        i18n.localeProperty().addListener((obs, oldL, newL) -> {
-            updateTexts();
-            updateAmounts();
-        });
+        subscriptions.listen(i18n.localeProperty(), (obs, oldL, newL) -> updateAmounts());
+    }
 
-        updateTexts();
+    /**
+     * Screen replaced. Stops the cash ticker and any pending redirect, closes the
+     * success modal, and releases all subscriptions.
+     */
+    @Override
+    public void onExit() {
+        subscriptions.dispose();
     }
 
     /**
-     * Applies localized strings to all visible text elements on the screen.
-     * Re-run on locale changes to refresh labels and formatted values.
+     * Binds all static text elements on the screen to their localized text, and the
+     * total due to its message formatted for the current locale.
      */
-    private void updateTexts() {
-        cashPaymentLabel.setText(i18n.get("cashPayment.title"));
-        java.util.Locale locale = i18n.getLocale();
-        java.text.NumberFormat fmt = locale.getLanguage().equals("fr") ?
-                java.text.NumberFormat.getCurrencyInstance(java.util.Locale.CANADA_FRENCH) :
-                java.text.NumberFormat.getCurrencyInstance(java.util.Locale.CANADA);
-        String totalText = i18n.get("cashPayment.totalDue", fmt.format(total));
-        totalDueLabel.setText(totalText);
-        instructionLabel.setText(i18n.get("cashPayment.instruction"));
-        amountInsertedLabel.setText(i18n.get("cashPayment.amountInserted"));
-        remainingLabel.setText(i18n.get("cashPayment.remaining"));
-        backBtn.setText(i18n.get("cashPayment.cancel"));
+    private void bindTexts() {
+        subscriptions.bind(cashPaymentLabel.textProperty(), i18n.text(MessageKey.CASH_PAYMENT_TITLE));
+        subscriptions.bind(totalDueLabel.textProperty(), Bindings.createStringBinding(
+                () -> i18n.get(MessageKey.CASH_PAYMENT_TOTAL_DUE, money(total)), i18n.localeProperty()));
+        subscriptions.bind(instructionLabel.textProperty(), i18n.text(MessageKey.CASH_PAYMENT_INSTRUCTION));
+        subscriptions.bind(amountInsertedLabel.textProperty(), i18n.text(MessageKey.CASH_PAYMENT_AMOUNT_INSERTED));
+        subscriptions.bind(remainingLabel.textProperty(), i18n.text(MessageKey.CASH_PAYMENT_REMAINING));
+        subscriptions.bind(backBtn.textProperty(), i18n.text(MessageKey.CASH_PAYMENT_CANCEL));
     }
 
 
@@ -186,24 +214,25 @@ public class CashSubmissionController {
     /**
      * Simulates a single cash insertion step and updates the UI.
      * <p>
-     * Uses a simple step ladder of 5, 2, and 1 to reach the total with minimal change.
-     * If the remaining amount is &lt; 1, the exact remainder is inserted to finish cleanly.
-     * When the inserted amount meets or exceeds the total, stops the ticker, hides the spinner,
-     * shows a localized success dialog, clears the session, and navigates to the welcome screen.
+     * Uses a simple step ladder of 5, 2, and 1, as a rider with notes and dollar coins
+     * would; the last one may take the inserted amount past the total. When the inserted
+     * amount meets or exceeds the total, stops the ticker, completes the payment with the
+     * cash tendered and the change given back, hides the spinner, shows a localized success
+     * dialog, clears the session, and navigates to the welcome screen.
      */
     private void stepInsert() {
-        // simple step ladder: 5, 2, 1 to reach total cleanly
-        double remaining = Math.max(0.0, total - inserted);
-        double step = remaining >= 5.0 ? 5.0 : remaining >= 2.0 ? 2.0 : 1.0;
+        // simple step ladder: 5, 2, 1; whatever goes past the total is given back as change
+        Money remaining = total.minus(inserted).max(Money.ZERO);
+        Money step = remaining.compareTo(FIVE_DOLLARS) >= 0 ? FIVE_DOLLARS
+                : remaining.compareTo(TWO_DOLLARS) >= 0 ? TWO_DOLLARS : ONE_DOLLAR;
 
-        // If we’re within < 1, use exact remainder to finish
-        if (remaining > 0 && remaining < 1.0) step = remaining;
-
-        inserted = Math.min(total, inserted + step);
+        inserted = inserted.plus(step);
         updateAmounts();
 
-        if (inserted >= total - 1e-9) {
+        if (inserted.compareTo(total) >= 0) {
             ticker.stop();
+            Money change = inserted.minus(total);
+            paymentService.processPayment(inserted, change);
 
             // Hide spinner
             processingIndicator.setVisible(false);
@@ -211,9 +240,9 @@ public class CashSubmissionController {
 
             // i18n success modal
             Alert ok = new Alert(Alert.AlertType.INFORMATION);
-            ok.setTitle(i18n.get("cashPayment.modal.title"));       // e.g., "Cash Payment" / "Paiement en espèces"
+            ok.setTitle(i18n.get(MessageKey.CASH_PAYMENT_MODAL_TITLE));       // e.g., "Cash Payment" / "Paiement en espèces"
             ok.setHeaderText(null);
-            ok.setContentText(i18n.get("cashPayment.modal.received"));// e.g., "Payment received. Printing your ticket…"
+            ok.setContentText(i18n.get(MessageKey.CASH_PAYMENT_MODAL_RECEIVED));// e.g., "Payment received. Printing your ticket…"
             ok.show();
 
             PauseTransition wait = new PauseTransition(Duration.seconds(3));
@@ -222,7 +251,8 @@ public class CashSubmissionController {
                 paymentSession.clear();
                 goWelcomePage();
             });
-            wait.play();
+            subscriptions.play(wait);
+            subscriptions.onDispose(ok::close);
         }
     }
 
@@ -230,31 +260,26 @@ public class CashSubmissionController {
      * Updates the "inserted" and "remaining" amounts using the current locale's currency format.
      */
     private void updateAmounts() {
-        java.util.Locale loc = i18n.getLocale();
-        java.text.NumberFormat money =
-                loc.getLanguage().equals("fr")
-                        ? java.text.NumberFormat.getCurrencyInstance(java.util.Locale.CANADA_FRENCH)
-                        : java.text.NumberFormat.getCurrencyInstance(java.util.Locale.CANADA);
-
-        insertedValue.setText(money.format(inserted));
-        double rem = Math.max(0.0, total - inserted);
-        remainingValue.setText(money.format(rem));
+        insertedValue.setText(money(inserted).toString());
+        remainingValue.setText(money(total.minus(inserted).max(Money.ZERO)).toString());
+    }
+
+    /**
+     * Renders {@code amount} into {@link #amountBuffer}, replacing its previous content.
+     *
+     * @param amount amount to render
+     * @return the buffer, holding {@code amount} formatted as currency for the current language
+     */
+    private CharSequence money(Money amount) {
+        amountBuffer.setLength(0);
+        return moneyFormatter.appendTo(amountBuffer, amount, i18n.getLocale());
     }
 
     /**
-     * Navigates back to the welcome screen by replacing the current scene root.
-     * Called when payment succeeds.
+     * Navigates back to the welcome screen. Called when payment succeeds.
      */
     private void goWelcomePage() {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/welcome-screen.fxml"));
-            loader.setControllerFactory(appContext::getBean);
-            Parent view = loader.load();
-            // any visible node works; use any control you have on this scene
-            totalDueLabel.getScene().setRoot(view);
-        } catch (IOException ex) {
-            ex.printStackTrace();
-        }
+        navigator.goTo(Screen.WELCOME);
     }
 
     /* ===== Footer handlers ===== */
@@ -267,48 +292,33 @@ public class CashSubmissionController {
     public void onVolume(ActionEvent actionEvent) { /* optional */ }
 
     /**
-     * Cancels the cash payment flow and navigates back to the Home screen.
+     * Cancels the cash payment and navigates back to the Home screen.
      * Also stops the cash counting ticker if it is running.
      *
      * @param actionEvent click event from the Cancel/Back button
      */
     public void onCancelCashPayment(ActionEvent actionEvent) {
-        // stop ticker if user cancels
-        if (ticker != null) ticker.stop();
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/Fxml/Home.fxml"));
-            loader.setControllerFactory(appContext::getBean);
-            Parent view = loader.load();
-            ((Node) actionEvent.getSource()).getScene().setRoot(view);
-        } catch (IOException ex) {
-            ex.printStackTrace();
-        }
+        abandon();
+        navigator.goTo(Screen.HOME);
     }
 
     /**
-     * Brand click handler—clears session and navigates to the welcome screen.
+     * Brand click handler—cancels the payment, clears session and navigates to the welcome screen.
      *
      * @param event mouse click event from the brand link
      */
     @FXML
-    private void onBrandClick(MouseEvent event) {
+    void onBrandClick(MouseEvent event) {
+        abandon();
         paymentSession.clear();
-        goWelcomeScreen((Node) event.getSource());
+        navigator.goTo(Screen.WELCOME);
     }
 
     /**
-     * Replaces the current scene root with the welcome screen.
-     *
-     * @param anyNodeInScene any node in the current scene (to obtain the scene)
+     * Stops counting and cancels the payment, unless it was already completed.
      */
-    private void goWelcomeScreen(Node anyNodeInScene) {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/welcome-screen.fxml"));
-            loader.setControllerFactory(appContext::getBean);
-            Parent home = loader.load();
-            anyNodeInScene.getScene().setRoot(home);
-        } catch (Exception ex) {
-            ex.printStackTrace();
-        }
+    private void abandon() {
+        if (ticker != null) ticker.stop();
+        paymentService.cancelPayment();
     }
 }
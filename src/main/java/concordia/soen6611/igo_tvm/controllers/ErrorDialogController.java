@@ -24,28 +24,28 @@ import java.time.format.DateTimeFormatter;
 public class ErrorDialogController {
 
     /** Timestamp value label (formatted with {@link #TS_FMT}). */
-    @FXML private Label timestampLabel;
+    @FXML Label timestampLabel;
 
     /** Localized exception type value label. */
-    @FXML private Label typeLabel;
+    @FXML Label typeLabel;
 
     /** Localized, user-friendly error message value label. */
-    @FXML private Label userMessageLabel;
+    @FXML Label userMessageLabel;
 
     /** Title label for timestamp row. */
-    @FXML private Label timeTitleLabel;
+    @FXML Label timeTitleLabel;
 
     /** Title label for exception type row. */
-    @FXML private Label typeTitleLabel;
+    @FXML Label typeTitleLabel;
 
     /** Title label for user message row. */
-    @FXML private Label userMessageTitleLabel;
+    @FXML Label userMessageTitleLabel;
 
     /** Multiline stack trace text area (developer-facing). */
-    @FXML private TextArea stackTraceArea;
+    @FXML TextArea stackTraceArea;
 
     /** Close/OK button to dismiss the dialog. */
-    @FXML private Button closeBtn;
+    @FXML Button closeBtn;
 
     /** Timestamp format used in {@link #timestampLabel}. */
     private static final DateTimeFormatter TS_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
@@ -58,7 +58,7 @@ public class ErrorDialogController {
      * JavaFX lifecycle hook. Localizes all static labels/buttons.
      */
     @FXML
-    private void initialize() {
+    void initialize() {
         updateTexts();
     }
 
@@ -74,11 +74,11 @@ public class ErrorDialogController {
      * </ul>
      */
     private void updateTexts() {
-        closeBtn.setText(i18n.get("errorDialog.close"));
+        closeBtn.setText(i18n.get(MessageKey.ERROR_DIALOG_CLOSE));
 
-        timeTitleLabel.setText(i18n.get("errorDialog.timestampLabel"));
-        typeTitleLabel.setText(i18n.get("errorDialog.typeLabel"));
-        userMessageTitleLabel.setText(i18n.get("errorDialog.userMessageLabel"));
+        timeTitleLabel.setText(i18n.get(MessageKey.ERROR_DIALOG_TIMESTAMP_LABEL));
+        typeTitleLabel.setText(i18n.get(MessageKey.ERROR_DIALOG_TYPE_LABEL));
+        userMessageTitleLabel.setText(i18n.get(MessageKey.ERROR_DIALOG_USER_MESSAGE_LABEL));
     }
 
     /**
@@ -104,10 +104,10 @@ public class ErrorDialogController {
 
         StringBuilder sb = new StringBuilder();
 
-        sb.append(i18n.get("errorDialog.exceptionPrefix")).append(" ").append(ex.getClass().getName()).append("\n");
+        sb.append(i18n.get(MessageKey.ERROR_DIALOG_EXCEPTION_PREFIX)).append(" ").append(ex.getClass().getName()).append("\n");
 
         if (ex.getCause() != null) {
-            sb.append(i18n.get("errorDialog.causePrefix")).append(" ")
+            sb.append(i18n.get(MessageKey.ERROR_DIALOG_CAUSE_PREFIX)).append(" ")
                     .append(ex.getCause().getClass().getName()).append(": ").append(ex.getCause().getMessage()).append("\n\n");
         }
 
@@ -128,14 +128,14 @@ public class ErrorDialogController {
     // java
     public void setStage(Stage stage) {
         if (stage == null) return;
-        stage.setTitle(i18n.get("errorDialog.title"));
+        stage.setTitle(i18n.get(MessageKey.ERROR_DIALOG_TITLE));
     }
 
     /**
      * Closes the dialog window when the Close/OK button is pressed.
      */
     @FXML
-    private void onClose() {
+    void onClose() {
         Stage st = (Stage) closeBtn.getScene().getWindow();
         st.close();
     }
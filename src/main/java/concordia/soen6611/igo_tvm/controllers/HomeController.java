@@ -1,18 +1,17 @@
 package concordia.soen6611.igo_tvm.controllers;
 
+import concordia.soen6611.igo_tvm.Services.ClockService;
 import concordia.soen6611.igo_tvm.Services.ContrastManager;
 import concordia.soen6611.igo_tvm.Services.I18nService;
+import concordia.soen6611.igo_tvm.Services.MessageKey;
+import concordia.soen6611.igo_tvm.Services.ScreenNavigator;
 import concordia.soen6611.igo_tvm.Services.TextZoomService;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
-import javafx.application.Platform;
+import concordia.soen6611.igo_tvm.models.Screen;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
-import javafx.scene.Parent;
 import javafx.scene.control.*;
 import javafx.scene.input.Clipboard;
 import javafx.scene.input.ClipboardContent;
@@ -21,13 +20,8 @@ import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.stage.Window;
-import javafx.util.Duration;
-import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Controller;
 
-import java.io.IOException;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.Locale;
 
 /**
@@ -42,112 +36,113 @@ import java.util.Locale;
  *   <li>Show localized Information and Help dialogs with styled content.</li>
  * </ul>
  * <p>
- * Scope: Spring {@code prototype}—a fresh controller instance per view load.
+ * Scope: Spring {@code prototype}—a fresh controller instance per view load. The
+ * Home view is cached by {@link ScreenNavigator}, so it is normally loaded once.
  */
 @Controller
 @org.springframework.context.annotation.Scope("prototype")
-public class HomeController {
+public class HomeController implements ScreenLifecycle {
 
     /** Clickable brand label; navigates to the welcome screen. */
-    @FXML private Label brandLink;
+    @FXML Label brandLink;
     /** Button opening the Information dialog. */
-    @FXML private Button informationButton;
+    @FXML Button informationButton;
     /** Root container for the scene; used to attach contrast manager. */
-    @FXML private BorderPane root;
+    @FXML BorderPane root;
     /** "Home" title label. */
-    @FXML private Label homeLabel;
+    @FXML Label homeLabel;
     /** Prompt/subtitle label. */
-    @FXML private Label promptLabel;
+    @FXML Label promptLabel;
     /** "Help" label. */
-    @FXML private Label helpLabel;
-    /** Header clock label, updated every second. */
-    @FXML private Label clockLabel;
+    @FXML Label helpLabel;
+    /** Header clock label, bound to {@link ClockService}. */
+    @FXML Label clockLabel;
     /** Primary action: navigate to Buy New Ticket. */
-    @FXML private Button buyBtn;
+    @FXML Button buyBtn;
     /** Primary action: navigate to Card Reload. */
-    @FXML private Button reloadBtn;
+    @FXML Button reloadBtn;
     /** Language switch to English. */
-    @FXML private Button btnEN;
+    @FXML Button btnEN;
     /** Language switch to French. */
-    @FXML private Button btnFR;
+    @FXML Button btnFR;
 
     /** Volume button (placeholder handler). */
-    @FXML private Button volumeBtn;
+    @FXML Button volumeBtn;
     /** "Information" section header label. */
-    @FXML private Label informationLabel;
+    @FXML Label informationLabel;
 
-    /** Live clock timeline. */
-    private Timeline clock;
     /** Internationalization service for UI strings and locale updates. */
     private final I18nService i18n;
-    /** Spring application context used as controller factory during navigation. */
-    private final ApplicationContext appContext;
-    /** Clock format for header time display. */
-    private static final DateTimeFormatter CLOCK_FMT =
-            DateTimeFormatter.ofPattern("MMM dd, yyyy\nhh : mm a");
+    /** Navigator that owns the application scene and cached screens. */
+    private final ScreenNavigator navigator;
+    /** Shared header clock. */
+    private final ClockService clockService;
+    /** Subscriptions held while the screen is visible. */
+    private final ScreenSubscriptions subscriptions = new ScreenSubscriptions();
 
     /** Zoom-in and zoom-out controls. */
-    @FXML private Button btnFontSizeIn, btnFontSizeOut;
+    @FXML Button btnFontSizeIn, btnFontSizeOut;
 
     /** Shortcut label near Buy button. */
-    @FXML private Label buyNewTicketLabel;
+    @FXML Label buyNewTicketLabel;
     /** Shortcut label near Reload button. */
-    @FXML private Label reloadCardLabel;
+    @FXML Label reloadCardLabel;
     /** Contrast adjustment buttons. */
-    @FXML private Button btnContrastUp, btnContrastDown;
+    @FXML Button btnContrastUp, btnContrastDown;
 
     /**
      * Constructs the controller with required collaborators.
      *
      * @param i18n       i18n service to resolve localized strings and track locale
-     * @param appContext Spring application context for controller-factory navigation
+     * @param navigator  screen navigator used to switch views
+     * @param clockService shared header clock
      */
-    public HomeController(I18nService i18n, ApplicationContext appContext) {
+    public HomeController(I18nService i18n, ScreenNavigator navigator, ClockService clockService) {
         this.i18n = i18n;
-        this.appContext = appContext;
+        this.navigator = navigator;
+        this.clockService = clockService;
     }
 
     /**
-     * JavaFX initialization hook.
+     * JavaFX initialization hook. Creates the tooltips once; their text is bound in
+     * {@link #onEnter()} like the labels'.
+     */
+    @FXML
+    void initialize() {
+        btnEN.setTooltip(new Tooltip());
+        btnFR.setTooltip(new Tooltip());
+        informationButton.setTooltip(new Tooltip());
+        volumeBtn.setTooltip(new Tooltip());
+    }
+
+    /**
+     * Screen shown.
      * <ul>
-     *   <li>Starts live clock updates.</li>
-     *   <li>Sets accessibility text on primary buttons.</li>
-     *   <li>Applies localized texts and re-applies on locale change.</li>
+     *   <li>Binds the header clock to {@link ClockService}.</li>
+     *   <li>Binds labels, tooltips and accessibility text to their localized text.</li>
      *   <li>Registers nodes with {@link TextZoomService} and attaches {@link ContrastManager}.</li>
      *   <li>Reflects current zoom/contrast state in the buttons’ enablement.</li>
      * </ul>
      */
-    @FXML
-    private void initialize() {
-        // Live clock
-        clock = new Timeline(
-                new KeyFrame(Duration.ZERO, e ->
-                        clockLabel.setText(LocalDateTime.now().format(CLOCK_FMT))),
-                new KeyFrame(Duration.seconds(1))
-        );
-        clock.setCycleCount(Timeline.INDEFINITE);
-        clock.play();
+    @Override
+    public void onEnter() {
+        subscriptions.clock(clockService, clockLabel);
 
-        // Accessibility
-        buyBtn.setAccessibleText(i18n.get("home.buyBtn.accessible"));
-        reloadBtn.setAccessibleText(i18n.get("home.reloadBtn.accessible"));
+        bindTexts();
 
-        updateTexts();
-        i18n.localeProperty().addListener((obs, oldL, newL) -> {
-            System.out.println("Locale changed from " + oldL + " to " + newL);
-            updateTexts();
-        });
+        subscriptions.zoom(brandLink, homeLabel, promptLabel, helpLabel, clockLabel, buyNewTicketLabel, reloadCardLabel, informationButton);
+        reflectZoomButtons();
 
-        Platform.runLater(() -> {
-            var zoom = TextZoomService.get();
-            zoom.register(brandLink, homeLabel, promptLabel, helpLabel, clockLabel, buyNewTicketLabel, reloadCardLabel, informationButton);
-            reflectZoomButtons();
-        });
+        subscriptions.contrast(root);
+        reflectContrastButtons();
+    }
 
-        javafx.application.Platform.runLater(() -> {
-            ContrastManager.getInstance().attach(root.getScene(), root);
-            reflectContrastButtons();
-        });
+    /**
+     * Screen replaced. Releases the clock binding, text bindings and accessibility registrations.
+     */
+    @Override
+    public void onExit() {
+        subscriptions.dispose();
     }
 
     /**
@@ -156,15 +151,8 @@ public class HomeController {
      * @param event click event from the Buy button
      */
     @FXML
-    private void onBuyTicket(ActionEvent event) {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/Fxml/BuyNewTicket.fxml"));
-            loader.setControllerFactory(appContext::getBean);
-            Parent view = loader.load();
-            ((Node) event.getSource()).getScene().setRoot(view);
-        } catch (IOException ex) {
-            ex.printStackTrace();
-        }
+    void onBuyTicket(ActionEvent event) {
+        navigator.goTo(Screen.BUY_TICKET);
     }
 
     /**
@@ -173,33 +161,20 @@ public class HomeController {
      * @param event click event from the Reload button
      */
     @FXML
-    private void onReload(ActionEvent event) {
+    void onReload(ActionEvent event) {
         System.out.println("Reload Card clicked");
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/Fxml/CardReload.fxml"));
-            loader.setControllerFactory(appContext::getBean);  // CRITICAL
-            Parent view = loader.load();
-            ((Node) event.getSource()).getScene().setRoot(view);
-        } catch (IOException ex) {
-            ex.printStackTrace();
-        }
+        navigator.goTo(Screen.CARD_RELOAD);
     }
 
     /**
      * Volume button handler placeholder. Wire TTS or audio feedback here if required.
      */
     @FXML
-    private void onVolume() { /* handle volume */ }
-
-    /**
-     * Stops the live clock. Call when tearing down the view.
-     */
-    public void shutdown() {
-        if (clock != null) clock.stop();
-    }
+    void onVolume() { /* handle volume */ }
 
     /**
-     * Language toggle handler for EN/FR. Updates the locale and reapplies localized text.
+     * Language toggle handler for EN/FR. Updates the locale; the bound texts follow in the
+     * next pulse.
      *
      * @param event click event from the language button
      */
@@ -211,26 +186,27 @@ public class HomeController {
         } else if (src == btnFR) {
             i18n.setLocale(Locale.FRENCH);
         }
-        updateTexts();
     }
 
     /**
-     * Applies localized text to labels, buttons, and tooltips.
-     * Re-run whenever the locale changes.
+     * Binds labels, buttons, tooltips and accessibility text to their localized text.
      */
-    private void updateTexts() {
-        brandLink.setText(i18n.get("home.brand"));
-        homeLabel.setText(i18n.get("home.title"));
-        promptLabel.setText(i18n.get("home.prompt"));
-        helpLabel.setText(i18n.get("home.help"));
+    private void bindTexts() {
+        subscriptions.bind(brandLink.textProperty(), i18n.text(MessageKey.HOME_BRAND));
+        subscriptions.bind(homeLabel.textProperty(), i18n.text(MessageKey.HOME_TITLE));
+        subscriptions.bind(promptLabel.textProperty(), i18n.text(MessageKey.HOME_PROMPT));
+        subscriptions.bind(helpLabel.textProperty(), i18n.text(MessageKey.HOME_HELP));
 //        buyBtn.setText(i18n.get("home.buyBtn.title"));
 //        reloadBtn.setText(i18n.get("home.reloadBtn.title"));
-        informationLabel.setText(i18n.get("home.information"));
+        subscriptions.bind(informationLabel.textProperty(), i18n.text(MessageKey.HOME_INFORMATION));
         // Tooltips
-        btnEN.setTooltip(new Tooltip(i18n.get("home.lang.en")));
-        btnFR.setTooltip(new Tooltip(i18n.get("home.lang.fr")));
-        informationButton.setTooltip(new Tooltip(i18n.get("home.info.tooltip")));
-        volumeBtn.setTooltip(new Tooltip(i18n.get("home.volume.tooltip")));
+        subscriptions.bind(btnEN.getTooltip().textProperty(), i18n.text(MessageKey.HOME_LANG_EN));
+        subscriptions.bind(btnFR.getTooltip().textProperty(), i18n.text(MessageKey.HOME_LANG_FR));
+        subscriptions.bind(informationButton.getTooltip().textProperty(), i18n.text(MessageKey.HOME_INFO_TOOLTIP));
+        subscriptions.bind(volumeBtn.getTooltip().textProperty(), i18n.text(MessageKey.HOME_VOLUME_TOOLTIP));
+        // Accessibility
+        subscriptions.bind(buyBtn.accessibleTextProperty(), i18n.text(MessageKey.HOME_BUY_BTN_ACCESSIBLE));
+        subscriptions.bind(reloadBtn.accessibleTextProperty(), i18n.text(MessageKey.HOME_RELOAD_BTN_ACCESSIBLE));
     }
 
     /**
@@ -239,35 +215,19 @@ public class HomeController {
      * @param event mouse event from the brand label
      */
     @FXML
-    private void onBrandClick(MouseEvent event) {
-        goWelcomeScreen((Node) event.getSource());
-    }
-
-    /**
-     * Loads the welcome screen and replaces the current scene root.
-     *
-     * @param anyNodeInScene any node in the current scene (to resolve the scene)
-     */
-    private void goWelcomeScreen(Node anyNodeInScene) {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/welcome-screen.fxml"));
-            loader.setControllerFactory(appContext::getBean);
-            Parent home = loader.load();
-            anyNodeInScene.getScene().setRoot(home);
-        } catch (Exception ex) {
-            ex.printStackTrace();
-        }
+    void onBrandClick(MouseEvent event) {
+        navigator.goTo(Screen.WELCOME);
     }
 
     /**
      * Shows a localized Information dialog with usage steps and optional custom CSS.
      */
     @FXML
-    private void onInfo() {
+    void onInfo() {
         Window owner = buyBtn != null ? buyBtn.getScene().getWindow() : null;
 
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
-        alert.setTitle(i18n.get("home.info.dialogTitle"));     // "Information" / "Informations"
+        alert.setTitle(i18n.get(MessageKey.HOME_INFO_DIALOG_TITLE));     // "Information" / "Informations"
         alert.setHeaderText(null);
         if (owner != null) alert.initOwner(owner);
 
@@ -278,7 +238,7 @@ public class HomeController {
         Label icon = new Label("ℹ");
         icon.getStyleClass().add("info-icon");
 
-        Label title = new Label(i18n.get("home.info.title"));  // "How to use..." / "Comment utiliser..."
+        Label title = new Label(i18n.get(MessageKey.HOME_INFO_TITLE));  // "How to use..." / "Comment utiliser..."
         title.getStyleClass().add("info-title");
         header.getChildren().addAll(icon, title);
 
@@ -288,11 +248,11 @@ public class HomeController {
         VBox.setMargin(bullets, new Insets(0, 32, 0, 0));
 
         bullets.getChildren().addAll(
-                item(i18n.get("home.info.step1")),
-                item(i18n.get("home.info.step2")),
-                item(i18n.get("home.info.step3")),
-                item(i18n.get("home.info.step4")),
-                item(i18n.get("home.info.step5"))
+                item(i18n.get(MessageKey.HOME_INFO_STEP1)),
+                item(i18n.get(MessageKey.HOME_INFO_STEP2)),
+                item(i18n.get(MessageKey.HOME_INFO_STEP3)),
+                item(i18n.get(MessageKey.HOME_INFO_STEP4)),
+                item(i18n.get(MessageKey.HOME_INFO_STEP5))
         );
 
         VBox content = new VBox(14, header, bullets);
@@ -308,7 +268,7 @@ public class HomeController {
         pane.getStyleClass().add("info-modal");
 
         // Localized Close button
-        ButtonType closeType = new ButtonType(i18n.get("home.info.close"), ButtonBar.ButtonData.CANCEL_CLOSE);
+        ButtonType closeType = new ButtonType(i18n.get(MessageKey.HOME_INFO_CLOSE), ButtonBar.ButtonData.CANCEL_CLOSE);
         alert.getButtonTypes().setAll(closeType);
         Node closeBtn = pane.lookupButton(closeType);
         if (closeBtn != null) closeBtn.getStyleClass().add("info-close-btn");
@@ -338,12 +298,12 @@ public class HomeController {
     /**
      * Zooms text size in and updates zoom button enabled state.
      */
-    @FXML private void onFontSizeIn()  { TextZoomService.get().zoomIn();  reflectZoomButtons(); }
+    @FXML void onFontSizeIn()  { TextZoomService.get().zoomIn();  reflectZoomButtons(); }
 
     /**
      * Zooms text size out and updates zoom button enabled state.
      */
-    @FXML private void onFontSizeOut() { TextZoomService.get().zoomOut(); reflectZoomButtons(); }
+    @FXML void onFontSizeOut() { TextZoomService.get().zoomOut(); reflectZoomButtons(); }
 
     /**
      * Enables/disables zoom buttons based on {@link TextZoomService#getScale()} bounds.
@@ -357,7 +317,7 @@ public class HomeController {
     /**
      * Increases contrast and refreshes contrast button states.
      */
-    @FXML private void onContrastUp() {
+    @FXML void onContrastUp() {
         ContrastManager.getInstance().increase();
         reflectContrastButtons();
     }
@@ -365,7 +325,7 @@ public class HomeController {
     /**
      * Decreases contrast and refreshes contrast button states.
      */
-    @FXML private void onContrastDown() {
+    @FXML void onContrastDown() {
         ContrastManager.getInstance().decrease();
         reflectContrastButtons();
     }
@@ -384,9 +344,9 @@ public class HomeController {
      * Keeps custom modal CSS if available.
      */
     @FXML
-    private void onHelpClick() {
+    void onHelpClick() {
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
-        alert.setTitle(i18n.get("home.help.dialogTitle"));  // i18n
+        alert.setTitle(i18n.get(MessageKey.HOME_HELP_DIALOG_TITLE));  // i18n
         alert.setHeaderText(null);
 
         // ---- Header row (icon + localized title)
@@ -394,15 +354,15 @@ public class HomeController {
         header.setAlignment(Pos.CENTER_LEFT);
         Label icon  = new Label("🛠");
         icon.getStyleClass().add("help-icon");
-        Label title = new Label(i18n.get("home.help.header"));  // i18n
+        Label title = new Label(i18n.get(MessageKey.HOME_HELP_HEADER));  // i18n
         title.getStyleClass().add("help-title");
         header.getChildren().addAll(icon, title);
 
         // ---- Body (localized labels)
         VBox body = new VBox(8);
         body.getChildren().addAll(
-                contactRow(i18n.get("home.help.phone"), "+1 (514) 555-0137"),
-                contactRow(i18n.get("home.help.email"), "support@stm.example")
+                contactRow(i18n.get(MessageKey.HOME_HELP_PHONE), "+1 (514) 555-0137"),
+                contactRow(i18n.get(MessageKey.HOME_HELP_EMAIL), "support@stm.example")
         );
 
         VBox content = new VBox(14, header, body);
@@ -418,7 +378,7 @@ public class HomeController {
         pane.getStyleClass().add("help-modal");
 
         // Localized Close button
-        ButtonType closeType = new ButtonType(i18n.get("home.help.close"), ButtonBar.ButtonData.CANCEL_CLOSE);
+        ButtonType closeType = new ButtonType(i18n.get(MessageKey.HOME_HELP_CLOSE), ButtonBar.ButtonData.CANCEL_CLOSE);
         alert.getButtonTypes().setAll(closeType);
         Node closeBtn = pane.lookupButton(closeType);
         if (closeBtn != null) closeBtn.getStyleClass().add("help-close-btn");
@@ -441,7 +401,7 @@ public class HomeController {
         Label val = new Label(value);
         val.getStyleClass().add("help-value");
 
-        Button copy = new Button(i18n.get("home.help.copy")); // i18n
+        Button copy = new Button(i18n.get(MessageKey.HOME_HELP_COPY)); // i18n
         copy.getStyleClass().add("help-copy-btn");
         copy.setOnAction(e -> {
             ClipboardContent cc = new ClipboardContent();
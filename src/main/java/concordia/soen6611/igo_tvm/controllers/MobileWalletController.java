@@ -1,29 +1,21 @@
 package concordia.soen6611.igo_tvm.controllers;
 
 import concordia.soen6611.igo_tvm.Services.*;
-import javafx.animation.KeyFrame;
-import javafx.animation.PauseTransition;
-import javafx.animation.Timeline;
+import concordia.soen6611.igo_tvm.models.PaymentStatus;
+import concordia.soen6611.igo_tvm.models.Screen;
 import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Node;
-import javafx.scene.Parent;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.ProgressIndicator;
 import javafx.scene.input.MouseEvent;
-import javafx.util.Duration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Controller;
 
-import java.io.IOException;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CancellationException;
 
 /**
  * Controller for the Mobile Wallet payment flow.
@@ -32,7 +24,7 @@ import java.time.format.DateTimeFormatter;
  * <ul>
  *   <li>Initialize localized UI labels and accessibility helpers (text zoom, contrast).</li>
  *   <li>Show a live clock in the header.</li>
- *   <li>Simulate a mobile wallet processing step and navigate to success.</li>
+ *   <li>Authorize the payment through {@link PaymentService} and navigate to success when it is approved.</li>
  *   <li>Handle navigation back to the Payment screen or the welcome screen.</li>
  * </ul>
  * <p>
@@ -40,101 +32,113 @@ import java.time.format.DateTimeFormatter;
  */
 @Controller
 @org.springframework.context.annotation.Scope("prototype")
-public class MobileWalletController {
+public class MobileWalletController implements ScreenLifecycle {
 
     /** Class logger (aligned with PaymentController for consistency in log streams). */
     private static final Logger logger = LoggerFactory.getLogger(PaymentController.class);
 
     /** Clickable brand link and header clock label. */
     @FXML
-    private Label brandLink, clockLabel;
+    Label brandLink, clockLabel;
 
     /** Root node for attaching contrast management. */
-    @FXML private javafx.scene.Parent root;
+    @FXML javafx.scene.Parent root;
 
     /** i18n service for localized strings. */
     private final I18nService i18n;
 
-    /** Ticking timeline for the live header clock. */
-    private Timeline clock;
 
     /** Screen title label (e.g., "Mobile Wallet"). */
-    @FXML private Label mobileWalletLabel;
+    @FXML Label mobileWalletLabel;
 
     /** Panel title and "processing" status label. */
-    @FXML private Label panelTitle, processingLabel;
+    @FXML Label panelTitle, processingLabel;
 
     /** Progress ring shown during simulated processing. */
-    @FXML private ProgressIndicator ring;
+    @FXML ProgressIndicator ring;
 
     /** Start and Cancel action buttons. */
-    @FXML private Button startBtn, cancelBtn;
+    @FXML Button startBtn, cancelBtn;
 
-    /** Clock format used in the header. */
-    private static final DateTimeFormatter CLOCK_FMT =
-            DateTimeFormatter.ofPattern("MMM dd, yyyy\nhh : mm a");
 
-    /** Payment service (injected; reserved for future real processing). */
+    /** Payment service that authorizes the mobile wallet payment. */
     @Autowired
     private PaymentService paymentService;
 
-    /** Spring application context for controller-factory-backed navigation. */
-    private final ApplicationContext appContext;
+    /** Navigator that owns the application scene and cached screens. */
+    private final ScreenNavigator navigator;
 
     /** Session container for cross-screen state. */
     private final PaymentSession paymentSession;
 
+    /** Shared header clock. */
+    private final ClockService clockService;
+
+    /** Subscriptions (clock, text bindings, authorization, accessibility) held while visible. */
+    private final ScreenSubscriptions subscriptions = new ScreenSubscriptions();
+
+    /** Whether the screen is shown; an authorization answered after it was left is ignored. */
+    private boolean visible;
+
     /**
      * Constructs the controller with required collaborators.
      *
      * @param i18n            internationalization service
-     * @param appContext      Spring application context for navigation
+     * @param navigator       screen navigator used to switch views
      * @param paymentSession  session holder for current payment/order info
+     * @param clockService    shared header clock
      */
-    public MobileWalletController(I18nService i18n, ApplicationContext appContext, PaymentSession paymentSession) {
+    public MobileWalletController(I18nService i18n, ScreenNavigator navigator, PaymentSession paymentSession,
+                                  ClockService clockService) {
         this.i18n = i18n;
-        this.appContext = appContext;
+        this.navigator = navigator;
         this.paymentSession = paymentSession;
+        this.clockService = clockService;
     }
 
     /**
      * JavaFX initialization hook.
+     */
+    @FXML
+    void initialize() {
+        logger.info("Initializing PaymentController");
+    }
+
+    /**
+     * Screen shown.
      * <ul>
-     *   <li>Starts the header clock.</li>
+     *   <li>Binds the header clock to {@link ClockService}.</li>
      *   <li>Registers nodes with {@link TextZoomService} and attaches {@link ContrastManager}.</li>
-     *   <li>Applies localized UI texts.</li>
+     *   <li>Binds the UI texts to their localized text.</li>
      * </ul>
      */
-    @FXML
-    private void initialize() {
-        logger.info("Initializing PaymentController");
-        // Live clock
-        clock = new Timeline(
-                new KeyFrame(Duration.ZERO, e ->
-                        clockLabel.setText(LocalDateTime.now().format(CLOCK_FMT))),
-                new KeyFrame(Duration.seconds(1))
-        );
-        clock.setCycleCount(Timeline.INDEFINITE);
-        clock.play();
-
-        Platform.runLater(() -> {
-            var zoom = TextZoomService.get();
-            zoom.register(brandLink,mobileWalletLabel, clockLabel, panelTitle, processingLabel, startBtn, cancelBtn);
-        });
-        javafx.application.Platform.runLater(() -> {
-            ContrastManager.getInstance().attach(root.getScene(), root);
-        });
-        updateTexts();
+    @Override
+    public void onEnter() {
+        visible = true;
+        subscriptions.clock(clockService, clockLabel);
+        subscriptions.zoom(brandLink,mobileWalletLabel, clockLabel, panelTitle, processingLabel, startBtn, cancelBtn);
+        subscriptions.contrast(root);
+        bindTexts();
+    }
+
+    /**
+     * Screen replaced. Abandons an authorization in progress so it cannot navigate
+     * away from a later screen, and releases all subscriptions.
+     */
+    @Override
+    public void onExit() {
+        visible = false;
+        subscriptions.dispose();
     }
 
     /**
-     * Applies localized strings to all visible text elements.
+     * Binds all visible text elements to their localized text.
      */
-    private void updateTexts() {
-        mobileWalletLabel.setText(i18n.get("mobileWalletPayment.title"));
-        panelTitle.setText(i18n.get("mobileWalletPayment.panelLine"));
-        processingLabel.setText(i18n.get("mobileWalletPayment.processingText"));
-        cancelBtn.setText(i18n.get("mobileWalletPayment.cancelButtonText"));
+    private void bindTexts() {
+        subscriptions.bind(mobileWalletLabel.textProperty(), i18n.text(MessageKey.MOBILE_WALLET_PAYMENT_TITLE));
+        subscriptions.bind(panelTitle.textProperty(), i18n.text(MessageKey.MOBILE_WALLET_PAYMENT_PANEL_LINE));
+        subscriptions.bind(processingLabel.textProperty(), i18n.text(MessageKey.MOBILE_WALLET_PAYMENT_PROCESSING_TEXT));
+        subscriptions.bind(cancelBtn.textProperty(), i18n.text(MessageKey.MOBILE_WALLET_PAYMENT_CANCEL_BUTTON_TEXT));
     }
 
     /**
@@ -153,75 +157,73 @@ public class MobileWalletController {
      * @param event mouse event from the brand label
      */
     @FXML
-    private void onBrandClick(MouseEvent event) {
+    void onBrandClick(MouseEvent event) {
         paymentSession.clear();
-        goWelcomeScreen((Node) event.getSource());
-    }
-
-    /**
-     * Replaces the scene root with the welcome screen.
-     *
-     * @param anyNodeInScene any node in the current scene (to resolve the scene)
-     */
-    private void goWelcomeScreen(Node anyNodeInScene) {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/welcome-screen.fxml"));
-            loader.setControllerFactory(appContext::getBean);
-            Parent home = loader.load();
-            anyNodeInScene.getScene().setRoot(home);
-        } catch (Exception ex) {
-            ex.printStackTrace();
-        }
+        navigator.goTo(Screen.WELCOME);
     }
 
     /**
-     * Cancel button handler—returns to the Payment method selection screen.
+     * Cancel button handler—abandons an authorization in progress and returns to the
+     * Payment method selection screen.
      *
      * @param event click from the Cancel button
      */
     @FXML
-    private void onCancel(ActionEvent event) {
-        goTo("/Fxml/Payment.fxml", event);
+    void onCancel(ActionEvent event) {
+        paymentService.cancelPayment();
+        goTo(Screen.PAYMENT);
     }
 
     /**
-     * Helper to navigate to an FXML view by path using the Spring controller factory.
+     * Helper to navigate to another screen through the {@link ScreenNavigator}.
      *
-     * @param fxmlPath target FXML resource path
-     * @param event    originating action event (used to obtain the scene)
+     * @param screen target screen
      */
-    private void goTo(String fxmlPath, ActionEvent event) {
-        try {
-            logger.info("Navigating to {}", fxmlPath);
-            FXMLLoader loader = new FXMLLoader(getClass().getResource(fxmlPath));
-            loader.setControllerFactory(appContext::getBean);
-            Parent view = loader.load();
-            ((Node) event.getSource()).getScene().setRoot(view);
-        } catch (IOException ex) {
-            logger.error("Navigation failed to {}: {}", fxmlPath, ex.getMessage());
-            ex.printStackTrace();
-        }
+    private void goTo(Screen screen) {
+        logger.info("Navigating to {}", screen);
+        navigator.goTo(screen);
     }
 
     /**
-     * Start button handler—shows the processing UI and simulates a 5s wallet transaction,
-     * then navigates to the Payment Success screen.
+     * Start button handler—shows the processing UI while the wallet payment is authorized,
+     * then navigates to the Payment Success screen. A declined or failed payment hides the
+     * processing UI so the rider can start again or cancel; Cancel stays available
+     * throughout.
      *
      * @param e click from the Start button
      */
     @FXML
-    private void onStart(ActionEvent e) {
+    void onStart(ActionEvent e) {
         // Show "Processing..." UI
-        processingLabel.setVisible(true);
-        processingLabel.setManaged(true);
-        ring.setVisible(true);
-        ring.setManaged(true);
-        startBtn.setDisable(true);
-        cancelBtn.setDisable(true);
-
-        // Simulate 5 seconds processing, then success page
-        PauseTransition wait = new PauseTransition(Duration.seconds(5));
-        wait.setOnFinished(evt -> goTo("/Fxml/PaymentSuccess.fxml", e));
-        wait.play();
+        setProcessing(true);
+
+        subscriptions.track(paymentService.authorizePayment()).whenComplete((result, error) -> {
+            if (error instanceof CancellationException) {
+                return; // cancelled or screen left
+            }
+            Platform.runLater(() -> {
+                if (!visible) return;
+                if (error == null && result.getStatus() == PaymentStatus.COMPLETED) {
+                    goTo(Screen.PAYMENT_SUCCESS);
+                } else {
+                    logger.info("Mobile wallet payment not approved: {}",
+                            error != null ? error.toString() : result.getStatus());
+                    setProcessing(false);
+                }
+            });
+        });
+    }
+
+    /**
+     * Shows or hides the processing UI and enables Start only when nothing is processing.
+     *
+     * @param processing whether an authorization is in progress
+     */
+    private void setProcessing(boolean processing) {
+        processingLabel.setVisible(processing);
+        processingLabel.setManaged(processing);
+        ring.setVisible(processing);
+        ring.setManaged(processing);
+        startBtn.setDisable(processing);
     }
 }
@@ -1,37 +1,32 @@
 package concordia.soen6611.igo_tvm.controllers;
 
+import concordia.soen6611.igo_tvm.Services.ClockService;
 import concordia.soen6611.igo_tvm.Services.ContrastManager;
 import concordia.soen6611.igo_tvm.Services.I18nService;
+import concordia.soen6611.igo_tvm.Services.MessageKey;
+import concordia.soen6611.igo_tvm.Services.MoneyFormatter;
 import concordia.soen6611.igo_tvm.Services.PaymentSession;
 import concordia.soen6611.igo_tvm.Services.PaymentService;
+import concordia.soen6611.igo_tvm.Services.ScreenNavigator;
 import concordia.soen6611.igo_tvm.Services.TextZoomService;
+import concordia.soen6611.igo_tvm.models.Money;
 import concordia.soen6611.igo_tvm.models.OrderSummary;
 import concordia.soen6611.igo_tvm.models.Payment;
-import javafx.animation.KeyFrame;
-import javafx.animation.PauseTransition;
-import javafx.animation.Timeline;
+import concordia.soen6611.igo_tvm.models.PaymentStatus;
+import concordia.soen6611.igo_tvm.models.Screen;
 import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Node;
-import javafx.scene.Parent;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.ProgressIndicator;
 import javafx.scene.input.MouseEvent;
-import javafx.util.Duration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.context.ApplicationContext;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 
-import java.io.IOException;
-import java.text.NumberFormat;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.Locale;
+import java.util.concurrent.CancellationException;
 
 /**
  * Controller for the Payment screen where the user selects a payment method
@@ -50,7 +45,7 @@ import java.util.Locale;
  */
 @Controller
 @org.springframework.context.annotation.Scope("prototype")
-public class PaymentController {
+public class PaymentController implements ScreenLifecycle {
 
     /** Logger for payment lifecycle events and navigation. */
     private static final Logger logger = LoggerFactory.getLogger(PaymentController.class);
@@ -61,145 +56,161 @@ public class PaymentController {
     public Button mobileWalletBtn;
 
     /** Supported payment methods for this screen. */
-    enum Method { CARD, CASH, MOBILE_WALLET}
+    public enum Method {
+        CARD("Card"), CASH("Cash"), MOBILE_WALLET("MobileWallet");
+
+        private final String paymentMethod;
+
+        Method(String paymentMethod) {
+            this.paymentMethod = paymentMethod;
+        }
+
+        /** @return the method name payments are started and journaled under */
+        public String paymentMethod() {
+            return paymentMethod;
+        }
+    }
 
     /** Card, Cash selection buttons and action buttons (Confirm/Back). */
-    @FXML private Button cardBtn, cashBtn, confirmBtn, backBtn;
+    @FXML Button cardBtn, cashBtn, confirmBtn, backBtn;
     /** Spinner shown while card payment is processing. */
-    @FXML private ProgressIndicator processingIndicator;
+    @FXML ProgressIndicator processingIndicator;
     /** Processing label, total due label, and hint for tap/insert actions. */
-    @FXML private Label processingLabel, totalDueLabel, tapInsertHint;
+    @FXML Label processingLabel, totalDueLabel, tapInsertHint;
     /** Screen title label. */
-    @FXML private Label paymentLabel;
+    @FXML Label paymentLabel;
     /** "Select payment method" label. */
-    @FXML private Label selectMethodLabel;
+    @FXML Label selectMethodLabel;
     /** Text labels inside the Cash and Card tiles. */
-    @FXML private Label cashBtnLabel;
-    @FXML private Label cardBtnLabel;
-//    @FXML private Tooltip backBtnTooltip;
+    @FXML Label cashBtnLabel;
+    @FXML Label cardBtnLabel;
+//    @FXML Tooltip backBtnTooltip;
 
-    /** Spring application context for controller-factory-backed navigation. */
-    private final ApplicationContext appContext;
+    /** Navigator that owns the application scene and cached screens. */
+    private final ScreenNavigator navigator;
     /** Session container holding order information and origin screen. */
     private final PaymentSession paymentSession;
     /** Currently selected payment method; defaults to CARD. */
     private Method selected = Method.CARD; // default
     /** Brand link, clock label, and accessibility labels. */
-    @FXML private Label brandLink, clockLabel, payWithCashLabel, payWithCardLabel;
+    @FXML Label brandLink, clockLabel, payWithCashLabel, payWithCardLabel;
     /** Root node for attaching contrast handling. */
-    @FXML private javafx.scene.Parent root;
+    @FXML javafx.scene.Parent root;
     /** i18n service for localized strings and current locale. */
     private final I18nService i18n;
-    /** Ticking timeline used to update the header clock once per second. */
-    private Timeline clock;
     /** "Help" label. */
-    @FXML private Label helpLabel;
-    /** Clock format used for the header clock. */
-    private static final DateTimeFormatter CLOCK_FMT =
-            DateTimeFormatter.ofPattern("MMM dd, yyyy\nhh : mm a");
+    @FXML Label helpLabel;
     /** Payment service orchestrating the current payment. */
-    @Autowired
-    private PaymentService paymentService;
+    private final PaymentService paymentService;
+    /** Shared header clock. */
+    private final ClockService clockService;
+    /** Currency rendering for the total due. */
+    private final MoneyFormatter moneyFormatter;
+    /** Subscriptions (clock, text bindings, card authorization, accessibility) held while visible. */
+    private final ScreenSubscriptions subscriptions = new ScreenSubscriptions();
+    /** Whether the screen is shown; an authorization answered after it was left is ignored. */
+    private boolean visible;
 
     /**
      * Constructs the controller with required collaborators.
      *
-     * @param appContext     Spring application context for navigation
+     * @param navigator      screen navigator used to switch views
      * @param paymentSession session state with current order and origin
      * @param i18n           internationalization service
+     * @param clockService   shared header clock
+     * @param moneyFormatter currency formatter
+     * @param paymentService service orchestrating the current payment
      */
-    public PaymentController(ApplicationContext appContext, PaymentSession paymentSession, I18nService i18n) {
-        this.appContext = appContext;
+    public PaymentController(ScreenNavigator navigator, PaymentSession paymentSession, I18nService i18n,
+                             ClockService clockService, MoneyFormatter moneyFormatter,
+                             PaymentService paymentService) {
+        this.navigator = navigator;
+        this.paymentService = paymentService;
         this.paymentSession = paymentSession;
         this.i18n = i18n;
+        this.clockService = clockService;
+        this.moneyFormatter = moneyFormatter;
     }
 
     /**
      * JavaFX initialization hook.
      * <ul>
-     *   <li>Starts a live clock in the header.</li>
-     *   <li>Reads and displays the total due from session.</li>
      *   <li>Applies selection styles to the default method.</li>
-     *   <li>Registers nodes with {@link TextZoomService} and attaches {@link ContrastManager}.</li>
-     *   <li>Applies localized strings to UI elements.</li>
      * </ul>
+     * The view may be built before an order exists; the total is read in {@link #onEnter()}.
      */
     @FXML
-    private void initialize() {
+    void initialize() {
         logger.info("Initializing PaymentController");
-        // Live clock
-        clock = new Timeline(
-                new KeyFrame(Duration.ZERO, e ->
-                        clockLabel.setText(LocalDateTime.now().format(CLOCK_FMT))),
-                new KeyFrame(Duration.seconds(1))
-        );
-        clock.setCycleCount(Timeline.INDEFINITE);
-        clock.play();
+        applySelectionStyles();
+    }
 
+    /**
+     * Screen shown.
+     * <ul>
+     *   <li>Binds the header clock to {@link ClockService}.</li>
+     *   <li>Reads and displays the total due from session.</li>
+     *   <li>Registers nodes with {@link TextZoomService} and attaches {@link ContrastManager}.</li>
+     *   <li>Binds labels and buttons to their localized text and resets the processing line.</li>
+     * </ul>
+     */
+    @Override
+    public void onEnter() {
+        visible = true;
+        subscriptions.clock(clockService, clockLabel);
         setTotalDueFromSession();
-        applySelectionStyles();
+        bindTexts();
+        // Not bound: the outcome of a card payment replaces it
+        processingLabel.setText(i18n.get(MessageKey.PAYMENT_PROCESSING));
+        subscriptions.zoom(brandLink,paymentLabel, clockLabel, selectMethodLabel, cashBtnLabel, mobileWalletBtnLabel, cardBtnLabel,
+                totalDueLabel, processingLabel, tapInsertHint, confirmBtn, backBtn);
+        subscriptions.contrast(root);
+    }
 
-        Platform.runLater(() -> {
-            var zoom = TextZoomService.get();
-            zoom.register(brandLink,paymentLabel, clockLabel, selectMethodLabel, cashBtnLabel, mobileWalletBtnLabel, cardBtnLabel,
-                    totalDueLabel, processingLabel, tapInsertHint, confirmBtn, backBtn);
-        });
-        javafx.application.Platform.runLater(() -> {
-            ContrastManager.getInstance().attach(root.getScene(), root);
-        });
-        updateTexts();
+    /**
+     * Screen replaced. Abandons a card authorization in progress and releases all subscriptions.
+     */
+    @Override
+    public void onExit() {
+        visible = false;
+        subscriptions.dispose();
     }
 
     /**
-     * Localizes all visible labels and button texts for the current locale.
+     * Binds the static labels and button texts to their localized text.
      */
-    private void updateTexts() {
-        paymentLabel.setText(i18n.get("payment.title"));
-        selectMethodLabel.setText(i18n.get("payment.selectMethod"));
-        cashBtnLabel.setText(i18n.get("payment.payWithCash"));
-        mobileWalletBtnLabel.setText(i18n.get("payment.payWithMobileWallet"));
-        cardBtnLabel.setText(i18n.get("payment.creditDebit"));
-        tapInsertHint.setText(i18n.get("payment.tapInsert"));
-        processingLabel.setText(i18n.get("payment.processing"));
-        backBtn.setText(i18n.get("payment.cancel"));
-        confirmBtn.setText(i18n.get("payment.confirm"));
+    private void bindTexts() {
+        subscriptions.bind(paymentLabel.textProperty(), i18n.text(MessageKey.PAYMENT_TITLE));
+        subscriptions.bind(selectMethodLabel.textProperty(), i18n.text(MessageKey.PAYMENT_SELECT_METHOD));
+        subscriptions.bind(cashBtnLabel.textProperty(), i18n.text(MessageKey.PAYMENT_PAY_WITH_CASH));
+        subscriptions.bind(mobileWalletBtnLabel.textProperty(), i18n.text(MessageKey.PAYMENT_PAY_WITH_MOBILE_WALLET));
+        subscriptions.bind(cardBtnLabel.textProperty(), i18n.text(MessageKey.PAYMENT_CREDIT_DEBIT));
+        subscriptions.bind(tapInsertHint.textProperty(), i18n.text(MessageKey.PAYMENT_TAP_INSERT));
+        subscriptions.bind(backBtn.textProperty(), i18n.text(MessageKey.PAYMENT_CANCEL));
+        subscriptions.bind(confirmBtn.textProperty(), i18n.text(MessageKey.PAYMENT_CONFIRM));
     }
 
     /**
      * Reads the current {@link OrderSummary} from the session and renders the bilingual total due.
-     * Falls back to {@code 0.0} if no order is present.
+     * Falls back to zero if no order is present.
      */
     private void setTotalDueFromSession() {
         OrderSummary o = paymentSession != null ? paymentSession.getCurrentOrder() : null;
-        double total = (o != null) ? o.getTotal() : 0.0;
+        Money total = (o != null) ? o.getTotal() : Money.ZERO;
         logger.debug("Total due from session: {}", total);
-        String en = NumberFormat.getCurrencyInstance(Locale.CANADA).format(total);
-        String fr = NumberFormat.getCurrencyInstance(Locale.CANADA_FRENCH).format(total);
-        Locale current = i18n.getLocale();
-        NumberFormat fmt = current.getLanguage().equals("fr") ?
-                NumberFormat.getCurrencyInstance(Locale.CANADA_FRENCH) :
-                NumberFormat.getCurrencyInstance(Locale.CANADA);
-        String amount = fmt.format(total);
+        String en = moneyFormatter.format(total, Locale.CANADA);
+        String fr = moneyFormatter.format(total, Locale.CANADA_FRENCH);
         totalDueLabel.setText(String.format("Total Due: %s | Total à Payer: %s", en, fr));
     }
 
     /**
-     * Navigates to another FXML view using the Spring controller factory.
+     * Navigates to another screen through the {@link ScreenNavigator}.
      *
-     * @param fxmlPath target FXML resource (e.g., {@code "/Fxml/PaymentSuccess.fxml"})
-     * @param event    originating action event (used to obtain the scene)
+     * @param screen target screen (e.g., {@link Screen#PAYMENT_SUCCESS})
      */
-    private void goTo(String fxmlPath, ActionEvent event) {
-        try {
-            logger.info("Navigating to {}", fxmlPath);
-            FXMLLoader loader = new FXMLLoader(getClass().getResource(fxmlPath));
-            loader.setControllerFactory(appContext::getBean);
-            Parent view = loader.load();
-            ((Node) event.getSource()).getScene().setRoot(view);
-        } catch (IOException ex) {
-            logger.error("Navigation failed to {}: {}", fxmlPath, ex.getMessage());
-            ex.printStackTrace();
-        }
+    private void goTo(Screen screen) {
+        logger.info("Navigating to {}", screen);
+        navigator.goTo(screen);
     }
 
     /**
@@ -265,11 +276,13 @@ public class PaymentController {
     }
 
     /**
-     * Confirm button handler: starts the appropriate payment flow for the selected method.
+     * Confirm button handler: starts the payment for the selected method, once, and then
+     * its flow.
      * <ul>
-     *   <li><b>Card</b>: shows a processing spinner/label, simulates ~5.5s processing, then navigates to success.</li>
+     *   <li><b>Card</b>: shows a processing spinner/label while {@link PaymentService#authorizePayment()} runs,
+     *       then navigates to success, or reports the failure and lets the rider choose again.</li>
      *   <li><b>Mobile Wallet</b>: navigates to the Mobile Wallet screen.</li>
-     *   <li><b>Cash</b>: navigates to the Cash Submission screen.</li>
+     *   <li><b>Cash</b>: navigates to the Cash Submission screen, which completes the payment.</li>
      * </ul>
      *
      * @param event click event from the Confirm button
@@ -279,10 +292,7 @@ public class PaymentController {
         logger.info("Confirm button pressed. Selected method: {}", selected);
         showTapHintIfNeeded();
 
-        double total = paymentSession.getCurrentOrder() != null ? paymentSession.getCurrentOrder().getTotal() : 0.0;
-        String method = selected == Method.CARD ? "Card" : "Cash";
-        Payment payment = new Payment(method, total);
-        paymentService.startPayment(method, total);
+        startPayment(selected);
 
         if (selected == Method.CARD) {
             logger.info("Processing card payment...");
@@ -295,32 +305,65 @@ public class PaymentController {
             cashBtn.setDisable(true);
             mobileWalletBtn.setDisable(true);
 
-            paymentService.startPayment("Card", total);
-            PauseTransition pause = new PauseTransition(Duration.seconds(5.5));
-            pause.setOnFinished(e -> {
-                paymentService.processPayment();
-                Payment result = paymentService.getCurrentPayment();
-                logger.info("Card payment status: {}", result.getStatus());
-                if ("Completed".equals(result.getStatus())) {
-                    processingLabel.setText("Payment successful! | Paiement réussi!");
-                } else {
-                    processingLabel.setText("Payment failed! | Paiement échoué!");
+            subscriptions.track(paymentService.authorizePayment()).whenComplete((result, error) -> {
+                if (error instanceof CancellationException) {
+                    return; // screen left while authorizing
                 }
-                goTo("/Fxml/PaymentSuccess.fxml", event);
+                Platform.runLater(() -> {
+                    if (!visible) return;
+                    boolean approved = error == null && result.getStatus() == PaymentStatus.COMPLETED;
+                    logger.info("Card payment status: {}", paymentService.getCurrentPayment().getStatus());
+                    if (approved) {
+                        processingLabel.setText("Payment successful! | Paiement réussi!");
+                        goTo(Screen.PAYMENT_SUCCESS);
+                    } else {
+                        processingLabel.setText("Payment failed! | Paiement échoué!");
+                        processingIndicator.setVisible(false);
+                        processingIndicator.setManaged(false);
+                        confirmBtn.setDisable(false);
+                        cardBtn.setDisable(false);
+                        cashBtn.setDisable(false);
+                        mobileWalletBtn.setDisable(false);
+                    }
+                });
             });
-            pause.play();
         } else if (selected == Method.MOBILE_WALLET) {
             // Route to Mobile Wallet flow/screen
-            paymentService.startPayment("MobileWallet", total);
-            goTo("/Fxml/MobileWallet.fxml", event);
+            goTo(Screen.MOBILE_WALLET);
 
         } else {
-            logger.info("Processing cash payment...");
-            paymentService.processPayment();
-            goTo("/Fxml/CashSubmission.fxml", event);
+            // Completed by the cash screen once the whole amount is inserted
+            goTo(Screen.CASH_SUBMISSION);
         }
     }
 
+    /**
+     * Starts the payment a confirm is for, under the method's name and for the total of
+     * the order in session. At most one payment is started per confirm, so at most one
+     * order is journaled for it.
+     * <p>
+     * A confirm after a {@link PaymentStatus#FAILED} payment, with the same method and
+     * total, retries that payment instead: it is authorized again under the same
+     * idempotency key, so that a charge which went through unanswered is not made twice.
+     * A new payment is started after any other outcome, or for another method.
+     * </p>
+     *
+     * @param method payment method selected
+     * @return the payment to authorize, {@link PaymentStatus#PENDING} or {@code FAILED}
+     */
+    public Payment startPayment(Method method) {
+        OrderSummary order = paymentSession.getCurrentOrder();
+        Money total = order != null ? order.getTotal() : Money.ZERO;
+        Payment current = paymentService.getCurrentPayment();
+        if (current != null && current.getStatus() == PaymentStatus.FAILED
+                && method.paymentMethod().equals(current.getMethod()) && total.equals(current.getAmount())) {
+            logger.info("Retrying failed {} payment {} under the same key", current.getMethod(), current.getId());
+            return current;
+        }
+        paymentService.startPayment(method.paymentMethod(), total);
+        return paymentService.getCurrentPayment();
+    }
+
     /**
      * Cancels the current payment and navigates back to the originating flow.
      *
@@ -329,44 +372,31 @@ public class PaymentController {
     public void onCancelPayment(ActionEvent event) {
         logger.info("Cancel payment pressed.");
         paymentService.cancelPayment();
-        goBack((Node) event.getSource());
+        goBack();
     }
 
     /**
      * Navigates back to the previous screen based on {@link PaymentSession.Origin}:
      * <ul>
-     *   <li>{@code RELOAD_CARD} → {@code /Fxml/CardReloadAmount.fxml}</li>
-     *   <li>{@code BUY_TICKET} (default) → {@code /Fxml/BuyNewTicket.fxml}</li>
+     *   <li>{@code RELOAD_CARD} → {@link Screen#CARD_RELOAD_AMOUNT}</li>
+     *   <li>{@code BUY_TICKET} (default) → {@link Screen#BUY_TICKET}</li>
      * </ul>
      * Falls back to Home if navigation fails.
-     *
-     * @param nodeInScene any node in the current scene (used to obtain the scene)
      */
-    private void goBack(Node nodeInScene) {
-        String fxml;
+    private void goBack() {
+        Screen target;
         switch (paymentSession.getOrigin()) {
             case RELOAD_CARD:
-                fxml = "/Fxml/CardReloadAmount.fxml"; // or CardReload.fxml if that’s where you want to return
+                target = Screen.CARD_RELOAD_AMOUNT; // or CARD_RELOAD if that’s where you want to return
                 break;
             case BUY_TICKET:
             default:
-                fxml = "/Fxml/BuyNewTicket.fxml";
+                target = Screen.BUY_TICKET;
                 break;
         }
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource(fxml));
-            loader.setControllerFactory(appContext::getBean);
-            Parent view = loader.load();
-            nodeInScene.getScene().setRoot(view);
-        } catch (IOException ex) {
-            ex.printStackTrace();
+        if (!navigator.goTo(target)) {
             // Hard fallback to Home if something goes wrong
-            try {
-                FXMLLoader loader = new FXMLLoader(getClass().getResource("/Fxml/Home.fxml"));
-                loader.setControllerFactory(appContext::getBean);
-                Parent home = loader.load();
-                nodeInScene.getScene().setRoot(home);
-            } catch (IOException ignored) {}
+            navigator.goTo(Screen.HOME);
         }
     }
 
@@ -386,24 +416,8 @@ public class PaymentController {
      * @param event mouse click event from the brand label
      */
     @FXML
-    private void onBrandClick(MouseEvent event) {
+    void onBrandClick(MouseEvent event) {
         paymentSession.clear();
-        goWelcomeScreen((Node) event.getSource());
-    }
-
-    /**
-     * Replaces the current scene root with the welcome screen.
-     *
-     * @param anyNodeInScene any node in the current scene (to resolve the scene)
-     */
-    private void goWelcomeScreen(Node anyNodeInScene) {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/welcome-screen.fxml"));
-            loader.setControllerFactory(appContext::getBean);
-            Parent home = loader.load();
-            anyNodeInScene.getScene().setRoot(home);
-        } catch (Exception ex) {
-            ex.printStackTrace();
-        }
+        navigator.goTo(Screen.WELCOME);
     }
 }
@@ -1,19 +1,18 @@
 package concordia.soen6611.igo_tvm.controllers;
 
+import concordia.soen6611.igo_tvm.Services.ClockService;
 import concordia.soen6611.igo_tvm.Services.ContrastManager;
 import concordia.soen6611.igo_tvm.Services.I18nService;
+import concordia.soen6611.igo_tvm.Services.MessageKey;
 import concordia.soen6611.igo_tvm.Services.PaymentSession;
+import concordia.soen6611.igo_tvm.Services.ScreenNavigator;
 import concordia.soen6611.igo_tvm.Services.TextZoomService;
-import javafx.animation.KeyFrame;
+import concordia.soen6611.igo_tvm.models.Screen;
 import javafx.animation.PauseTransition;
-import javafx.animation.Timeline;
-import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
-import javafx.scene.Parent;
 import javafx.scene.control.*;
 import javafx.scene.input.Clipboard;
 import javafx.scene.input.ClipboardContent;
@@ -21,12 +20,8 @@ import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.util.Duration;
-import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Controller;
 
-import java.io.IOException;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 
 /**
  * Controller for the "Payment Success" screen shown after a successful transaction.
@@ -44,102 +39,104 @@ import java.time.format.DateTimeFormatter;
  */
 @Controller
 @org.springframework.context.annotation.Scope("prototype")
-public class PaymentSuccessController {
+public class PaymentSuccessController implements ScreenLifecycle {
 
     /** i18n service for localized strings and formatting. */
     private final I18nService i18n;
 
     /** Receipt print and Done action buttons. */
-    @FXML private Button printBtn;
-    @FXML private Button doneBtn;
+    @FXML Button printBtn;
+    @FXML Button doneBtn;
 
     /** Title and status lines at the top of the screen. */
-    @FXML private Label successTitle;
-    @FXML private Label printingLine;
+    @FXML Label successTitle;
+    @FXML Label printingLine;
 
     /** Labels adjacent to the print/done buttons (localized). */
-    @FXML private Label printBtnLabel;
-    @FXML private Label doneBtnLabel;
+    @FXML Label printBtnLabel;
+    @FXML Label doneBtnLabel;
 
     /** "Help" affordance label in the footer. */
-    @FXML private Label helpLabel;
+    @FXML Label helpLabel;
 
     /** Confirmation/thanks line. */
-    @FXML private Label confirmationLabel;
+    @FXML Label confirmationLabel;
 
     /** Header/aux labels including brand link and live clock. */
-    @FXML private Label brandLink, successTitleLabel,printingLineLabel, receiptInfoLabel, thankYouLabel, volumeLabel, clockLabel;
+    @FXML Label brandLink, successTitleLabel,printingLineLabel, receiptInfoLabel, thankYouLabel, volumeLabel, clockLabel;
 
     /** Root node for attaching contrast handling. */
-    @FXML private javafx.scene.Parent root;
+    @FXML javafx.scene.Parent root;
 
-    /** Spring application context used for controller-factory-backed navigation. */
-    private final ApplicationContext appContext;
+    /** Navigator that owns the application scene and cached screens. */
+    private final ScreenNavigator navigator;
 
     /** Session container used to clear state on exit. */
     private final PaymentSession paymentSession;
 
+    /** Shared header clock. */
+    private final ClockService clockService;
+
+    /** Subscriptions (clock, text bindings, redirect delay, accessibility) held while visible. */
+    private final ScreenSubscriptions subscriptions = new ScreenSubscriptions();
+
     /**
      * Constructs the controller with required collaborators.
      *
-     * @param appContext      Spring application context for navigation
+     * @param navigator       screen navigator used to switch views
      * @param i18n            internationalization service
      * @param paymentSession  session model to be cleared once the flow completes
+     * @param clockService    shared header clock
      */
-    public PaymentSuccessController(ApplicationContext appContext, I18nService i18n, PaymentSession paymentSession) {
-        this.appContext = appContext;
+    public PaymentSuccessController(ScreenNavigator navigator, I18nService i18n, PaymentSession paymentSession,
+                                    ClockService clockService) {
+        this.navigator = navigator;
         this.i18n = i18n;
         this.paymentSession = paymentSession;
+        this.clockService = clockService;
     }
 
-    /** Live clock timeline for the header. */
-    private Timeline clock;
 
-    /** Clock format used by {@link #clockLabel}. */
-    private static final DateTimeFormatter CLOCK_FMT = DateTimeFormatter.ofPattern("MMM dd, yyyy\nhh:mm a");
 
     /**
-     * JavaFX initialization hook.
+     * Screen shown.
      * <ul>
-     *   <li>Starts the live header clock.</li>
-     *   <li>Applies localized text to all visible labels/buttons.</li>
+     *   <li>Binds the header clock to {@link ClockService}.</li>
+     *   <li>Binds labels and buttons to their localized text.</li>
      *   <li>Registers nodes with {@link TextZoomService} and attaches {@link ContrastManager}.</li>
      * </ul>
      */
-    @FXML
-    private void initialize() {
-
-        clock = new Timeline(
-                new KeyFrame(Duration.ZERO,
-                        e -> clockLabel.setText(LocalDateTime.now().format(CLOCK_FMT))),
-                new KeyFrame(Duration.seconds(1))
-        );
-        clock.setCycleCount(Timeline.INDEFINITE);
-        clock.play();
-
-        updateTexts();
+    @Override
+    public void onEnter() {
+        subscriptions.clock(clockService, clockLabel);
+        bindTexts();
 
         // Register text nodes for zooming
-        Platform.runLater(() -> {
-            TextZoomService.get().register(brandLink, confirmationLabel, successTitleLabel,
-                    printingLineLabel, receiptInfoLabel, thankYouLabel, helpLabel, volumeLabel, clockLabel,
-                    printBtn, doneBtn);
-        });
-        javafx.application.Platform.runLater(() -> {
-            ContrastManager.getInstance().attach(root.getScene(), root);
-        });
+        subscriptions.zoom(brandLink, confirmationLabel, successTitleLabel,
+                printingLineLabel, receiptInfoLabel, thankYouLabel, helpLabel, volumeLabel, clockLabel,
+                printBtn, doneBtn);
+        subscriptions.contrast(root);
     }
 
     /**
-     * Applies localized strings to visible labels and buttons.
+     * Screen replaced. Stops a pending redirect, closes its receipt modal, and
+     * releases all subscriptions.
      */
-    private void updateTexts() {
-        successTitle.setText(i18n.get("paymentSuccess.success"));
-        printingLine.setText(i18n.get("paymentSuccess.printing"));
-        printBtnLabel.setText(i18n.get("paymentSuccess.printReceipt"));
-        doneBtnLabel.setText(i18n.get("paymentSuccess.done"));
-        helpLabel.setText(i18n.get("help"));
-        confirmationLabel.setText(i18n.get("paymentSuccess.confirmation"));
+    @Override
+    public void onExit() {
+        subscriptions.dispose();
+    }
+
+    /**
+     * Binds visible labels and buttons to their localized text.
+     */
+    private void bindTexts() {
+        subscriptions.bind(successTitle.textProperty(), i18n.text(MessageKey.PAYMENT_SUCCESS_SUCCESS));
+        subscriptions.bind(printingLine.textProperty(), i18n.text(MessageKey.PAYMENT_SUCCESS_PRINTING));
+        subscriptions.bind(printBtnLabel.textProperty(), i18n.text(MessageKey.PAYMENT_SUCCESS_PRINT_RECEIPT));
+        subscriptions.bind(doneBtnLabel.textProperty(), i18n.text(MessageKey.PAYMENT_SUCCESS_DONE));
+        subscriptions.bind(helpLabel.textProperty(), i18n.text(MessageKey.HELP));
+        subscriptions.bind(confirmationLabel.textProperty(), i18n.text(MessageKey.PAYMENT_SUCCESS_CONFIRMATION));
     }
 
     /* ===== Actions ===== */
@@ -155,31 +152,29 @@ public class PaymentSuccessController {
      * @param event click event from the Print button
      */
     @FXML
-    private void onPrintReceipt(ActionEvent event) {
+    void onPrintReceipt(ActionEvent event) {
         // Build an i18n modal
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
-        alert.setTitle(i18n.get("paymentSuccess.receipt.title")); // e.g., "Receipt"
+        alert.setTitle(i18n.get(MessageKey.PAYMENT_SUCCESS_RECEIPT_TITLE)); // e.g., "Receipt"
         alert.setHeaderText(null);
         alert.setContentText(
-                i18n.get("paymentSuccess.receipt.printed") + "\n" +  // "Receipt printed successfully."
-                        i18n.get("paymentSuccess.redirect.in5")               // "Redirection in 5 seconds..."
+                i18n.get(MessageKey.PAYMENT_SUCCESS_RECEIPT_PRINTED) + "\n" +  // "Receipt printed successfully."
+                        i18n.get(MessageKey.PAYMENT_SUCCESS_REDIRECT_IN5)               // "Redirection in 5 seconds..."
         );
         alert.show();
 
         // Disable actions while waiting
         setButtonsDisabled(true);
 
-        // Capture the originating Node *now*
-        final Node origin = (Node) event.getSource();
-
         // After 5s, close modal & go Home
         PauseTransition wait = new PauseTransition(Duration.seconds(5));
         wait.setOnFinished(ae -> {
             alert.close();
             paymentSession.clear();
-            goHome(origin);
+            goHome();
         });
-        wait.play();
+        subscriptions.play(wait);
+        subscriptions.onDispose(alert::close);
     }
 
     /**
@@ -188,28 +183,19 @@ public class PaymentSuccessController {
      * @param event click event from the Done button
      */
     @FXML
-    private void onDone(ActionEvent event) {
+    void onDone(ActionEvent event) {
         // we are finished with this order
         paymentSession.clear();
-        goHome((Node) event.getSource());
+        goHome();
     }
 
     /* ===== Navigation helper ===== */
 
     /**
-     * Loads and shows the Home screen by replacing the current scene's root.
-     *
-     * @param node any node currently in the scene (used to obtain the scene)
+     * Shows the Home screen.
      */
-    private void goHome(Node node) {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/Fxml/Home.fxml"));
-            loader.setControllerFactory(appContext::getBean);
-            Parent view = loader.load();
-            node.getScene().setRoot(view);
-        } catch (IOException ex) {
-            ex.printStackTrace();
-        }
+    private void goHome() {
+        navigator.goTo(Screen.HOME);
     }
 
     /**
@@ -237,24 +223,8 @@ public class PaymentSuccessController {
      * @param event mouse click event from the brand label
      */
     @FXML
-    private void onBrandClick(MouseEvent event) {
-        goWelcomeScreen((Node) event.getSource());
-    }
-
-    /**
-     * Loads the welcome screen and replaces the current scene root.
-     *
-     * @param anyNodeInScene any node in the active scene (to get the scene)
-     */
-    private void goWelcomeScreen(Node anyNodeInScene) {
-        try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/welcome-screen.fxml"));
-            loader.setControllerFactory(appContext::getBean);
-            Parent home = loader.load();
-            anyNodeInScene.getScene().setRoot(home);
-        } catch (Exception ex) {
-            ex.printStackTrace();
-        }
+    void onBrandClick(MouseEvent event) {
+        navigator.goTo(Screen.WELCOME);
     }
 
     /**
@@ -262,9 +232,9 @@ public class PaymentSuccessController {
      * Keeps custom modal CSS if available.
      */
     @FXML
-    private void onHelpClick() {
+    void onHelpClick() {
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
-        alert.setTitle(i18n.get("home.help.dialogTitle"));  // i18n
+        alert.setTitle(i18n.get(MessageKey.HOME_HELP_DIALOG_TITLE));  // i18n
         alert.setHeaderText(null);
 
         // ---- Header row (icon + localized title)
@@ -272,15 +242,15 @@ public class PaymentSuccessController {
         header.setAlignment(Pos.CENTER_LEFT);
         Label icon  = new Label("🛠");
         icon.getStyleClass().add("help-icon");
-        Label title = new Label(i18n.get("home.help.header"));  // i18n
+        Label title = new Label(i18n.get(MessageKey.HOME_HELP_HEADER));  // i18n
         title.getStyleClass().add("help-title");
         header.getChildren().addAll(icon, title);
 
         // ---- Body (localized labels)
         VBox body = new VBox(8);
         body.getChildren().addAll(
-                contactRow(i18n.get("home.help.phone"), "+1 (514) 555-0137"),
-                contactRow(i18n.get("home.help.email"), "support@stm.example")
+                contactRow(i18n.get(MessageKey.HOME_HELP_PHONE), "+1 (514) 555-0137"),
+                contactRow(i18n.get(MessageKey.HOME_HELP_EMAIL), "support@stm.example")
         );
 
         VBox content = new VBox(14, header, body);
@@ -296,7 +266,7 @@ public class PaymentSuccessController {
         pane.getStyleClass().add("help-modal");
 
         // Localized Close button
-        ButtonType closeType = new ButtonType(i18n.get("home.help.close"), ButtonBar.ButtonData.CANCEL_CLOSE);
+        ButtonType closeType = new ButtonType(i18n.get(MessageKey.HOME_HELP_CLOSE), ButtonBar.ButtonData.CANCEL_CLOSE);
         alert.getButtonTypes().setAll(closeType);
         Node closeBtn = pane.lookupButton(closeType);
         if (closeBtn != null) closeBtn.getStyleClass().add("help-close-btn");
@@ -320,7 +290,7 @@ public class PaymentSuccessController {
         Label val = new Label(value);
         val.getStyleClass().add("help-value");
 
-        Button copy = new Button(i18n.get("home.help.copy")); // i18n
+        Button copy = new Button(i18n.get(MessageKey.HOME_HELP_COPY)); // i18n
         copy.getStyleClass().add("help-copy-btn");
         copy.setOnAction(e -> {
             ClipboardContent cc = new ClipboardContent();
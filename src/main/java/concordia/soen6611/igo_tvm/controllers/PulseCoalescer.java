@@ -0,0 +1,66 @@
+package concordia.soen6611.igo_tvm.controllers;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Runs an action once for any number of requests made before it gets to run.
+ * <p>
+ * One tap on a kiosk screen can fire several listeners (a toggle, the menu handler,
+ * the quantity field it resets), and each used to reprice the order. A screen calls
+ * {@link #request()} from every listener instead; the first request posts the action
+ * to the FX event queue and the rest are absorbed, so the action runs once, after the
+ * current event and before the next pulse draws the result. {@link #flush()} runs a
+ * pending action at once, for a handler that needs its result right now.
+ * </p>
+ *
+ * <h3>Threading</h3>
+ * FX Application Thread only.
+ */
+public final class PulseCoalescer {
+
+    private final Runnable action;
+
+    /** Queue the action is posted to; the FX event queue on a kiosk. */
+    private final Executor fxQueue;
+
+    /** Whether the action has been requested and not run since. */
+    private boolean pending;
+
+    /**
+     * @param action action to run on the FX thread
+     */
+    public PulseCoalescer(Runnable action) {
+        this(action, Platform::runLater);
+    }
+
+    /**
+     * @param action  action to run
+     * @param fxQueue queue to post it to, run on the thread requests are made from
+     */
+    public PulseCoalescer(Runnable action, Executor fxQueue) {
+        this.action = action;
+        this.fxQueue = fxQueue;
+    }
+
+    /**
+     * Requests the action; it runs once however many requests come before it.
+     */
+    public void request() {
+        if (!pending) {
+            pending = true;
+            fxQueue.execute(this::flush);
+        }
+    }
+
+    /**
+     * Runs the action now if it has been requested, instead of waiting for the queue.
+     */
+    public void flush() {
+        if (pending) {
+            pending = false;
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package concordia.soen6611.igo_tvm.controllers;
+
+/**
+ * Lifecycle callbacks for screen controllers, invoked by the
+ * {@code ScreenNavigator} on every transition.
+ * <p>
+ * A screen view may be built ahead of time (preloaded) and, if cached, shown many
+ * times. {@code initialize()} therefore only wires the view itself; anything that
+ * ties the screen to the rest of the application (listeners on singletons, clock
+ * bindings, timers, text zoom and contrast registrations) is acquired in
+ * {@link #onEnter()} and released in {@link #onExit()}, typically through a
+ * {@link ScreenSubscriptions}.
+ * </p>
+ *
+ * <h3>Contract</h3>
+ * <ul>
+ *   <li>Both methods are called on the JavaFX Application Thread.</li>
+ *   <li>{@link #onEnter()} runs after the screen's root is in the scene with CSS applied.</li>
+ *   <li>{@link #onExit()} runs before the next screen is shown, exactly once per
+ *       {@link #onEnter()}.</li>
+ *   <li>After {@link #onExit()} the screen holds no references from application-wide
+ *       objects, so a non-cached view becomes unreachable.</li>
+ * </ul>
+ */
+public interface ScreenLifecycle {
+
+    /**
+     * Called each time the screen becomes visible. Reads per-visit state (such as the
+     * current order) and acquires application-wide subscriptions.
+     */
+    default void onEnter() {}
+
+    /**
+     * Called each time the screen is replaced. Stops timers and releases every
+     * subscription acquired in {@link #onEnter()}.
+     */
+    default void onExit() {}
+}
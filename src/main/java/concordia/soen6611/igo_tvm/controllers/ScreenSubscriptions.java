@@ -0,0 +1,173 @@
+package concordia.soen6611.igo_tvm.controllers;
+
+import concordia.soen6611.igo_tvm.Services.ClockService;
+import concordia.soen6611.igo_tvm.Services.ContrastManager;
+import concordia.soen6611.igo_tvm.Services.TextZoomService;
+import javafx.animation.Animation;
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
+import javafx.beans.property.Property;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.control.Labeled;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Future;
+
+/**
+ * Collects everything a screen acquires while it is visible and releases it in one
+ * call.
+ * <p>
+ * Each method performs the acquisition (add a listener, play an animation, register
+ * with a singleton) and records how to undo it. {@link #dispose()} undoes them in
+ * reverse order and leaves the bag empty, ready for the next visit.
+ * </p>
+ *
+ * <h3>Usage</h3>
+ * <pre>{@code
+ * private final ScreenSubscriptions subscriptions = new ScreenSubscriptions();
+ *
+ * public void onEnter() {
+ *     subscriptions.clock(clockService, clockLabel);
+ *     subscriptions.bind(titleLabel.textProperty(), i18n.text(MessageKey.TITLE));
+ *     subscriptions.zoom(titleLabel, helpLabel);
+ *     subscriptions.contrast(root);
+ * }
+ *
+ * public void onExit() {
+ *     subscriptions.dispose();
+ * }
+ * }</pre>
+ *
+ * <h3>Threading</h3>
+ * Not thread-safe; use from the JavaFX Application Thread.
+ */
+public final class ScreenSubscriptions {
+
+    /** Undo actions, most recent first. */
+    private final Deque<Runnable> releases = new ArrayDeque<>();
+
+    /**
+     * Adds a change listener and records its removal.
+     *
+     * @param observable observed value
+     * @param listener   listener to add
+     * @param <T>        value type
+     */
+    public <T> void listen(ObservableValue<T> observable, ChangeListener<? super T> listener) {
+        observable.addListener(listener);
+        releases.push(() -> observable.removeListener(listener));
+    }
+
+    /**
+     * Adds an invalidation listener and records its removal.
+     *
+     * @param observable observed value
+     * @param listener   listener to add
+     */
+    public void listen(Observable observable, InvalidationListener listener) {
+        observable.addListener(listener);
+        releases.push(() -> observable.removeListener(listener));
+    }
+
+    /**
+     * Binds {@code target} to {@code source} and records the unbind.
+     * <p>
+     * Used for localized text: a label bound while the screen is visible follows
+     * language switches, and once unbound the hidden screen no longer reacts to them.
+     *
+     * @param target property to bind, e.g. a label's text
+     * @param source value to follow, e.g. {@code I18nService#text(MessageKey)}
+     * @param <T>    value type
+     */
+    public <T> void bind(Property<T> target, ObservableValue<? extends T> source) {
+        target.bind(source);
+        releases.push(target::unbind);
+    }
+
+    /**
+     * Plays {@code animation} and records that it must be stopped.
+     *
+     * @param animation timeline or transition to play
+     * @param <A>       animation type
+     * @return the same animation
+     */
+    public <A extends Animation> A play(A animation) {
+        animation.play();
+        releases.push(animation::stop);
+        return animation;
+    }
+
+    /**
+     * Records that {@code future} must be cancelled if still running.
+     *
+     * @param future background work owned by the screen
+     * @param <F>    future type
+     * @return the same future
+     */
+    public <F extends Future<?>> F track(F future) {
+        releases.push(() -> future.cancel(true));
+        return future;
+    }
+
+    /**
+     * Binds {@code label} to the shared header clock and records the unbind.
+     *
+     * @param clockService shared clock
+     * @param label        header clock label
+     */
+    public void clock(ClockService clockService, Labeled label) {
+        clockService.bind(label);
+        releases.push(() -> clockService.unbind(label));
+    }
+
+    /**
+     * Registers {@code nodes} with {@link TextZoomService} and records the unregister.
+     *
+     * @param nodes text nodes to scale
+     */
+    public void zoom(Node... nodes) {
+        TextZoomService.get().register(nodes);
+        releases.push(() -> TextZoomService.get().unregister(nodes));
+    }
+
+    /**
+     * Attaches the {@link ContrastManager} effect to {@code root} and records the detach.
+     *
+     * @param root screen root
+     */
+    public void contrast(Parent root) {
+        ContrastManager.getInstance().attach(root.getScene(), root);
+        releases.push(() -> ContrastManager.getInstance().detach(root));
+    }
+
+    /**
+     * Records an arbitrary release action.
+     *
+     * @param release action to run on {@link #dispose()}
+     */
+    public void onDispose(Runnable release) {
+        releases.push(release);
+    }
+
+    /**
+     * Returns the number of subscriptions currently held.
+     *
+     * @return pending release count
+     */
+    public int size() {
+        return releases.size();
+    }
+
+    /**
+     * Releases every subscription, most recent first. Safe to call repeatedly.
+     */
+    public void dispose() {
+        while (!releases.isEmpty()) {
+            releases.pop().run();
+        }
+    }
+}
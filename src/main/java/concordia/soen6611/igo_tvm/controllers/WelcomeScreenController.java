@@ -2,18 +2,15 @@
 package concordia.soen6611.igo_tvm.controllers;
 
 import concordia.soen6611.igo_tvm.Services.I18nService;
+import concordia.soen6611.igo_tvm.Services.MessageKey;
+import concordia.soen6611.igo_tvm.Services.ScreenNavigator;
+import concordia.soen6611.igo_tvm.models.Screen;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Node;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
-import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Controller;
 
-import java.io.IOException;
 import java.util.Locale;
 
 /**
@@ -26,67 +23,67 @@ import java.util.Locale;
  *   <li>Navigate to the Home screen when the user starts.</li>
  * </ul>
  * <p>
- * Scope: standard Spring {@code @Controller}. Controllers are provided through
- * {@link FXMLLoader#setControllerFactory(javafx.util.Callback)} with the {@link ApplicationContext}.
+ * Scope: standard Spring {@code @Controller}. The view is loaded once and cached by
+ * the {@link ScreenNavigator}, which creates controllers through the Spring context.
  */
 @Controller
-public class WelcomeScreenController {
+public class WelcomeScreenController implements ScreenLifecycle {
 
     /** Internationalization service providing string lookups and locale state. */
     private final I18nService i18n;
 
     /** Top-line welcome text. */
-    @FXML private Label welcomeLabel;
+    @FXML Label welcomeLabel;
     /** Main title label. */
-    @FXML private Label titleLabel;
+    @FXML Label titleLabel;
     /** Subtitle/description label. */
-    @FXML private Label subtitleLabel;
+    @FXML Label subtitleLabel;
     /** Label preceding language selection controls. */
-    @FXML private Label languageSelectLabel;
+    @FXML Label languageSelectLabel;
     /** Primary action button to begin the purchase flow. */
-    @FXML private Button startButton;
+    @FXML Button startButton;
     /** Button to switch locale to English. */
-    @FXML private Button englishButton;
+    @FXML Button englishButton;
     /** Button to switch locale to French. */
-    @FXML private Button frenchButton;
+    @FXML Button frenchButton;
 
-    /** Spring application context, used as controller factory for navigation. */
-    private final ApplicationContext appContext;
+    /** Navigator that owns the application scene and cached screens. */
+    private final ScreenNavigator navigator;
+
+    /** Subscriptions held while the screen is visible. */
+    private final ScreenSubscriptions subscriptions = new ScreenSubscriptions();
 
     /**
      * Constructs the controller with required collaborators.
      *
-     * @param i18n        the internationalization service
-     * @param appContext  Spring application context used for controller-factory navigation
+     * @param i18n       the internationalization service
+     * @param navigator  screen navigator used to switch views
      */
-    public WelcomeScreenController(I18nService i18n, ApplicationContext appContext) {
+    public WelcomeScreenController(I18nService i18n, ScreenNavigator navigator) {
         this.i18n = i18n;
-        this.appContext = appContext;
+        this.navigator = navigator;
     }
 
     /**
-     * JavaFX lifecycle hook.
-     * <ul>
-     *   <li>Applies initial localized text to UI labels/buttons.</li>
-     *   <li>Registers a locale listener to re-apply text when the language changes.</li>
-     * </ul>
+     * Binds the labels to their localized text while the screen is visible, so a
+     * language switch (or one made while the screen was hidden) shows at once.
      */
-    @FXML
-    public void initialize() {
-        System.out.println("Controller initialized");
-        System.out.println("I18nService: " + i18n);
-        System.out.println("MessageSource: " + i18n.messages);
-        System.out.println("Current locale: " + i18n.getLocale());
-        updateTexts();
-        i18n.localeProperty().addListener((obs, oldL, newL) -> {
-            System.out.println("Locale changed from " + oldL + " to " + newL);
-            updateTexts();
-        });
+    @Override
+    public void onEnter() {
+        bindTexts();
+    }
+
+    /**
+     * Unbinds the labels.
+     */
+    @Override
+    public void onExit() {
+        subscriptions.dispose();
     }
 
     /**
-     * Handles clicks on the language buttons and updates the current locale.
-     * Re-applies localized strings afterward.
+     * Handles clicks on the language buttons and updates the current locale; the bound
+     * labels follow in the next pulse.
      *
      * @param event the action event from a language button
      */
@@ -94,30 +91,23 @@ public class WelcomeScreenController {
     public void onLanguageChange(ActionEvent event) {
         Object src = event.getSource();
         if (src == englishButton) {
-            System.out.println("English button clicked");
             i18n.setLocale(Locale.ENGLISH);
         } else if (src == frenchButton) {
-            System.out.println("French button clicked");
             i18n.setLocale(Locale.FRENCH);
         }
-        // Not strictly needed if you listen above, but harmless:
-        updateTexts();
     }
 
     /**
-     * Applies localized strings to all visible labels and buttons on this screen.
-     * Uses keys: {@code welcome}, {@code title}, {@code subtitle}, {@code selectLanguage}, {@code start}.
+     * Binds all labels and buttons on this screen to their localized text.
+     * Uses keys {@link MessageKey#WELCOME}, {@link MessageKey#TITLE}, {@link MessageKey#SUBTITLE},
+     * {@link MessageKey#SELECT_LANGUAGE} and {@link MessageKey#START}.
      */
-    private void updateTexts() {
-        System.out.println("=== updateTexts called ===");
-        System.out.println("Current locale: " + i18n.getLocale());
-        String welcome = i18n.get("welcome");
-        System.out.println("'welcome' key -> " + welcome);
-        welcomeLabel.setText(welcome);
-        titleLabel.setText(i18n.get("title"));
-        subtitleLabel.setText(i18n.get("subtitle"));
-        languageSelectLabel.setText(i18n.get("selectLanguage"));
-        startButton.setText(i18n.get("start"));
+    private void bindTexts() {
+        subscriptions.bind(welcomeLabel.textProperty(), i18n.text(MessageKey.WELCOME));
+        subscriptions.bind(titleLabel.textProperty(), i18n.text(MessageKey.TITLE));
+        subscriptions.bind(subtitleLabel.textProperty(), i18n.text(MessageKey.SUBTITLE));
+        subscriptions.bind(languageSelectLabel.textProperty(), i18n.text(MessageKey.SELECT_LANGUAGE));
+        subscriptions.bind(startButton.textProperty(), i18n.text(MessageKey.START));
     }
 
     /**
@@ -128,20 +118,7 @@ public class WelcomeScreenController {
      */
     @FXML
     public void onStartPurchase(ActionEvent event) {
-        try {
-            // Load the Home page FXML
-            System.out.println("Start purchase clicked. Current locale: " + i18n.getLocale());
-            // Load the Home page FXML
-            FXMLLoader loader = new FXMLLoader(getClass().getResource("/Fxml/Home.fxml"));
-            loader.setControllerFactory(appContext::getBean); // let Spring create controllers
-            Parent homeRoot = loader.load();
-
-            // EITHER: swap root (keeps size and styles)
-            Scene scene = ((Node) event.getSource()).getScene();
-            scene.setRoot(homeRoot);
-        } catch (IOException ex) {
-            ex.printStackTrace();
-            // might show an alert instead of printing stack trace.
-        }
+        System.out.println("Start purchase clicked. Current locale: " + i18n.getLocale());
+        navigator.goTo(Screen.HOME);
     }
 }
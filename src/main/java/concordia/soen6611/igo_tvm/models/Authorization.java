@@ -0,0 +1,70 @@
+package concordia.soen6611.igo_tvm.models;
+
+import java.util.Objects;
+
+/**
+ * Answer of a payment network to an authorization request: approved, with the
+ * network's reference for the charge and the amount it captured, or declined, with the
+ * reason given. A partial approval captures less than was asked for.
+ * <p>
+ * A decline is a definite answer and is not retried; a request that fails or times
+ * out has no answer at all and is reported as an exception instead.
+ * </p>
+ *
+ * <h3>Threading</h3>
+ * Immutable and thread-safe.
+ */
+public final class Authorization {
+
+    private final boolean approved;
+
+    /** Network reference of an approved charge; {@code null} if declined. */
+    private final String reference;
+
+    /** Amount the network captured; {@code null} if declined. */
+    private final Money captured;
+
+    /** Reason for a decline; {@code null} if approved. */
+    private final String declineReason;
+
+    private Authorization(boolean approved, String reference, Money captured, String declineReason) {
+        this.approved = approved;
+        this.reference = reference;
+        this.captured = captured;
+        this.declineReason = declineReason;
+    }
+
+    /**
+     * @param reference network reference of the charge
+     * @param captured  amount the network captured
+     * @return an approval
+     */
+    public static Authorization approved(String reference, Money captured) {
+        return new Authorization(true, reference, Objects.requireNonNull(captured, "captured"), null);
+    }
+
+    /**
+     * @param reason reason given by the network, e.g. {@code "Insufficient funds"}
+     * @return a decline
+     */
+    public static Authorization declined(String reason) {
+        return new Authorization(false, null, null, reason);
+    }
+
+    /** @return {@code true} if the charge was approved */
+    public boolean isApproved() { return approved; }
+
+    /** @return the network reference of an approved charge, or {@code null} */
+    public String getReference() { return reference; }
+
+    /** @return the amount captured by an approved charge, or {@code null} */
+    public Money getCaptured() { return captured; }
+
+    /** @return the reason for a decline, or {@code null} */
+    public String getDeclineReason() { return declineReason; }
+
+    @Override
+    public String toString() {
+        return approved ? "Approved " + reference + " for " + captured : "Declined: " + declineReason;
+    }
+}
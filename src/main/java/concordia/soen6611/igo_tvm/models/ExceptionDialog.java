@@ -3,8 +3,9 @@ package concordia.soen6611.igo_tvm.models;
 import concordia.soen6611.igo_tvm.controllers.ErrorDialogController;
 import concordia.soen6611.igo_tvm.exceptions.AbstractCustomException;
 import concordia.soen6611.igo_tvm.Services.I18nService;
+import concordia.soen6611.igo_tvm.Services.MessageKey;
+import concordia.soen6611.igo_tvm.Services.ViewLoader;
 import javafx.application.Platform;
-import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
@@ -16,7 +17,6 @@ import org.springframework.context.ApplicationContext;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
-import java.util.Objects;
 
 /**
  * Utility class for showing localized error dialogs.
@@ -57,7 +57,7 @@ public final class ExceptionDialog {
      * @return resolved message string
      */
     // Shorthand to resolve a message or fallback to a default
-    private static String msg(I18nService i18n, String code, String fallback, Object... args) {
+    private static String msg(I18nService i18n, MessageKey code, String fallback, Object... args) {
         return i18n == null ? fallback : i18n.get(code, args);
     }
 
@@ -66,7 +66,7 @@ public final class ExceptionDialog {
      * <p>
      * Behavior:
      * <ol>
-     *   <li>Loads {@code /fxml/ErrorDialog.fxml} and delegates UI rendering to {@link ErrorDialogController}.</li>
+     *   <li>Builds {@code /Fxml/ErrorDialog.fxml} through {@link ViewLoader} and delegates UI rendering to {@link ErrorDialogController}.</li>
      *   <li>Localizes titles/labels using {@link I18nService}, if present in the context.</li>
      *   <li>If loading fails, shows a minimal fallback {@link Alert} with localized header/body.</li>
      * </ol>
@@ -79,17 +79,14 @@ public final class ExceptionDialog {
         if (ex == null) return;
 
         final I18nService i18n = i18n(appContext);
-        final String titleError = msg(i18n, "errorDialog.title", "Error");
+        final String titleError = msg(i18n, MessageKey.ERROR_DIALOG_TITLE, "Error");
 
         try {
-            FXMLLoader loader = new FXMLLoader(
-                    Objects.requireNonNull(ExceptionDialog.class.getResource("/fxml/ErrorDialog.fxml"))
-            );
-            loader.setControllerFactory(appContext::getBean);
-            Parent root = loader.load();
+            ViewLoader.LoadedView view = appContext.getBean(ViewLoader.class).load("/Fxml/ErrorDialog.fxml");
+            Parent root = view.getRoot();
 
             // Let controller render localized content; we just supply exception.
-            ErrorDialogController ctrl = loader.getController();
+            ErrorDialogController ctrl = view.getController();
             ctrl.setException(ex);
 
             Stage stage = new Stage();
@@ -108,9 +105,9 @@ public final class ExceptionDialog {
                 }
                 alert.initModality(Modality.WINDOW_MODAL);
                 alert.setTitle(titleError);
-                alert.setHeaderText(msg(i18n, "errorDialog.fallback.header", "Unable to display error dialog"));
+                alert.setHeaderText(msg(i18n, MessageKey.ERROR_DIALOG_FALLBACK_HEADER, "Unable to display error dialog"));
                 String msgBody = e.getMessage() != null ? e.getMessage()
-                        : msg(i18n, "errorDialog.fallback.body", "Failed to load error dialog UI.");
+                        : msg(i18n, MessageKey.ERROR_DIALOG_FALLBACK_BODY, "Failed to load error dialog UI.");
                 alert.setContentText(msgBody);
                 alert.showAndWait();
             });
@@ -137,7 +134,7 @@ public final class ExceptionDialog {
         if (t == null) return;
 
         final I18nService i18n = i18n(appContext);
-        final String titleError = msg(i18n, "errorDialog.title", "Error");
+        final String titleError = msg(i18n, MessageKey.ERROR_DIALOG_TITLE, "Error");
 
         if (t instanceof AbstractCustomException) {
             show((AbstractCustomException) t, owner, appContext);
@@ -147,7 +144,7 @@ public final class ExceptionDialog {
         try {
             // Localized user-facing message inside the wrapper exception:
             String userMsg = msg(i18n,
-                    "errorDialog.unexpected.wrapper",
+                    MessageKey.ERROR_DIALOG_UNEXPECTED_WRAPPER,
                     "An unexpected error occurred. Please contact support.");
 
             Class<?> userExClass = Class.forName("concordia.soen6611.igo_tvm.exceptions.UserException");
@@ -170,9 +167,9 @@ public final class ExceptionDialog {
                 }
                 alert.initModality(Modality.WINDOW_MODAL);
                 alert.setTitle(titleError);
-                alert.setHeaderText(msg(i18n, "errorDialog.unexpected.header", "An unexpected error occurred"));
+                alert.setHeaderText(msg(i18n, MessageKey.ERROR_DIALOG_UNEXPECTED_HEADER, "An unexpected error occurred"));
                 // Keep content concise, localized prefix + snippet of stack trace
-                String prefix = msg(i18n, "errorDialog.unexpected.body", "Details (technical):");
+                String prefix = msg(i18n, MessageKey.ERROR_DIALOG_UNEXPECTED_BODY, "Details (technical):");
                 String body = prefix + "\n" + (trace.length() > 800 ? trace.substring(0, 800) + "..." : trace);
                 alert.setContentText(body);
                 alert.showAndWait();
@@ -0,0 +1,260 @@
+package concordia.soen6611.igo_tvm.models;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.zip.CRC32;
+
+/**
+ * Reads and writes the fare file: one {@link FareSnapshot} as checksummed ASCII text.
+ * <p>
+ * The file lets fares and tax rates change without a new build. It looks like this:
+ * <pre>
+ * igo-fares 1
+ * version 42
+ * effective 2026-11-01T00:00-04:00
+ * gst 5
+ * qst 9.975
+ * fare ADULT SINGLE_TRIP 3.75
+ * fare ADULT DAY_PASS 11.00
+ * ...
+ * crc32 1c291ca3
+ * </pre>
+ * The first line names the format; {@code version} is the publisher's version number;
+ * the optional {@code effective} date-time, with its offset, is when the fares take
+ * effect (immediately without it); the tax rates are in percent; there is one
+ * {@code fare} line, in dollars, for every {@link RiderType} and {@link FareProduct};
+ * and the last line is the CRC-32 of every byte before it, in hexadecimal. Blank lines and lines starting with {@code #} are
+ * ignored. A file that is truncated, edited without updating its checksum, names a
+ * fare twice or leaves one out is rejected as a whole.
+ * </p>
+ * <p>
+ * {@link #read(Path)} maps the file into memory and checksums and parses the mapping
+ * directly. {@link #write(FareSnapshot, Path)} replaces the file atomically, so a
+ * watcher never sees it half-written.
+ * </p>
+ *
+ * <h3>Threading</h3>
+ * Stateless; safe to call from any thread.
+ */
+public final class FareFile {
+
+    /** First word of the first line. */
+    public static final String MAGIC = "igo-fares";
+
+    /** Format this class reads and writes. */
+    public static final int FORMAT = 1;
+
+    /** Largest file accepted; a complete table is well under 2 KiB. */
+    static final int MAX_BYTES = 64 * 1024;
+
+    private static final String CHECKSUM = "crc32";
+
+    private FareFile() {
+    }
+
+    /**
+     * Reads and validates a fare file.
+     *
+     * @param file fare file
+     * @return the snapshot it holds
+     * @throws IOException if the file cannot be read or is not a valid, complete fare file
+     */
+    public static FareSnapshot read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0 || size > MAX_BYTES) {
+                throw new IOException(file + ": size " + size + " is outside 1.." + MAX_BYTES + " bytes");
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return decode(mapped, file.toString());
+        }
+    }
+
+    /**
+     * Writes a fare file, replacing {@code file} atomically.
+     *
+     * @param snapshot fares to write
+     * @param file     destination; a sibling {@code .tmp} file is used while writing
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(FareSnapshot snapshot, Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temp, encode(snapshot));
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Encodes a snapshot in the file format, checksum included.
+     *
+     * @param snapshot fares to encode
+     * @return the file's bytes
+     */
+    public static byte[] encode(FareSnapshot snapshot) {
+        StringBuilder out = new StringBuilder(1024);
+        out.append(MAGIC).append(' ').append(FORMAT).append('\n');
+        out.append("version ").append(snapshot.getVersion()).append('\n');
+        if (!Instant.EPOCH.equals(snapshot.getEffectiveFrom())) {
+            out.append("effective ").append(snapshot.getEffectiveFrom()).append('\n');
+        }
+        out.append("gst ").append(snapshot.getGST().percent()).append('\n');
+        out.append("qst ").append(snapshot.getQST().percent()).append('\n');
+        for (RiderType rider : RiderType.values()) {
+            for (FareProduct product : FareProduct.values()) {
+                out.append("fare ").append(rider.name()).append(' ').append(product.name()).append(' ')
+                        .append(snapshot.getFares().fare(rider, product)).append('\n');
+            }
+        }
+        CRC32 crc = new CRC32();
+        crc.update(out.toString().getBytes(StandardCharsets.US_ASCII));
+        out.append(CHECKSUM).append(' ').append(String.format("%08x", crc.getValue())).append('\n');
+        return out.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /** Verifies the checksum line and parses everything before it. */
+    private static FareSnapshot decode(ByteBuffer bytes, String source) throws IOException {
+        int end = bytes.limit();
+        while (end > 0 && (bytes.get(end - 1) == '\n' || bytes.get(end - 1) == '\r')) {
+            end--;
+        }
+        int checksumLine = end;
+        while (checksumLine > 0 && bytes.get(checksumLine - 1) != '\n') {
+            checksumLine--;
+        }
+        String last = ascii(bytes, checksumLine, end, source).trim();
+        if (!last.startsWith(CHECKSUM + " ")) {
+            throw new IOException(source + ": last line is not a " + CHECKSUM + " checksum (truncated?)");
+        }
+        long expected;
+        try {
+            expected = Long.parseLong(last.substring(CHECKSUM.length() + 1).trim(), 16);
+        } catch (NumberFormatException e) {
+            throw new IOException(source + ": bad checksum \"" + last + "\"", e);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes.duplicate().position(0).limit(checksumLine));
+        if (crc.getValue() != expected) {
+            throw new IOException(source + ": checksum mismatch, file says " + Long.toHexString(expected)
+                    + " but content is " + Long.toHexString(crc.getValue()));
+        }
+        return parse(ascii(bytes, 0, checksumLine, source), source);
+    }
+
+    private static String ascii(ByteBuffer bytes, int from, int to, String source) throws IOException {
+        ByteBuffer slice = bytes.duplicate().position(from).limit(to);
+        try {
+            CharBuffer chars = StandardCharsets.US_ASCII.newDecoder().decode(slice);
+            return chars.toString();
+        } catch (IOException e) {
+            throw new IOException(source + ": not ASCII text", e);
+        }
+    }
+
+    private static FareSnapshot parse(String text, String source) throws IOException {
+        FareTable.Builder fares = FareTable.builder();
+        boolean[] set = new boolean[RiderType.values().length * FareProduct.values().length];
+        boolean header = false;
+        long version = -1;
+        Instant effective = null;
+        TaxRate gst = null;
+        TaxRate qst = null;
+        String[] lines = text.split("\n", -1);
+        for (int n = 0; n < lines.length; n++) {
+            String line = lines[n].trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String where = source + " line " + (n + 1) + ": ";
+            String[] words = line.split("\\s+");
+            try {
+                if (!header) {
+                    if (words.length != 2 || !MAGIC.equals(words[0]) || !String.valueOf(FORMAT).equals(words[1])) {
+                        throw new IOException(where + "expected \"" + MAGIC + " " + FORMAT + "\"");
+                    }
+                    header = true;
+                    continue;
+                }
+                switch (words[0]) {
+                    case "version":
+                        expectWords(words, 2, where);
+                        if (version >= 0) {
+                            throw new IOException(where + "version given twice");
+                        }
+                        version = Long.parseLong(words[1]);
+                        if (version < 0) {
+                            throw new IOException(where + "negative version");
+                        }
+                        break;
+                    case "effective":
+                        expectWords(words, 2, where);
+                        if (effective != null) {
+                            throw new IOException(where + "effective given twice");
+                        }
+                        try {
+                            effective = OffsetDateTime.parse(words[1]).toInstant();
+                        } catch (DateTimeParseException e) {
+                            throw new IOException(where + "not a date-time with offset: " + words[1], e);
+                        }
+                        break;
+                    case "gst":
+                        expectWords(words, 2, where);
+                        if (gst != null) {
+                            throw new IOException(where + "gst given twice");
+                        }
+                        gst = TaxRate.parsePercent(words[1]);
+                        break;
+                    case "qst":
+                        expectWords(words, 2, where);
+                        if (qst != null) {
+                            throw new IOException(where + "qst given twice");
+                        }
+                        qst = TaxRate.parsePercent(words[1]);
+                        break;
+                    case "fare":
+                        expectWords(words, 4, where);
+                        RiderType rider = RiderType.valueOf(words[1]);
+                        FareProduct product = FareProduct.valueOf(words[2]);
+                        int cell = rider.ordinal() * FareProduct.values().length + product.ordinal();
+                        if (set[cell]) {
+                            throw new IOException(where + rider.label() + " " + product.label() + " given twice");
+                        }
+                        set[cell] = true;
+                        fares.fare(rider, product, Money.parse(words[3]));
+                        break;
+                    default:
+                        throw new IOException(where + "unknown entry \"" + words[0] + "\"");
+                }
+            } catch (IllegalArgumentException e) {
+                // Also NumberFormatException: a bad number, rider or product name
+                throw new IOException(where + e.getMessage(), e);
+            }
+        }
+        if (!header) {
+            throw new IOException(source + ": empty fare file");
+        }
+        if (version < 0 || gst == null || qst == null) {
+            throw new IOException(source + ": version, gst and qst are required");
+        }
+        try {
+            return new FareSnapshot(version, effective == null ? Instant.EPOCH : effective, fares.build(), gst, qst);
+        } catch (IllegalStateException e) {
+            throw new IOException(source + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static void expectWords(String[] words, int count, String where) throws IOException {
+        if (words.length != count) {
+            throw new IOException(where + "expected " + (count - 1) + " value(s) after \"" + words[0] + "\"");
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package concordia.soen6611.igo_tvm.models;
+
+/**
+ * Fare products a rider can buy.
+ * <p>
+ * The ordinal indexes the product's column of a {@link FareTable}; {@link #label()} is
+ * the name stored on an {@link OrderSummary}.
+ * </p>
+ */
+public enum FareProduct {
+    /** One trip. */
+    SINGLE_TRIP("Single Trip"),
+    /** Unlimited travel for a day. */
+    DAY_PASS("Day Pass"),
+    /** Unlimited travel for a week. */
+    WEEKLY_PASS("Weekly Pass"),
+    /** Unlimited travel for a month. */
+    MONTHLY_PASS("Monthly Pass"),
+    /** Unlimited travel from Friday evening to Monday morning. */
+    WEEKEND_PASS("Weekend Pass");
+
+    /** Display and order name. */
+    private final String label;
+
+    FareProduct(String label) { this.label = label; }
+
+    /**
+     * @return the product's name, e.g. {@code "Day Pass"}
+     */
+    public String label() { return label; }
+
+    /**
+     * Looks up a product by its {@link #label()}.
+     *
+     * @param label product name, e.g. {@code "Weekly Pass"}; surrounding blanks are ignored
+     * @return the product
+     * @throws IllegalArgumentException if no product has that name
+     */
+    public static FareProduct fromLabel(String label) {
+        String name = label == null ? "" : label.trim();
+        for (FareProduct product : values()) {
+            if (product.label.equals(name)) {
+                return product;
+            }
+        }
+        throw new IllegalArgumentException("unknown fare product: \"" + label + "\"");
+    }
+}
@@ -0,0 +1,124 @@
+package concordia.soen6611.igo_tvm.models;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * One published version of the fares and sales tax rates.
+ * <p>
+ * A snapshot is built and validated in full before it is published, and is never
+ * changed afterwards, so everything priced from the same snapshot is consistent: the
+ * fare and both taxes of a quote always come from one version. {@link MetroRatePassProxy}
+ * swaps whole snapshots; see {@link FareFile} for the file a snapshot is read from.
+ * </p>
+ * <p>
+ * A snapshot takes effect at {@link #getEffectiveFrom()}: a snapshot dated in the future
+ * is held, already validated, as the upcoming version and replaces the current one at
+ * that instant.
+ * </p>
+ *
+ * <h3>Threading</h3>
+ * Immutable and thread-safe.
+ */
+public final class FareSnapshot {
+
+    /** Publisher's version number; a newer snapshot has a larger one. */
+    private final long version;
+
+    /** Instant from which these fares apply; {@link Instant#EPOCH} for immediately. */
+    private final Instant effectiveFrom;
+
+    /** Base fares. */
+    private final FareTable fares;
+
+    /** Federal Goods and Services Tax. */
+    private final TaxRate gst;
+
+    /** Quebec Sales Tax. */
+    private final TaxRate qst;
+
+    /** {@code gst + qst}, for display. */
+    private final TaxRate combined;
+
+    /**
+     * Creates a snapshot that applies as soon as it is published.
+     *
+     * @param version publisher's version number, not negative
+     * @param fares   complete fare table
+     * @param gst     GST rate
+     * @param qst     QST rate
+     * @throws IllegalArgumentException if {@code version} is negative
+     */
+    public FareSnapshot(long version, FareTable fares, TaxRate gst, TaxRate qst) {
+        this(version, Instant.EPOCH, fares, gst, qst);
+    }
+
+    /**
+     * @param version       publisher's version number, not negative
+     * @param effectiveFrom instant from which the fares apply
+     * @param fares         complete fare table
+     * @param gst           GST rate
+     * @param qst           QST rate
+     * @throws IllegalArgumentException if {@code version} is negative
+     */
+    public FareSnapshot(long version, Instant effectiveFrom, FareTable fares, TaxRate gst, TaxRate qst) {
+        if (version < 0) {
+            throw new IllegalArgumentException("negative fare version: " + version);
+        }
+        this.version = version;
+        this.effectiveFrom = Objects.requireNonNull(effectiveFrom, "effectiveFrom");
+        this.fares = Objects.requireNonNull(fares, "fares");
+        this.gst = Objects.requireNonNull(gst, "gst");
+        this.qst = Objects.requireNonNull(qst, "qst");
+        this.combined = gst.plus(qst);
+    }
+
+    /** @return the publisher's version number */
+    public long getVersion() { return version; }
+
+    /** @return the instant from which these fares apply; {@link Instant#EPOCH} for immediately */
+    public Instant getEffectiveFrom() { return effectiveFrom; }
+
+    /** @return the fare table */
+    public FareTable getFares() { return fares; }
+
+    /** @return the GST rate */
+    public TaxRate getGST() { return gst; }
+
+    /** @return the QST rate */
+    public TaxRate getQST() { return qst; }
+
+    /** @return the combined rate {@code GST + QST} */
+    public TaxRate getTaxRate() { return combined; }
+
+    /**
+     * Computes the sales tax on a pre-tax amount: GST and QST each rounded to the cent,
+     * then added.
+     *
+     * @param subtotal pre-tax amount
+     * @return the tax due
+     */
+    public Money taxOn(Money subtotal) {
+        return gst.on(subtotal).plus(qst.on(subtotal));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof FareSnapshot)) {
+            return false;
+        }
+        FareSnapshot other = (FareSnapshot) o;
+        return version == other.version && effectiveFrom.equals(other.effectiveFrom) && fares.equals(other.fares)
+                && gst.equals(other.gst) && qst.equals(other.qst);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(version, effectiveFrom, fares, gst, qst);
+    }
+
+    @Override
+    public String toString() {
+        return "FareSnapshot{version=" + version + ", effectiveFrom=" + effectiveFrom + ", gst=" + gst + ", qst=" + qst + "}";
+    }
+}
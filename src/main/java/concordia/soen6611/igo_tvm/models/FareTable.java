@@ -0,0 +1,119 @@
+package concordia.soen6611.igo_tvm.models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable, complete table of base fares: one price for every {@link RiderType} and
+ * {@link FareProduct}.
+ * <p>
+ * Fares used to be looked up in a map by a {@code "<RiderType>_<PassType>"} string built
+ * on every call, and a missing key priced the product at zero: "Senior_Weekly Pass" was
+ * never in the map because "Student_Weekly Pass" was put twice. Here the fares are a
+ * dense array of cents indexed by the two ordinals, so a lookup is an array read and
+ * allocates nothing for fares {@link Money} caches. {@link Builder#build()} refuses a
+ * table with a missing or non-positive fare, so no product can be sold for free.
+ * </p>
+ *
+ * <h3>Threading</h3>
+ * Immutable and thread-safe once built; a {@link Builder} is for one thread.
+ */
+public final class FareTable {
+
+    private static final RiderType[] RIDERS = RiderType.values();
+    private static final FareProduct[] PRODUCTS = FareProduct.values();
+
+    /** Fares in cents, row-major by rider then product. */
+    private final long[] cents;
+
+    private FareTable(long[] cents) {
+        this.cents = cents;
+    }
+
+    /**
+     * @return a builder for a new table
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns a base fare.
+     *
+     * @param rider   rider category
+     * @param product fare product
+     * @return the pre-tax price of one {@code product} for {@code rider}; always positive
+     */
+    public Money fare(RiderType rider, FareProduct product) {
+        return Money.ofCents(cents[index(rider, product)]);
+    }
+
+    private static int index(RiderType rider, FareProduct product) {
+        return rider.ordinal() * PRODUCTS.length + product.ordinal();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof FareTable && Arrays.equals(((FareTable) o).cents, cents);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(cents);
+    }
+
+    /**
+     * Collects fares and checks that the table is complete.
+     */
+    public static final class Builder {
+
+        /** Fares set so far, in cents; {@code -1} where none is set. */
+        private final long[] cents = new long[RIDERS.length * PRODUCTS.length];
+
+        private Builder() {
+            Arrays.fill(cents, -1);
+        }
+
+        /**
+         * Sets one fare, replacing any earlier value for the same cell.
+         *
+         * @param rider   rider category
+         * @param product fare product
+         * @param fare    pre-tax price
+         * @return this builder
+         * @throws IllegalArgumentException if {@code fare} is negative
+         */
+        public Builder fare(RiderType rider, FareProduct product, Money fare) {
+            if (fare.isNegative()) {
+                throw new IllegalArgumentException("negative fare for " + rider.label() + " " + product.label() + ": " + fare);
+            }
+            cents[index(rider, product)] = fare.cents();
+            return this;
+        }
+
+        /**
+         * Builds the table.
+         *
+         * @return the table
+         * @throws IllegalStateException naming every missing or non-positive fare
+         */
+        public FareTable build() {
+            List<String> problems = new ArrayList<>();
+            for (RiderType rider : RIDERS) {
+                for (FareProduct product : PRODUCTS) {
+                    long fare = cents[index(rider, product)];
+                    if (fare < 0) {
+                        problems.add(rider.label() + " " + product.label() + " has no fare");
+                    } else if (fare == 0) {
+                        problems.add(rider.label() + " " + product.label() + " is free");
+                    }
+                }
+            }
+            if (!problems.isEmpty()) {
+                throw new IllegalStateException("Incomplete fare table: " + String.join(", ", problems));
+            }
+            return new FareTable(cents.clone());
+        }
+    }
+}
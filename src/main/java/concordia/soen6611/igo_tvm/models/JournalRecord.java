@@ -0,0 +1,366 @@
+package concordia.soen6611.igo_tvm.models;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * One event of the transaction journal: an order placed, or a payment moving from
+ * one {@link PaymentStatus} to another.
+ * <p>
+ * Records are kept in a compact binary form, big-endian:
+ * <pre>
+ *   byte    kind            1 = order, 2 = payment transition, 3 = captured payment transition
+ *   long[2] payment id      the UUID's two halves
+ *   long    time            epoch milliseconds
+ *   order:       string method, string rider, string trip, int multiTrips,
+ *                int quantity, long unitCents, long totalCents, long fareVersion
+ *   transition:  string method, long amountCents, byte from, byte to
+ *   captured:    as transition, then long capturedCents, long changeCents
+ * </pre>
+ * where a string is an unsigned short byte count followed by UTF-8. A payment's order
+ * and its transitions share the payment id, which ties them together. The sequence
+ * number is assigned by the journal and kept in its framing, not in the payload. A
+ * completion carries the amount the kiosk actually collected, the cash tendered or the
+ * amount the payment network captured, and the change given back out of it; these may
+ * differ from the payment's amount. Journals written before they were recorded hold
+ * completions of kind 2, without them.
+ * </p>
+ *
+ * <p>Instances are immutable and thread-safe.</p>
+ */
+public abstract class JournalRecord {
+
+    private static final byte ORDER = 1;
+    private static final byte TRANSITION = 2;
+    private static final byte CAPTURED = 3;
+
+    /** {@link Transition#capturedCents} of a transition that carries no captured amount. */
+    private static final long NOT_CAPTURED = -1;
+
+    /** Journal position; {@code -1} until the record is read back from a journal. */
+    private final long sequence;
+    private final UUID paymentId;
+    private final long timeMillis;
+
+    JournalRecord(long sequence, UUID paymentId, long timeMillis) {
+        this.sequence = sequence;
+        this.paymentId = Objects.requireNonNull(paymentId, "paymentId");
+        this.timeMillis = timeMillis;
+    }
+
+    /**
+     * Records an order about to be paid.
+     *
+     * @param payment payment that pays for it
+     * @param order   the order
+     * @param at      when it was placed
+     * @return the record
+     */
+    public static Order order(Payment payment, OrderSummary order, Instant at) {
+        return new Order(-1, UUID.fromString(payment.getId()), at.toEpochMilli(), payment.getMethod(),
+                order.getRiderType(), order.getTripType(), order.getMultiTrips(), order.getQuantity(),
+                order.getUnitPrice().cents(), order.getTotal().cents(), order.getFareVersion());
+    }
+
+    /**
+     * Records a payment transition; a completion carries the payment's
+     * {@linkplain Payment#getCaptured() captured amount} and change, if it has them.
+     *
+     * @param payment payment that moved
+     * @param from    status it left
+     * @param to      status it entered
+     * @param at      when it moved
+     * @return the record
+     */
+    public static Transition transition(Payment payment, PaymentStatus from, PaymentStatus to, Instant at) {
+        Money captured = to == PaymentStatus.COMPLETED ? payment.getCaptured() : null;
+        return new Transition(-1, UUID.fromString(payment.getId()), at.toEpochMilli(), payment.getMethod(),
+                payment.getAmount().cents(), from, to, captured == null ? NOT_CAPTURED : captured.cents(),
+                captured == null ? 0 : payment.getChange().cents());
+    }
+
+    /**
+     * Records a payment transition of a payment known only from the journal.
+     *
+     * @param paymentId id of the payment that moved
+     * @param method    its payment method label
+     * @param amount    its amount
+     * @param from      status it left
+     * @param to        status it entered
+     * @param at        when it moved
+     * @return the record
+     */
+    public static Transition transition(UUID paymentId, String method, Money amount, PaymentStatus from,
+                                        PaymentStatus to, Instant at) {
+        return new Transition(-1, paymentId, at.toEpochMilli(), method, amount.cents(), from, to, NOT_CAPTURED, 0);
+    }
+
+    /**
+     * @return the journal sequence number, or {@code -1} for a record not read from a journal
+     */
+    public long getSequence() { return sequence; }
+
+    /** @return id of the payment the record belongs to */
+    public UUID getPaymentId() { return paymentId; }
+
+    /** @return when the event happened, in epoch milliseconds */
+    public long getTimeMillis() { return timeMillis; }
+
+    /** @return when the event happened */
+    public Instant getTime() { return Instant.ofEpochMilli(timeMillis); }
+
+    /**
+     * @return the number of bytes {@link #encode(ByteBuffer)} writes
+     */
+    public abstract int encodedSize();
+
+    /**
+     * Writes the record at the buffer's position.
+     *
+     * @param out buffer with at least {@link #encodedSize()} bytes remaining
+     */
+    public void encode(ByteBuffer out) {
+        out.put(kind());
+        out.putLong(paymentId.getMostSignificantBits());
+        out.putLong(paymentId.getLeastSignificantBits());
+        out.putLong(timeMillis);
+        encodeBody(out);
+    }
+
+    /**
+     * Reads a record written by {@link #encode(ByteBuffer)}.
+     *
+     * @param sequence journal position to give the record
+     * @param in       buffer holding exactly one encoded record from its position
+     * @return the record
+     * @throws IllegalArgumentException if the bytes are not a record
+     */
+    public static JournalRecord decode(long sequence, ByteBuffer in) {
+        try {
+            byte kind = in.get();
+            UUID id = new UUID(in.getLong(), in.getLong());
+            long time = in.getLong();
+            JournalRecord record;
+            switch (kind) {
+                case ORDER:
+                    record = new Order(sequence, id, time, getString(in), getString(in), getString(in),
+                            in.getInt(), in.getInt(), in.getLong(), in.getLong(), in.getLong());
+                    break;
+                case TRANSITION:
+                    record = new Transition(sequence, id, time, getString(in), in.getLong(),
+                            status(in.get()), status(in.get()), NOT_CAPTURED, 0);
+                    break;
+                case CAPTURED:
+                    record = new Transition(sequence, id, time, getString(in), in.getLong(),
+                            status(in.get()), status(in.get()), in.getLong(), in.getLong());
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown journal record kind " + kind);
+            }
+            if (in.hasRemaining()) {
+                throw new IllegalArgumentException(in.remaining() + " stray byte(s) after journal record " + sequence);
+            }
+            return record;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("journal record " + sequence + " is cut short", e);
+        }
+    }
+
+    abstract byte kind();
+
+    abstract void encodeBody(ByteBuffer out);
+
+    /** Size of the fields every record has. */
+    static int headerSize() {
+        return 1 + 8 + 8 + 8;
+    }
+
+    static int stringSize(String s) {
+        return 2 + utf8(s).length;
+    }
+
+    static void putString(ByteBuffer out, String s) {
+        byte[] bytes = utf8(s);
+        out.putShort((short) bytes.length);
+        out.put(bytes);
+    }
+
+    private static String getString(ByteBuffer in) {
+        byte[] bytes = new byte[Short.toUnsignedInt(in.getShort())];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] utf8(String s) {
+        byte[] bytes = (s == null ? "" : s).getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("journal string longer than 65535 bytes");
+        }
+        return bytes;
+    }
+
+    private static PaymentStatus status(byte ordinal) {
+        PaymentStatus[] all = PaymentStatus.values();
+        if (ordinal < 0 || ordinal >= all.length) {
+            throw new IllegalArgumentException("unknown payment status " + ordinal);
+        }
+        return all[ordinal];
+    }
+
+    /**
+     * An order placed, recorded when its payment starts.
+     */
+    public static final class Order extends JournalRecord {
+        private final String method;
+        private final String riderType;
+        private final String tripType;
+        private final int multiTrips;
+        private final int quantity;
+        private final long unitCents;
+        private final long totalCents;
+        private final long fareVersion;
+
+        Order(long sequence, UUID paymentId, long timeMillis, String method, String riderType, String tripType,
+              int multiTrips, int quantity, long unitCents, long totalCents, long fareVersion) {
+            super(sequence, paymentId, timeMillis);
+            this.method = method;
+            this.riderType = riderType;
+            this.tripType = tripType;
+            this.multiTrips = multiTrips;
+            this.quantity = quantity;
+            this.unitCents = unitCents;
+            this.totalCents = totalCents;
+            this.fareVersion = fareVersion;
+        }
+
+        /** @return the payment method label, e.g. {@code "Card"} */
+        public String getMethod() { return method; }
+
+        /** @return the rider category label */
+        public String getRiderType() { return riderType; }
+
+        /** @return the trip/pass type label */
+        public String getTripType() { return tripType; }
+
+        /** @return number of trips for multi-trip products */
+        public int getMultiTrips() { return multiTrips; }
+
+        /** @return number of items ordered */
+        public int getQuantity() { return quantity; }
+
+        /** @return price of one item */
+        public Money getUnitPrice() { return Money.ofCents(unitCents); }
+
+        /** @return order total, tax included */
+        public Money getTotal() { return Money.ofCents(totalCents); }
+
+        /** @return fare version the order was priced from, or {@code -1} */
+        public long getFareVersion() { return fareVersion; }
+
+        @Override
+        public int encodedSize() {
+            return headerSize() + stringSize(method) + stringSize(riderType) + stringSize(tripType)
+                    + 4 + 4 + 8 + 8 + 8;
+        }
+
+        @Override
+        byte kind() { return ORDER; }
+
+        @Override
+        void encodeBody(ByteBuffer out) {
+            putString(out, method);
+            putString(out, riderType);
+            putString(out, tripType);
+            out.putInt(multiTrips);
+            out.putInt(quantity);
+            out.putLong(unitCents);
+            out.putLong(totalCents);
+            out.putLong(fareVersion);
+        }
+
+        @Override
+        public String toString() {
+            return "Order#" + getSequence() + "{" + getPaymentId() + " " + quantity + " x " + riderType + " "
+                    + tripType + " = " + getTotal() + "}";
+        }
+    }
+
+    /**
+     * A payment moving from one status to another.
+     */
+    public static final class Transition extends JournalRecord {
+        private final String method;
+        private final long amountCents;
+        private final PaymentStatus from;
+        private final PaymentStatus to;
+        /** Amount collected, or {@link #NOT_CAPTURED}. */
+        private final long capturedCents;
+        /** Change given back out of {@link #capturedCents}; 0 if not captured. */
+        private final long changeCents;
+
+        Transition(long sequence, UUID paymentId, long timeMillis, String method, long amountCents,
+                   PaymentStatus from, PaymentStatus to, long capturedCents, long changeCents) {
+            super(sequence, paymentId, timeMillis);
+            this.method = method;
+            this.amountCents = amountCents;
+            this.from = Objects.requireNonNull(from, "from");
+            this.to = Objects.requireNonNull(to, "to");
+            this.capturedCents = capturedCents < 0 ? NOT_CAPTURED : capturedCents;
+            this.changeCents = this.capturedCents == NOT_CAPTURED ? 0 : changeCents;
+        }
+
+        /** @return the payment method label, e.g. {@code "Card"} */
+        public String getMethod() { return method; }
+
+        /** @return the payment amount */
+        public Money getAmount() { return Money.ofCents(amountCents); }
+
+        /** @return the status the payment left */
+        public PaymentStatus getFrom() { return from; }
+
+        /** @return the status the payment entered */
+        public PaymentStatus getTo() { return to; }
+
+        /**
+         * @return the amount actually collected, for a completion that records it;
+         *         otherwise {@code null}
+         */
+        public Money getCaptured() {
+            return capturedCents == NOT_CAPTURED ? null : Money.ofCents(capturedCents);
+        }
+
+        /** @return the change given back out of the captured amount; zero if none */
+        public Money getChange() { return Money.ofCents(changeCents); }
+
+        @Override
+        public int encodedSize() {
+            return headerSize() + stringSize(method) + 8 + 1 + 1 + (capturedCents == NOT_CAPTURED ? 0 : 8 + 8);
+        }
+
+        @Override
+        byte kind() { return capturedCents == NOT_CAPTURED ? TRANSITION : CAPTURED; }
+
+        @Override
+        void encodeBody(ByteBuffer out) {
+            putString(out, method);
+            out.putLong(amountCents);
+            out.put((byte) from.ordinal());
+            out.put((byte) to.ordinal());
+            if (capturedCents != NOT_CAPTURED) {
+                out.putLong(capturedCents);
+                out.putLong(changeCents);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "Transition#" + getSequence() + "{" + getPaymentId() + " " + method + " " + getAmount() + " "
+                    + from + " -> " + to + (capturedCents == NOT_CAPTURED ? "" : ", captured " + getCaptured() + ", change " + getChange())
+                    + "}";
+        }
+    }
+}
@@ -1,140 +1,239 @@
 // `src/main/java/concordia/soen6611/igo_tvm/cache/MetroPassRateProxy.java`
 package concordia.soen6611.igo_tvm.models;
 
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.Map;
+import java.time.Clock;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * In-memory proxy/cache for metro pass base rates and tax constants.
  * <p>
- * This class provides a simple, thread-safe rate lookup backed by a
- * {@link ConcurrentHashMap}. It is intended as a lightweight stand-in for
- * a data source such as a database or remote API. Seed data is populated
- * in the constructor and can be updated at runtime via {@link #setRate(String, double)}.
+ * This class serves base fares and tax rates from an immutable {@link FareSnapshot},
+ * whose {@link FareTable} is indexed by {@link RiderType} and {@link FareProduct}. It
+ * is intended as a lightweight stand-in for a data source such as a database or remote
+ * API. It starts with built-in seed data (version {@code 0}); a newer snapshot, e.g.
+ * read from a {@link FareFile}, replaces it as a whole via {@link #publish(FareSnapshot)}.
+ * A table is checked for completeness when it is built, so every rider and product
+ * always has a fare.
  * </p>
- *
- * <h3>Key format</h3>
  * <p>
- * Rate keys follow the pattern:
- * <pre>
- *   &lt;RiderType&gt;_&lt;PassType&gt;
- * </pre>
- * Examples:
- * <ul>
- *   <li>{@code "Adult_Single Trip"}</li>
- *   <li>{@code "Student_Monthly Pass"}</li>
- *   <li>{@code "Senior_Weekend Pass"}</li>
- * </ul>
+ * Fare changes usually take effect at a set time, such as the start of a month. A
+ * snapshot whose {@link FareSnapshot#getEffectiveFrom() effective instant} is still in
+ * the future is held as the <em>upcoming</em> snapshot: it is complete and validated
+ * when published, so nothing is left to compute at the cutover. From its effective
+ * instant on, {@link #getSnapshot()} returns it in place of the current one, whether
+ * or not a scheduler has flipped it yet; a scheduler only makes the flip, and the
+ * {@linkplain #addListener(Runnable) listeners}, happen on time when nobody is pricing.
  * </p>
  *
  * <h3>Thread safety</h3>
  * <p>
- * The underlying cache is a {@link ConcurrentHashMap}, so concurrent reads and
- * writes are supported. There is no additional synchronization beyond that.
- * </p>
- *
- * <h3>Taxes</h3>
- * <p>
- * The proxy also exposes GST and QST constants and their combined tax rate.
- * These values are fixed within the lifetime of the instance.
+ * The current and upcoming snapshots are held together in an {@link AtomicReference}
+ * and swapped in one step. Readers never lock and see either the old or the new
+ * snapshot, never a mix of both; callers that price several values together should
+ * read them from one {@link #getSnapshot()}.
  * </p>
  */
 public class MetroRatePassProxy {
 
-    /** Thread-safe cache of rates keyed by {@code "<RiderType>_<PassType>"}. */
-    private final Map<String, Double> rateCache = new ConcurrentHashMap<>();
+    /** Current and upcoming fares. */
+    private final AtomicReference<Schedule> schedule = new AtomicReference<>(new Schedule(builtIn(), null));
 
-    /** Federal Goods and Services Tax (GST). */
-    private final double GST  = 0.05;
+    /** Clock the effective instants are compared with. */
+    private final Clock clock;
 
-    /** Quebec Sales Tax (QST). */
-    private final double QST  = 0.09975;
+    /** Called after the current or upcoming snapshot changes. */
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates a new proxy serving the built-in seed data.
+     */
+    public MetroRatePassProxy() {
+        this(Clock.systemDefaultZone());
+    }
 
-    /** Combined tax rate (GST + QST). */
-    private final double TAX_RATE = GST + QST;
+    /**
+     * Creates a new proxy serving the built-in seed data.
+     *
+     * @param clock clock that decides when an upcoming snapshot takes effect
+     */
+    public MetroRatePassProxy(Clock clock) {
+        this.clock = Objects.requireNonNull(clock, "clock");
+    }
 
     /**
-     * Creates a new proxy with sample seed data.
+     * Returns the built-in sample fares, published as version {@code 0}.
      * <p>
-     * Replace or augment these values by fetching from a persistent data source
-     * (e.g., DB/API) as needed in your environment.
+     * Replace these values by fetching from a persistent data source
+     * (e.g., a fare file or DB/API) as needed in your environment.
      * </p>
+     *
+     * @return the seed snapshot
      */
-    public MetroRatePassProxy() {
+    public static FareSnapshot builtIn() {
         // Sample data; replace with DB/API fetch
-        rateCache.put("Adult_Single Trip", 3.75);
-        rateCache.put("Adult_Day Pass", 11.00);
-        rateCache.put("Adult_Monthly Pass", 94.00);
-        rateCache.put("Adult_Weekly Pass", 25.00);
-        rateCache.put("Adult_Weekend Pass", 14.00);
-
-        rateCache.put("Student_Single Trip", 3.00);
-        rateCache.put("Student_Day Pass", 8.00);
-        rateCache.put("Student_Monthly Pass", 70.00);
-        rateCache.put("Student_Weekly Pass", 20.00);
-        rateCache.put("Student_Weekend Pass", 10.00);
-
-        rateCache.put("Senior_Single Trip", 2.50);
-        rateCache.put("Senior_Day Pass", 7.00);
-        rateCache.put("Senior_Monthly Pass", 60.00);
-        rateCache.put("Student_Weekly Pass", 20.00);
-        rateCache.put("Senior_Weekend Pass", 9.00);
-
-        rateCache.put("Tourist_Single Trip", 4.00);
-        rateCache.put("Tourist_Day Pass", 12.00);
-        rateCache.put("Tourist_Monthly Pass", 99.00);
-        rateCache.put("Tourist_Weekly Pass", 30.00);
-        rateCache.put("Tourist_Weekend Pass", 16.00);
+        FareTable fares = FareTable.builder()
+                .fare(RiderType.ADULT, FareProduct.SINGLE_TRIP, Money.parse("3.75"))
+                .fare(RiderType.ADULT, FareProduct.DAY_PASS, Money.parse("11.00"))
+                .fare(RiderType.ADULT, FareProduct.MONTHLY_PASS, Money.parse("94.00"))
+                .fare(RiderType.ADULT, FareProduct.WEEKLY_PASS, Money.parse("25.00"))
+                .fare(RiderType.ADULT, FareProduct.WEEKEND_PASS, Money.parse("14.00"))
+
+                .fare(RiderType.STUDENT, FareProduct.SINGLE_TRIP, Money.parse("3.00"))
+                .fare(RiderType.STUDENT, FareProduct.DAY_PASS, Money.parse("8.00"))
+                .fare(RiderType.STUDENT, FareProduct.MONTHLY_PASS, Money.parse("70.00"))
+                .fare(RiderType.STUDENT, FareProduct.WEEKLY_PASS, Money.parse("20.00"))
+                .fare(RiderType.STUDENT, FareProduct.WEEKEND_PASS, Money.parse("10.00"))
+
+                .fare(RiderType.SENIOR, FareProduct.SINGLE_TRIP, Money.parse("2.50"))
+                .fare(RiderType.SENIOR, FareProduct.DAY_PASS, Money.parse("7.00"))
+                .fare(RiderType.SENIOR, FareProduct.MONTHLY_PASS, Money.parse("60.00"))
+                .fare(RiderType.SENIOR, FareProduct.WEEKLY_PASS, Money.parse("20.00"))
+                .fare(RiderType.SENIOR, FareProduct.WEEKEND_PASS, Money.parse("9.00"))
+
+                .fare(RiderType.TOURIST, FareProduct.SINGLE_TRIP, Money.parse("4.00"))
+                .fare(RiderType.TOURIST, FareProduct.DAY_PASS, Money.parse("12.00"))
+                .fare(RiderType.TOURIST, FareProduct.MONTHLY_PASS, Money.parse("99.00"))
+                .fare(RiderType.TOURIST, FareProduct.WEEKLY_PASS, Money.parse("30.00"))
+                .fare(RiderType.TOURIST, FareProduct.WEEKEND_PASS, Money.parse("16.00"))
+                .build();
+        return new FareSnapshot(0, fares, TaxRate.parsePercent("5"), TaxRate.parsePercent("9.975"));
     }
 
     /**
-     * Retrieves a base rate for the given key.
+     * Retrieves a base rate from the current snapshot.
      *
-     * @param key rate key in the form {@code "<RiderType>_<PassType>"}
-     * @return the rate if present, otherwise {@code 0.0}
+     * @param rider   rider category
+     * @param product fare product
+     * @return the pre-tax price of one {@code product} for {@code rider}
      */
-    public double getRate(String key) {
-        return rateCache.getOrDefault(key, 0.0);
+    public Money getRate(RiderType rider, FareProduct product) {
+        return getSnapshot().getFares().fare(rider, product);
     }
 
     /**
-     * Inserts or updates a rate for the given key.
+     * Returns the snapshot in effect, cutting over to the upcoming one first if its
+     * effective instant has passed.
      *
-     * @param key   rate key in the form {@code "<RiderType>_<PassType>"}
-     * @param rate  non-negative base price to associate with the key
+     * @return the snapshot currently in use
      */
-    public void setRate(String key, double rate) {
-        rateCache.put(key, rate);
+    public FareSnapshot getSnapshot() {
+        return schedule().current;
     }
 
     /**
-     * Clears all cached rates.
+     * @return the snapshot that takes effect next, or {@code null} if none is scheduled
+     */
+    public FareSnapshot getUpcoming() {
+        return schedule().upcoming;
+    }
+
+    /**
+     * Publishes a newer snapshot.
      * <p>
-     * Useful when reloading rates from an external source.
+     * A snapshot that is already effective becomes the current one; one dated in the
+     * future becomes the upcoming one, replacing an older upcoming snapshot. An older or
+     * equal version is ignored, so a stale copy of the fare file can never roll fares
+     * back; to undo a change, publish the old fares under a new version.
      * </p>
+     *
+     * @param next complete snapshot to publish
+     * @return {@code true} if {@code next} was published as current or upcoming
      */
-    public void clearRates() {
-        rateCache.clear();
+    public boolean publish(FareSnapshot next) {
+        Objects.requireNonNull(next, "next");
+        long effective = next.getEffectiveFrom().toEpochMilli();
+        Schedule s;
+        Schedule updated;
+        do {
+            s = schedule();
+            if (next.getVersion() <= s.current.getVersion()) {
+                return false;
+            }
+            if (effective <= clock.millis()) {
+                // An upcoming snapshot newer than this one still follows it
+                boolean keep = s.upcoming != null && s.upcoming.getVersion() > next.getVersion();
+                updated = new Schedule(next, keep ? s.upcoming : null);
+            } else if (s.upcoming != null && next.getVersion() <= s.upcoming.getVersion()) {
+                return false;
+            } else {
+                updated = new Schedule(s.current, next);
+            }
+        } while (!schedule.compareAndSet(s, updated));
+        changed();
+        return true;
     }
 
     /**
-     * @return the GST fraction (e.g., {@code 0.05} for 5%)
+     * Registers a callback run after the current or upcoming snapshot changes, on the
+     * thread that published or noticed the change. Callbacks must be quick and must not
+     * throw.
+     *
+     * @param listener callback to add
      */
-    public double getGST() {
-        return GST;
+    public void addListener(Runnable listener) {
+        listeners.add(Objects.requireNonNull(listener, "listener"));
     }
 
     /**
-     * @return the QST fraction (e.g., {@code 0.09975} for 9.975%)
+     * @return the GST rate of the current snapshot (5%)
      */
-    public double getQST() {
-        return QST;
+    public TaxRate getGST() {
+        return getSnapshot().getGST();
     }
 
     /**
-     * @return the combined tax fraction ({@code GST + QST})
+     * @return the QST rate of the current snapshot (9.975%)
      */
-    public double getTAX_RATE() {
-        return TAX_RATE;
+    public TaxRate getQST() {
+        return getSnapshot().getQST();
+    }
+
+    /**
+     * @return the combined tax rate ({@code GST + QST}) of the current snapshot
+     */
+    public TaxRate getTAX_RATE() {
+        return getSnapshot().getTaxRate();
+    }
+
+    /** Returns the schedule in effect now, cutting over first if it is due. */
+    private Schedule schedule() {
+        Schedule s = schedule.get();
+        if (clock.millis() < s.cutover) {
+            return s;
+        }
+        Schedule next;
+        do {
+            s = schedule.get();
+            if (clock.millis() < s.cutover) {
+                return s;
+            }
+            next = new Schedule(s.upcoming, null);
+        } while (!schedule.compareAndSet(s, next));
+        changed();
+        return next;
+    }
+
+    private void changed() {
+        for (Runnable listener : listeners) {
+            listener.run();
+        }
+    }
+
+    /** Current snapshot and the one that replaces it at {@link #cutover}. */
+    private static final class Schedule {
+        final FareSnapshot current;
+        /** {@code null} if none. */
+        final FareSnapshot upcoming;
+        /** Epoch millisecond at which {@link #upcoming} takes effect; never without one. */
+        final long cutover;
+
+        Schedule(FareSnapshot current, FareSnapshot upcoming) {
+            this.current = current;
+            this.upcoming = upcoming;
+            this.cutover = upcoming == null ? Long.MAX_VALUE : upcoming.getEffectiveFrom().toEpochMilli();
+        }
     }
 }
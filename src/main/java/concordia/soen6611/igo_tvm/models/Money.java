@@ -0,0 +1,183 @@
+package concordia.soen6611.igo_tvm.models;
+
+/**
+ * Immutable amount of Canadian dollars, held as a whole number of cents.
+ * <p>
+ * Fares, taxes, order totals and payments used to be {@code double}s, rounded with
+ * per-controller {@code round2} helpers and compared with epsilons. A {@code Money} is
+ * exact: sums and products are {@code long} arithmetic on cents, and the only rounding
+ * is the explicit one of {@link TaxRate#on(Money)}. Arithmetic throws
+ * {@link ArithmeticException} rather than overflow.
+ * </p>
+ * <p>
+ * Instances are small values with no identity: compare them with {@link #equals(Object)}
+ * or {@link #compareTo(Money)}. Operations return an existing instance when the result
+ * is unchanged (adding {@link #ZERO}, multiplying by one), and amounts from zero to
+ * {@value #CACHED_CENTS} cents are shared instances. That covers every unit fare in the
+ * tables with its tax, and the totals of small orders; larger results, such as several
+ * monthly passes or change due, are allocated as usual. Totals over a large number of
+ * records (reconciliation) can accumulate {@link #cents()} directly.
+ * </p>
+ *
+ * <h3>Threading</h3>
+ * Immutable and thread-safe.
+ */
+public final class Money implements Comparable<Money> {
+
+    /** Amounts from zero up to this many cents are shared: every unit fare in the tables, with tax. */
+    static final int CACHED_CENTS = 20_000;
+
+    private static final Money[] CACHE = new Money[CACHED_CENTS + 1];
+
+    static {
+        for (int i = 0; i < CACHE.length; i++) {
+            CACHE[i] = new Money(i);
+        }
+    }
+
+    /** No money. */
+    public static final Money ZERO = CACHE[0];
+
+    /** Amount in cents; negative for refunds and change due. */
+    private final long cents;
+
+    private Money(long cents) {
+        this.cents = cents;
+    }
+
+    /**
+     * @param cents amount in cents
+     * @return the amount
+     */
+    public static Money ofCents(long cents) {
+        return cents >= 0 && cents <= CACHED_CENTS ? CACHE[(int) cents] : new Money(cents);
+    }
+
+    /**
+     * Parses a plain decimal amount such as {@code 3.75}, {@code 94} or {@code -0.5}.
+     *
+     * @param text amount in dollars: digits, then optionally a point and one or two decimals;
+     *             no currency sign or grouping
+     * @return the amount
+     * @throws NumberFormatException if {@code text} is not such an amount
+     */
+    public static Money parse(String text) {
+        int length = text.length();
+        int i = 0;
+        boolean negative = length > 0 && text.charAt(0) == '-';
+        if (negative) {
+            i++;
+        }
+        long cents = 0;
+        int digits = 0;
+        int decimals = -1;
+        for (; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '.' && decimals < 0 && digits > 0) {
+                decimals = 0;
+            } else if (c >= '0' && c <= '9' && decimals < 2) {
+                cents = Math.addExact(Math.multiplyExact(cents, 10), c - '0');
+                digits++;
+                if (decimals >= 0) {
+                    decimals++;
+                }
+            } else {
+                throw new NumberFormatException("not an amount: \"" + text + "\"");
+            }
+        }
+        if (digits == 0 || decimals == 0) {
+            throw new NumberFormatException("not an amount: \"" + text + "\"");
+        }
+        for (int d = Math.max(decimals, 0); d < 2; d++) {
+            cents = Math.multiplyExact(cents, 10);
+        }
+        return ofCents(negative ? -cents : cents);
+    }
+
+    /**
+     * @return the amount in cents
+     */
+    public long cents() {
+        return cents;
+    }
+
+    /**
+     * @param other amount to add
+     * @return {@code this + other}
+     */
+    public Money plus(Money other) {
+        return other.cents == 0 ? this : ofCents(Math.addExact(cents, other.cents));
+    }
+
+    /**
+     * @param other amount to subtract
+     * @return {@code this - other}
+     */
+    public Money minus(Money other) {
+        return other.cents == 0 ? this : ofCents(Math.subtractExact(cents, other.cents));
+    }
+
+    /**
+     * @param quantity number of items
+     * @return {@code this} times {@code quantity}
+     */
+    public Money times(long quantity) {
+        return quantity == 1 ? this : ofCents(Math.multiplyExact(cents, quantity));
+    }
+
+    /**
+     * @return whether the amount is zero
+     */
+    public boolean isZero() {
+        return cents == 0;
+    }
+
+    /**
+     * @return whether the amount is below zero
+     */
+    public boolean isNegative() {
+        return cents < 0;
+    }
+
+    /**
+     * @param other amount to compare with
+     * @return the smaller of the two
+     */
+    public Money min(Money other) {
+        return compareTo(other) <= 0 ? this : other;
+    }
+
+    /**
+     * @param other amount to compare with
+     * @return the larger of the two
+     */
+    public Money max(Money other) {
+        return compareTo(other) >= 0 ? this : other;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money && ((Money) o).cents == cents;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cents);
+    }
+
+    /**
+     * @return the amount as a plain decimal, e.g. {@code 3.75} or {@code -0.05}; the
+     *         inverse of {@link #parse(String)}
+     */
+    @Override
+    public String toString() {
+        long abs = Math.abs(cents / 100);
+        int fraction = (int) Math.abs(cents % 100);
+        return (cents < 0 ? "-" : "") + abs + (fraction < 10 ? ".0" : ".") + fraction;
+    }
+}
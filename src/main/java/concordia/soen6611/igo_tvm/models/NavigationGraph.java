@@ -0,0 +1,115 @@
+package concordia.soen6611.igo_tvm.models;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable, declarative description of the kiosk flows: for each {@link Screen},
+ * the screens a customer is likely to visit next.
+ * <p>
+ * The graph is used as a hint for predictive preloading, not to restrict
+ * navigation; controllers may still navigate to any screen. Successors are kept in
+ * declaration order, most likely first.
+ * </p>
+ *
+ * <h3>Example</h3>
+ * <pre>{@code
+ * NavigationGraph graph = NavigationGraph.builder()
+ *         .flow(Screen.HOME, Screen.BUY_TICKET, Screen.CARD_RELOAD)
+ *         .flow(Screen.BUY_TICKET, Screen.PAYMENT)
+ *         .build();
+ * graph.likelyNext(Screen.HOME); // [BUY_TICKET, CARD_RELOAD]
+ * }</pre>
+ */
+public final class NavigationGraph {
+
+    /** Successors per screen, most likely first. */
+    private final Map<Screen, List<Screen>> next;
+
+    /**
+     * @param next successors per screen (already copied and unmodifiable)
+     */
+    private NavigationGraph(Map<Screen, List<Screen>> next) {
+        this.next = next;
+    }
+
+    /**
+     * Creates a new builder.
+     *
+     * @return empty builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the screens likely to follow {@code from}, most likely first.
+     *
+     * @param from current screen
+     * @return unmodifiable list of successors (empty if none were declared)
+     */
+    public List<Screen> likelyNext(Screen from) {
+        return next.getOrDefault(from, List.of());
+    }
+
+    /**
+     * Returns every screen that appears in the graph, as a source or a successor.
+     *
+     * @return unmodifiable set of screens
+     */
+    public Set<Screen> screens() {
+        EnumSet<Screen> all = EnumSet.noneOf(Screen.class);
+        next.forEach((from, to) -> {
+            all.add(from);
+            all.addAll(to);
+        });
+        return Collections.unmodifiableSet(all);
+    }
+
+    /**
+     * Builder for {@link NavigationGraph}. Repeated {@link #flow} calls for the same
+     * source append successors; duplicates are ignored.
+     */
+    public static final class Builder {
+
+        /** Successors collected so far. */
+        private final Map<Screen, Set<Screen>> next = new EnumMap<>(Screen.class);
+
+        private Builder() {}
+
+        /**
+         * Declares that {@code to} screens are likely to follow {@code from}.
+         *
+         * @param from source screen
+         * @param to   likely successors, most likely first
+         * @return this builder
+         * @throws IllegalArgumentException if a screen is declared as its own successor
+         */
+        public Builder flow(Screen from, Screen... to) {
+            Set<Screen> targets = next.computeIfAbsent(from, s -> new LinkedHashSet<>());
+            for (Screen t : to) {
+                if (t == from) {
+                    throw new IllegalArgumentException("Screen cannot follow itself: " + from);
+                }
+                targets.add(t);
+            }
+            return this;
+        }
+
+        /**
+         * Builds the immutable graph.
+         *
+         * @return navigation graph
+         */
+        public NavigationGraph build() {
+            Map<Screen, List<Screen>> copy = new EnumMap<>(Screen.class);
+            next.forEach((from, to) -> copy.put(from, List.copyOf(to)));
+            return new NavigationGraph(Collections.unmodifiableMap(copy));
+        }
+    }
+}
@@ -14,7 +14,8 @@ package concordia.soen6611.igo_tvm.models;
  *   <li><b>multiTrips</b> — number of trips for multi-trip products (use {@code 1} for non-multiple).</li>
  *   <li><b>quantity</b> — number of items purchased (tickets/passes).</li>
  *   <li><b>unitPrice</b> — price for one item; already scaled if using a multi-trip product.</li>
- *   <li><b>total</b> — total price for the order (typically {@code unitPrice * quantity}).</li>
+ *   <li><b>total</b> — total price for the order, tax included.</li>
+ *   <li><b>fareVersion</b> — version of the fares it was priced from, or {@code -1} if not recorded.</li>
  * </ul>
  *
  * <p>All fields are final; instances are thread-safe after construction.</p>
@@ -29,9 +30,11 @@ public class OrderSummary {
     /** Number of items (tickets/passes) purchased. */
     private final int    quantity;    // number of tickets
     /** Price for one item; for multi-trip products this is the already-scaled per-item price. */
-    private final double unitPrice;   // price for ONE ticket (already scaled if Multiple Trip)
-    /** Total order amount; typically {@code unitPrice * quantity}. */
-    private final double total;       // unitPrice * quantity
+    private final Money  unitPrice;   // price for ONE ticket (already scaled if Multiple Trip)
+    /** Total order amount, tax included. */
+    private final Money  total;       // unitPrice * quantity + tax
+    /** Version of the fare snapshot the order was priced from; {@code -1} if not recorded. */
+    private final long   fareVersion;
 
     /**
      * Constructs an immutable summary of a purchase.
@@ -41,9 +44,26 @@ public class OrderSummary {
      * @param multiTrips number of trips for a multi-trip product; use {@code 1} for others
      * @param quantity   number of items purchased (must be {@code >= 1})
      * @param unitPrice  price for a single item (already scaled if multi-trip)
-     * @param total      total cost for the order (usually {@code unitPrice * quantity})
+     * @param total      total cost for the order, tax included
      */
-    public OrderSummary(String riderType, String tripType, int multiTrips, int quantity, double unitPrice, double total) {
+    public OrderSummary(String riderType, String tripType, int multiTrips, int quantity, Money unitPrice, Money total) {
+        this(riderType, tripType, multiTrips, quantity, unitPrice, total, -1);
+    }
+
+    /**
+     * Constructs an immutable summary of a purchase priced from a known fare version.
+     *
+     * @param riderType   rider category (e.g., {@code "Adult"}, {@code "Student"})
+     * @param tripType    trip/pass type (e.g., {@code "Single Trip"}, {@code "Monthly Pass"})
+     * @param multiTrips  number of trips for a multi-trip product; use {@code 1} for others
+     * @param quantity    number of items purchased (must be {@code >= 1})
+     * @param unitPrice   price for a single item (already scaled if multi-trip)
+     * @param total       total cost for the order, tax included
+     * @param fareVersion version of the {@link FareSnapshot} the prices come from
+     */
+    public OrderSummary(String riderType, String tripType, int multiTrips, int quantity, Money unitPrice, Money total,
+                        long fareVersion) {
+        this.fareVersion = fareVersion;
         this.riderType = riderType;
         this.tripType = tripType;
         this.multiTrips = multiTrips;
@@ -65,8 +85,11 @@ public class OrderSummary {
     public int getQuantity() { return quantity; }
 
     /** @return unit price for a single item (already scaled if multi-trip) */
-    public double getUnitPrice() { return unitPrice; }
+    public Money getUnitPrice() { return unitPrice; }
 
     /** @return total order amount */
-    public double getTotal() { return total; }
+    public Money getTotal() { return total; }
+
+    /** @return version of the fares the order was priced from; {@code -1} if not recorded */
+    public long getFareVersion() { return fareVersion; }
 }
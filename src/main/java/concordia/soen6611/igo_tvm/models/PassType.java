@@ -1,38 +1,55 @@
 package concordia.soen6611.igo_tvm.models;
 
+import concordia.soen6611.igo_tvm.Services.MessageKey;
+
 /**
  * Enumerates available pass types for card reloads/purchases.
  * <p>
  * Each enum constant carries an i18n message key used to localize
  * its display label in the UI (e.g., "Single Pass", "Weekly Pass").
  * Retrieve the key via {@link #key()} and resolve it with the
- * application's {@code I18nService}.
+ * application's {@code I18nService}. The {@link FareProduct} it sells is
+ * given by {@link #product()}.
  * </p>
  */
 public enum PassType {
     /** Single-trip product. Message key: {@code cardReloadAmount.pass.single}. */
-    SINGLE("cardReloadAmount.pass.single"),   // e.g. "Single Pass"
+    SINGLE(MessageKey.CARD_RELOAD_AMOUNT_PASS_SINGLE, FareProduct.SINGLE_TRIP),    // e.g. "Single Pass"
     /** Weekly pass product. Message key: {@code cardReloadAmount.pass.weekly}. */
-    WEEKLY("cardReloadAmount.pass.weekly"),   // "Weekly Pass"
+    WEEKLY(MessageKey.CARD_RELOAD_AMOUNT_PASS_WEEKLY, FareProduct.WEEKLY_PASS),    // "Weekly Pass"
     /** Monthly pass product. Message key: {@code cardReloadAmount.pass.monthly}. */
-    MONTHLY("cardReloadAmount.pass.monthly"), // "Monthly Pass"
+    MONTHLY(MessageKey.CARD_RELOAD_AMOUNT_PASS_MONTHLY, FareProduct.MONTHLY_PASS), // "Monthly Pass"
     /** Day pass product. Message key: {@code cardReloadAmount.pass.day}. */
-    DAY("cardReloadAmount.pass.day");         // "Day Pass"
+    DAY(MessageKey.CARD_RELOAD_AMOUNT_PASS_DAY, FareProduct.DAY_PASS);             // "Day Pass"
 
     /** Internationalization message key for the pass label. */
-    private final String msgKey;
+    private final MessageKey msgKey;
+
+    /** Fare product loaded onto the card. */
+    private final FareProduct product;
 
     /**
-     * Associates an i18n message key with the enum constant.
+     * Associates an i18n message key and a fare product with the enum constant.
      *
-     * @param k message key to be used with the i18n service
+     * @param k       message key to be used with the i18n service
+     * @param product fare product priced for this pass type
      */
-    PassType(String k) { this.msgKey = k; }
+    PassType(MessageKey k, FareProduct product) {
+        this.msgKey = k;
+        this.product = product;
+    }
 
     /**
      * Returns the i18n message key for this pass type.
      *
-     * @return non-null message key (e.g., {@code "cardReloadAmount.pass.weekly"})
+     * @return non-null message key (e.g., {@link MessageKey#CARD_RELOAD_AMOUNT_PASS_WEEKLY})
+     */
+    public MessageKey key() { return msgKey; }
+
+    /**
+     * Returns the fare product this pass type sells.
+     *
+     * @return non-null fare product (e.g., {@link FareProduct#WEEKLY_PASS})
      */
-    public String key() { return msgKey; }
+    public FareProduct product() { return product; }
 }
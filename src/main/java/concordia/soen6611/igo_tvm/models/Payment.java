@@ -1,38 +1,111 @@
 // src/main/java/concordia/soen6611/igo_tvm/Models/Payment.java
 package concordia.soen6611.igo_tvm.models;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
 /**
- * Simple mutable model representing a payment in the kiosk flow.
+ * Model representing a payment in the kiosk flow.
  * <p>
  * A {@code Payment} tracks the selected payment method, the target amount,
- * and the current processing status. Typical lifecycle transitions are:
+ * and the current {@link PaymentStatus}. Its status only changes through
+ * {@link #moveTo(PaymentStatus)}, which allows the moves listed on
+ * {@link PaymentStatus}:
  * <pre>
- *   "Pending"  -> "Processing" -> "Completed"
- *                 \-------------------------> "Cancelled"
+ *   PENDING -> PROCESSING -> COMPLETED
+ *                        \-> DECLINED / FAILED
+ *           \----------------> CANCELLED
  * </pre>
- * <b>Note:</b> This class contains no business logic or validation; it is a data
- * holder used by services/controllers (e.g., to drive UI state).
+ * Each payment has a unique id, used as the idempotency key when it is authorized, so
+ * a retried authorization is recognized as the same charge.
+ * </p>
+ *
+ * <h3>Threading</h3>
+ * <p>
+ * Authorization answers arrive on gateway threads while the rider may press Cancel on
+ * the FX thread. The status is therefore held as an immutable transition record in an
+ * {@link AtomicReference} and changed by compare-and-set only: when two threads race,
+ * say to complete and to cancel, exactly one move succeeds and the other finds the
+ * payment already final. Every transition is stamped with the time it happened.
+ * </p>
+ * <p>
+ * {@linkplain #addListener(PaymentListener) Listeners} are told of each transition
+ * once and in order, without locks: whichever thread finds no delivery in progress
+ * delivers every transition not delivered yet, on its own stack.
+ * </p>
  */
 public class Payment {
+
+    private static final Logger logger = LoggerFactory.getLogger(Payment.class);
+
+    /** Unique id of this payment. */
+    private final String id = UUID.randomUUID().toString();
     /** Payment method label (e.g., {@code "Cash"}, {@code "Card"}, {@code "MobileWallet"}). */
     private String method; // "Cash" or "Card"
-    /** Total amount to be collected for this payment (in currency units). */
-    private double amount;
-    /** Processing status: e.g., {@code "Pending"}, {@code "Processing"}, {@code "Completed"}, {@code "Cancelled"}. */
-    private String status; // "Pending", "Processing", "Completed", "Cancelled"
+    /** Total amount to be collected for this payment. */
+    private Money amount;
+    /** Amount actually collected; {@code null} until the payment is collected. */
+    private volatile Money captured;
+    /** Cash given back out of {@link #captured}; zero for card and wallet payments. */
+    private volatile Money change = Money.ZERO;
+
+    /** Source of the transition times. */
+    private final Clock clock;
+
+    /** Latest transition; the earlier ones hang off it. */
+    private final AtomicReference<Transition> state;
+
+    /** Told of every transition. */
+    private final List<PaymentListener> listeners = new CopyOnWriteArrayList<>();
+
+    /** Deliveries requested and not yet made; the thread that raises it from 0 delivers. */
+    private final AtomicInteger deliveries = new AtomicInteger();
+
+    /** Last transition delivered to the listeners; only touched by the delivering thread. */
+    private Transition delivered;
+
+    /**
+     * Constructs a new payment in {@link PaymentStatus#PENDING} state.
+     *
+     * @param method human-readable payment method label (e.g., {@code "Card"})
+     * @param amount amount to charge/collect
+     */
+    public Payment(String method, Money amount) {
+        this(method, amount, Clock.systemUTC());
+    }
 
     /**
-     * Constructs a new payment in {@code "Pending"} state.
+     * Constructs a new payment in {@link PaymentStatus#PENDING} state.
      *
      * @param method human-readable payment method label (e.g., {@code "Card"})
      * @param amount amount to charge/collect
+     * @param clock  clock the transitions are stamped with
      */
-    public Payment(String method, double amount) {
+    public Payment(String method, Money amount, Clock clock) {
         this.method = method;
         this.amount = amount;
-        this.status = "Pending";
+        this.clock = clock;
+        Transition created = new Transition(PaymentStatus.PENDING, clock.instant(), null);
+        this.state = new AtomicReference<>(created);
+        this.delivered = created;
     }
 
+    /**
+     * Returns the unique id of this payment.
+     *
+     * @return a random UUID string
+     */
+    public String getId() { return id; }
+
     /**
      * Returns the payment method.
      *
@@ -45,14 +118,57 @@ public class Payment {
      *
      * @return amount to be charged/collected
      */
-    public double getAmount() { return amount; }
+    public Money getAmount() { return amount; }
 
     /**
      * Returns the current payment status.
      *
-     * @return status string (e.g., {@code "Pending"}, {@code "Completed"})
+     * @return the status, e.g. {@link PaymentStatus#PENDING}
+     */
+    public PaymentStatus getStatus() { return state.get().status; }
+
+    /**
+     * Returns when the payment last entered a status.
+     *
+     * @param status status to look up
+     * @return the time it was last entered, or {@code null} if it never was
+     */
+    public Instant enteredAt(PaymentStatus status) {
+        for (Transition t = state.get(); t != null; t = t.previous) {
+            if (t.status == status) {
+                return t.at;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the amount actually collected: the cash tendered, or the amount the
+     * payment network captured.
+     *
+     * @return the captured amount, or {@code null} if the payment has not been collected
+     */
+    public Money getCaptured() { return captured; }
+
+    /**
+     * Returns the cash given back out of the {@linkplain #getCaptured() captured amount}.
+     *
+     * @return the change given; zero if none
+     */
+    public Money getChange() { return change; }
+
+    /**
+     * Records the amount actually collected and the change given back. Set it before
+     * moving the payment to {@link PaymentStatus#COMPLETED}, so that the listeners of the
+     * completion see it.
+     *
+     * @param captured amount collected
+     * @param change   cash given back out of it
      */
-    public String getStatus() { return status; }
+    public void setCaptured(Money captured, Money change) {
+        this.change = change;
+        this.captured = captured;
+    }
 
     /**
      * Sets the payment method label.
@@ -66,12 +182,124 @@ public class Payment {
      *
      * @param amount new amount to charge/collect
      */
-    public void setAmount(double amount) { this.amount = amount; }
+    public void setAmount(Money amount) { this.amount = amount; }
+
+    /**
+     * Moves the payment to {@code next} if it is in {@code expected}.
+     *
+     * @param expected status the caller believes the payment is in
+     * @param next     status to move to
+     * @return {@code true} if this call made the move; {@code false} if the payment was
+     *         not in {@code expected}
+     * @throws IllegalStateException if {@code expected} may not move to {@code next}
+     */
+    public boolean compareAndSet(PaymentStatus expected, PaymentStatus next) {
+        if (!expected.canMoveTo(next)) {
+            throw new IllegalStateException("Payment cannot move from " + expected + " to " + next);
+        }
+        Transition current = state.get();
+        if (current.status != expected) {
+            return false;
+        }
+        if (!state.compareAndSet(current, new Transition(next, clock.instant(), current))) {
+            return false;
+        }
+        deliver();
+        return true;
+    }
+
+    /**
+     * Moves the payment to {@code next} from whatever status it is in.
+     * <p>
+     * Meant for racing moves, such as an answer from the gateway against a cancel:
+     * the first move wins, and a later one finds the payment final and returns
+     * {@code false}.
+     * </p>
+     *
+     * @param next status to move to
+     * @return {@code true} if this call made the move; {@code false} if the payment is
+     *         already final (or already in {@code next})
+     * @throws IllegalStateException if the payment is in a status that is not final and
+     *                               may not move to {@code next}
+     */
+    public boolean moveTo(PaymentStatus next) {
+        Objects.requireNonNull(next, "next");
+        while (true) {
+            Transition current = state.get();
+            if (current.status.isFinal() || current.status == next) {
+                return false;
+            }
+            if (!current.status.canMoveTo(next)) {
+                throw new IllegalStateException("Payment cannot move from " + current.status + " to " + next);
+            }
+            if (state.compareAndSet(current, new Transition(next, clock.instant(), current))) {
+                deliver();
+                return true;
+            }
+        }
+    }
 
     /**
-     * Updates the payment status.
+     * Registers a listener for the transitions that follow.
      *
-     * @param status new status value (e.g., {@code "Processing"}, {@code "Cancelled"})
+     * @param listener callback; it runs on the thread that delivers, and should be quick
+     */
+    public void addListener(PaymentListener listener) {
+        listeners.add(Objects.requireNonNull(listener, "listener"));
+    }
+
+    /**
+     * @param listener callback to remove
      */
-    public void setStatus(String status) { this.status = status; }
+    public void removeListener(PaymentListener listener) {
+        listeners.remove(listener);
+    }
+
+    /** Delivers every transition not delivered yet, unless another thread is doing so. */
+    private void deliver() {
+        if (deliveries.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            Transition latest = state.get();
+            deliverUpTo(latest);
+            delivered = latest;
+            missed = deliveries.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    /** Delivers the transitions after {@link #delivered}, oldest first. */
+    private void deliverUpTo(Transition t) {
+        if (t == delivered) {
+            return;
+        }
+        deliverUpTo(t.previous);
+        for (PaymentListener listener : listeners) {
+            try {
+                listener.onTransition(this, t.previous.status, t.status);
+            } catch (RuntimeException e) {
+                logger.warn("Payment listener failed on {} -> {}", t.previous.status, t.status, e);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Payment{" + method + " " + amount + ", " + getStatus() + "}";
+    }
+
+    /** One entered status; immutable. */
+    private static final class Transition {
+        final PaymentStatus status;
+        final Instant at;
+        /** Transition before this one; {@code null} for the first. */
+        final Transition previous;
+
+        Transition(PaymentStatus status, Instant at, Transition previous) {
+            this.status = status;
+            this.at = at;
+            this.previous = previous;
+        }
+    }
 }
@@ -0,0 +1,19 @@
+package concordia.soen6611.igo_tvm.models;
+
+/**
+ * Callback told of every status change of a {@link Payment}.
+ *
+ * @see Payment#addListener(PaymentListener)
+ */
+@FunctionalInterface
+public interface PaymentListener {
+
+    /**
+     * Called once per transition, in the order the transitions happened.
+     *
+     * @param payment payment that moved
+     * @param from    state it left
+     * @param to      state it entered
+     */
+    void onTransition(Payment payment, PaymentStatus from, PaymentStatus to);
+}
@@ -0,0 +1,68 @@
+package concordia.soen6611.igo_tvm.models;
+
+/**
+ * States of a {@link Payment} and the moves allowed between them.
+ * <pre>
+ *   PENDING --&gt; PROCESSING --&gt; COMPLETED
+ *      |           |   ^   \-&gt; DECLINED
+ *      |           |   |   \-&gt; FAILED --&gt; CANCELLED
+ *      |           |   \--------/
+ *      \-----------\-----------------&gt; CANCELLED
+ * </pre>
+ * A failed authorization got no answer. The request may never have reached the payment
+ * network, or it may have timed out after the network took it, so the payment may have
+ * been charged: it is in doubt. It may be authorized again under the same idempotency
+ * key, which the network uses to recognize a charge it already made. {@link #COMPLETED}, {@link #DECLINED} and {@link #CANCELLED} are
+ * final: once a payment is completed it can no longer be cancelled.
+ */
+public enum PaymentStatus {
+    /** Started, nothing collected yet. */
+    PENDING("Pending"),
+    /** Being authorized or collected. */
+    PROCESSING("Processing"),
+    /** Paid. */
+    COMPLETED("Completed"),
+    /** Refused by the payment network. */
+    DECLINED("Declined"),
+    /** Authorization got no answer; may have been charged, and may be tried again under the same key. */
+    FAILED("Failed"),
+    /** Abandoned by the rider or the kiosk. */
+    CANCELLED("Cancelled");
+
+    private final String label;
+
+    PaymentStatus(String label) {
+        this.label = label;
+    }
+
+    /**
+     * @return the display label, e.g. {@code "Completed"}
+     */
+    public String label() {
+        return label;
+    }
+
+    /**
+     * @return {@code true} if no move is allowed out of this state
+     */
+    public boolean isFinal() {
+        return this == COMPLETED || this == DECLINED || this == CANCELLED;
+    }
+
+    /**
+     * @param next state to move to
+     * @return {@code true} if a payment in this state may move to {@code next}
+     */
+    public boolean canMoveTo(PaymentStatus next) {
+        switch (this) {
+            case PENDING:
+                return next == PROCESSING || next == CANCELLED;
+            case PROCESSING:
+                return next == COMPLETED || next == DECLINED || next == FAILED || next == CANCELLED;
+            case FAILED:
+                return next == PROCESSING || next == CANCELLED;
+            default:
+                return false;
+        }
+    }
+}
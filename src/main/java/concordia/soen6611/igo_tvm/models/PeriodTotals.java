@@ -0,0 +1,176 @@
+package concordia.soen6611.igo_tvm.models;
+
+import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Sales of one reconciliation period, as totalled from the journal.
+ * <p>
+ * Two views of the same payments:
+ * <ul>
+ *   <li>{@link Sales} lines, one per rider type, product and payment method: what was
+ *       sold;</li>
+ *   <li>{@link Method} lines, one per payment method: what was priced against what was
+ *       collected, and the payments that did not go through.</li>
+ * </ul>
+ * A sale belongs to the period in which its payment completed.
+ * </p>
+ *
+ * <p>Instances are immutable and thread-safe.</p>
+ */
+public final class PeriodTotals {
+
+    private final ZonedDateTime start;
+    private final ZonedDateTime end;
+    private final List<Sales> sales;
+    private final List<Method> methods;
+
+    /**
+     * @param start   start of the period, inclusive
+     * @param end     end of the period, exclusive
+     * @param sales   sales lines, in rider type, product, method order
+     * @param methods payment method lines, in method order
+     */
+    public PeriodTotals(ZonedDateTime start, ZonedDateTime end, List<Sales> sales, List<Method> methods) {
+        this.start = start;
+        this.end = end;
+        this.sales = Collections.unmodifiableList(sales);
+        this.methods = Collections.unmodifiableList(methods);
+    }
+
+    /** @return start of the period, inclusive */
+    public ZonedDateTime getStart() { return start; }
+
+    /** @return end of the period, exclusive */
+    public ZonedDateTime getEnd() { return end; }
+
+    /** @return sales lines, one per rider type, product and payment method */
+    public List<Sales> getSales() { return sales; }
+
+    /** @return payment method lines */
+    public List<Method> getMethods() { return methods; }
+
+    @Override
+    public String toString() {
+        return "PeriodTotals{" + start + ".." + end + ", " + sales.size() + " sales lines, " + methods + "}";
+    }
+
+    /** Completed sales of one rider type and product, paid one way. */
+    public static final class Sales {
+        private final String riderType;
+        private final String product;
+        private final String method;
+        private final long count;
+        private final long items;
+        private final long totalCents;
+
+        /**
+         * @param riderType  rider type, e.g. {@code "Adult"}
+         * @param product    trip or pass type, e.g. {@code "Day Pass"}
+         * @param method     payment method, e.g. {@code "Cash"}
+         * @param count      number of orders
+         * @param items      number of tickets or passes across them
+         * @param totalCents their order totals, tax included
+         */
+        public Sales(String riderType, String product, String method, long count, long items, long totalCents) {
+            this.riderType = riderType;
+            this.product = product;
+            this.method = method;
+            this.count = count;
+            this.items = items;
+            this.totalCents = totalCents;
+        }
+
+        /** @return rider type */
+        public String getRiderType() { return riderType; }
+
+        /** @return trip or pass type */
+        public String getProduct() { return product; }
+
+        /** @return payment method */
+        public String getMethod() { return method; }
+
+        /** @return number of orders */
+        public long getCount() { return count; }
+
+        /** @return number of tickets or passes sold */
+        public long getItems() { return items; }
+
+        /** @return order totals, tax included */
+        public Money getTotal() { return Money.ofCents(totalCents); }
+
+        @Override
+        public String toString() {
+            return riderType + "/" + product + "/" + method + ": " + count + " orders, " + items + " items, "
+                    + getTotal();
+        }
+    }
+
+    /**
+     * Payments of one method. {@link #getExpected()} is what the completed payments'
+     * orders were priced at, {@link #getCollected()} what the payments actually took, the
+     * cash tendered less the change given or the amount the network captured; they differ when the kiosk collected more or
+     * less than the price, or when a completion has no order in the journal
+     * ({@link #getUnmatched()}).
+     */
+    public static final class Method {
+        private final String method;
+        private final long completed;
+        private final long expectedCents;
+        private final long collectedCents;
+        private final long declined;
+        private final long cancelled;
+        private final long unmatched;
+
+        /**
+         * @param method         payment method
+         * @param completed      number of completed payments
+         * @param expectedCents  order totals of the completed payments that have an order
+         * @param collectedCents amounts captured by all completed payments, less change
+         * @param declined       number of declined payments
+         * @param cancelled      number of cancelled payments
+         * @param unmatched      completed payments with no order in the journal
+         */
+        public Method(String method, long completed, long expectedCents, long collectedCents, long declined,
+                      long cancelled, long unmatched) {
+            this.method = method;
+            this.completed = completed;
+            this.expectedCents = expectedCents;
+            this.collectedCents = collectedCents;
+            this.declined = declined;
+            this.cancelled = cancelled;
+            this.unmatched = unmatched;
+        }
+
+        /** @return payment method */
+        public String getMethod() { return method; }
+
+        /** @return number of completed payments */
+        public long getCompleted() { return completed; }
+
+        /** @return what the completed payments' orders were priced at */
+        public Money getExpected() { return Money.ofCents(expectedCents); }
+
+        /** @return what the completed payments took */
+        public Money getCollected() { return Money.ofCents(collectedCents); }
+
+        /** @return collected minus expected; zero when the method balances */
+        public Money getDiscrepancy() { return Money.ofCents(collectedCents - expectedCents); }
+
+        /** @return number of declined payments */
+        public long getDeclined() { return declined; }
+
+        /** @return number of cancelled payments */
+        public long getCancelled() { return cancelled; }
+
+        /** @return number of completed payments with no order in the journal */
+        public long getUnmatched() { return unmatched; }
+
+        @Override
+        public String toString() {
+            return method + ": " + completed + " completed, collected " + getCollected() + " of "
+                    + getExpected();
+        }
+    }
+}
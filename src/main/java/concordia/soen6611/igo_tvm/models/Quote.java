@@ -0,0 +1,109 @@
+package concordia.soen6611.igo_tvm.models;
+
+import java.util.Objects;
+
+/**
+ * The price of an order: some quantity of one fare product for one rider, priced from
+ * one {@link FareSnapshot}.
+ * <p>
+ * A quote carries every number a screen shows and a receipt needs (unit price,
+ * subtotal, each tax and the total), computed once with the snapshot's rules: each
+ * tax is rounded on its own, then added. The screen renders a quote and the
+ * {@link OrderSummary} is made from the same quote with {@link #toOrder()}, so the
+ * amount charged is the amount shown.
+ * </p>
+ *
+ * <h3>Threading</h3>
+ * Immutable and thread-safe.
+ */
+public final class Quote {
+
+    private final RiderType rider;
+    private final FareProduct product;
+    private final int quantity;
+
+    /** Version of the snapshot the quote was priced from. */
+    private final long fareVersion;
+
+    private final Money unitPrice;
+    private final Money subtotal;
+    private final Money gst;
+    private final Money qst;
+    private final Money total;
+
+    private Quote(RiderType rider, FareProduct product, int quantity, long fareVersion,
+                  Money unitPrice, Money subtotal, Money gst, Money qst) {
+        this.rider = rider;
+        this.product = product;
+        this.quantity = quantity;
+        this.fareVersion = fareVersion;
+        this.unitPrice = unitPrice;
+        this.subtotal = subtotal;
+        this.gst = gst;
+        this.qst = qst;
+        this.total = subtotal.plus(gst).plus(qst);
+    }
+
+    /**
+     * Prices an order.
+     *
+     * @param fares    fares and tax rates to price from
+     * @param rider    rider category
+     * @param product  fare product
+     * @param quantity number of items, at least 1
+     * @return the quote
+     * @throws IllegalArgumentException if {@code quantity} is less than 1
+     */
+    public static Quote of(FareSnapshot fares, RiderType rider, FareProduct product, int quantity) {
+        if (quantity < 1) {
+            throw new IllegalArgumentException("quantity must be at least 1: " + quantity);
+        }
+        Money unit = fares.getFares().fare(Objects.requireNonNull(rider, "rider"), Objects.requireNonNull(product, "product"));
+        Money subtotal = unit.times(quantity);
+        return new Quote(rider, product, quantity, fares.getVersion(), unit, subtotal,
+                fares.getGST().on(subtotal), fares.getQST().on(subtotal));
+    }
+
+    /** @return the rider category */
+    public RiderType getRider() { return rider; }
+
+    /** @return the fare product */
+    public FareProduct getProduct() { return product; }
+
+    /** @return the number of items */
+    public int getQuantity() { return quantity; }
+
+    /** @return the version of the fares the quote was priced from */
+    public long getFareVersion() { return fareVersion; }
+
+    /** @return the pre-tax price of one item */
+    public Money getUnitPrice() { return unitPrice; }
+
+    /** @return the pre-tax price of all items */
+    public Money getSubtotal() { return subtotal; }
+
+    /** @return the GST on the subtotal, rounded to the cent */
+    public Money getGST() { return gst; }
+
+    /** @return the QST on the subtotal, rounded to the cent */
+    public Money getQST() { return qst; }
+
+    /** @return {@code GST + QST} */
+    public Money getTax() { return gst.plus(qst); }
+
+    /** @return the amount due, tax included */
+    public Money getTotal() { return total; }
+
+    /**
+     * @return an order for exactly this quote
+     */
+    public OrderSummary toOrder() {
+        return new OrderSummary(rider.label(), product.label(), 1, quantity, unitPrice, total, fareVersion);
+    }
+
+    @Override
+    public String toString() {
+        return "Quote{" + quantity + " x " + rider.label() + " " + product.label() + " = " + total
+                + " (fares v" + fareVersion + ")}";
+    }
+}
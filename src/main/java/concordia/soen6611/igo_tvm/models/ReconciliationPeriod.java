@@ -0,0 +1,59 @@
+package concordia.soen6611.igo_tvm.models;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Length of the periods a reconciliation totals sales over.
+ * <p>
+ * Periods follow the local calendar of a time zone: a day runs from local midnight to
+ * the next, so it may be 23 or 25 hours long when the clocks change. Weeks start on
+ * Monday.
+ * </p>
+ */
+public enum ReconciliationPeriod {
+    HOUR,
+    DAY,
+    WEEK,
+    MONTH;
+
+    /**
+     * @param time an instant
+     * @param zone time zone whose calendar the periods follow
+     * @return the start of the period holding {@code time}
+     */
+    public ZonedDateTime start(Instant time, ZoneId zone) {
+        ZonedDateTime local = time.atZone(zone);
+        switch (this) {
+            case HOUR:
+                return local.truncatedTo(ChronoUnit.HOURS);
+            case DAY:
+                return local.toLocalDate().atStartOfDay(zone);
+            case WEEK:
+                return local.toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).atStartOfDay(zone);
+            default:
+                return local.toLocalDate().withDayOfMonth(1).atStartOfDay(zone);
+        }
+    }
+
+    /**
+     * @param start start of a period, as returned by {@link #start(Instant, ZoneId)}
+     * @return the start of the next period
+     */
+    public ZonedDateTime next(ZonedDateTime start) {
+        switch (this) {
+            case HOUR:
+                return start.plusHours(1);
+            case DAY:
+                return start.toLocalDate().plusDays(1).atStartOfDay(start.getZone());
+            case WEEK:
+                return start.toLocalDate().plusWeeks(1).atStartOfDay(start.getZone());
+            default:
+                return start.toLocalDate().plusMonths(1).atStartOfDay(start.getZone());
+        }
+    }
+}
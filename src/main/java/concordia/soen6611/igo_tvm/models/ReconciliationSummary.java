@@ -0,0 +1,91 @@
+package concordia.soen6611.igo_tvm.models;
+
+/**
+ * What a reconciliation read and what it could not settle.
+ * <p>
+ * {@link #getInDoubt()} counts payments that were being authorized when the journal
+ * ends: whether they were collected is not known from the kiosk alone and must be
+ * checked with the payment network.
+ * </p>
+ *
+ * <p>Instances are immutable and thread-safe.</p>
+ */
+public final class ReconciliationSummary {
+
+    private final long records;
+    private final long firstSequence;
+    private final long lastSequence;
+    private final long periods;
+    private final long sales;
+    private final long unmatched;
+    private final long inDoubt;
+    private final long inDoubtCents;
+    private final long outOfOrder;
+    private final long forgotten;
+
+    /**
+     * @param records       number of journal records read
+     * @param firstSequence sequence number of the first record read; {@code 0} if none
+     * @param lastSequence  sequence number of the last record read; {@code 0} if none
+     * @param periods       number of periods reported
+     * @param sales         number of completed payments counted
+     * @param unmatched     completed payments with no order in the journal
+     * @param inDoubt       payments still being authorized at the end of the journal
+     * @param inDoubtCents  their amounts
+     * @param outOfOrder    payments that ended earlier than one already counted, as after
+     *                      a clock change, and were counted in the later period
+     * @param forgotten     open payments dropped to bound memory
+     */
+    public ReconciliationSummary(long records, long firstSequence, long lastSequence, long periods, long sales,
+                                 long unmatched, long inDoubt, long inDoubtCents, long outOfOrder,
+                                 long forgotten) {
+        this.records = records;
+        this.firstSequence = firstSequence;
+        this.lastSequence = lastSequence;
+        this.periods = periods;
+        this.sales = sales;
+        this.unmatched = unmatched;
+        this.inDoubt = inDoubt;
+        this.inDoubtCents = inDoubtCents;
+        this.outOfOrder = outOfOrder;
+        this.forgotten = forgotten;
+    }
+
+    /** @return number of journal records read */
+    public long getRecords() { return records; }
+
+    /** @return sequence number of the first record read; {@code 0} if none */
+    public long getFirstSequence() { return firstSequence; }
+
+    /** @return sequence number of the last record read; {@code 0} if none */
+    public long getLastSequence() { return lastSequence; }
+
+    /** @return number of periods reported */
+    public long getPeriods() { return periods; }
+
+    /** @return number of completed payments counted */
+    public long getSales() { return sales; }
+
+    /** @return completed payments with no order in the journal */
+    public long getUnmatched() { return unmatched; }
+
+    /** @return payments still being authorized at the end of the journal */
+    public long getInDoubt() { return inDoubt; }
+
+    /** @return amounts of the payments in doubt */
+    public Money getInDoubtAmount() { return Money.ofCents(inDoubtCents); }
+
+    /** @return payments counted in a later period than the one they ended in */
+    public long getOutOfOrder() { return outOfOrder; }
+
+    /** @return open payments dropped to bound memory */
+    public long getForgotten() { return forgotten; }
+
+    @Override
+    public String toString() {
+        return "ReconciliationSummary{records " + firstSequence + ".." + lastSequence + " (" + records + "), "
+                + periods + " periods, " + sales + " sales, " + unmatched + " unmatched, " + inDoubt
+                + " in doubt (" + getInDoubtAmount() + "), " + outOfOrder + " out of order, " + forgotten
+                + " forgotten}";
+    }
+}
@@ -0,0 +1,46 @@
+package concordia.soen6611.igo_tvm.models;
+
+/**
+ * Rider categories with their own fares.
+ * <p>
+ * The ordinal indexes the rider's row of a {@link FareTable}; {@link #label()} is the
+ * name stored on an {@link OrderSummary} and shown on the rider tag.
+ * </p>
+ */
+public enum RiderType {
+    /** Full-fare rider. */
+    ADULT("Adult"),
+    /** Student with a reduced fare. */
+    STUDENT("Student"),
+    /** Senior with a reduced fare. */
+    SENIOR("Senior"),
+    /** Visitor fare. */
+    TOURIST("Tourist");
+
+    /** Display and order name. */
+    private final String label;
+
+    RiderType(String label) { this.label = label; }
+
+    /**
+     * @return the rider's name, e.g. {@code "Adult"}
+     */
+    public String label() { return label; }
+
+    /**
+     * Looks up a rider type by its {@link #label()}.
+     *
+     * @param label rider name, e.g. {@code "Student"}; surrounding blanks are ignored
+     * @return the rider type
+     * @throws IllegalArgumentException if no rider type has that name
+     */
+    public static RiderType fromLabel(String label) {
+        String name = label == null ? "" : label.trim();
+        for (RiderType rider : values()) {
+            if (rider.label.equals(name)) {
+                return rider;
+            }
+        }
+        throw new IllegalArgumentException("unknown rider type: \"" + label + "\"");
+    }
+}
@@ -0,0 +1,66 @@
+package concordia.soen6611.igo_tvm.models;
+
+/**
+ * Enumerates every navigable kiosk screen and the FXML resource backing it.
+ * <p>
+ * Controllers navigate by {@code Screen} constant through the
+ * {@code ScreenNavigator} instead of hardcoding FXML paths, so each view is
+ * parsed in one place and can be cached and reused.
+ * </p>
+ *
+ * <h3>Caching</h3>
+ * <p>
+ * A screen is {@linkplain #isCacheable() cacheable} when its controller keeps no
+ * per-visit state beyond what {@code onEnter} resets, i.e. showing the same view
+ * instance again is indistinguishable from loading it fresh. Other screens are
+ * rebuilt for every visit (usually ahead of time, see {@code NavigationGraph}).
+ * </p>
+ */
+public enum Screen {
+    /** Attract/welcome screen with language selection. */
+    WELCOME("/welcome-screen.fxml", true),
+    /** Landing screen with Buy / Reload tiles. */
+    HOME("/Fxml/Home.fxml", true),
+    /** Ticket selection and pricing. */
+    BUY_TICKET("/Fxml/BuyNewTicket.fxml", false),
+    /** OPUS card read step of the reload flow. */
+    CARD_RELOAD("/Fxml/CardReload.fxml", false),
+    /** Pass/quantity selection of the reload flow. */
+    CARD_RELOAD_AMOUNT("/Fxml/CardReloadAmount.fxml", false),
+    /** Payment method selection. */
+    PAYMENT("/Fxml/Payment.fxml", false),
+    /** Cash insertion. */
+    CASH_SUBMISSION("/Fxml/CashSubmission.fxml", false),
+    /** Mobile wallet processing. */
+    MOBILE_WALLET("/Fxml/MobileWallet.fxml", false),
+    /** Confirmation / receipt. */
+    PAYMENT_SUCCESS("/Fxml/PaymentSuccess.fxml", false);
+
+    /** Classpath location of the FXML document. */
+    private final String fxml;
+    /** Whether the parsed view and controller may be reused across visits. */
+    private final boolean cacheable;
+
+    /**
+     * @param fxml      classpath location of the FXML document
+     * @param cacheable whether the loaded view may be reused across visits
+     */
+    Screen(String fxml, boolean cacheable) {
+        this.fxml = fxml;
+        this.cacheable = cacheable;
+    }
+
+    /**
+     * Returns the classpath location of the FXML document.
+     *
+     * @return resource path (e.g., {@code "/Fxml/Home.fxml"})
+     */
+    public String fxml() { return fxml; }
+
+    /**
+     * Returns whether the parsed view and controller may be reused across visits.
+     *
+     * @return {@code true} if the view is cached after its first load
+     */
+    public boolean isCacheable() { return cacheable; }
+}
@@ -0,0 +1,152 @@
+package concordia.soen6611.igo_tvm.models;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A gzip-compressed batch of journal records sent to the back office in one request.
+ * <p>
+ * A batch covers a range of journal sequence numbers and carries the records of the
+ * sales completed in it: each completed payment's {@link JournalRecord.Order} and its
+ * {@link PaymentStatus#COMPLETED} {@link JournalRecord.Transition}. Uncompressed, the
+ * body is
+ * <pre>
+ *   int count
+ *   count x { long sequence, int length, byte[length] record }
+ * </pre>
+ * with records in the binary form of {@link JournalRecord}.
+ * </p>
+ * <p>
+ * The batch id is made of the kiosk id and the sequence range, so a batch sent again is
+ * recognized as the same one. Each record also keeps its journal sequence number, by
+ * which the back office can drop a record it already has even when it comes in a
+ * differently cut batch, as after a restart.
+ * </p>
+ *
+ * <p>Instances are immutable and thread-safe.</p>
+ */
+public final class SettlementBatch {
+
+    private final String id;
+    private final String kioskId;
+    private final long firstSequence;
+    private final long lastSequence;
+    private final int recordCount;
+    private final int uncompressedBytes;
+    private final byte[] body;
+
+    private SettlementBatch(String kioskId, long firstSequence, long lastSequence, int recordCount,
+                            int uncompressedBytes, byte[] body) {
+        this.id = kioskId + "-" + firstSequence + "-" + lastSequence;
+        this.kioskId = kioskId;
+        this.firstSequence = firstSequence;
+        this.lastSequence = lastSequence;
+        this.recordCount = recordCount;
+        this.uncompressedBytes = uncompressedBytes;
+        this.body = body;
+    }
+
+    /**
+     * Compresses records into a batch.
+     *
+     * @param kioskId       id of the kiosk sending it
+     * @param firstSequence first journal sequence number the batch covers
+     * @param lastSequence  last journal sequence number the batch covers
+     * @param records       records to send, read from the journal
+     * @return the batch
+     * @throws IllegalArgumentException if the range is empty
+     */
+    public static SettlementBatch of(String kioskId, long firstSequence, long lastSequence,
+                                     List<JournalRecord> records) {
+        if (lastSequence < firstSequence) {
+            throw new IllegalArgumentException("empty sequence range " + firstSequence + ".." + lastSequence);
+        }
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        int size = 4;
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(compressed))) {
+            out.writeInt(records.size());
+            for (JournalRecord record : records) {
+                ByteBuffer encoded = ByteBuffer.allocate(record.encodedSize());
+                record.encode(encoded);
+                out.writeLong(record.getSequence());
+                out.writeInt(encoded.capacity());
+                out.write(encoded.array());
+                size += 8 + 4 + encoded.capacity();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // in-memory streams do not fail
+        }
+        return new SettlementBatch(kioskId, firstSequence, lastSequence, records.size(), size,
+                compressed.toByteArray());
+    }
+
+    /**
+     * Reads the records of a batch body.
+     *
+     * @param body gzip-compressed body, as sent
+     * @return the records, in order
+     * @throws IOException if the body is not a batch
+     */
+    public static List<JournalRecord> readRecords(byte[] body) throws IOException {
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(body)))) {
+            int count = in.readInt();
+            if (count < 0) {
+                throw new IOException("negative record count " + count);
+            }
+            List<JournalRecord> records = new ArrayList<>(Math.min(count, 4096));
+            for (int i = 0; i < count; i++) {
+                long sequence = in.readLong();
+                byte[] record = new byte[in.readInt()];
+                in.readFully(record);
+                try {
+                    records.add(JournalRecord.decode(sequence, ByteBuffer.wrap(record)));
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("bad record " + sequence + " in batch", e);
+                }
+            }
+            return records;
+        } catch (EOFException e) {
+            throw new IOException("batch body is cut short", e);
+        }
+    }
+
+    /** @return the batch id, {@code <kiosk>-<first>-<last>} */
+    public String getId() { return id; }
+
+    /** @return id of the kiosk sending the batch */
+    public String getKioskId() { return kioskId; }
+
+    /** @return first journal sequence number covered */
+    public long getFirstSequence() { return firstSequence; }
+
+    /** @return last journal sequence number covered */
+    public long getLastSequence() { return lastSequence; }
+
+    /** @return number of records in the batch */
+    public int getRecordCount() { return recordCount; }
+
+    /** @return size of the body before compression */
+    public int getUncompressedBytes() { return uncompressedBytes; }
+
+    /** @return the compressed body; a copy */
+    public byte[] getBody() { return body.clone(); }
+
+    /** @return size of the compressed body */
+    public int getCompressedBytes() { return body.length; }
+
+    @Override
+    public String toString() {
+        return "SettlementBatch{" + id + ", " + recordCount + " records, " + body.length + "/" + uncompressedBytes
+                + " bytes}";
+    }
+}
@@ -0,0 +1,141 @@
+package concordia.soen6611.igo_tvm.models;
+
+import java.math.BigDecimal;
+
+/**
+ * Immutable sales tax rate, held exactly as millionths (parts per million).
+ * <p>
+ * Quebec's rates have three decimals in percent (QST is 9.975&nbsp;%), which a
+ * {@code double} cannot hold exactly; as millionths they are plain integers (GST
+ * {@code 50_000}, QST {@code 99_750}). {@link #on(Money)} is the single place where an
+ * amount is rounded: the tax on an amount is rounded to the nearest cent, halves away
+ * from zero. Each tax is computed on the pre-tax amount and rounded on its own before
+ * the taxes are added, as Revenu Qu&eacute;bec prescribes; see
+ * {@code FareRateService#taxOn}.
+ * </p>
+ *
+ * <h3>Threading</h3>
+ * Immutable and thread-safe.
+ */
+public final class TaxRate {
+
+    private static final long MILLION = 1_000_000L;
+
+    /** Rate in millionths. */
+    private final long millionths;
+
+    private TaxRate(long millionths) {
+        this.millionths = millionths;
+    }
+
+    /**
+     * @param millionths rate in millionths, e.g. {@code 99_750} for 9.975&nbsp;%
+     * @return the rate
+     * @throws IllegalArgumentException if {@code millionths} is negative
+     */
+    public static TaxRate ofMillionths(long millionths) {
+        if (millionths < 0) {
+            throw new IllegalArgumentException("negative tax rate: " + millionths);
+        }
+        return new TaxRate(millionths);
+    }
+
+    /**
+     * Parses a rate written in percent, such as {@code 5} or {@code 9.975}.
+     *
+     * @param percent rate in percent: digits, then optionally a point and up to four decimals
+     * @return the rate
+     * @throws NumberFormatException if {@code percent} is not such a rate
+     */
+    public static TaxRate parsePercent(String percent) {
+        long millionths = 0;
+        int digits = 0;
+        int decimals = -1;
+        for (int i = 0; i < percent.length(); i++) {
+            char c = percent.charAt(i);
+            if (c == '.' && decimals < 0 && digits > 0) {
+                decimals = 0;
+            } else if (c >= '0' && c <= '9' && decimals < 4) {
+                millionths = Math.addExact(Math.multiplyExact(millionths, 10), c - '0');
+                digits++;
+                if (decimals >= 0) {
+                    decimals++;
+                }
+            } else {
+                throw new NumberFormatException("not a percentage: \"" + percent + "\"");
+            }
+        }
+        if (digits == 0 || decimals == 0) {
+            throw new NumberFormatException("not a percentage: \"" + percent + "\"");
+        }
+        for (int d = Math.max(decimals, 0); d < 4; d++) {
+            millionths = Math.multiplyExact(millionths, 10);
+        }
+        return new TaxRate(millionths);
+    }
+
+    /**
+     * @return the rate in millionths
+     */
+    public long millionths() {
+        return millionths;
+    }
+
+    /**
+     * @param other rate to add
+     * @return the combined rate, for display; tax amounts are computed per rate
+     */
+    public TaxRate plus(TaxRate other) {
+        return new TaxRate(Math.addExact(millionths, other.millionths));
+    }
+
+    /**
+     * Computes the tax on an amount.
+     *
+     * @param amount pre-tax amount
+     * @return the tax, rounded to the nearest cent, halves away from zero
+     * @throws ArithmeticException if the product overflows
+     */
+    public Money on(Money amount) {
+        long product = Math.multiplyExact(amount.cents(), millionths);
+        long cents = product / MILLION;
+        long remainder = Math.abs(product % MILLION);
+        if (remainder * 2 >= MILLION) {
+            cents += Long.signum(product);
+        }
+        return Money.ofCents(cents);
+    }
+
+    /**
+     * @return the rate as a fraction, e.g. {@code 0.09975}; for display only
+     */
+    public double toFraction() {
+        return millionths / (double) MILLION;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof TaxRate && ((TaxRate) o).millionths == millionths;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(millionths);
+    }
+
+    /**
+     * @return the rate in percent without a sign, e.g. {@code 9.975}; the inverse of
+     *         {@link #parsePercent(String)}
+     */
+    public String percent() {
+        return BigDecimal.valueOf(millionths, 4).stripTrailingZeros().toPlainString();
+    }
+
+    /**
+     * @return the rate in percent, e.g. {@code 9.975%}
+     */
+    @Override
+    public String toString() {
+        return percent() + "%";
+    }
+}
@@ -1,11 +1,15 @@
 package concordia.soen6611.igo_tvm;
 
 import concordia.soen6611.igo_tvm.Services.CardReloadService;
-import concordia.soen6611.igo_tvm.Services.FareRateService;
 import concordia.soen6611.igo_tvm.Services.FareRateServiceImpl;
 import concordia.soen6611.igo_tvm.exceptions.NetworkException;
+import concordia.soen6611.igo_tvm.models.FareProduct;
+import concordia.soen6611.igo_tvm.models.Money;
+import concordia.soen6611.igo_tvm.models.RiderType;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 
@@ -14,7 +18,12 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class CardReloadServiceTest {
 
-    private final FareRateService rates = new FareRateServiceImpl();
+    private final FareRateServiceImpl rates = new FareRateServiceImpl();
+
+    @AfterEach
+    void closeRates() throws IOException {
+        rates.close();
+    }
     private final CardReloadService svc = new CardReloadService(rates);
 
     @Test
@@ -35,8 +44,8 @@ class CardReloadServiceTest {
 
     @Test
     void getFare_delegatesToRateService() {
-        double fare = svc.getFare("Adult", "Day Pass");
-        assertTrue(fare > 0.0);
+        Money fare = svc.getFare(RiderType.ADULT, FareProduct.DAY_PASS);
+        assertTrue(fare.compareTo(Money.ZERO) > 0);
     }
 }
 
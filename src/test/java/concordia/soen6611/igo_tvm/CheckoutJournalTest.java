@@ -0,0 +1,159 @@
+package concordia.soen6611.igo_tvm;
+
+import concordia.soen6611.igo_tvm.Services.PaymentService;
+import concordia.soen6611.igo_tvm.Services.PaymentSession;
+import concordia.soen6611.igo_tvm.Services.SalesJournal;
+import concordia.soen6611.igo_tvm.Services.ScreenNavigator;
+import concordia.soen6611.igo_tvm.Services.SettlementUploader;
+import concordia.soen6611.igo_tvm.Services.TransactionJournal;
+import concordia.soen6611.igo_tvm.controllers.CashSubmissionController;
+import concordia.soen6611.igo_tvm.controllers.PaymentController;
+import concordia.soen6611.igo_tvm.models.Authorization;
+import concordia.soen6611.igo_tvm.models.JournalRecord;
+import concordia.soen6611.igo_tvm.models.Money;
+import concordia.soen6611.igo_tvm.models.OrderSummary;
+import concordia.soen6611.igo_tvm.models.Payment;
+import concordia.soen6611.igo_tvm.models.PaymentStatus;
+import concordia.soen6611.igo_tvm.models.Screen;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * What the payment screens leave in the sales journal, driven through the controllers'
+ * payment steps (their screens need a JavaFX toolkit and are not shown).
+ */
+class CheckoutJournalTest {
+
+    @TempDir
+    Path dir;
+
+    /** Answers of the payment network, in order; approvals once they run out. */
+    private final Deque<CompletableFuture<Authorization>> answers = new ArrayDeque<>();
+    private final List<String> keys = new CopyOnWriteArrayList<>();
+    private final PaymentService payments = new PaymentService((key, method, amount) -> {
+        keys.add(key);
+        CompletableFuture<Authorization> answer = answers.poll();
+        return answer != null ? answer : CompletableFuture.completedFuture(Authorization.approved("REF-" + key, amount));
+    }, 1_000, 1_000, 1, 1);
+    private final PaymentSession session = new PaymentSession();
+    private final List<Screen> shown = new ArrayList<>();
+    private final ScreenNavigator navigator = new ScreenNavigator(null, null, false) {
+        @Override
+        public boolean goTo(Screen target) {
+            shown.add(target);
+            return true;
+        }
+    };
+    private SalesJournal sales;
+
+    @BeforeEach
+    void openJournal() {
+        sales = new SalesJournal(payments, session, dir.toString(), 1 << 20);
+        session.setCurrentOrder(new OrderSummary("Adult", "Single Trip", 1, 2, Money.parse("3.26"),
+                Money.parse("7.50"), 1));
+    }
+
+    @AfterEach
+    void closeJournal() {
+        sales.close();
+        navigator.shutdown();
+    }
+
+    /** Closes the journal, so that every record queued is written, and reads it back. */
+    private List<JournalRecord> journaled() throws Exception {
+        sales.close();
+        List<JournalRecord> records = new ArrayList<>();
+        TransactionJournal.readDirectory(dir, records::add);
+        return records;
+    }
+
+    @Test
+    void oneConfirm_journalsExactlyOneOrder_underTheSelectedMethod() throws Exception {
+        PaymentController controller = new PaymentController(null, session, null, null, null, payments);
+        for (PaymentController.Method method : PaymentController.Method.values()) {
+            Payment payment = controller.startPayment(method);
+            assertSame(payment, payments.getCurrentPayment());
+            payments.cancelPayment();
+        }
+
+        List<String> orders = new ArrayList<>();
+        for (JournalRecord record : journaled()) {
+            if (record instanceof JournalRecord.Order) {
+                orders.add(((JournalRecord.Order) record).getMethod());
+            }
+        }
+        assertEquals(List.of("Card", "Cash", "MobileWallet"), orders);
+    }
+
+    @Test
+    void confirmAfterAFailedCharge_retriesItUnderTheSameKey() throws Exception {
+        PaymentController controller = new PaymentController(navigator, session, null, null, null, payments);
+        answers.add(CompletableFuture.failedFuture(new IOException("no answer")));
+        Payment failed = controller.startPayment(PaymentController.Method.CARD);
+        assertThrows(ExecutionException.class, () -> payments.authorizePayment().get(10, TimeUnit.SECONDS));
+        assertEquals(PaymentStatus.FAILED, failed.getStatus());
+
+        Payment retried = controller.startPayment(PaymentController.Method.CARD);
+        assertSame(failed, retried);
+        assertEquals(PaymentStatus.COMPLETED, payments.authorizePayment().get(10, TimeUnit.SECONDS).getStatus());
+        assertEquals(List.of(failed.getId(), failed.getId()), keys);
+
+        // Another method is another payment
+        answers.add(CompletableFuture.completedFuture(Authorization.declined("Insufficient funds")));
+        Payment wallet = controller.startPayment(PaymentController.Method.MOBILE_WALLET);
+        assertNotSame(failed, wallet);
+        payments.authorizePayment().get(10, TimeUnit.SECONDS);
+        assertEquals(PaymentStatus.DECLINED, wallet.getStatus());
+        // and a declined one is not retried
+        assertNotSame(wallet, controller.startPayment(PaymentController.Method.MOBILE_WALLET));
+
+        long orders = journaled().stream().filter(r -> r instanceof JournalRecord.Order).count();
+        assertEquals(3, orders);
+    }
+
+    @Test
+    void cancelledCashFlow_isJournaledCancelled_andUploadsNothing() throws Exception {
+        new PaymentController(navigator, session, null, null, null, payments)
+                .startPayment(PaymentController.Method.CASH);
+        Payment payment = payments.getCurrentPayment();
+        new CashSubmissionController(navigator, session, null, null, null, payments).onCancelCashPayment(null);
+
+        assertEquals(PaymentStatus.CANCELLED, payment.getStatus());
+        assertEquals(List.of(Screen.HOME), shown);
+        List<JournalRecord> records = journaled();
+        JournalRecord last = records.get(records.size() - 1);
+        assertEquals(PaymentStatus.CANCELLED, ((JournalRecord.Transition) last).getTo());
+
+        AtomicInteger uploads = new AtomicInteger();
+        try (TransactionJournal journal = TransactionJournal.open(dir, 1 << 20, null);
+             SettlementUploader uploader = new SettlementUploader(journal, batch -> {
+                 uploads.incrementAndGet();
+                 return CompletableFuture.completedFuture(null);
+             }, "kiosk-7", 10, 2, 5, 5, 50)) {
+            uploader.start();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+            while (uploader.getScannedSequence() < journal.getCommittedSequence()) {
+                assertTrue(System.nanoTime() < deadline, "timed out");
+                Thread.sleep(10);
+            }
+            assertEquals(0, uploader.getAcknowledgedSequence());
+        }
+        assertEquals(0, uploads.get());
+    }
+}
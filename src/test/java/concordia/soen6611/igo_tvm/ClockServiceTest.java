@@ -0,0 +1,31 @@
+package concordia.soen6611.igo_tvm;
+
+import concordia.soen6611.igo_tvm.Services.ClockService;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClockServiceTest {
+
+    @Test
+    void time_isTruncatedToTheMinute() {
+        Clock fixed = Clock.fixed(Instant.parse("2025-03-14T09:26:53.589Z"), ZoneOffset.UTC);
+        ClockService clock = new ClockService(fixed);
+
+        assertEquals(LocalDateTime.of(2025, 3, 14, 9, 26), clock.timeProperty().get());
+        assertEquals(LocalDateTime.of(2025, 3, 14, 9, 26).format(ClockService.CLOCK_FMT),
+                clock.textProperty().get());
+    }
+
+    @Test
+    void millisUntilNextMinute_alignsToBoundary() {
+        assertEquals(60_000, ClockService.millisUntilNextMinute(LocalDateTime.of(2025, 1, 1, 12, 0, 0)));
+        assertEquals(1_500, ClockService.millisUntilNextMinute(LocalDateTime.of(2025, 1, 1, 12, 0, 58, 500_000_000)));
+        assertEquals(1, ClockService.millisUntilNextMinute(LocalDateTime.of(2025, 1, 1, 23, 59, 59, 999_999_999)));
+    }
+}
@@ -0,0 +1,214 @@
+package concordia.soen6611.igo_tvm;
+
+import concordia.soen6611.igo_tvm.Services.ViewLoader;
+import concordia.soen6611.igo_tvm.models.Screen;
+import javafx.css.CssParser;
+import javafx.css.Stylesheet;
+import javafx.scene.Group;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testfx.api.FxToolkit;
+import org.testfx.util.WaitForAsyncUtils;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Measures what stylesheets cost per screen transition with text CSS versus the
+ * build-time binary CSS ({@code *.bss}, see {@code src/build/java/CssCompiler.java}).
+ * <p>
+ * Runs only with {@code mvn -Pbench test}. Two measurements, written as CSV under
+ * {@code target/bench}:
+ * </p>
+ * <ul>
+ *   <li>{@code css-parse.csv} – loading each stylesheet from text vs from its
+ *       {@code .bss}, median and p90.</li>
+ *   <li>{@code css-apply.csv} – parse + apply on a freshly built screen, the way a
+ *       transition pays for it. "Before" gives the screen text copies of its
+ *       stylesheets under a fresh location each time, so they are parsed on every
+ *       transition as they were before the stylesheets were shared; "after" uses the
+ *       packaged stylesheets (binary, kept parsed by a live holder as the navigator
+ *       does), so only the apply remains.</li>
+ * </ul>
+ */
+class CssBenchmarkTest {
+
+    private static final int ITERATIONS = Integer.getInteger("bench.iterations", 200);
+    private static final int WARMUP = Math.max(10, ITERATIONS / 10);
+
+    private static ConfigurableApplicationContext context;
+
+    @AfterAll
+    static void shutdown() throws Exception {
+        if (context != null) {
+            FxToolkit.cleanupStages();
+            context.close();
+        }
+    }
+
+    @Test
+    void binaryStylesheets_loadFasterThanText() throws Exception {
+        Path dir = stylesDir();
+        List<Path> sheets;
+        try (Stream<Path> list = Files.list(dir)) {
+            sheets = list.filter(p -> p.toString().endsWith(".css")).sorted().toList();
+        }
+        assertFalse(sheets.isEmpty(), "no stylesheets under " + dir);
+
+        double textTotal = 0;
+        double binaryTotal = 0;
+        try (PrintWriter w = csv("css-parse.csv")) {
+            w.println("stylesheet,textMedianMs,binaryMedianMs,textP90Ms,binaryP90Ms");
+            for (Path css : sheets) {
+                Path bss = Path.of(css.toString().replaceFirst("\\.css$", ".bss"));
+                assertTrue(Files.exists(bss), "missing compiled " + bss.getFileName());
+                URL textUrl = css.toUri().toURL();
+                URL binaryUrl = bss.toUri().toURL();
+
+                // The binary form must hold the same rules as the text it was compiled from
+                Stylesheet text = new CssParser().parse(textUrl);
+                Stylesheet binary = Stylesheet.loadBinary(binaryUrl);
+                assertEquals(text.getRules().size(), binary.getRules().size(), css.getFileName().toString());
+
+                long[] textNanos = new long[ITERATIONS];
+                long[] binaryNanos = new long[ITERATIONS];
+                for (int i = -WARMUP; i < ITERATIONS; i++) {
+                    long a = System.nanoTime();
+                    new CssParser().parse(textUrl);
+                    long b = System.nanoTime();
+                    Stylesheet.loadBinary(binaryUrl);
+                    long c = System.nanoTime();
+                    if (i >= 0) {
+                        textNanos[i] = b - a;
+                        binaryNanos[i] = c - b;
+                    }
+                }
+                double textMedian = percentile(textNanos, 50);
+                double binaryMedian = percentile(binaryNanos, 50);
+                textTotal += textMedian;
+                binaryTotal += binaryMedian;
+                System.out.printf("[bench] %-22s parse %6.3f ms (text) -> %6.3f ms (bss)%n",
+                        css.getFileName(), textMedian, binaryMedian);
+                w.printf("%s,%.4f,%.4f,%.4f,%.4f%n", css.getFileName(), textMedian, binaryMedian,
+                        percentile(textNanos, 90), percentile(binaryNanos, 90));
+            }
+        }
+        System.out.printf("[bench] all stylesheets: %.3f ms (text) vs %.3f ms (bss)%n", textTotal, binaryTotal);
+        assertTrue(binaryTotal < textTotal, "binary CSS should load faster: " + binaryTotal + " vs " + textTotal);
+    }
+
+    @Test
+    void screenTransitions_applyCss() throws Exception {
+        FxToolkit.registerPrimaryStage();
+        context = new SpringApplicationBuilder(IGoApplication.class)
+                .web(WebApplicationType.NONE)
+                .run();
+        ViewLoader viewLoader = context.getBean(ViewLoader.class);
+        Path textCopies = Files.createTempDirectory("igo-css");
+
+        // Keep the packaged stylesheets parsed, as the navigator's stylesheet holder does
+        Group holder = new Group();
+        Scene holderScene = WaitForAsyncUtils.asyncFx(() -> new Scene(holder)).get();
+
+        double beforeTotal = 0;
+        double afterTotal = 0;
+        try (PrintWriter w = csv("css-apply.csv")) {
+            w.println("screen,beforeMedianMs,afterMedianMs,beforeP90Ms,afterP90Ms");
+            for (Screen screen : Screen.values()) {
+                List<String> sheets = new ArrayList<>(viewLoader.load(screen.fxml()).getRoot().getStylesheets());
+                if (sheets.isEmpty()) {
+                    continue;
+                }
+                WaitForAsyncUtils.asyncFx(() -> {
+                    holder.getStylesheets().addAll(sheets);
+                    holder.applyCss();
+                }).get();
+
+                long[] before = new long[ITERATIONS];
+                long[] after = new long[ITERATIONS];
+                for (int i = -WARMUP; i < ITERATIONS; i++) {
+                    Parent textRoot = viewLoader.load(screen.fxml()).getRoot();
+                    textRoot.getStylesheets().setAll(textCopies(sheets, textCopies.resolve("run" + i)));
+                    Parent binaryRoot = viewLoader.load(screen.fxml()).getRoot();
+                    long beforeNanos = applyCss(textRoot);
+                    long afterNanos = applyCss(binaryRoot);
+                    if (i >= 0) {
+                        before[i] = beforeNanos;
+                        after[i] = afterNanos;
+                    }
+                }
+                double beforeMedian = percentile(before, 50);
+                double afterMedian = percentile(after, 50);
+                beforeTotal += beforeMedian;
+                afterTotal += afterMedian;
+                System.out.printf("[bench] %-20s css per transition %6.3f ms -> %6.3f ms%n",
+                        screen, beforeMedian, afterMedian);
+                w.printf("%s,%.4f,%.4f,%.4f,%.4f%n", screen, beforeMedian, afterMedian,
+                        percentile(before, 90), percentile(after, 90));
+            }
+        }
+        System.out.printf("[bench] all screens: css %.3f ms (text, parsed per transition) vs %.3f ms (shared bss)%n",
+                beforeTotal, afterTotal);
+        assertNotNull(holderScene);
+        assertTrue(afterTotal < beforeTotal,
+                "shared binary stylesheets should apply faster: " + afterTotal + " vs " + beforeTotal);
+    }
+
+    /** Puts {@code root} in a new scene and times its first CSS pass on the FX thread. */
+    private static long applyCss(Parent root) throws ExecutionException, InterruptedException {
+        return WaitForAsyncUtils.asyncFx(() -> {
+            new Scene(root);
+            long start = System.nanoTime();
+            root.applyCss();
+            return System.nanoTime() - start;
+        }).get();
+    }
+
+    /** Copies the text stylesheets into {@code dir} (no {@code .bss} beside them) and returns their URLs. */
+    private static List<String> textCopies(List<String> urls, Path dir) throws IOException, URISyntaxException {
+        Files.createDirectories(dir);
+        List<String> copies = new ArrayList<>();
+        for (String url : urls) {
+            Path source = Path.of(new URL(url).toURI());
+            Path copy = dir.resolve(source.getFileName());
+            Files.copy(source, copy);
+            copies.add(copy.toUri().toURL().toExternalForm());
+        }
+        return copies;
+    }
+
+    private static Path stylesDir() throws URISyntaxException {
+        URL theme = CssBenchmarkTest.class.getResource("/styles/Theme.css");
+        assertNotNull(theme, "/styles/Theme.css not on the classpath");
+        return Path.of(theme.toURI()).getParent();
+    }
+
+    private static PrintWriter csv(String name) throws IOException {
+        Path out = Path.of("target", "bench", name);
+        Files.createDirectories(out.getParent());
+        return new PrintWriter(Files.newBufferedWriter(out));
+    }
+
+    private static double percentile(long[] nanos, int p) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        int index = Math.min(sorted.length - 1, (int) Math.ceil(p / 100.0 * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+}
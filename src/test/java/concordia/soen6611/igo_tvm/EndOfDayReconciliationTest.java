@@ -0,0 +1,98 @@
+package concordia.soen6611.igo_tvm;
+
+import concordia.soen6611.igo_tvm.Services.EndOfDayReconciliation;
+import concordia.soen6611.igo_tvm.Services.TransactionJournal;
+import concordia.soen6611.igo_tvm.models.JournalRecord;
+import concordia.soen6611.igo_tvm.models.Money;
+import concordia.soen6611.igo_tvm.models.OrderSummary;
+import concordia.soen6611.igo_tvm.models.Payment;
+import concordia.soen6611.igo_tvm.models.PaymentStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EndOfDayReconciliationTest {
+
+    private static final ZoneId ZONE = ZoneId.of("America/Toronto");
+    private static final LocalTime RUN_AT = LocalTime.of(0, 5);
+
+    @TempDir
+    Path dir;
+
+    private static Instant at(String localTime) {
+        return LocalDateTime.parse(localTime).atZone(ZONE).toInstant();
+    }
+
+    /** Journals a completed sale of {@code total}, collected in full at {@code ended}. */
+    private static void sell(TransactionJournal journal, String total, Instant ended) throws Exception {
+        Payment payment = new Payment("Card", Money.parse(total));
+        journal.append(JournalRecord.order(payment, new OrderSummary("Adult", "Single Trip", 1, 1,
+                Money.parse(total), Money.parse(total), 1), ended.minusSeconds(60)));
+        journal.append(JournalRecord.transition(payment, PaymentStatus.PENDING, PaymentStatus.PROCESSING,
+                ended.minusSeconds(30)));
+        payment.setCaptured(Money.parse(total), Money.ZERO);
+        journal.append(JournalRecord.transition(payment, PaymentStatus.PROCESSING, PaymentStatus.COMPLETED, ended))
+                .get(10, TimeUnit.SECONDS);
+    }
+
+    private TransactionJournal threeDays() throws Exception {
+        TransactionJournal journal = TransactionJournal.open(dir.resolve("journal"), 1 << 20, null);
+        sell(journal, "3.75", at("2025-03-03T23:50"));
+        sell(journal, "7.50", at("2025-03-04T09:00"));
+        sell(journal, "11.00", at("2025-03-04T23:59"));
+        sell(journal, "5.00", at("2025-03-05T00:01"));
+        return journal;
+    }
+
+    @Test
+    void reconcile_writesTheDaysReports_withOnlyThatDaysSales() throws Exception {
+        Path reports = dir.resolve("reports");
+        try (TransactionJournal journal = threeDays();
+             EndOfDayReconciliation job = new EndOfDayReconciliation(journal, reports, ZONE, RUN_AT,
+                     Clock.fixed(at("2025-03-05T00:05"), ZONE))) {
+            assertEquals(reports.resolve("2025-03-04.csv"), job.reconcile(LocalDate.of(2025, 3, 4)));
+        }
+
+        List<String> csv = Files.readAllLines(reports.resolve("2025-03-04.csv"));
+        assertEquals(List.of(
+                "period_start,period_end,line,rider_type,product,method,count,items,amount,"
+                        + "expected,collected,discrepancy,declined,cancelled,unmatched",
+                "2025-03-04T00:00-05:00,2025-03-05T00:00-05:00,sales,Adult,Single Trip,Card,2,2,18.50,,,,,,",
+                "2025-03-04T00:00-05:00,2025-03-05T00:00-05:00,payment,,,Card,2,,,18.50,18.50,0.00,0,0,0",
+                ",,in_doubt,,,,0,,0.00,,,,,,"), csv);
+        assertTrue(Files.readString(reports.resolve("2025-03-04.json")).contains("\"sales\":2"));
+        try (var files = Files.list(reports)) {
+            assertEquals(2, files.count()); // no temporary file left behind
+        }
+    }
+
+    @Test
+    void start_reconcilesTheDayMissedWhileTheKioskWasOff() throws Exception {
+        Path reports = dir.resolve("reports");
+        Path missed = reports.resolve("2025-03-04.csv");
+        try (TransactionJournal journal = threeDays();
+             EndOfDayReconciliation job = new EndOfDayReconciliation(journal, reports, ZONE, RUN_AT,
+                     Clock.fixed(at("2025-03-05T08:00"), ZONE))) {
+            job.start();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+            while (!Files.exists(missed)) {
+                assertTrue(System.nanoTime() < deadline, "timed out");
+                Thread.sleep(10);
+            }
+        }
+        assertFalse(Files.exists(reports.resolve("2025-03-05.csv"))); // not over yet
+        assertFalse(Files.exists(reports.resolve("2025-03-03.csv"))); // further back: not caught up
+    }
+}
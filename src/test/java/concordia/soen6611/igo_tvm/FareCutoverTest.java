@@ -0,0 +1,159 @@
+package concordia.soen6611.igo_tvm;
+
+import concordia.soen6611.igo_tvm.Services.FareCutoverScheduler;
+import concordia.soen6611.igo_tvm.models.FareProduct;
+import concordia.soen6611.igo_tvm.models.FareSnapshot;
+import concordia.soen6611.igo_tvm.models.FareTable;
+import concordia.soen6611.igo_tvm.models.MetroRatePassProxy;
+import concordia.soen6611.igo_tvm.models.Money;
+import concordia.soen6611.igo_tvm.models.RiderType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FareCutoverTest {
+
+    private static final Instant MIDNIGHT = Instant.parse("2026-11-01T04:00:00Z");
+
+    /** A clock the test moves by hand. */
+    private static final class ManualClock extends Clock {
+        final AtomicLong millis = new AtomicLong();
+
+        ManualClock(Instant start) {
+            millis.set(start.toEpochMilli());
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long millis() {
+            return millis.get();
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis.get());
+        }
+    }
+
+    /** The built-in fares with every price raised by {@code cents}, as {@code version}. */
+    private static FareSnapshot raised(long version, Instant effective, long cents) {
+        FareSnapshot base = MetroRatePassProxy.builtIn();
+        FareTable.Builder fares = FareTable.builder();
+        for (RiderType rider : RiderType.values()) {
+            for (FareProduct product : FareProduct.values()) {
+                fares.fare(rider, product, base.getFares().fare(rider, product).plus(Money.ofCents(cents)));
+            }
+        }
+        return new FareSnapshot(version, effective, fares.build(), base.getGST(), base.getQST());
+    }
+
+    @Test
+    void upcomingSnapshot_takesEffectExactlyAtItsInstant() {
+        ManualClock clock = new ManualClock(MIDNIGHT.minusSeconds(60));
+        MetroRatePassProxy proxy = new MetroRatePassProxy(clock);
+        AtomicInteger changes = new AtomicInteger();
+        proxy.addListener(changes::incrementAndGet);
+        FareSnapshot november = raised(2, MIDNIGHT, 25);
+
+        assertTrue(proxy.publish(november));
+        assertEquals(1, changes.get());
+        assertEquals(0, proxy.getSnapshot().getVersion());
+        assertSame(november, proxy.getUpcoming());
+
+        clock.millis.set(MIDNIGHT.toEpochMilli() - 1);
+        assertEquals(Money.parse("3.75"), proxy.getRate(RiderType.ADULT, FareProduct.SINGLE_TRIP));
+        clock.millis.set(MIDNIGHT.toEpochMilli());
+        assertEquals(Money.parse("4.00"), proxy.getRate(RiderType.ADULT, FareProduct.SINGLE_TRIP));
+        assertSame(november, proxy.getSnapshot());
+        assertNull(proxy.getUpcoming());
+        assertEquals(2, changes.get());
+    }
+
+    @Test
+    void publish_keepsOneUpcomingSnapshot_andNeverRollsBack() {
+        ManualClock clock = new ManualClock(MIDNIGHT.minusSeconds(3600));
+        MetroRatePassProxy proxy = new MetroRatePassProxy(clock);
+        FareSnapshot first = raised(2, MIDNIGHT, 25);
+        FareSnapshot corrected = raised(3, MIDNIGHT.plusSeconds(60), 50);
+
+        assertTrue(proxy.publish(first));
+        assertTrue(proxy.publish(corrected));
+        assertFalse(proxy.publish(first));
+        assertSame(corrected, proxy.getUpcoming());
+
+        // An immediate change older than the upcoming one is applied and keeps it scheduled
+        FareSnapshot fix = raised(1, Instant.EPOCH, 5);
+        assertTrue(proxy.publish(fix));
+        assertSame(fix, proxy.getSnapshot());
+        assertSame(corrected, proxy.getUpcoming());
+
+        clock.millis.set(MIDNIGHT.plusSeconds(3600).toEpochMilli());
+        assertSame(corrected, proxy.getSnapshot());
+        assertFalse(proxy.publish(raised(3, Instant.EPOCH, 0)));
+    }
+
+    @Test
+    void quotedSnapshot_keepsItsPriceAcrossTheCutover() {
+        ManualClock clock = new ManualClock(MIDNIGHT.minusSeconds(1));
+        MetroRatePassProxy proxy = new MetroRatePassProxy(clock);
+        proxy.publish(raised(2, MIDNIGHT, 100));
+
+        FareSnapshot quoted = proxy.getSnapshot();
+        Money subtotal = quoted.getFares().fare(RiderType.ADULT, FareProduct.SINGLE_TRIP).times(2);
+        Money quote = subtotal.plus(quoted.taxOn(subtotal));
+
+        clock.millis.set(MIDNIGHT.toEpochMilli());
+        assertEquals(2, proxy.getSnapshot().getVersion());
+        // The order is charged from the snapshot it was quoted from
+        Money charged = subtotal.plus(quoted.taxOn(subtotal));
+        assertEquals(quote, charged);
+        assertEquals(Money.parse("8.63"), charged);
+        Money repriced = proxy.getRate(RiderType.ADULT, FareProduct.SINGLE_TRIP).times(2);
+        assertEquals(Money.parse("10.93"), repriced.plus(proxy.getSnapshot().taxOn(repriced)));
+    }
+
+    @Test
+    void scheduler_flipsAtTheEffectiveInstant_withoutALookup() throws Exception {
+        Clock clock = Clock.systemUTC();
+        MetroRatePassProxy proxy = new MetroRatePassProxy(clock);
+        Instant effective = clock.instant().plusMillis(300);
+        FareSnapshot next = raised(2, effective, 25);
+        AtomicLong flippedAt = new AtomicLong();
+        try (FareCutoverScheduler scheduler = new FareCutoverScheduler(proxy, clock)) {
+            scheduler.start();
+            assertNull(scheduler.getScheduled());
+            proxy.addListener(() -> {
+                if (Thread.currentThread().getName().equals("fare-cutover")) {
+                    flippedAt.compareAndSet(0, clock.millis());
+                }
+            });
+            proxy.publish(next);
+            assertSame(next, scheduler.getScheduled());
+
+            long deadline = System.nanoTime() + 10_000_000_000L;
+            while (flippedAt.get() == 0) {
+                assertTrue(System.nanoTime() < deadline, "fare cutover did not happen");
+                Thread.sleep(10);
+            }
+            assertTrue(flippedAt.get() >= effective.toEpochMilli(), "flipped early");
+            assertSame(next, proxy.getSnapshot());
+            assertNull(scheduler.getScheduled());
+        }
+    }
+}
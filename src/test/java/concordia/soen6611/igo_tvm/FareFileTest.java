@@ -0,0 +1,159 @@
+package concordia.soen6611.igo_tvm;
+
+import concordia.soen6611.igo_tvm.Services.FareFileWatcher;
+import concordia.soen6611.igo_tvm.Services.FareRateServiceImpl;
+import concordia.soen6611.igo_tvm.models.FareFile;
+import concordia.soen6611.igo_tvm.models.FareProduct;
+import concordia.soen6611.igo_tvm.models.FareSnapshot;
+import concordia.soen6611.igo_tvm.models.FareTable;
+import concordia.soen6611.igo_tvm.models.MetroRatePassProxy;
+import concordia.soen6611.igo_tvm.models.Money;
+import concordia.soen6611.igo_tvm.models.RiderType;
+import concordia.soen6611.igo_tvm.models.TaxRate;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.function.BooleanSupplier;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FareFileTest {
+
+    /** The built-in fares with every price raised by {@code cents}, as {@code version}. */
+    private static FareSnapshot raised(long version, long cents) {
+        FareSnapshot base = MetroRatePassProxy.builtIn();
+        FareTable.Builder fares = FareTable.builder();
+        for (RiderType rider : RiderType.values()) {
+            for (FareProduct product : FareProduct.values()) {
+                fares.fare(rider, product, base.getFares().fare(rider, product).plus(Money.ofCents(cents)));
+            }
+        }
+        return new FareSnapshot(version, fares.build(), base.getGST(), base.getQST());
+    }
+
+    /** Replaces the checksum line of {@code text} with the right one. */
+    private static String withChecksum(String text) {
+        String body = text.substring(0, text.lastIndexOf("crc32 "));
+        CRC32 crc = new CRC32();
+        crc.update(body.getBytes(StandardCharsets.US_ASCII));
+        return body + String.format("crc32 %08x%n", crc.getValue());
+    }
+
+    @Test
+    void writeThenRead_roundTrips(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("fares.txt");
+        FareSnapshot snapshot = raised(3, 25);
+        FareFile.write(snapshot, file);
+        assertEquals(snapshot, FareFile.read(file));
+        assertEquals(MetroRatePassProxy.builtIn(), readBytes(dir, FareFile.encode(MetroRatePassProxy.builtIn())));
+        assertFalse(Files.exists(dir.resolve("fares.txt.tmp")));
+
+        // Comments, blank lines and CRLF line ends are accepted
+        String text = new String(FareFile.encode(snapshot), StandardCharsets.US_ASCII);
+        String edited = withChecksum(("# published by ops\n\n" + text).replace("\n", "\r\n"));
+        assertEquals(snapshot, readBytes(dir, edited.getBytes(StandardCharsets.US_ASCII)));
+
+        // An effective date-time keeps its instant, whatever offset it was written with
+        FareSnapshot dated = new FareSnapshot(4, Instant.parse("2026-11-01T04:00:00Z"),
+                snapshot.getFares(), snapshot.getGST(), snapshot.getQST());
+        assertEquals(dated, readBytes(dir, FareFile.encode(dated)));
+        String local = withChecksum(new String(FareFile.encode(dated), StandardCharsets.US_ASCII)
+                .replace("2026-11-01T04:00:00Z", "2026-11-01T00:00-04:00"));
+        assertEquals(dated, readBytes(dir, local.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    @Test
+    void read_rejectsDamagedOrIncompleteFiles(@TempDir Path dir) throws Exception {
+        byte[] good = FareFile.encode(raised(3, 0));
+        String text = new String(good, StandardCharsets.US_ASCII);
+
+        // Edited without updating the checksum
+        assertRejected(dir, text.replace("fare ADULT SINGLE_TRIP 3.75", "fare ADULT SINGLE_TRIP 0.75"), "checksum");
+        // Truncated
+        assertRejected(dir, text.substring(0, text.length() / 2), "checksum");
+        // Missing, duplicated and free fares, even with a correct checksum
+        assertRejected(dir, withChecksum(text.replace("fare SENIOR WEEKLY_PASS 20.00\n", "")), "Senior Weekly Pass has no fare");
+        assertRejected(dir, withChecksum(text.replace("fare SENIOR WEEKLY_PASS 20.00\n",
+                "fare STUDENT WEEKLY_PASS 20.00\n")), "Student Weekly Pass given twice");
+        assertRejected(dir, withChecksum(text.replace("fare TOURIST DAY_PASS 12.00", "fare TOURIST DAY_PASS 0")), "is free");
+        // Bad header, names and numbers
+        assertRejected(dir, withChecksum(text.replace("igo-fares 1", "igo-fares 2")), "expected");
+        assertRejected(dir, withChecksum(text.replace("fare ADULT", "fare CHILD")), "CHILD");
+        assertRejected(dir, withChecksum(text.replace("qst 9.975", "qst 9,975")), "not a percentage");
+        assertRejected(dir, withChecksum(text.replace("version 3", "")), "required");
+        assertRejected(dir, withChecksum(text.replace("version 3", "version 3\neffective 2026-11-01T00:00")), "offset");
+        assertRejected(dir, "", "size 0");
+        assertThrows(IOException.class, () -> FareFile.read(dir.resolve("missing.txt")));
+    }
+
+    @Test
+    void watcher_publishesNewerFiles_andKeepsLastGoodOnBadOnes(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("fares.txt");
+        MetroRatePassProxy proxy = new MetroRatePassProxy();
+        try (FareFileWatcher watcher = new FareFileWatcher(file, proxy)) {
+            assertFalse(watcher.reload());
+            assertEquals(0, proxy.getSnapshot().getVersion());
+            watcher.start();
+
+            FareFile.write(raised(1, 100), file);
+            await(() -> proxy.getSnapshot().getVersion() == 1);
+            assertEquals(Money.parse("4.75"), proxy.getRate(RiderType.ADULT, FareProduct.SINGLE_TRIP));
+
+            // A corrupt file and a stale version are both ignored
+            Files.writeString(file, "igo-fares 1\nversion 9\n");
+            assertFalse(watcher.reload());
+            FareFile.write(raised(1, 500), file);
+            assertFalse(watcher.reload());
+            assertEquals(Money.parse("4.75"), proxy.getRate(RiderType.ADULT, FareProduct.SINGLE_TRIP));
+
+            FareFile.write(raised(2, 200), file);
+            await(() -> proxy.getSnapshot().getVersion() == 2);
+            assertEquals(Money.parse("5.75"), proxy.getRate(RiderType.ADULT, FareProduct.SINGLE_TRIP));
+        }
+    }
+
+    @Test
+    void service_loadsConfiguredFile_andPricesTaxFromOneSnapshot(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("fares.txt");
+        FareSnapshot base = raised(5, 0);
+        FareFile.write(new FareSnapshot(5, base.getFares(), TaxRate.parsePercent("5"), TaxRate.parsePercent("10")), file);
+        FareRateServiceImpl service = new FareRateServiceImpl(file.toString());
+        try {
+            assertEquals(TaxRate.parsePercent("15"), service.getTax());
+            assertEquals(Money.parse("1.50"), service.taxOn(Money.parse("10.00")));
+        } finally {
+            service.close();
+        }
+        FareRateServiceImpl missing = new FareRateServiceImpl(dir.resolve("none.txt").toString());
+        try {
+            assertEquals(MetroRatePassProxy.builtIn().getTaxRate(), missing.getTax());
+        } finally {
+            missing.close();
+        }
+    }
+
+    private static FareSnapshot readBytes(Path dir, byte[] bytes) throws IOException {
+        Path file = Files.createTempFile(dir, "fares", ".txt");
+        Files.write(file, bytes);
+        return FareFile.read(file);
+    }
+
+    private static void assertRejected(Path dir, String text, String reason) {
+        IOException e = assertThrows(IOException.class, () -> readBytes(dir, text.getBytes(StandardCharsets.US_ASCII)));
+        assertTrue(e.getMessage().contains(reason), e.getMessage());
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out waiting for the fare file to be published");
+            Thread.sleep(20);
+        }
+    }
+}
@@ -1,36 +1,82 @@
 package concordia.soen6611.igo_tvm;
 
-import concordia.soen6611.igo_tvm.Services.FareRateService;
 import concordia.soen6611.igo_tvm.Services.FareRateServiceImpl;
+import concordia.soen6611.igo_tvm.models.FareProduct;
+import concordia.soen6611.igo_tvm.models.Money;
+import concordia.soen6611.igo_tvm.models.RiderType;
+import concordia.soen6611.igo_tvm.models.TaxRate;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class FareRateServiceImplTest {
 
-    private final FareRateService svc = new FareRateServiceImpl();
+    private final FareRateServiceImpl svc = new FareRateServiceImpl();
+
+    @AfterEach
+    void closeRates() throws IOException {
+        svc.close();
+    }
 
     @Test
     void getRate_knownKeys_returnPositive() {
-        assertTrue(svc.getRate("Adult", "Single Trip") > 0.0);
-        assertTrue(svc.getRate("Student", "Monthly Pass") > 0.0);
+        assertTrue(svc.getRate(RiderType.ADULT, FareProduct.SINGLE_TRIP).compareTo(Money.ZERO) > 0);
+        assertTrue(svc.getRate(RiderType.STUDENT, FareProduct.MONTHLY_PASS).compareTo(Money.ZERO) > 0);
     }
 
     @Test
-    void getRate_unknownKey_returnsZero() {
-        assertEquals(0.0, svc.getRate("Unknown", "Nope"));
+    void getRate_everyRiderAndProduct_isPriced() {
+        for (RiderType rider : RiderType.values()) {
+            for (FareProduct product : FareProduct.values()) {
+                assertTrue(svc.getRate(rider, product).compareTo(Money.ZERO) > 0, rider + " " + product);
+            }
+        }
     }
 
     @Test
     void taxes_areConsistent() {
-        double gst = svc.getGST();
-        double qst = svc.getQST();
-        double tax = svc.getTax();
+        TaxRate gst = svc.getGST();
+        TaxRate qst = svc.getQST();
+        TaxRate tax = svc.getTax();
 
-        assertTrue(gst > 0.0);
-        assertTrue(qst > 0.0);
-        assertEquals(gst + qst, tax, 1e-9);
+        assertTrue(gst.millionths() > 0);
+        assertTrue(qst.millionths() > 0);
+        assertEquals(gst.plus(qst), tax);
+    }
+
+    @Test
+    void taxOn_roundsGstAndQstSeparately() {
+        // $11.00: GST 0.55, QST 1.09725 -> 1.10
+        assertEquals(Money.ofCents(165), svc.taxOn(Money.ofCents(1100)));
+        // $0.10: GST 0.005 -> 0.01, QST 0.009975 -> 0.01; 14.975% once would give 0.01
+        assertEquals(Money.ofCents(2), svc.taxOn(Money.ofCents(10)));
+        assertEquals(Money.ZERO, svc.taxOn(Money.ZERO));
+    }
+
+    @Test
+    void close_beforeTheLoadFinishes_leavesNoSchedulerRunning() throws Exception {
+        Set<Thread> before = cutoverThreads();
+        FareRateServiceImpl early = new FareRateServiceImpl();
+        early.close();
+        assertTrue(early.getSnapshot().getVersion() >= 0); // the load still completes
+        Set<Thread> started = cutoverThreads();
+        started.removeAll(before);
+        assertTrue(started.isEmpty(), started + " still running");
     }
-}
 
+    private static Set<Thread> cutoverThreads() {
+        Set<Thread> threads = new HashSet<>();
+        for (Thread t : Thread.getAllStackTraces().keySet()) {
+            if (t.getName().equals("fare-cutover") && t.isAlive()) {
+                threads.add(t);
+            }
+        }
+        return threads;
+    }
+}
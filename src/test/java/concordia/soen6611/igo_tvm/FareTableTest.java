@@ -0,0 +1,98 @@
+package concordia.soen6611.igo_tvm;
+
+import concordia.soen6611.igo_tvm.models.FareProduct;
+import concordia.soen6611.igo_tvm.models.FareTable;
+import concordia.soen6611.igo_tvm.models.Money;
+import concordia.soen6611.igo_tvm.models.PassType;
+import concordia.soen6611.igo_tvm.models.RiderType;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FareTableTest {
+
+    /** A complete table where every fare is distinct: rider * 1000 + product * 100 + 100 cents. */
+    private static FareTable.Builder complete() {
+        FareTable.Builder builder = FareTable.builder();
+        for (RiderType rider : RiderType.values()) {
+            for (FareProduct product : FareProduct.values()) {
+                builder.fare(rider, product, Money.ofCents(rider.ordinal() * 1_000L + product.ordinal() * 100L + 100));
+            }
+        }
+        return builder;
+    }
+
+    @Test
+    void fare_returnsTheCellThatWasSet() {
+        FareTable table = complete().build();
+        for (RiderType rider : RiderType.values()) {
+            for (FareProduct product : FareProduct.values()) {
+                assertEquals(Money.ofCents(rider.ordinal() * 1_000L + product.ordinal() * 100L + 100),
+                        table.fare(rider, product), rider + " " + product);
+            }
+        }
+    }
+
+    @Test
+    void build_rejectsMissingAndFreeFares() {
+        FareTable.Builder builder = FareTable.builder();
+        for (RiderType rider : RiderType.values()) {
+            for (FareProduct product : FareProduct.values()) {
+                if (rider != RiderType.SENIOR || product != FareProduct.WEEKLY_PASS) {
+                    builder.fare(rider, product, Money.parse("1.00"));
+                }
+            }
+        }
+        builder.fare(RiderType.TOURIST, FareProduct.DAY_PASS, Money.ZERO);
+        IllegalStateException e = assertThrows(IllegalStateException.class, builder::build);
+        assertTrue(e.getMessage().contains("Senior Weekly Pass has no fare"), e.getMessage());
+        assertTrue(e.getMessage().contains("Tourist Day Pass is free"), e.getMessage());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> builder.fare(RiderType.ADULT, FareProduct.DAY_PASS, Money.parse("-1.00")));
+    }
+
+    @Test
+    void builtTable_isNotChangedByItsBuilder() {
+        FareTable.Builder builder = complete();
+        FareTable table = builder.build();
+        builder.fare(RiderType.ADULT, FareProduct.SINGLE_TRIP, Money.parse("99.00"));
+        assertEquals(Money.ofCents(100), table.fare(RiderType.ADULT, FareProduct.SINGLE_TRIP));
+        assertNotEquals(table, builder.build());
+        assertEquals(table, complete().build());
+    }
+
+    @Test
+    void labels_mapBothWays() {
+        for (RiderType rider : RiderType.values()) {
+            assertSame(rider, RiderType.fromLabel(rider.label()));
+        }
+        for (FareProduct product : FareProduct.values()) {
+            assertSame(product, FareProduct.fromLabel(" " + product.label() + " "));
+        }
+        assertThrows(IllegalArgumentException.class, () -> RiderType.fromLabel("Nope"));
+        assertThrows(IllegalArgumentException.class, () -> FareProduct.fromLabel(null));
+        assertEquals(FareProduct.WEEKLY_PASS, PassType.WEEKLY.product());
+    }
+
+    @Test
+    void fare_doesNotAllocate() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        FareTable table = complete().build();
+        RiderType[] riders = RiderType.values();
+        FareProduct[] products = FareProduct.values();
+        long sink = 0;
+        for (int i = 0; i < 200_000; i++) {
+            sink += table.fare(riders[i % riders.length], products[i % products.length]).cents();
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 100_000; i++) {
+            sink += table.fare(riders[i % riders.length], products[i % products.length]).cents();
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        assertTrue(sink > 0);
+        assertTrue(allocated < 1024, "fare lookup allocated " + allocated + " bytes");
+    }
+}
@@ -0,0 +1,107 @@
+package concordia.soen6611.igo_tvm;
+
+import concordia.soen6611.igo_tvm.Services.I18nService;
+import concordia.soen6611.igo_tvm.Services.MessageKey;
+import javafx.beans.binding.StringBinding;
+import javafx.beans.property.SimpleObjectProperty;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class I18nServiceTest {
+
+    private final I18nService i18n = new I18nService();
+
+    @Test
+    void get_followsCurrentLocale() {
+        assertEquals("Welcome to", i18n.get(MessageKey.WELCOME));
+        i18n.setLocale(Locale.FRENCH);
+        assertEquals("Bienvenue", i18n.get(MessageKey.WELCOME));
+        i18n.setLocale(Locale.CANADA_FRENCH);
+        assertEquals("Français (FR)", i18n.get(MessageKey.HOME_LANG_FR));
+    }
+
+    @Test
+    void unsupportedLanguage_fallsBackToEnglish() {
+        i18n.setLocale(Locale.GERMAN);
+        assertEquals("Metro Ticket System", i18n.get(MessageKey.TITLE));
+        assertFalse(MessageKey.isSupported(Locale.GERMAN));
+        assertTrue(MessageKey.isSupported(Locale.ENGLISH));
+        assertTrue(MessageKey.isSupported(Locale.CANADA_FRENCH));
+    }
+
+    @Test
+    void get_withArguments_formatsPattern() {
+        assertEquals("Total Due: $5.00", i18n.get(MessageKey.PAYMENT_TOTAL_DUE, "$5.00"));
+        i18n.setLocale(Locale.FRENCH);
+        assertEquals("Total à payer : 5,00 $", i18n.get(MessageKey.PAYMENT_TOTAL_TO_PAY, "5,00 $"));
+    }
+
+    @Test
+    void get_withoutArguments_keepsApostrophes() {
+        i18n.setLocale(Locale.FRENCH);
+        assertEquals("Commencer l'Achat", i18n.get(MessageKey.START));
+    }
+
+    @Test
+    void text_isSharedPerKey_andFollowsLocale() {
+        StringBinding welcome = i18n.text(MessageKey.WELCOME);
+        assertSame(welcome, i18n.text(MessageKey.WELCOME));
+        assertEquals("Welcome to", welcome.get());
+
+        i18n.setLocale(Locale.FRENCH);
+        assertFalse(welcome.isValid());
+        assertEquals("Bienvenue", welcome.get());
+    }
+
+    @Test
+    void text_ofObservableKey_followsKeyAndLocale() {
+        SimpleObjectProperty<MessageKey> key = new SimpleObjectProperty<>(MessageKey.TITLE);
+        StringBinding text = i18n.text(key);
+        assertEquals("Metro Ticket System", text.get());
+
+        key.set(MessageKey.START);
+        i18n.setLocale(Locale.FRENCH);
+        assertEquals("Commencer l'Achat", text.get());
+
+        key.set(null);
+        assertEquals("", text.get());
+    }
+
+    @Test
+    void runtimeKeys_resolveThroughTable() {
+        assertSame(MessageKey.HOME_TITLE, MessageKey.of("home.title"));
+        assertEquals("home.title", MessageKey.HOME_TITLE.key());
+        assertEquals("Network Error", i18n.get("exceptionType.NetworkException"));
+        assertNull(MessageKey.of("no.such.key"));
+        assertEquals("no.such.key", i18n.get("no.such.key"));
+    }
+
+    @Test
+    void everyKey_hasTextInEveryLanguage() {
+        for (MessageKey key : MessageKey.values()) {
+            assertFalse(key.text(Locale.ENGLISH).isEmpty(), key.key());
+            assertFalse(key.text(Locale.FRENCH).isEmpty(), key.key());
+        }
+    }
+
+    @Test
+    void lookup_doesNotAllocate() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        MessageKey[] keys = MessageKey.values();
+        int sink = 0;
+        for (int i = 0; i < 200_000; i++) {
+            sink += i18n.get(keys[i % keys.length]).length();
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 100_000; i++) {
+            sink += i18n.get(keys[i % keys.length]).length();
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        assertTrue(sink > 0);
+        assertTrue(allocated < 1024, "lookups allocated " + allocated + " bytes");
+    }
+}
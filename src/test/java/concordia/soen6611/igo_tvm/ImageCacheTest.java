@@ -0,0 +1,87 @@
+package concordia.soen6611.igo_tvm;
+
+import concordia.soen6611.igo_tvm.Services.ImageCache;
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageCacheTest {
+
+    @BeforeAll
+    static void startToolkit() throws InterruptedException {
+        // Image decoding needs the graphics toolkit; run it on the headless platform
+        System.setProperty("glass.platform", "Monocle");
+        System.setProperty("monocle.platform", "Headless");
+        System.setProperty("prism.order", "sw");
+        CountDownLatch started = new CountDownLatch(1);
+        try {
+            Platform.startup(started::countDown);
+        } catch (IllegalStateException alreadyRunning) {
+            started.countDown();
+        }
+        started.await();
+    }
+
+    @Test
+    void sameAssetAndSize_returnsSameInstance() {
+        ImageCache cache = new ImageCache(1.0);
+        Image a = cache.get("/images/maple.png", 32, 32, true, true);
+        Image b = cache.get("/images/maple.png", 32, 32, true, true);
+        assertSame(a, b);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void decodesAtDisplaySize() {
+        ImageCache cache = new ImageCache(1.0);
+        Image card = cache.get("/images/IGO card.png", 0, 280, true, true);
+        assertFalse(card.isError());
+        assertEquals(280, card.getHeight(), 0.5);
+
+        Image small = cache.get("/images/IGO card.png", 0, 140, true, true);
+        assertNotSame(card, small);
+        assertEquals(140, small.getHeight(), 0.5);
+    }
+
+    @Test
+    void renderScale_multipliesDecodedSize() {
+        ImageCache cache = new ImageCache(2.0);
+        Image image = cache.get("/images/maple.png", 32, 32, true, true);
+        assertEquals(64, Math.max(image.getWidth(), image.getHeight()), 0.5);
+    }
+
+    @Test
+    void concurrentRequests_shareOneDecode() throws Exception {
+        ImageCache cache = new ImageCache(1.0);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Image>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                results.add(pool.submit(() -> cache.get("/images/mobile.png", 0, 150, true, true)));
+            }
+            Image first = results.get(0).get();
+            for (Future<Image> f : results) {
+                assertSame(first, f.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void missingAsset_throwsAndIsNotCached() {
+        ImageCache cache = new ImageCache(1.0);
+        assertThrows(IllegalArgumentException.class, () -> cache.get("/images/nope.png", 10, 10, true, true));
+        assertEquals(0, cache.size());
+    }
+}
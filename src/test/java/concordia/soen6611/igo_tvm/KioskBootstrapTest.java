@@ -0,0 +1,49 @@
+package concordia.soen6611.igo_tvm;
+
+import concordia.soen6611.igo_tvm.Services.FareRateService;
+import concordia.soen6611.igo_tvm.Services.ScreenNavigator;
+import concordia.soen6611.igo_tvm.models.FareProduct;
+import concordia.soen6611.igo_tvm.models.Money;
+import concordia.soen6611.igo_tvm.models.RiderType;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KioskBootstrapTest {
+
+    @Test
+    void start_returnsBeforeContextIsReady_thenCompletesWithBeans() throws Exception {
+        KioskBootstrap bootstrap = KioskBootstrap.start(new String[0]);
+        try {
+            // The refresh takes far longer than returning from start()
+            assertFalse(bootstrap.context().isDone());
+
+            ConfigurableApplicationContext context = bootstrap.context().get(60, TimeUnit.SECONDS);
+            assertTrue(context.isActive());
+            assertNotNull(context.getBean(ScreenNavigator.class));
+            assertTrue(context.getBean(FareRateService.class).getRate(RiderType.ADULT, FareProduct.SINGLE_TRIP).compareTo(Money.ZERO) > 0);
+
+            StartupTimeline timeline = bootstrap.timeline();
+            assertSame(timeline, context.getBean(StartupTimeline.class));
+            assertTrue(timeline.getEndMillis(StartupTimeline.Phase.JVM_TO_INIT) >= 0);
+            assertTrue(timeline.getDurationMillis(StartupTimeline.Phase.SPRING_REFRESH) >= 0);
+            assertFalse(timeline.getSlowestBeans().isEmpty());
+        } finally {
+            bootstrap.close();
+        }
+        assertFalse(bootstrap.context().get().isActive());
+    }
+
+    @Test
+    void start_failingContext_completesExceptionally() {
+        KioskBootstrap bootstrap = KioskBootstrap.start(new String[] {"--igo.images.render-scale=-1"});
+        ExecutionException ex = assertThrows(ExecutionException.class,
+                () -> bootstrap.context().get(60, TimeUnit.SECONDS));
+        assertNotNull(ex.getCause());
+        bootstrap.close();
+    }
+}
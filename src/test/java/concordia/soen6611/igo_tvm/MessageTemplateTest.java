@@ -0,0 +1,132 @@
+package concordia.soen6611.igo_tvm;
+
+import concordia.soen6611.igo_tvm.Services.I18nService;
+import concordia.soen6611.igo_tvm.Services.MessageKey;
+import concordia.soen6611.igo_tvm.Services.MessageTemplate;
+import concordia.soen6611.igo_tvm.Services.MoneyFormatter;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageTemplateTest {
+
+    private static final String[] PATTERNS = {
+            "Total Due: {0}",
+            "{0}",
+            "",
+            "no arguments",
+            "{1} before {0}, {0} again",
+            "Commencer l''Achat {0}",
+            "quoted '{0}' and ''{0}''",
+            "missing {3}",
+            "braces } alone",
+            "{0,number,#.##} typed",
+            "{0,choice,0#none|1#one|1<many}",
+    };
+
+    private static final Object[][] ARGUMENTS = {
+            {"$5.00", "x"},
+            {1234567L, -42},
+            {-9_876_543_210L, (short) 7},
+            {3.14159, new BigDecimal("1234.5")},
+            {null, "b"},
+            {new Date(0), 1},
+    };
+
+    @Test
+    void format_matchesMessageFormat() {
+        for (Locale locale : new Locale[] {Locale.CANADA, Locale.CANADA_FRENCH, Locale.FRENCH, Locale.GERMAN}) {
+            for (String pattern : PATTERNS) {
+                MessageTemplate template = MessageTemplate.compile(pattern);
+                for (Object[] args : ARGUMENTS) {
+                    if (pattern.contains("choice") && !(args[0] instanceof Number)) {
+                        continue;
+                    }
+                    if (pattern.contains(",number") && !(args[0] instanceof Number)) {
+                        continue;
+                    }
+                    assertEquals(new MessageFormat(pattern, locale).format(args), template.format(locale, args),
+                            pattern + " " + locale);
+                }
+            }
+        }
+    }
+
+    @Test
+    void singleArgument_fastPaths_matchMessageFormat() {
+        MessageTemplate template = MessageTemplate.compile("Total: {0} ({1})");
+        for (Locale locale : new Locale[] {Locale.CANADA, Locale.CANADA_FRENCH}) {
+            for (long n : new long[] {0, 7, 1_000, -1_234_567, Long.MAX_VALUE, Long.MIN_VALUE}) {
+                assertEquals(new MessageFormat("Total: {0} ({1})", locale).format(new Object[] {n}),
+                        template.format(locale, n), locale + " " + n);
+            }
+            assertEquals("Total: 5,00 $ ({1})", template.format(locale, new StringBuilder("5,00 $")));
+            assertEquals("Total: null ({1})", template.format(locale, (CharSequence) null));
+        }
+    }
+
+    @Test
+    void invalidPattern_isRejected() {
+        assertThrows(IllegalArgumentException.class, () -> MessageTemplate.compile("open {0"));
+        assertThrows(IllegalArgumentException.class, () -> MessageTemplate.compile("{x}"));
+        assertThrows(IllegalArgumentException.class, () -> MessageTemplate.compile("{0,nosuchtype}"));
+    }
+
+    @Test
+    void i18nService_singleArgument_allocatesOnlyTheResult() {
+        I18nService i18n = new I18nService();
+        MoneyFormatter money = new MoneyFormatter();
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        StringBuilder amount = new StringBuilder(32);
+        int sink = 0;
+        for (int i = 0; i < 200_000; i++) {
+            amount.setLength(0);
+            sink += i18n.get(MessageKey.CASH_PAYMENT_TOTAL_DUE, money.appendTo(amount, i, Locale.CANADA)).length();
+            sink += i18n.get(MessageKey.PAYMENT_TOTAL_DUE, (long) i).length();
+        }
+        int calls = 100_000;
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < calls; i++) {
+            amount.setLength(0);
+            sink += i18n.get(MessageKey.CASH_PAYMENT_TOTAL_DUE, money.appendTo(amount, i, Locale.CANADA)).length();
+            sink += i18n.get(MessageKey.PAYMENT_TOTAL_DUE, (long) i).length();
+        }
+        long perCall = (threads.getCurrentThreadAllocatedBytes() - before) / (2L * calls);
+        assertTrue(sink > 0);
+        // One String of about 20 Latin-1 characters: header plus byte array
+        assertTrue(perCall <= 80, "allocated " + perCall + " bytes per message");
+    }
+
+    @Test
+    void template_isSafeToShareAcrossThreads() throws Exception {
+        MessageTemplate template = MessageTemplate.compile("{0} of {1}");
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int thread = t;
+                results.add(pool.submit(() -> {
+                    for (int i = 0; i < 20_000; i++) {
+                        assertEquals(thread + " of " + i, template.format(Locale.ROOT, String.valueOf(thread), String.valueOf(i)));
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
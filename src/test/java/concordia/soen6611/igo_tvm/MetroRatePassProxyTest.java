@@ -1,9 +1,17 @@
 package concordia.soen6611.igo_tvm;
 
+import concordia.soen6611.igo_tvm.models.FareProduct;
+import concordia.soen6611.igo_tvm.models.FareSnapshot;
+import concordia.soen6611.igo_tvm.models.FareTable;
 import concordia.soen6611.igo_tvm.models.MetroRatePassProxy;
+import concordia.soen6611.igo_tvm.models.Money;
+import concordia.soen6611.igo_tvm.models.RiderType;
+import concordia.soen6611.igo_tvm.models.TaxRate;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class MetroRatePassProxyTest {
@@ -11,22 +19,43 @@ class MetroRatePassProxyTest {
     @Test
     void knownRates_presentAndPositive() {
         MetroRatePassProxy proxy = new MetroRatePassProxy();
-        assertTrue(proxy.getRate("Adult_Single Trip") > 0.0);
-        assertTrue(proxy.getRate("Senior_Day Pass") > 0.0);
+        assertTrue(proxy.getRate(RiderType.ADULT, FareProduct.SINGLE_TRIP).compareTo(Money.ZERO) > 0);
+        assertTrue(proxy.getRate(RiderType.SENIOR, FareProduct.DAY_PASS).compareTo(Money.ZERO) > 0);
     }
 
     @Test
-    void unknownRate_defaultsToZero() {
+    void seniorWeeklyPass_hasItsOwnFare() {
         MetroRatePassProxy proxy = new MetroRatePassProxy();
-        assertEquals(0.0, proxy.getRate("Unknown_Key"));
+        assertEquals(Money.parse("20.00"), proxy.getRate(RiderType.SENIOR, FareProduct.WEEKLY_PASS));
+        assertEquals(Money.parse("20.00"), proxy.getRate(RiderType.STUDENT, FareProduct.WEEKLY_PASS));
+    }
+
+    @Test
+    void publish_swapsInNewerSnapshotsOnly() {
+        MetroRatePassProxy proxy = new MetroRatePassProxy();
+        FareTable.Builder builder = FareTable.builder();
+        for (RiderType rider : RiderType.values()) {
+            for (FareProduct product : FareProduct.values()) {
+                builder.fare(rider, product, Money.parse("1.00"));
+            }
+        }
+        FareSnapshot next = new FareSnapshot(7, builder.build(), TaxRate.parsePercent("5"), TaxRate.parsePercent("10"));
+        assertTrue(proxy.publish(next));
+        assertSame(next, proxy.getSnapshot());
+        assertEquals(Money.parse("1.00"), proxy.getRate(RiderType.TOURIST, FareProduct.MONTHLY_PASS));
+        assertEquals(TaxRate.parsePercent("15"), proxy.getTAX_RATE());
+
+        assertFalse(proxy.publish(MetroRatePassProxy.builtIn()));
+        assertFalse(proxy.publish(new FareSnapshot(7, builder.build(), TaxRate.parsePercent("1"), TaxRate.parsePercent("1"))));
+        assertSame(next, proxy.getSnapshot());
     }
 
     @Test
     void taxes_constantsAreExposed() {
         MetroRatePassProxy proxy = new MetroRatePassProxy();
-        assertTrue(proxy.getGST() > 0.0);
-        assertTrue(proxy.getQST() > 0.0);
-        assertEquals(proxy.getGST() + proxy.getQST(), proxy.getTAX_RATE(), 1e-9);
+        assertTrue(proxy.getGST().millionths() > 0);
+        assertTrue(proxy.getQST().millionths() > 0);
+        assertEquals(proxy.getGST().plus(proxy.getQST()), proxy.getTAX_RATE());
     }
 }
 
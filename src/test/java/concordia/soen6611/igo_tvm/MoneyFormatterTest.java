@@ -0,0 +1,104 @@
+package concordia.soen6611.igo_tvm;
+
+import concordia.soen6611.igo_tvm.Services.MoneyFormatter;
+import concordia.soen6611.igo_tvm.models.Money;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyFormatterTest {
+
+    private final MoneyFormatter money = new MoneyFormatter();
+
+    private static final long[] AMOUNTS = {
+            0, 1, 9, 10, 99, 100, 101, 350, 999, 1_000, 12_345, 99_999, 100_000, 123_456_789,
+            -1, -350, -123_456, Long.MAX_VALUE, Long.MIN_VALUE
+    };
+
+    @Test
+    void format_matchesNumberFormat_forBothLanguages() {
+        for (Locale locale : new Locale[] {Locale.CANADA, Locale.CANADA_FRENCH}) {
+            NumberFormat reference = NumberFormat.getCurrencyInstance(locale);
+            for (long cents : AMOUNTS) {
+                assertEquals(reference.format(BigDecimal.valueOf(cents, 2)), money.format(cents, locale),
+                        locale + " " + cents);
+            }
+        }
+        assertEquals("$1,234.50", money.format(123_450, Locale.CANADA));
+    }
+
+    @Test
+    void language_selectsPattern_andOthersFallBackToEnglish() {
+        assertEquals(money.format(123_450, Locale.CANADA_FRENCH), money.format(123_450, Locale.FRENCH));
+        assertEquals(money.format(123_450, Locale.CANADA), money.format(123_450, Locale.ENGLISH));
+        assertEquals(money.format(123_450, Locale.CANADA), money.format(123_450, Locale.GERMAN));
+        assertEquals(money.format(123_450, Locale.CANADA), money.format(123_450, null));
+    }
+
+    @Test
+    void moneyOverloads_matchCents() {
+        assertEquals(money.format(123_450, Locale.CANADA_FRENCH), money.format(Money.ofCents(123_450), Locale.CANADA_FRENCH));
+        assertEquals("-$0.05", money.appendTo(new StringBuilder(), Money.parse("-0.05"), Locale.CANADA).toString());
+    }
+
+    @Test
+    void appendTo_doesNotAllocate() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        StringBuilder out = new StringBuilder(64);
+        int sink = 0;
+        for (int i = 0; i < 200_000; i++) {
+            out.setLength(0);
+            sink += money.appendTo(out, i * 37L, (i & 1) == 0 ? Locale.CANADA : Locale.CANADA_FRENCH).length();
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 100_000; i++) {
+            out.setLength(0);
+            sink += money.appendTo(out, i * 37L, (i & 1) == 0 ? Locale.CANADA : Locale.CANADA_FRENCH).length();
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        assertTrue(sink > 0);
+        assertTrue(allocated < 1024, "appendTo allocated " + allocated + " bytes");
+    }
+
+    @Test
+    void format_isThreadSafe() throws Exception {
+        NumberFormat en = NumberFormat.getCurrencyInstance(Locale.CANADA);
+        NumberFormat fr = NumberFormat.getCurrencyInstance(Locale.CANADA_FRENCH);
+        String[] expectedEn = new String[1_000];
+        String[] expectedFr = new String[1_000];
+        for (int i = 0; i < expectedEn.length; i++) {
+            expectedEn[i] = en.format(BigDecimal.valueOf(i * 1_234L, 2));
+            expectedFr[i] = fr.format(BigDecimal.valueOf(i * 1_234L, 2));
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                results.add(pool.submit(() -> {
+                    for (int round = 0; round < 50; round++) {
+                        for (int i = 0; i < expectedEn.length; i++) {
+                            assertEquals(expectedEn[i], money.format(i * 1_234L, Locale.CANADA));
+                            assertEquals(expectedFr[i], money.format(i * 1_234L, Locale.CANADA_FRENCH));
+                        }
+                    }
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
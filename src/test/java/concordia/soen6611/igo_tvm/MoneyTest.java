@@ -0,0 +1,85 @@
+package concordia.soen6611.igo_tvm;
+
+import concordia.soen6611.igo_tvm.models.Money;
+import concordia.soen6611.igo_tvm.models.TaxRate;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+
+    private static final TaxRate GST = TaxRate.ofMillionths(50_000);
+    private static final TaxRate QST = TaxRate.ofMillionths(99_750);
+
+    @Test
+    void parse_andToString_roundTrip() {
+        assertEquals(375, Money.parse("3.75").cents());
+        assertEquals(9_400, Money.parse("94").cents());
+        assertEquals(50, Money.parse("0.5").cents());
+        assertEquals(-5, Money.parse("-0.05").cents());
+        for (String text : new String[] {"0.00", "3.75", "94.00", "-0.05", "-12.30", "123456789.01"}) {
+            assertEquals(text, Money.parse(text).toString());
+        }
+        for (String bad : new String[] {"", "-", ".", "3.", ".5", "1.234", "$3", "1,000", "1.2.3", "--1"}) {
+            assertThrows(NumberFormatException.class, () -> Money.parse(bad), bad);
+        }
+    }
+
+    @Test
+    void arithmetic_isExact() {
+        Money fare = Money.parse("0.10");
+        Money sum = Money.ZERO;
+        for (int i = 0; i < 10; i++) {
+            sum = sum.plus(fare);
+        }
+        assertEquals(Money.parse("1.00"), sum);
+        assertEquals(Money.parse("11.25"), Money.parse("3.75").times(3));
+        assertEquals(Money.parse("-0.25"), Money.parse("3.50").minus(Money.parse("3.75")));
+        assertEquals(Money.ZERO, Money.parse("-0.25").max(Money.ZERO));
+        assertTrue(Money.parse("3.75").compareTo(Money.parse("3.74")) > 0);
+        assertThrows(ArithmeticException.class, () -> Money.ofCents(Long.MAX_VALUE).plus(Money.ofCents(1)));
+        assertThrows(ArithmeticException.class, () -> Money.ofCents(Long.MAX_VALUE / 2 + 1).times(2));
+    }
+
+    @Test
+    void taxRate_roundsHalfAwayFromZero_perTax() {
+        for (long cents = -10_000; cents <= 10_000; cents++) {
+            Money amount = Money.ofCents(cents);
+            for (TaxRate rate : new TaxRate[] {GST, QST}) {
+                long expected = BigDecimal.valueOf(cents).multiply(BigDecimal.valueOf(rate.millionths(), 6))
+                        .setScale(0, RoundingMode.HALF_UP).longValueExact();
+                assertEquals(expected, rate.on(amount).cents(), rate + " on " + amount);
+            }
+        }
+        // Halves are rounded up: GST on $0.10 is exactly half a cent
+        assertEquals(Money.ofCents(1), GST.on(Money.parse("0.10")));
+        assertEquals("14.975%", GST.plus(QST).toString());
+        assertThrows(IllegalArgumentException.class, () -> TaxRate.ofMillionths(-1));
+    }
+
+    @Test
+    void fareArithmetic_doesNotAllocate() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Money unit = Money.parse("3.75");
+        long sink = 0;
+        for (int i = 0; i < 200_000; i++) {
+            sink += total(unit, 1 + (i & 7)).cents();
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 100_000; i++) {
+            sink += total(unit, 1 + (i & 7)).cents();
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        assertTrue(sink > 0);
+        assertTrue(allocated < 1024, "fare arithmetic allocated " + allocated + " bytes");
+    }
+
+    private static Money total(Money unit, int quantity) {
+        Money subtotal = unit.times(quantity);
+        return subtotal.plus(GST.on(subtotal)).plus(QST.on(subtotal));
+    }
+}
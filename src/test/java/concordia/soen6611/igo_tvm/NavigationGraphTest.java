@@ -0,0 +1,41 @@
+package concordia.soen6611.igo_tvm;
+
+import concordia.soen6611.igo_tvm.config.NavigationConfig;
+import concordia.soen6611.igo_tvm.models.NavigationGraph;
+import concordia.soen6611.igo_tvm.models.Screen;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NavigationGraphTest {
+
+    @Test
+    void flow_keepsDeclarationOrderAndIgnoresDuplicates() {
+        NavigationGraph g = NavigationGraph.builder()
+                .flow(Screen.HOME, Screen.BUY_TICKET, Screen.CARD_RELOAD)
+                .flow(Screen.HOME, Screen.BUY_TICKET, Screen.WELCOME)
+                .build();
+
+        assertEquals(List.of(Screen.BUY_TICKET, Screen.CARD_RELOAD, Screen.WELCOME), g.likelyNext(Screen.HOME));
+        assertTrue(g.likelyNext(Screen.PAYMENT).isEmpty());
+        assertThrows(UnsupportedOperationException.class, () -> g.likelyNext(Screen.HOME).add(Screen.PAYMENT));
+    }
+
+    @Test
+    void flow_rejectsSelfLoop() {
+        assertThrows(IllegalArgumentException.class,
+                () -> NavigationGraph.builder().flow(Screen.HOME, Screen.HOME));
+    }
+
+    @Test
+    void kioskGraph_coversEveryScreen() {
+        NavigationGraph g = new NavigationConfig().navigationGraph();
+
+        assertEquals(EnumSet.allOf(Screen.class), g.screens());
+        assertEquals(Screen.BUY_TICKET, g.likelyNext(Screen.HOME).get(0));
+        assertEquals(Screen.PAYMENT, g.likelyNext(Screen.BUY_TICKET).get(0));
+    }
+}
@@ -0,0 +1,164 @@
+package concordia.soen6611.igo_tvm;
+
+import concordia.soen6611.igo_tvm.Services.LatencyHistogram;
+import concordia.soen6611.igo_tvm.Services.PaymentGateway;
+import concordia.soen6611.igo_tvm.Services.PaymentService;
+import concordia.soen6611.igo_tvm.Services.SimulatedPaymentGateway;
+import concordia.soen6611.igo_tvm.models.Authorization;
+import concordia.soen6611.igo_tvm.models.Money;
+import concordia.soen6611.igo_tvm.models.Payment;
+import concordia.soen6611.igo_tvm.models.PaymentStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentGatewayTest {
+
+    /** Answers each call with the next of the given futures, and remembers the calls. */
+    private static final class ScriptedGateway implements PaymentGateway {
+        final List<CompletableFuture<Authorization>> answers;
+        final List<String> keys = new CopyOnWriteArrayList<>();
+
+        @SafeVarargs
+        ScriptedGateway(CompletableFuture<Authorization>... answers) {
+            this.answers = List.of(answers);
+        }
+
+        @Override
+        public CompletableFuture<Authorization> authorize(String idempotencyKey, String method, Money amount) {
+            keys.add(idempotencyKey);
+            return answers.get(keys.size() - 1);
+        }
+    }
+
+    private static CompletableFuture<Authorization> failing() {
+        return CompletableFuture.failedFuture(new IOException("connection reset"));
+    }
+
+    private static Payment authorize(PaymentService service) throws Exception {
+        return service.authorizePayment().get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void failedAndTimedOutAttempts_areRetriedWithTheSameKey() throws Exception {
+        CompletableFuture<Authorization> silent = new CompletableFuture<>();
+        ScriptedGateway gateway = new ScriptedGateway(failing(), silent,
+                CompletableFuture.completedFuture(Authorization.approved("REF-1", Money.parse("7.50"))));
+        PaymentService service = new PaymentService(gateway, 50, 50, 3, 1);
+        service.startPayment("Card", Money.parse("7.50"));
+
+        Payment payment = authorize(service);
+        assertEquals(PaymentStatus.COMPLETED, payment.getStatus());
+        assertEquals(Money.parse("7.50"), payment.getCaptured());
+        assertEquals(3, gateway.keys.size());
+        assertEquals(List.of(payment.getId(), payment.getId(), payment.getId()), gateway.keys);
+        assertTrue(silent.isCompletedExceptionally());
+        assertEquals(1, service.getAuthorizationLatency().count());
+    }
+
+    @Test
+    void declines_areNotRetried_andExhaustedRetriesFail() throws Exception {
+        ScriptedGateway declining = new ScriptedGateway(
+                CompletableFuture.completedFuture(Authorization.declined("Insufficient funds")));
+        PaymentService service = new PaymentService(declining, 1_000, 1_000, 3, 1);
+        service.startPayment("MobileWallet", Money.parse("3.75"));
+        assertEquals(PaymentStatus.DECLINED, authorize(service).getStatus());
+        assertEquals(1, declining.keys.size());
+
+        ScriptedGateway down = new ScriptedGateway(failing(), failing());
+        PaymentService failing = new PaymentService(down, 1_000, 1_000, 2, 1);
+        failing.startPayment("Card", Money.parse("3.75"));
+        ExecutionException e = assertThrows(ExecutionException.class, () -> authorize(failing));
+        assertInstanceOf(IOException.class, e.getCause());
+        assertEquals(PaymentStatus.FAILED, failing.getCurrentPayment().getStatus());
+        assertEquals(2, down.keys.size());
+
+        failing.startPayment("Cash", Money.parse("3.75"));
+        assertThrows(ExecutionException.class, () -> authorize(failing));
+    }
+
+    @Test
+    void cancelling_abandonsTheAttemptInFlight() throws Exception {
+        CompletableFuture<Authorization> pending = new CompletableFuture<>();
+        PaymentService service = new PaymentService(new ScriptedGateway(pending), 60_000, 60_000, 3, 1);
+        service.startPayment("Card", Money.parse("11.00"));
+        CompletableFuture<Payment> authorization = service.authorizePayment();
+        assertEquals(PaymentStatus.PROCESSING, service.getCurrentPayment().getStatus());
+
+        authorization.cancel(true);
+        assertTrue(pending.isCancelled());
+        assertEquals(PaymentStatus.CANCELLED, service.getCurrentPayment().getStatus());
+
+        CompletableFuture<Authorization> second = new CompletableFuture<>();
+        PaymentService other = new PaymentService(new ScriptedGateway(second), 60_000, 60_000, 3, 1);
+        other.startPayment("MobileWallet", Money.parse("11.00"));
+        CompletableFuture<Payment> running = other.authorizePayment();
+        other.cancelPayment();
+        assertTrue(running.isCancelled());
+        assertTrue(second.isCancelled());
+        assertEquals(PaymentStatus.CANCELLED, other.getCurrentPayment().getStatus());
+    }
+
+    @Test
+    void simulator_followsItsLatencyDistribution_andAnswersRetriesAlike() throws Exception {
+        SimulatedPaymentGateway gateway = new SimulatedPaymentGateway(20, 60, 0, 0, 42);
+        try {
+            LatencyHistogram latency = new LatencyHistogram();
+            List<CompletableFuture<Authorization>> answers = new ArrayList<>();
+            // Waves of requests, the first one unrecorded to warm up
+            for (int wave = 0; wave <= 10; wave++) {
+                List<CompletableFuture<Authorization>> inWave = new ArrayList<>();
+                for (int i = 0; i < 100; i++) {
+                    long start = System.nanoTime();
+                    boolean recorded = wave > 0;
+                    inWave.add(gateway.authorize("key-" + wave + "-" + i, "Card", Money.parse("3.75"))
+                            .whenComplete((a, e) -> {
+                                if (recorded) {
+                                    latency.record((System.nanoTime() - start) / 1_000);
+                                }
+                            }));
+                }
+                CompletableFuture.allOf(inWave.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+                answers.addAll(inWave);
+            }
+            long p50 = latency.percentileMillis(50);
+            long p99 = latency.percentileMillis(99);
+            assertTrue(p50 >= 15 && p50 <= 35, "p50 " + p50 + " ms");
+            assertTrue(p99 >= 40 && p99 <= 150, "p99 " + p99 + " ms");
+
+            Authorization first = answers.get(7).get();
+            assertTrue(first.isApproved());
+            assertEquals(first.getReference(), gateway.authorize("key-0-7", "Card", Money.parse("3.75"))
+                    .get(5, TimeUnit.SECONDS).getReference());
+        } finally {
+            gateway.close();
+        }
+        assertThrows(IllegalArgumentException.class, () -> new SimulatedPaymentGateway(50, 10, 0, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new SimulatedPaymentGateway(10, 50, 1.5, 0, 1));
+    }
+
+    @Test
+    void histogram_reportsPercentilesWithinThreePercent() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.percentileMicros(99));
+        for (long micros = 1; micros <= 100_000; micros++) {
+            histogram.record(micros);
+        }
+        assertEquals(100_000, histogram.count());
+        assertEquals(50_000, histogram.percentileMicros(50), 50_000 * 0.035);
+        assertEquals(99_000, histogram.percentileMicros(99), 99_000 * 0.035);
+        assertTrue(histogram.percentileMicros(100) >= 100_000);
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, histogram.percentileMicros(100));
+        assertThrows(IllegalArgumentException.class, () -> histogram.percentileMicros(0));
+    }
+}
@@ -1,11 +1,16 @@
 package concordia.soen6611.igo_tvm;
 
 import concordia.soen6611.igo_tvm.Services.PaymentService;
+import concordia.soen6611.igo_tvm.models.Money;
 import concordia.soen6611.igo_tvm.models.Payment;
+import concordia.soen6611.igo_tvm.models.PaymentStatus;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class PaymentServiceTest {
 
@@ -13,18 +18,28 @@ class PaymentServiceTest {
     void startProcessCancel_flowUpdatesStatus() {
         PaymentService ps = new PaymentService();
 
-        ps.startPayment("Card", 12.34);
+        ps.startPayment("Card", Money.ofCents(1234));
         Payment p = ps.getCurrentPayment();
         assertNotNull(p);
         assertEquals("Card", p.getMethod());
-        assertEquals(12.34, p.getAmount(), 1e-9);
-        assertEquals("Pending", p.getStatus());
-
-        ps.processPayment();
-        assertEquals("Completed", ps.getCurrentPayment().getStatus());
-
-        ps.cancelPayment();
-        assertEquals("Cancelled", ps.getCurrentPayment().getStatus());
+        assertEquals(Money.ofCents(1234), p.getAmount());
+        assertEquals(PaymentStatus.PENDING, p.getStatus());
+
+        ps.processPayment(Money.ofCents(2000), Money.ofCents(766));
+        assertEquals(PaymentStatus.COMPLETED, ps.getCurrentPayment().getStatus());
+        assertEquals(Money.ofCents(2000), ps.getCurrentPayment().getCaptured());
+        assertEquals(Money.ofCents(766), ps.getCurrentPayment().getChange());
+
+        // A completed payment stays completed
+        assertFalse(ps.cancelPayment());
+        assertEquals(PaymentStatus.COMPLETED, ps.getCurrentPayment().getStatus());
+
+        ps.startPayment("Cash", Money.ofCents(500));
+        assertTrue(ps.cancelPayment());
+        assertEquals(PaymentStatus.CANCELLED, ps.getCurrentPayment().getStatus());
+        ps.processPayment(Money.ofCents(500), Money.ZERO);
+        assertEquals(PaymentStatus.CANCELLED, ps.getCurrentPayment().getStatus());
+        assertNull(ps.getCurrentPayment().getCaptured());
     }
 }
 
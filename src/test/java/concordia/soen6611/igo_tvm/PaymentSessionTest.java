@@ -1,6 +1,7 @@
 package concordia.soen6611.igo_tvm;
 
 import concordia.soen6611.igo_tvm.Services.PaymentSession;
+import concordia.soen6611.igo_tvm.models.Money;
 import concordia.soen6611.igo_tvm.models.OrderSummary;
 import org.junit.jupiter.api.Test;
 
@@ -16,11 +17,11 @@ class PaymentSessionTest {
         assertNull(s.getCurrentOrder());
 
         s.setOrigin(PaymentSession.Origin.RELOAD_CARD);
-        s.setCurrentOrder(new OrderSummary("Adult", "Single Trip", 1, 2, 3.75, 7.50));
+        s.setCurrentOrder(new OrderSummary("Adult", "Single Trip", 1, 2, Money.ofCents(375), Money.ofCents(750)));
 
         assertEquals(PaymentSession.Origin.RELOAD_CARD, s.getOrigin());
         assertNotNull(s.getCurrentOrder());
-        assertEquals(7.50, s.getCurrentOrder().getTotal(), 1e-9);
+        assertEquals(Money.ofCents(750), s.getCurrentOrder().getTotal());
 
         s.clear();
         assertEquals(PaymentSession.Origin.BUY_TICKET, s.getOrigin());
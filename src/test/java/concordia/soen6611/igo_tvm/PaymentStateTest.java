@@ -0,0 +1,189 @@
+package concordia.soen6611.igo_tvm;
+
+import concordia.soen6611.igo_tvm.Services.PaymentGateway;
+import concordia.soen6611.igo_tvm.Services.PaymentService;
+import concordia.soen6611.igo_tvm.models.Authorization;
+import concordia.soen6611.igo_tvm.models.Money;
+import concordia.soen6611.igo_tvm.models.Payment;
+import concordia.soen6611.igo_tvm.models.PaymentStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static concordia.soen6611.igo_tvm.models.PaymentStatus.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentStateTest {
+
+    /** Clock that moves one second per reading. */
+    private static final class TickingClock extends Clock {
+        private final AtomicInteger ticks = new AtomicInteger();
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.EPOCH.plusSeconds(ticks.getAndIncrement());
+        }
+    }
+
+    @Test
+    void onlyLegalMovesAreAllowed() {
+        Set<String> legal = Set.of("PENDING>PROCESSING", "PENDING>CANCELLED",
+                "PROCESSING>COMPLETED", "PROCESSING>DECLINED", "PROCESSING>FAILED", "PROCESSING>CANCELLED",
+                "FAILED>PROCESSING", "FAILED>CANCELLED");
+        for (PaymentStatus from : values()) {
+            for (PaymentStatus to : values()) {
+                assertEquals(legal.contains(from + ">" + to), from.canMoveTo(to), from + " -> " + to);
+            }
+        }
+
+        Payment payment = new Payment("Card", Money.parse("5.00"));
+        assertThrows(IllegalStateException.class, () -> payment.moveTo(COMPLETED));
+        assertEquals(PENDING, payment.getStatus());
+        assertTrue(payment.moveTo(PROCESSING));
+        assertFalse(payment.moveTo(PROCESSING));
+        assertFalse(payment.compareAndSet(PENDING, CANCELLED));
+        assertTrue(payment.moveTo(COMPLETED));
+        // Final: later moves lose instead of throwing
+        assertFalse(payment.moveTo(CANCELLED));
+        assertEquals(COMPLETED, payment.getStatus());
+    }
+
+    @Test
+    void transitionsAreTimestamped_andReportedInOrder() {
+        Payment payment = new Payment("Card", Money.parse("5.00"), new TickingClock());
+        List<String> seen = new ArrayList<>();
+        payment.addListener((p, from, to) -> seen.add(from + ">" + to));
+        payment.addListener((p, from, to) -> {
+            throw new IllegalStateException("broken listener");
+        });
+
+        payment.moveTo(PROCESSING);
+        payment.moveTo(FAILED);
+        payment.moveTo(PROCESSING);
+        payment.moveTo(DECLINED);
+
+        assertEquals(List.of("PENDING>PROCESSING", "PROCESSING>FAILED", "FAILED>PROCESSING", "PROCESSING>DECLINED"), seen);
+        assertEquals(Instant.EPOCH, payment.enteredAt(PENDING));
+        assertEquals(Instant.EPOCH.plusSeconds(3), payment.enteredAt(PROCESSING));
+        assertEquals(Instant.EPOCH.plusSeconds(2), payment.enteredAt(FAILED));
+        assertEquals(Instant.EPOCH.plusSeconds(4), payment.enteredAt(DECLINED));
+        assertNull(payment.enteredAt(CANCELLED));
+    }
+
+    @Test
+    void cancelRacingCompletion_hasExactlyOneWinner() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 2_000; i++) {
+                Payment payment = new Payment("Card", Money.parse("5.00"));
+                payment.moveTo(PROCESSING);
+                List<PaymentStatus> finals = new CopyOnWriteArrayList<>();
+                payment.addListener((p, from, to) -> {
+                    if (to.isFinal()) {
+                        finals.add(to);
+                    }
+                });
+                CyclicBarrier start = new CyclicBarrier(2);
+                Future<Boolean> complete = pool.submit(() -> {
+                    start.await();
+                    return payment.moveTo(COMPLETED);
+                });
+                Future<Boolean> cancel = pool.submit(() -> {
+                    start.await();
+                    return payment.moveTo(CANCELLED);
+                });
+                boolean completeWon = complete.get(10, TimeUnit.SECONDS);
+                boolean cancelWon = cancel.get(10, TimeUnit.SECONDS);
+
+                assertTrue(completeWon ^ cancelWon);
+                assertEquals(List.of(completeWon ? COMPLETED : CANCELLED), finals);
+                assertEquals(completeWon ? COMPLETED : CANCELLED, payment.getStatus());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void authorizationFuture_agreesWithThePayment_whenCancelRacesTheAnswer() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 500; i++) {
+                CompletableFuture<Authorization> answer = new CompletableFuture<>();
+                PaymentGateway gateway = (key, method, amount) -> answer;
+                PaymentService service = new PaymentService(gateway, 60_000, 60_000, 1, 1);
+                service.startPayment("Card", Money.parse("5.00"));
+                CompletableFuture<Payment> authorization = service.authorizePayment();
+                Payment payment = service.getCurrentPayment();
+
+                CyclicBarrier start = new CyclicBarrier(2);
+                Future<?> approve = pool.submit(() -> {
+                    start.await();
+                    return answer.complete(Authorization.approved("REF-" + payment.getId(), payment.getAmount()));
+                });
+                Future<?> cancel = pool.submit(() -> {
+                    start.await();
+                    return service.cancelPayment();
+                });
+                approve.get(10, TimeUnit.SECONDS);
+                cancel.get(10, TimeUnit.SECONDS);
+
+                PaymentStatus status = payment.getStatus();
+                if (status == COMPLETED) {
+                    assertSame(payment, authorization.get(10, TimeUnit.SECONDS));
+                } else {
+                    assertEquals(CANCELLED, status);
+                    assertThrows(CancellationException.class, () -> authorization.get(10, TimeUnit.SECONDS));
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void declinedPayment_isReplacedWhenAuthorizedAgain() throws Exception {
+        List<String> keys = new CopyOnWriteArrayList<>();
+        PaymentGateway gateway = (key, method, amount) -> {
+            keys.add(key);
+            return CompletableFuture.completedFuture(keys.size() == 1
+                    ? Authorization.declined("Insufficient funds") : Authorization.approved("REF-2", amount));
+        };
+        PaymentService service = new PaymentService(gateway, 1_000, 1_000, 1, 1);
+        service.startPayment("Card", Money.parse("9.25"));
+        Payment declined = service.authorizePayment().get(10, TimeUnit.SECONDS);
+        assertEquals(DECLINED, declined.getStatus());
+
+        Payment retried = service.authorizePayment().get(10, TimeUnit.SECONDS);
+        assertNotSame(declined, retried);
+        assertEquals(COMPLETED, retried.getStatus());
+        assertEquals(Money.parse("9.25"), retried.getAmount());
+        assertNotEquals(keys.get(0), keys.get(1));
+
+        assertTrue(service.authorizePayment().isCompletedExceptionally());
+    }
+}
@@ -0,0 +1,300 @@
+package concordia.soen6611.igo_tvm;
+
+import concordia.soen6611.igo_tvm.Services.ScreenNavigator;
+import concordia.soen6611.igo_tvm.models.Screen;
+import javafx.application.Platform;
+import javafx.scene.Scene;
+import javafx.scene.control.ButtonBase;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Controller;
+import org.testfx.api.FxToolkit;
+import org.testfx.util.WaitForAsyncUtils;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Headless soak test for long kiosk uptimes.
+ * <p>
+ * Runs only with {@code mvn -Psoak test} (Monocle headless platform). Each iteration
+ * drives Welcome → Home → BuyNewTicket → Payment → CashSubmission or PaymentSuccess,
+ * then Home → CardReload → CardReloadAmount → Payment and back, by firing the real
+ * buttons (timed steps such as the card read are replaced by direct navigation).
+ * At regular intervals it records retained heap after GC, live controller instances,
+ * running animations and FX pulse time to {@code target/soak/soak-metrics.csv}, and
+ * fails if any of them keeps growing.
+ * </p>
+ */
+class PurchaseFlowSoakTest {
+
+    private static final int ITERATIONS = Integer.getInteger("soak.iterations", 2_000);
+    private static final int SAMPLES = 40;
+
+    /** Controllers ever created by Spring; weak, so the size is the live count after GC. */
+    private static final Set<Object> controllers = Collections.newSetFromMap(new WeakHashMap<>());
+    private static final PulseStats pulses = new PulseStats();
+
+    private static ConfigurableApplicationContext context;
+    private static ScreenNavigator navigator;
+    private static Scene scene;
+
+    record Sample(int iteration, double heapMb, int liveControllers, int runningAnimations,
+                  double pulseAvgMs, double pulseMaxMs) {}
+
+    @BeforeAll
+    static void boot() throws Exception {
+        FxToolkit.registerPrimaryStage();
+        context = new SpringApplicationBuilder(IGoApplication.class)
+                .web(WebApplicationType.NONE)
+                .initializers(ctx -> ctx.getBeanFactory().addBeanPostProcessor(new BeanPostProcessor() {
+                    @Override
+                    public Object postProcessAfterInitialization(Object bean, String name) {
+                        if (bean.getClass().isAnnotationPresent(Controller.class)) {
+                            synchronized (controllers) {
+                                controllers.add(bean);
+                            }
+                        }
+                        return bean;
+                    }
+                }))
+                .run();
+        navigator = context.getBean(ScreenNavigator.class);
+        FxToolkit.setupStage(stage -> {
+            try {
+                scene = navigator.createScene(Screen.WELCOME, 1200, 700);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            scene.addPreLayoutPulseListener(pulses::begin);
+            scene.addPostLayoutPulseListener(pulses::end);
+            stage.setScene(scene);
+            stage.show();
+        });
+    }
+
+    @AfterAll
+    static void shutdown() throws Exception {
+        FxToolkit.cleanupStages();
+        if (context != null) context.close();
+    }
+
+    @Test
+    void purchaseAndReloadFlows_doNotGrowWithoutBound() throws Exception {
+        int every = Math.max(1, ITERATIONS / SAMPLES);
+        List<Sample> samples = new ArrayList<>();
+
+        for (int i = 1; i <= ITERATIONS; i++) {
+            boolean cash = i % 2 == 0;
+            onFx(() -> purchaseFlow(cash));
+            waitForPulse();
+            onFx(PurchaseFlowSoakTest::reloadFlow);
+            waitForPulse();
+            if (i % every == 0) {
+                Sample s = sample(i);
+                samples.add(s);
+                System.out.println("[soak] " + s);
+            }
+        }
+        writeCsv(samples);
+
+        assertTrue(samples.size() >= 8, "too few samples; raise soak.iterations");
+        int screens = Screen.values().length;
+        Sample last = samples.get(samples.size() - 1);
+        // Current + one preloaded instance per screen, plus the singleton welcome controller
+        assertTrue(last.liveControllers() <= 2 * screens + 1,
+                "live controllers: " + last.liveControllers());
+        // The shared clock timer plus at most a couple of transient transitions
+        assertTrue(last.runningAnimations() <= 3, "running animations: " + last.runningAnimations());
+
+        assertBounded(samples, "heap MB", Sample::heapMb, 24.0, 0.25);
+        assertBounded(samples, "live controllers", Sample::liveControllers, 2.0, 0.0);
+        assertBounded(samples, "running animations", Sample::runningAnimations, 1.0, 0.0);
+        assertBounded(samples, "pulse avg ms", Sample::pulseAvgMs, 2.0, 1.0);
+    }
+
+    /* ===== Flows (run on the FX thread) ===== */
+
+    private static void purchaseFlow(boolean cash) {
+        expect(Screen.WELCOME);
+        fire("#startButton", Screen.HOME);
+        fire("#buyBtn", Screen.BUY_TICKET);
+        fire("#incBtn", Screen.BUY_TICKET);
+        fire("#makePaymentBtn", Screen.PAYMENT);
+        if (cash) {
+            fire("#cashBtn", Screen.PAYMENT);
+            fire("#confirmBtn", Screen.CASH_SUBMISSION);
+            fire("#backBtn", Screen.HOME);
+        } else {
+            // Card processing waits 5.5 s; jump straight to the confirmation
+            go(Screen.PAYMENT_SUCCESS);
+            fire("#doneBtn", Screen.HOME);
+        }
+    }
+
+    private static void reloadFlow() {
+        fire("#reloadBtn", Screen.CARD_RELOAD);
+        // Card read shows a scenario dialog and waits; simulate a successful read
+        go(Screen.CARD_RELOAD_AMOUNT);
+        fire("#proceedBtn", Screen.PAYMENT);
+        fire("#backBtn", Screen.CARD_RELOAD_AMOUNT);
+        fire("#backBtn", Screen.HOME);
+        go(Screen.WELCOME);
+    }
+
+    private static void fire(String selector, Screen expected) {
+        ButtonBase button = (ButtonBase) scene.getRoot().lookup(selector);
+        assertNotNull(button, selector + " not found on " + navigator.getCurrentScreen());
+        button.fire();
+        expect(expected);
+    }
+
+    private static void go(Screen screen) {
+        assertTrue(navigator.goTo(screen), "navigation failed: " + screen);
+    }
+
+    private static void expect(Screen screen) {
+        assertEquals(screen, navigator.getCurrentScreen());
+    }
+
+    /* ===== Metrics ===== */
+
+    private static Sample sample(int iteration) throws Exception {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        double heapMb = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() / (1024.0 * 1024.0);
+        int live;
+        synchronized (controllers) {
+            live = controllers.size();
+        }
+        int animations = callFx(PurchaseFlowSoakTest::runningAnimations);
+        double[] pulse = callFx(pulses::drain);
+        return new Sample(iteration, heapMb, live, animations, pulse[0], pulse[1]);
+    }
+
+    /**
+     * Number of pulse receivers (playing animations) registered with the FX primary timer.
+     */
+    private static int runningAnimations() throws ReflectiveOperationException {
+        Object timer = com.sun.javafx.tk.Toolkit.getToolkit().getPrimaryTimer();
+        Class<?> c = timer.getClass();
+        while (c != null) {
+            try {
+                Field f = c.getDeclaredField("receiversLength");
+                f.setAccessible(true);
+                return f.getInt(timer);
+            } catch (NoSuchFieldException e) {
+                c = c.getSuperclass();
+            }
+        }
+        throw new NoSuchFieldException("receiversLength");
+    }
+
+    /**
+     * Fails if the median of the last quarter of post-warm-up samples exceeds the
+     * median of the first quarter by more than {@code abs + rel * first}.
+     */
+    private static void assertBounded(List<Sample> samples, String name, ToDoubleFunction<Sample> metric,
+                                      double abs, double rel) {
+        List<Sample> steady = samples.subList(samples.size() / 5, samples.size());
+        int q = Math.max(1, steady.size() / 4);
+        double first = median(steady.subList(0, q), metric);
+        double last = median(steady.subList(steady.size() - q, steady.size()), metric);
+        double limit = first + abs + rel * first;
+        assertTrue(last <= limit, String.format("%s grew from %.2f to %.2f (limit %.2f)", name, first, last, limit));
+    }
+
+    private static double median(List<Sample> samples, ToDoubleFunction<Sample> metric) {
+        double[] v = samples.stream().mapToDouble(metric).sorted().toArray();
+        return v.length % 2 == 1 ? v[v.length / 2] : (v[v.length / 2 - 1] + v[v.length / 2]) / 2.0;
+    }
+
+    private static void writeCsv(List<Sample> samples) throws IOException {
+        Path out = Path.of("target", "soak", "soak-metrics.csv");
+        Files.createDirectories(out.getParent());
+        try (PrintWriter w = new PrintWriter(Files.newBufferedWriter(out))) {
+            w.println("iteration,heapMb,liveControllers,runningAnimations,pulseAvgMs,pulseMaxMs");
+            for (Sample s : samples) {
+                w.printf("%d,%.2f,%d,%d,%.3f,%.3f%n", s.iteration(), s.heapMb(), s.liveControllers(),
+                        s.runningAnimations(), s.pulseAvgMs(), s.pulseMaxMs());
+            }
+        }
+    }
+
+    /* ===== FX helpers ===== */
+
+    private static void onFx(Runnable action) throws Exception {
+        WaitForAsyncUtils.asyncFx(action).get(30, TimeUnit.SECONDS);
+    }
+
+    private static <T> T callFx(Callable<T> action) throws Exception {
+        return WaitForAsyncUtils.asyncFx(action).get(30, TimeUnit.SECONDS);
+    }
+
+    private static void waitForPulse() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        Platform.runLater(() -> {
+            pulses.afterNext(latch::countDown);
+            Platform.requestNextPulse();
+        });
+        assertTrue(latch.await(10, TimeUnit.SECONDS), "no FX pulse within 10 s");
+    }
+
+    /** Layout/CSS time of each pulse, aggregated per sampling window. FX thread only. */
+    private static final class PulseStats {
+        private long start;
+        private long count;
+        private long totalNanos;
+        private long maxNanos;
+        private final List<Runnable> waiting = new ArrayList<>();
+
+        void begin() {
+            start = System.nanoTime();
+        }
+
+        void end() {
+            long d = System.nanoTime() - start;
+            count++;
+            totalNanos += d;
+            maxNanos = Math.max(maxNanos, d);
+            waiting.forEach(Runnable::run);
+            waiting.clear();
+        }
+
+        void afterNext(Runnable r) {
+            waiting.add(r);
+        }
+
+        /** @return {avg ms, max ms} since the previous call */
+        double[] drain() {
+            double[] r = {count == 0 ? 0 : totalNanos / (count * 1e6), maxNanos / 1e6};
+            count = 0;
+            totalNanos = 0;
+            maxNanos = 0;
+            return r;
+        }
+    }
+}
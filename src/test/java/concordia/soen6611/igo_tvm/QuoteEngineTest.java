@@ -0,0 +1,155 @@
+package concordia.soen6611.igo_tvm;
+
+import concordia.soen6611.igo_tvm.Services.FareRateService;
+import concordia.soen6611.igo_tvm.Services.QuoteEngine;
+import concordia.soen6611.igo_tvm.controllers.PulseCoalescer;
+import concordia.soen6611.igo_tvm.models.FareProduct;
+import concordia.soen6611.igo_tvm.models.FareSnapshot;
+import concordia.soen6611.igo_tvm.models.FareTable;
+import concordia.soen6611.igo_tvm.models.MetroRatePassProxy;
+import concordia.soen6611.igo_tvm.models.Money;
+import concordia.soen6611.igo_tvm.models.OrderSummary;
+import concordia.soen6611.igo_tvm.models.Quote;
+import concordia.soen6611.igo_tvm.models.RiderType;
+import concordia.soen6611.igo_tvm.models.TaxRate;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuoteEngineTest {
+
+    /** Serves whatever snapshot the test sets. */
+    private static final class FixedRates implements FareRateService {
+        final AtomicReference<FareSnapshot> fares = new AtomicReference<>(MetroRatePassProxy.builtIn());
+        final AtomicInteger reads = new AtomicInteger();
+
+        @Override
+        public FareSnapshot getSnapshot() {
+            reads.incrementAndGet();
+            return fares.get();
+        }
+
+        @Override
+        public Money getRate(RiderType rider, FareProduct product) {
+            return fares.get().getFares().fare(rider, product);
+        }
+
+        @Override
+        public TaxRate getTax() {
+            return fares.get().getTaxRate();
+        }
+
+        @Override
+        public TaxRate getGST() {
+            return fares.get().getGST();
+        }
+
+        @Override
+        public TaxRate getQST() {
+            return fares.get().getQST();
+        }
+    }
+
+    @Test
+    void quote_pricesLikeTheFareService_andBecomesTheOrder() {
+        FixedRates rates = new FixedRates();
+        QuoteEngine engine = new QuoteEngine(rates);
+        for (RiderType rider : RiderType.values()) {
+            for (FareProduct product : FareProduct.values()) {
+                Quote quote = engine.quote(rider, product, 3);
+                Money subtotal = rates.getRate(rider, product).times(3);
+                assertEquals(subtotal, quote.getSubtotal());
+                assertEquals(rates.taxOn(subtotal), quote.getTax());
+                assertEquals(subtotal.plus(rates.taxOn(subtotal)), quote.getTotal());
+            }
+        }
+
+        Quote quote = engine.quote(RiderType.STUDENT, FareProduct.SINGLE_TRIP, 2);
+        assertEquals(Money.parse("6.90"), quote.getTotal());
+        OrderSummary order = quote.toOrder();
+        assertEquals("Student", order.getRiderType());
+        assertEquals("Single Trip", order.getTripType());
+        assertEquals(2, order.getQuantity());
+        assertEquals(Money.parse("3.00"), order.getUnitPrice());
+        assertEquals(quote.getTotal(), order.getTotal());
+        assertEquals(0, order.getFareVersion());
+        assertThrows(IllegalArgumentException.class, () -> engine.quote(RiderType.ADULT, FareProduct.DAY_PASS, 0));
+    }
+
+    @Test
+    void repeatedQuote_isRemembered_withoutAllocating() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        QuoteEngine engine = new QuoteEngine(new FixedRates());
+        Quote first = engine.quote(RiderType.ADULT, FareProduct.SINGLE_TRIP, 4);
+        assertSame(first, engine.quote(RiderType.ADULT, FareProduct.SINGLE_TRIP, 4));
+        assertNotSame(first, engine.quote(RiderType.ADULT, FareProduct.SINGLE_TRIP, 5));
+        // Beyond the memo, quotes are still right
+        assertEquals(Money.parse("3.75").times(50), engine.quote(RiderType.ADULT, FareProduct.SINGLE_TRIP, 50).getSubtotal());
+
+        long sink = 0;
+        for (int i = 0; i < 100_000; i++) {
+            sink += engine.quote(RiderType.ADULT, FareProduct.SINGLE_TRIP, 1 + i % 10).getTotal().cents();
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 100_000; i++) {
+            sink += engine.quote(RiderType.ADULT, FareProduct.SINGLE_TRIP, 1 + i % 10).getTotal().cents();
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        assertTrue(sink > 0);
+        assertTrue(allocated < 1024, "memoized quotes allocated " + allocated + " bytes");
+    }
+
+    @Test
+    void newFareVersion_isQuotedAfresh_andOldQuotesKeepTheirPrice() {
+        FixedRates rates = new FixedRates();
+        QuoteEngine engine = new QuoteEngine(rates);
+        Quote before = engine.quote(RiderType.ADULT, FareProduct.SINGLE_TRIP, 1);
+
+        FareTable.Builder fares = FareTable.builder();
+        for (RiderType rider : RiderType.values()) {
+            for (FareProduct product : FareProduct.values()) {
+                fares.fare(rider, product, Money.parse("4.00"));
+            }
+        }
+        FareSnapshot base = MetroRatePassProxy.builtIn();
+        rates.fares.set(new FareSnapshot(1, fares.build(), base.getGST(), base.getQST()));
+
+        Quote after = engine.quote(RiderType.ADULT, FareProduct.SINGLE_TRIP, 1);
+        assertEquals(1, after.getFareVersion());
+        assertEquals(Money.parse("4.00"), after.getUnitPrice());
+        assertEquals(Money.parse("3.75"), before.getUnitPrice());
+        assertEquals(0, before.toOrder().getFareVersion());
+        // Quoting under an explicit older snapshot still works, and leaves the memo alone
+        assertEquals(before.getTotal(), engine.quote(base, RiderType.ADULT, FareProduct.SINGLE_TRIP, 1).getTotal());
+        assertSame(after, engine.quote(RiderType.ADULT, FareProduct.SINGLE_TRIP, 1));
+    }
+
+    @Test
+    void coalescer_runsOnceForManyRequests() {
+        Deque<Runnable> queue = new ArrayDeque<>();
+        AtomicInteger runs = new AtomicInteger();
+        PulseCoalescer coalescer = new PulseCoalescer(runs::incrementAndGet, queue::add);
+
+        coalescer.request();
+        coalescer.request();
+        coalescer.request();
+        assertEquals(1, queue.size());
+        assertEquals(0, runs.get());
+        queue.poll().run();
+        assertEquals(1, runs.get());
+
+        // A flush runs the pending action at once; the queued run then has nothing to do
+        coalescer.request();
+        coalescer.flush();
+        coalescer.flush();
+        assertEquals(2, runs.get());
+        queue.poll().run();
+        assertEquals(2, runs.get());
+    }
+}
@@ -0,0 +1,299 @@
+package concordia.soen6611.igo_tvm;
+
+import concordia.soen6611.igo_tvm.Services.CsvReconciliationReport;
+import concordia.soen6611.igo_tvm.Services.JsonReconciliationReport;
+import concordia.soen6611.igo_tvm.Services.PaymentService;
+import concordia.soen6611.igo_tvm.Services.PaymentSession;
+import concordia.soen6611.igo_tvm.Services.ReconciliationReport;
+import concordia.soen6611.igo_tvm.Services.SalesJournal;
+import concordia.soen6611.igo_tvm.Services.SalesReconciler;
+import concordia.soen6611.igo_tvm.Services.TransactionJournal;
+import concordia.soen6611.igo_tvm.models.Authorization;
+import concordia.soen6611.igo_tvm.models.JournalRecord;
+import concordia.soen6611.igo_tvm.models.Money;
+import concordia.soen6611.igo_tvm.models.OrderSummary;
+import concordia.soen6611.igo_tvm.models.Payment;
+import concordia.soen6611.igo_tvm.models.PaymentStatus;
+import concordia.soen6611.igo_tvm.models.PeriodTotals;
+import concordia.soen6611.igo_tvm.models.ReconciliationPeriod;
+import concordia.soen6611.igo_tvm.models.ReconciliationSummary;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SalesReconcilerTest {
+
+    private static final ZoneId ZONE = ZoneId.of("America/Toronto");
+
+    /** Keeps what it is handed, to check against. */
+    private static final class CollectingReport implements ReconciliationReport {
+        final List<PeriodTotals> periods = new ArrayList<>();
+        ReconciliationSummary summary;
+
+        @Override
+        public void period(PeriodTotals totals) {
+            periods.add(totals);
+        }
+
+        @Override
+        public void finish(ReconciliationSummary summary) {
+            this.summary = summary;
+        }
+    }
+
+    @TempDir
+    Path dir;
+
+    private static Instant at(String localTime) {
+        return LocalDateTime.parse(localTime).atZone(ZONE).toInstant();
+    }
+
+    /** Journals an order and its payment, ending in {@code outcome} at {@code ended}. */
+    private static CompletableFuture<Long> sell(TransactionJournal journal, String rider, String product, int quantity,
+                                                String method, String total, PaymentStatus outcome, Instant ended) {
+        Payment payment = new Payment(method, Money.parse(total));
+        Money amount = Money.parse(total);
+        journal.append(JournalRecord.order(payment, new OrderSummary(rider, product, 1, quantity,
+                amount, amount, 1), ended.minusSeconds(60)));
+        journal.append(JournalRecord.transition(payment, PaymentStatus.PENDING, PaymentStatus.PROCESSING,
+                ended.minusSeconds(30)));
+        return journal.append(JournalRecord.transition(payment, PaymentStatus.PROCESSING, outcome, ended));
+    }
+
+    /** Two days of sales in Toronto, with one of each kind of discrepancy. */
+    private static void twoDays(TransactionJournal journal) throws Exception {
+        sell(journal, "Adult", "Single Trip", 1, "Card", "3.75", PaymentStatus.COMPLETED, at("2025-03-03T09:00"));
+        sell(journal, "Adult", "Single Trip", 2, "Card", "7.50", PaymentStatus.COMPLETED, at("2025-03-03T10:00"));
+        sell(journal, "Student", "Day Pass", 1, "Cash", "5.00", PaymentStatus.COMPLETED, at("2025-03-03T11:00"));
+        sell(journal, "Adult", "Single Trip", 1, "Card", "3.75", PaymentStatus.DECLINED, at("2025-03-03T12:00"));
+
+        // Priced at 50.00, 60.00 tendered and 11.00 given back, late in the evening: still March 3 locally
+        Payment shortPaid = new Payment("Cash", Money.parse("50.00"));
+        journal.append(JournalRecord.order(shortPaid, new OrderSummary("Senior", "Monthly Pass", 1, 1,
+                Money.parse("50.00"), Money.parse("50.00"), 1), at("2025-03-03T23:20")));
+        shortPaid.setCaptured(Money.parse("60.00"), Money.parse("11.00"));
+        journal.append(JournalRecord.transition(shortPaid, PaymentStatus.PROCESSING, PaymentStatus.COMPLETED,
+                at("2025-03-03T23:30")));
+
+        sell(journal, "Adult", "Day Pass", 1, "Cash", "11.00", PaymentStatus.CANCELLED, at("2025-03-04T08:00"));
+        // A completion whose order is not in the journal
+        journal.append(JournalRecord.transition(UUID.randomUUID(), "Card", Money.parse("3.75"),
+                PaymentStatus.PROCESSING, PaymentStatus.COMPLETED, at("2025-03-04T09:00")));
+        // Being authorized when the journal ends
+        Payment inDoubt = new Payment("Card", Money.parse("10.00"));
+        journal.append(JournalRecord.order(inDoubt, new OrderSummary("Adult", "Weekend Pass", 1, 1,
+                Money.parse("10.00"), Money.parse("10.00"), 1), at("2025-03-04T10:00")));
+        journal.append(JournalRecord.transition(inDoubt, PaymentStatus.PENDING, PaymentStatus.PROCESSING,
+                at("2025-03-04T10:01"))).get(10, TimeUnit.SECONDS);
+    }
+
+    private static String line(PeriodTotals.Sales s) {
+        return s.getRiderType() + "/" + s.getProduct() + "/" + s.getMethod() + " " + s.getCount() + " "
+                + s.getItems() + " " + s.getTotal();
+    }
+
+    private static String line(PeriodTotals.Method m) {
+        return m.getMethod() + " " + m.getCompleted() + " " + m.getExpected() + " " + m.getCollected() + " "
+                + m.getDiscrepancy() + " " + m.getDeclined() + " " + m.getCancelled() + " " + m.getUnmatched();
+    }
+
+    @Test
+    void dailyTotals_byRiderProductAndMethod_withCashAndCardDiscrepancies() throws Exception {
+        CollectingReport report = new CollectingReport();
+        try (TransactionJournal journal = TransactionJournal.open(dir, 1 << 20, null)) {
+            twoDays(journal);
+            new SalesReconciler(ReconciliationPeriod.DAY, ZONE, null, null, report).reconcile(journal);
+        }
+
+        assertEquals(2, report.periods.size());
+        PeriodTotals first = report.periods.get(0);
+        assertEquals(at("2025-03-03T00:00"), first.getStart().toInstant());
+        assertEquals(at("2025-03-04T00:00"), first.getEnd().toInstant());
+        assertEquals(List.of("Adult/Single Trip/Card 2 3 11.25", "Senior/Monthly Pass/Cash 1 1 50.00",
+                "Student/Day Pass/Cash 1 1 5.00"), first.getSales().stream().map(SalesReconcilerTest::line).toList());
+        assertEquals(List.of("Card 2 11.25 11.25 0.00 1 0 0", "Cash 2 55.00 54.00 -1.00 0 0 0"),
+                first.getMethods().stream().map(SalesReconcilerTest::line).toList());
+
+        PeriodTotals second = report.periods.get(1);
+        assertTrue(second.getSales().isEmpty());
+        assertEquals(List.of("Card 1 0.00 3.75 3.75 0 0 1", "Cash 0 0.00 0.00 0.00 0 1 0"),
+                second.getMethods().stream().map(SalesReconcilerTest::line).toList());
+
+        ReconciliationSummary summary = report.summary;
+        assertEquals(20, summary.getRecords());
+        assertEquals(1, summary.getFirstSequence());
+        assertEquals(20, summary.getLastSequence());
+        assertEquals(2, summary.getPeriods());
+        assertEquals(5, summary.getSales());
+        assertEquals(1, summary.getUnmatched());
+        assertEquals(1, summary.getInDoubt());
+        assertEquals(Money.parse("10.00"), summary.getInDoubtAmount());
+        assertEquals(0, summary.getOutOfOrder());
+    }
+
+    @Test
+    void partialApprovals_areDiscrepancies_butChangeGivenIsNot() throws Exception {
+        // The network captures a dollar less than it is asked for
+        PaymentService payments = new PaymentService((key, method, amount) -> CompletableFuture.completedFuture(
+                Authorization.approved("REF-" + key, amount.minus(Money.parse("1.00")))), 1_000, 1_000, 1, 1);
+        PaymentSession session = new PaymentSession();
+        session.setCurrentOrder(new OrderSummary("Adult", "Single Trip", 1, 1, Money.parse("3.75"),
+                Money.parse("3.75"), 1));
+        SalesJournal sales = new SalesJournal(payments, session, dir.toString(), 1 << 20);
+        try {
+            payments.startPayment("Card", Money.parse("3.75"));
+            payments.authorizePayment().get(10, TimeUnit.SECONDS);
+            payments.startPayment("Cash", Money.parse("3.75"));
+            payments.processPayment(Money.parse("10.00"), Money.parse("6.25"));
+        } finally {
+            sales.close();
+        }
+
+        CollectingReport report = new CollectingReport();
+        new SalesReconciler(ReconciliationPeriod.MONTH, ZONE, null, null, report).reconcile(dir);
+
+        List<String> methods = new ArrayList<>();
+        for (PeriodTotals period : report.periods) {
+            period.getMethods().forEach(m -> methods.add(line(m)));
+        }
+        assertEquals(List.of("Card 1 3.75 2.75 -1.00 0 0 0", "Cash 1 3.75 3.75 0.00 0 0 0"), methods);
+    }
+
+    @Test
+    void window_countsOnlyPaymentsEndingInIt_butKnowsEarlierOrders() throws Exception {
+        CollectingReport report = new CollectingReport();
+        try (TransactionJournal journal = TransactionJournal.open(dir, 1 << 20, null)) {
+            twoDays(journal);
+            // Ordered on March 3, paid on March 4
+            Payment overnight = new Payment("Card", Money.parse("20.00"));
+            journal.append(JournalRecord.order(overnight, new OrderSummary("Tourist", "Day Pass", 1, 2,
+                    Money.parse("10.00"), Money.parse("20.00"), 1), at("2025-03-03T23:59")));
+            journal.append(JournalRecord.transition(overnight, PaymentStatus.PENDING, PaymentStatus.PROCESSING,
+                    at("2025-03-04T00:01")));
+            journal.append(JournalRecord.transition(overnight, PaymentStatus.PROCESSING, PaymentStatus.COMPLETED,
+                    at("2025-03-04T00:02"))).get(10, TimeUnit.SECONDS);
+        }
+
+        ReconciliationSummary summary = new SalesReconciler(ReconciliationPeriod.MONTH, ZONE,
+                at("2025-03-04T00:00"), at("2025-03-05T00:00"), report).reconcile(dir);
+
+        assertEquals(1, report.periods.size());
+        PeriodTotals march = report.periods.get(0);
+        assertEquals(at("2025-03-01T00:00"), march.getStart().toInstant());
+        assertEquals(at("2025-04-01T00:00"), march.getEnd().toInstant());
+        assertEquals(List.of("Tourist/Day Pass/Card 1 2 20.00"),
+                march.getSales().stream().map(SalesReconcilerTest::line).toList());
+        assertEquals(List.of("Card 2 20.00 23.75 3.75 0 0 1", "Cash 0 0.00 0.00 0.00 0 1 0"),
+                march.getMethods().stream().map(SalesReconcilerTest::line).toList());
+        assertEquals(2, summary.getSales());
+        assertEquals(23, summary.getRecords());
+    }
+
+    @Test
+    void reports_areWrittenAsCsvAndJson() throws Exception {
+        StringWriter csv = new StringWriter();
+        StringWriter json = new StringWriter();
+        try (TransactionJournal journal = TransactionJournal.open(dir, 1 << 20, null)) {
+            twoDays(journal);
+            new SalesReconciler(ReconciliationPeriod.DAY, ZONE, null, null, new CsvReconciliationReport(csv))
+                    .reconcile(journal);
+            new SalesReconciler(ReconciliationPeriod.DAY, ZONE, null, null, new JsonReconciliationReport(json))
+                    .reconcile(journal);
+        }
+
+        List<String> lines = csv.toString().lines().toList();
+        assertEquals(List.of(
+                "period_start,period_end,line,rider_type,product,method,count,items,amount,expected,collected,"
+                        + "discrepancy,declined,cancelled,unmatched",
+                "2025-03-03T00:00-05:00,2025-03-04T00:00-05:00,sales,Adult,Single Trip,Card,2,3,11.25,,,,,,",
+                "2025-03-03T00:00-05:00,2025-03-04T00:00-05:00,sales,Senior,Monthly Pass,Cash,1,1,50.00,,,,,,",
+                "2025-03-03T00:00-05:00,2025-03-04T00:00-05:00,sales,Student,Day Pass,Cash,1,1,5.00,,,,,,",
+                "2025-03-03T00:00-05:00,2025-03-04T00:00-05:00,payment,,,Card,2,,,11.25,11.25,0.00,1,0,0",
+                "2025-03-03T00:00-05:00,2025-03-04T00:00-05:00,payment,,,Cash,2,,,55.00,54.00,-1.00,0,0,0",
+                "2025-03-04T00:00-05:00,2025-03-05T00:00-05:00,payment,,,Card,1,,,0.00,3.75,3.75,0,0,1",
+                "2025-03-04T00:00-05:00,2025-03-05T00:00-05:00,payment,,,Cash,0,,,0.00,0.00,0.00,0,1,0",
+                ",,in_doubt,,,,1,,10.00,,,,,,"), lines);
+
+        String text = json.toString();
+        assertTrue(text.startsWith("{\"periods\":[\n{\"start\":\"2025-03-03T00:00-05:00\","), text);
+        assertTrue(text.contains("{\"riderType\":\"Senior\",\"product\":\"Monthly Pass\",\"method\":\"Cash\","
+                + "\"count\":1,\"items\":1,\"amount\":\"50.00\"}"), text);
+        assertTrue(text.contains("{\"method\":\"Cash\",\"completed\":2,\"expected\":\"55.00\",\"collected\":\"54.00\","
+                + "\"discrepancy\":\"-1.00\",\"declined\":0,\"cancelled\":0,\"unmatched\":0}"), text);
+        assertTrue(text.endsWith("\"summary\":{\"records\":20,\"firstSequence\":1,\"lastSequence\":20,\"periods\":2,"
+                + "\"sales\":5,\"unmatched\":1,\"inDoubt\":1,\"inDoubtAmount\":\"10.00\",\"outOfOrder\":0,"
+                + "\"forgotten\":0}}\n"), text);
+
+        StringWriter empty = new StringWriter();
+        new SalesReconciler(ReconciliationPeriod.DAY, ZONE, null, null, new JsonReconciliationReport(empty))
+                .reconcile(dir.resolve("none"));
+        assertTrue(empty.toString().startsWith("{\"periods\":[],\n\"summary\":{\"records\":0,"), empty.toString());
+    }
+
+    @Test
+    void monthsOfHistory_areReadInOnePass_acrossArchivedSegments() throws Exception {
+        int days = 90;
+        int salesPerDay = 250;
+        long expectedCard = 0;
+        long expectedCash = 0;
+        try (TransactionJournal journal = TransactionJournal.open(dir, 1 << 16, null)) {
+            CompletableFuture<Long> last = null;
+            Instant day = at("2025-01-01T06:00");
+            for (int d = 0; d < days; d++) {
+                for (int s = 0; s < salesPerDay; s++) {
+                    boolean cash = s % 3 == 0;
+                    String total = cash ? "5.00" : "3.75";
+                    last = sell(journal, s % 2 == 0 ? "Adult" : "Student", cash ? "Day Pass" : "Single Trip", 1,
+                            cash ? "Cash" : "Card", total, PaymentStatus.COMPLETED, day.plusSeconds(60L * s));
+                    if (cash) {
+                        expectedCash += 500;
+                    } else {
+                        expectedCard += 375;
+                    }
+                }
+                day = day.plusSeconds(24 * 3600);
+            }
+            last.get(30, TimeUnit.SECONDS);
+        }
+        try (var archived = Files.list(dir.resolve(TransactionJournal.ARCHIVE))) {
+            assertTrue(archived.count() > 10);
+        }
+
+        CollectingReport report = new CollectingReport();
+        ReconciliationSummary summary = new SalesReconciler(ReconciliationPeriod.DAY, ZONE, null, null, report)
+                .reconcile(dir);
+
+        assertEquals(3L * days * salesPerDay, summary.getRecords());
+        assertEquals(days, report.periods.size());
+        assertEquals((long) days * salesPerDay, summary.getSales());
+        assertEquals(0, summary.getUnmatched() + summary.getInDoubt() + summary.getOutOfOrder());
+        long card = 0;
+        long cash = 0;
+        for (PeriodTotals period : report.periods) {
+            assertEquals(4, period.getSales().size());
+            for (PeriodTotals.Method method : period.getMethods()) {
+                assertTrue(method.getDiscrepancy().isZero());
+                if (method.getMethod().equals("Cash")) {
+                    cash += method.getCollected().cents();
+                } else {
+                    card += method.getCollected().cents();
+                }
+            }
+        }
+        assertEquals(expectedCard, card);
+        assertEquals(expectedCash, cash);
+    }
+}
@@ -0,0 +1,174 @@
+package concordia.soen6611.igo_tvm;
+
+import concordia.soen6611.igo_tvm.Services.I18nService;
+import concordia.soen6611.igo_tvm.Services.MessageKey;
+import concordia.soen6611.igo_tvm.controllers.ScreenLifecycle;
+import concordia.soen6611.igo_tvm.controllers.ScreenSubscriptions;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScreenSubscriptionsLeakTest {
+
+    /** Minimal screen that listens to the application-wide locale while visible. */
+    static final class FakeScreen implements ScreenLifecycle {
+        private final I18nService i18n;
+        private final ScreenSubscriptions subscriptions = new ScreenSubscriptions();
+        int localeChanges;
+
+        FakeScreen(I18nService i18n) { this.i18n = i18n; }
+
+        @Override
+        public void onEnter() {
+            subscriptions.listen(i18n.localeProperty(), (obs, o, n) -> localeChanges++);
+        }
+
+        @Override
+        public void onExit() {
+            subscriptions.dispose();
+        }
+    }
+
+    /** Minimal screen whose title is bound to localized text while visible. */
+    static final class BoundScreen implements ScreenLifecycle {
+        private final I18nService i18n;
+        private final ScreenSubscriptions subscriptions = new ScreenSubscriptions();
+        final StringProperty title = new SimpleStringProperty();
+
+        BoundScreen(I18nService i18n) { this.i18n = i18n; }
+
+        @Override
+        public void onEnter() {
+            subscriptions.bind(title, i18n.text(MessageKey.TITLE));
+        }
+
+        @Override
+        public void onExit() {
+            subscriptions.dispose();
+        }
+    }
+
+    @Test
+    void boundText_followsLocaleWhileVisible_andCatchesUpWhenShownAgain() {
+        I18nService i18n = new I18nService();
+        BoundScreen screen = new BoundScreen(i18n);
+
+        screen.onEnter();
+        assertEquals("Metro Ticket System", screen.title.get());
+        i18n.setLocale(Locale.FRENCH);
+        assertEquals(MessageKey.TITLE.text(Locale.FRENCH), screen.title.get());
+
+        // Hidden: keeps its text until shown again
+        screen.onExit();
+        assertFalse(screen.title.isBound());
+        i18n.setLocale(Locale.ENGLISH);
+        assertEquals(MessageKey.TITLE.text(Locale.FRENCH), screen.title.get());
+
+        screen.onEnter();
+        assertEquals("Metro Ticket System", screen.title.get());
+    }
+
+    @Test
+    void boundScreen_isCollectableAfterOnExit_andRepeatedVisitsShareOneBinding() {
+        I18nService i18n = new I18nService();
+        BoundScreen screen = new BoundScreen(i18n);
+        WeakReference<BoundScreen> ref = new WeakReference<>(screen);
+
+        for (int i = 0; i < 1_000; i++) {
+            screen.onEnter();
+            screen.onExit();
+        }
+        assertEquals(0, screen.subscriptions.size());
+        assertSame(i18n.text(MessageKey.TITLE), i18n.text(MessageKey.TITLE));
+
+        screen = null;
+        assertTrue(collected(ref), "screen still reachable from I18nService after onExit");
+    }
+
+    @Test
+    void onExit_releasesLocaleListener_soScreenIsCollectable() {
+        I18nService i18n = new I18nService();
+        FakeScreen screen = new FakeScreen(i18n);
+        WeakReference<FakeScreen> ref = new WeakReference<>(screen);
+
+        screen.onEnter();
+        i18n.setLocale(Locale.FRENCH);
+        assertEquals(1, screen.localeChanges);
+
+        screen.onExit();
+        i18n.setLocale(Locale.ENGLISH);
+        assertEquals(1, screen.localeChanges);
+
+        screen = null;
+        assertTrue(collected(ref), "screen still reachable from I18nService after onExit");
+    }
+
+    @Test
+    void withoutOnExit_screenStaysReachable() {
+        I18nService i18n = new I18nService();
+        FakeScreen screen = new FakeScreen(i18n);
+        WeakReference<FakeScreen> ref = new WeakReference<>(screen);
+
+        screen.onEnter();
+        screen = null;
+
+        assertFalse(collected(ref), "leak check cannot detect a retained listener");
+        i18n.setLocale(Locale.FRENCH);
+        assertEquals(1, ref.get().localeChanges);
+    }
+
+    @Test
+    void dispose_releasesInReverseOrder_andIsRepeatable() {
+        SimpleIntegerProperty shared = new SimpleIntegerProperty();
+        ScreenSubscriptions subs = new ScreenSubscriptions();
+        List<String> order = new ArrayList<>();
+
+        subs.listen(shared, obs -> order.add("invalidated"));
+        subs.onDispose(() -> order.add("first"));
+        subs.onDispose(() -> order.add("second"));
+        assertEquals(3, subs.size());
+
+        subs.dispose();
+        subs.dispose();
+        shared.set(42);
+
+        assertEquals(List.of("second", "first"), order);
+        assertEquals(0, subs.size());
+    }
+
+    @Test
+    void repeatedVisits_doNotAccumulateListeners() {
+        I18nService i18n = new I18nService();
+        FakeScreen screen = new FakeScreen(i18n);
+
+        for (int i = 0; i < 1_000; i++) {
+            screen.onEnter();
+            screen.onExit();
+        }
+        screen.onEnter();
+        i18n.setLocale(Locale.FRENCH);
+
+        assertEquals(1, screen.localeChanges);
+    }
+
+    private static boolean collected(WeakReference<?> ref) {
+        for (int i = 0; i < 20 && ref.get() != null; i++) {
+            System.gc();
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return ref.get() == null;
+    }
+}
@@ -0,0 +1,258 @@
+package concordia.soen6611.igo_tvm;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import concordia.soen6611.igo_tvm.Services.BackOfficeEndpoint;
+import concordia.soen6611.igo_tvm.Services.HttpBackOfficeEndpoint;
+import concordia.soen6611.igo_tvm.Services.SettlementUploader;
+import concordia.soen6611.igo_tvm.Services.TransactionJournal;
+import concordia.soen6611.igo_tvm.models.JournalRecord;
+import concordia.soen6611.igo_tvm.models.Money;
+import concordia.soen6611.igo_tvm.models.OrderSummary;
+import concordia.soen6611.igo_tvm.models.Payment;
+import concordia.soen6611.igo_tvm.models.PaymentStatus;
+import concordia.soen6611.igo_tvm.models.SettlementBatch;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SettlementUploaderTest {
+
+    /** Local back office: stores the sales of each batch, dropping records it already has. */
+    private static final class BackOfficeStub {
+        final HttpServer server;
+        final Set<Long> sequences = ConcurrentHashMap.newKeySet();
+        final Set<String> completedPayments = ConcurrentHashMap.newKeySet();
+        final Set<String> orderedPayments = ConcurrentHashMap.newKeySet();
+        final List<String> batchIds = new CopyOnWriteArrayList<>();
+        final AtomicInteger duplicates = new AtomicInteger();
+        final AtomicInteger failuresLeft = new AtomicInteger();
+        final AtomicInteger concurrent = new AtomicInteger();
+        final AtomicInteger maxConcurrent = new AtomicInteger();
+        volatile long delayMillis;
+
+        BackOfficeStub() throws IOException {
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            server.setExecutor(Executors.newCachedThreadPool());
+            server.createContext("/settlements", this::handle);
+            server.start();
+        }
+
+        URI uri() {
+            return URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/");
+        }
+
+        private void handle(HttpExchange exchange) throws IOException {
+            try {
+                int status;
+                maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+                try {
+                    status = store(exchange);
+                } finally {
+                    // Counted out before answering: the uploader may send its next batch on the answer
+                    concurrent.decrementAndGet();
+                }
+                exchange.sendResponseHeaders(status, -1);
+            } finally {
+                exchange.close();
+            }
+        }
+
+        /** @return the status to answer with */
+        private int store(HttpExchange exchange) throws IOException {
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            try {
+                if (delayMillis > 0) {
+                    Thread.sleep(delayMillis);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return 500;
+            }
+            if (failuresLeft.getAndDecrement() > 0) {
+                return 503;
+            }
+            assertEquals("gzip", exchange.getRequestHeaders().getFirst("Content-Encoding"));
+            batchIds.add(exchange.getRequestHeaders().getFirst("Idempotency-Key"));
+            for (JournalRecord record : SettlementBatch.readRecords(body)) {
+                if (!sequences.add(record.getSequence())) {
+                    duplicates.incrementAndGet();
+                } else if (record instanceof JournalRecord.Order) {
+                    orderedPayments.add(record.getPaymentId().toString());
+                } else {
+                    completedPayments.add(record.getPaymentId().toString());
+                }
+            }
+            return 204;
+        }
+
+        void stop() {
+            server.stop(0);
+        }
+    }
+
+    @TempDir
+    Path dir;
+
+    private BackOfficeStub backOffice;
+
+    @BeforeEach
+    void startBackOffice() throws IOException {
+        backOffice = new BackOfficeStub();
+    }
+
+    @AfterEach
+    void stopBackOffice() {
+        backOffice.stop();
+    }
+
+    /** Journals a sale: its order and transitions, ending in {@code outcome}. */
+    private static String sell(TransactionJournal journal, PaymentStatus outcome) throws Exception {
+        Payment payment = new Payment("Card", Money.parse("3.75"));
+        OrderSummary order = new OrderSummary("Adult", "Single Trip", 1, 1, Money.parse("3.26"),
+                Money.parse("3.75"), 1);
+        journal.append(JournalRecord.order(payment, order, Instant.now()));
+        journal.append(JournalRecord.transition(payment, PaymentStatus.PENDING, PaymentStatus.PROCESSING, Instant.now()));
+        journal.append(JournalRecord.transition(payment, PaymentStatus.PROCESSING, outcome, Instant.now()))
+                .get(10, TimeUnit.SECONDS);
+        return payment.getId();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out");
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    void completedSales_areSentInCompressedBatches_withTheirOrders() throws Exception {
+        try (TransactionJournal journal = TransactionJournal.open(dir, 1 << 20, null)) {
+            Set<String> sold = ConcurrentHashMap.newKeySet();
+            for (int i = 0; i < 25; i++) {
+                sold.add(sell(journal, PaymentStatus.COMPLETED));
+            }
+            sell(journal, PaymentStatus.DECLINED);
+            sell(journal, PaymentStatus.CANCELLED);
+
+            try (SettlementUploader uploader = new SettlementUploader(journal,
+                    new HttpBackOfficeEndpoint(backOffice.uri(), 5_000), "kiosk-7", 10, 2, 20, 10, 100)) {
+                uploader.start();
+                await(() -> uploader.getAcknowledgedSequence() == journal.getCommittedSequence());
+                assertEquals(3, uploader.getBatchesAcknowledged());
+            }
+            assertEquals(sold, backOffice.completedPayments);
+            assertEquals(sold, backOffice.orderedPayments);
+            assertEquals(0, backOffice.duplicates.get());
+            assertTrue(backOffice.batchIds.stream().allMatch(id -> id.startsWith("kiosk-7-")));
+            long committed = journal.getCommittedSequence();
+            assertEquals(committed + "\n" + committed, Files.readString(dir.resolve("upload.cursor")));
+        }
+    }
+
+    @Test
+    void outage_isRiddenOutWithBackoff_andBoundedInFlightBatches() throws Exception {
+        backOffice.failuresLeft.set(5);
+        backOffice.delayMillis = 20;
+        try (TransactionJournal journal = TransactionJournal.open(dir, 1 << 20, null)) {
+            for (int i = 0; i < 40; i++) {
+                sell(journal, PaymentStatus.COMPLETED);
+            }
+            try (SettlementUploader uploader = new SettlementUploader(journal,
+                    new HttpBackOfficeEndpoint(backOffice.uri(), 5_000), "kiosk-7", 5, 2, 20, 5, 50)) {
+                uploader.start();
+                await(() -> uploader.getAcknowledgedSequence() == journal.getCommittedSequence());
+                assertEquals(8, uploader.getBatchesAcknowledged());
+                assertTrue(uploader.getResends() >= 5, uploader.getResends() + " resends");
+            }
+            assertEquals(40, backOffice.completedPayments.size());
+            assertTrue(backOffice.maxConcurrent.get() <= 2, backOffice.maxConcurrent.get() + " requests at once");
+        }
+    }
+
+    @Test
+    void unreachableBackOffice_neverHoldsUpTheJournal() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        BackOfficeEndpoint silent = batch -> {
+            calls.incrementAndGet();
+            return new CompletableFuture<>(); // never answers
+        };
+        try (TransactionJournal journal = TransactionJournal.open(dir, 1 << 20, null);
+             SettlementUploader uploader = new SettlementUploader(journal, silent, "kiosk-7", 1, 2, 5, 5, 50)) {
+            for (int i = 0; i < 20; i++) {
+                sell(journal, PaymentStatus.COMPLETED);
+            }
+            uploader.start();
+            await(() -> calls.get() == 2);
+            Thread.sleep(100);
+            assertEquals(2, calls.get()); // the window is full: nothing more is read
+            assertEquals(2, uploader.getInFlight());
+            assertEquals(0, uploader.getAcknowledgedSequence());
+            assertEquals(60, journal.getCommittedSequence());
+        }
+    }
+
+    @Test
+    void restart_resumesAfterTheCursor_andResendsAreDropped() throws Exception {
+        try (TransactionJournal journal = TransactionJournal.open(dir, 1 << 20, null)) {
+            for (int i = 0; i < 6; i++) {
+                sell(journal, PaymentStatus.COMPLETED);
+            }
+            // A payment whose order is uploaded past, but which completes after the restart
+            Payment late = new Payment("Card", Money.parse("5.00"));
+            journal.append(JournalRecord.order(late, new OrderSummary("Senior", "Day Pass", 1, 1,
+                    Money.parse("4.35"), Money.parse("5.00"), 1), Instant.now()));
+            sell(journal, PaymentStatus.COMPLETED);
+
+            try (SettlementUploader uploader = new SettlementUploader(journal,
+                    new HttpBackOfficeEndpoint(backOffice.uri(), 5_000), "kiosk-7", 4, 1, 20, 10, 100)) {
+                uploader.start();
+                await(() -> uploader.getAcknowledgedSequence() == journal.getCommittedSequence());
+            }
+            // Acknowledged past the late order, which is where the restart reads from
+            assertEquals("22\n18", Files.readString(dir.resolve("upload.cursor")));
+            journal.append(JournalRecord.transition(late, PaymentStatus.PENDING, PaymentStatus.PROCESSING,
+                    Instant.now()));
+            journal.append(JournalRecord.transition(late, PaymentStatus.PROCESSING, PaymentStatus.COMPLETED,
+                    Instant.now())).get(10, TimeUnit.SECONDS);
+            try (SettlementUploader uploader = new SettlementUploader(journal,
+                    new HttpBackOfficeEndpoint(backOffice.uri(), 5_000), "kiosk-7", 4, 1, 20, 10, 100)) {
+                uploader.start();
+                await(() -> uploader.getAcknowledgedSequence() == journal.getCommittedSequence());
+            }
+            assertTrue(backOffice.orderedPayments.contains(late.getId()));
+            assertTrue(backOffice.completedPayments.contains(late.getId()));
+            assertEquals("24\n24", Files.readString(dir.resolve("upload.cursor")));
+
+            // A lost cursor sends everything again; the back office drops it all by sequence
+            Files.delete(dir.resolve("upload.cursor"));
+            try (SettlementUploader uploader = new SettlementUploader(journal,
+                    new HttpBackOfficeEndpoint(backOffice.uri(), 5_000), "kiosk-7", 4, 1, 20, 10, 100)) {
+                uploader.start();
+                await(() -> uploader.getAcknowledgedSequence() == journal.getCommittedSequence());
+            }
+            assertEquals(8, backOffice.completedPayments.size());
+            assertEquals(16, backOffice.duplicates.get());
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package concordia.soen6611.igo_tvm;
+
+import concordia.soen6611.igo_tvm.StartupTimeline.BeanTiming;
+import concordia.soen6611.igo_tvm.StartupTimeline.Phase;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StartupTimelineTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final StartupTimeline timeline = new StartupTimeline(now::get, 1_700_000_000_000L);
+
+    @Test
+    void phases_recordStartEndAndDuration() {
+        now.set(400);
+        timeline.end(Phase.JVM_TO_INIT);
+        timeline.begin(Phase.SPRING_REFRESH);
+        now.set(1_600);
+        timeline.end(Phase.SPRING_REFRESH);
+
+        assertEquals(0, timeline.getStartMillis(Phase.JVM_TO_INIT));
+        assertEquals(400, timeline.getDurationMillis(Phase.JVM_TO_INIT));
+        assertEquals(400, timeline.getStartMillis(Phase.SPRING_REFRESH));
+        assertEquals(1_200, timeline.getDurationMillis(Phase.SPRING_REFRESH));
+        assertEquals(-1, timeline.getDurationMillis(Phase.WELCOME_LOAD));
+        assertEquals(-1, timeline.getTotalMillis());
+        assertFalse(timeline.completion().isDone());
+    }
+
+    @Test
+    void firstMarkWins() {
+        now.set(100);
+        timeline.begin(Phase.FIRST_PULSE);
+        now.set(150);
+        timeline.begin(Phase.FIRST_PULSE);
+        timeline.end(Phase.FIRST_PULSE);
+        now.set(900);
+        timeline.end(Phase.FIRST_PULSE);
+
+        assertEquals(100, timeline.getStartMillis(Phase.FIRST_PULSE));
+        assertEquals(50, timeline.getDurationMillis(Phase.FIRST_PULSE));
+    }
+
+    @Test
+    void endWithoutBegin_throws() {
+        assertThrows(IllegalStateException.class, () -> timeline.end(Phase.WELCOME_LOAD));
+    }
+
+    @Test
+    void interactiveFrame_completesTimeline() {
+        timeline.begin(Phase.INTERACTIVE_FRAME);
+        now.set(2_500);
+        timeline.end(Phase.INTERACTIVE_FRAME);
+
+        assertSame(timeline, timeline.completion().getNow(null));
+        assertEquals(2_500, timeline.getTotalMillis());
+    }
+
+    @Test
+    void slowestBeans_keepsTopTenSlowestFirst() {
+        List<BeanTiming> beans = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            beans.add(new BeanTiming("bean" + i, i));
+        }
+        timeline.setBeanTimings(beans);
+
+        List<BeanTiming> slowest = timeline.getSlowestBeans();
+        assertEquals(StartupTimeline.SLOWEST_BEANS, slowest.size());
+        assertEquals("bean24", slowest.get(0).getName());
+        assertEquals(15, slowest.get(slowest.size() - 1).getMillis());
+    }
+
+    @Test
+    void toJson_isOneLineWithPhasesAndBeans() {
+        now.set(300);
+        timeline.end(Phase.JVM_TO_INIT);
+        timeline.setBeanTimings(List.of(new BeanTiming("screen\"Navigator", 42)));
+
+        String json = timeline.toJson();
+        assertFalse(json.contains("\n"));
+        assertTrue(json.startsWith("{\"jvmStartEpochMs\":1700000000000,\"totalMs\":-1,"), json);
+        assertTrue(json.contains("\"jvmToInit\":{\"startMs\":0,\"endMs\":300,\"durationMs\":300}"), json);
+        assertFalse(json.contains("springRefresh"), json);
+        assertTrue(json.endsWith("\"slowestBeans\":[{\"bean\":\"screen\\\"Navigator\",\"ms\":42}]}"), json);
+    }
+
+    @Test
+    void appendTo_addsOneLinePerBoot(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("logs/startup.jsonl");
+        timeline.appendTo(file);
+        timeline.appendTo(file);
+        assertEquals(List.of(timeline.toJson(), timeline.toJson()), Files.readAllLines(file));
+    }
+}
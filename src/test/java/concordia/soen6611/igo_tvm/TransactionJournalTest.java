@@ -0,0 +1,262 @@
+package concordia.soen6611.igo_tvm;
+
+import concordia.soen6611.igo_tvm.Services.PaymentService;
+import concordia.soen6611.igo_tvm.Services.PaymentSession;
+import concordia.soen6611.igo_tvm.Services.SalesJournal;
+import concordia.soen6611.igo_tvm.Services.TransactionJournal;
+import concordia.soen6611.igo_tvm.models.JournalRecord;
+import concordia.soen6611.igo_tvm.models.Money;
+import concordia.soen6611.igo_tvm.models.OrderSummary;
+import concordia.soen6611.igo_tvm.models.Payment;
+import concordia.soen6611.igo_tvm.models.PaymentStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private static JournalRecord record(int i) {
+        return JournalRecord.transition(new UUID(0, i), "Card", Money.ofCents(100 + i),
+                PaymentStatus.PROCESSING, PaymentStatus.COMPLETED, Instant.ofEpochMilli(1_000L * i));
+    }
+
+    private static List<JournalRecord> replay(TransactionJournal journal) throws IOException {
+        List<JournalRecord> records = new ArrayList<>();
+        journal.replay(records::add);
+        return records;
+    }
+
+    private static Path onlySegment(Path dir) throws IOException {
+        try (var files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().endsWith(".seg")).findFirst().orElseThrow();
+        }
+    }
+
+    @Test
+    void records_areReplayedAfterReopening() throws Exception {
+        Payment payment = new Payment("Card", Money.parse("7.25"));
+        OrderSummary order = new OrderSummary("Adult", "Day Pass", 1, 2, Money.parse("3.15"), Money.parse("7.25"), 4);
+        try (TransactionJournal journal = TransactionJournal.open(dir, 64 * 1024, null)) {
+            assertEquals(1L, journal.append(JournalRecord.order(payment, order, Instant.EPOCH)).get(10, TimeUnit.SECONDS));
+            assertEquals(2L, journal.append(JournalRecord.transition(payment, PaymentStatus.PENDING,
+                    PaymentStatus.PROCESSING, Instant.EPOCH)).get(10, TimeUnit.SECONDS));
+            assertEquals(2, journal.getCommittedSequence());
+        }
+
+        List<JournalRecord> recovered = new ArrayList<>();
+        try (TransactionJournal journal = TransactionJournal.open(dir, 64 * 1024, recovered::add)) {
+            assertEquals(2, journal.getRecovered());
+            assertEquals(2, recovered.size());
+            JournalRecord.Order o = (JournalRecord.Order) recovered.get(0);
+            assertEquals(1, o.getSequence());
+            assertEquals(payment.getId(), o.getPaymentId().toString());
+            assertEquals("Card", o.getMethod());
+            assertEquals("Day Pass", o.getTripType());
+            assertEquals(2, o.getQuantity());
+            assertEquals(Money.parse("7.25"), o.getTotal());
+            assertEquals(4, o.getFareVersion());
+            JournalRecord.Transition t = (JournalRecord.Transition) recovered.get(1);
+            assertEquals(PaymentStatus.PROCESSING, t.getTo());
+
+            assertEquals(3L, journal.append(record(3)).get(10, TimeUnit.SECONDS));
+            assertEquals(3, replay(journal).size());
+        }
+    }
+
+    @Test
+    void concurrentAppends_shareFlushes() throws Exception {
+        int threads = 4;
+        int perThread = 500;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try (TransactionJournal journal = TransactionJournal.open(dir, 1 << 20, null)) {
+            List<Future<List<CompletableFuture<Long>>>> submitted = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int offset = t * perThread;
+                submitted.add(pool.submit(() -> {
+                    List<CompletableFuture<Long>> acks = new ArrayList<>();
+                    for (int i = 0; i < perThread; i++) {
+                        acks.add(journal.append(record(offset + i)));
+                    }
+                    return acks;
+                }));
+            }
+            Set<Long> sequences = new HashSet<>();
+            for (Future<List<CompletableFuture<Long>>> f : submitted) {
+                for (CompletableFuture<Long> ack : f.get(30, TimeUnit.SECONDS)) {
+                    sequences.add(ack.get(30, TimeUnit.SECONDS));
+                }
+            }
+            assertEquals(threads * perThread, sequences.size());
+            assertEquals(threads * perThread, journal.getCommittedSequence());
+            assertTrue(journal.getFlushes() < threads * perThread,
+                    journal.getFlushes() + " flushes for " + threads * perThread + " records");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void fullSegments_rollOverIntoTheArchive() throws Exception {
+        int count = 300; // about 60 bytes each: several 4 KiB segments
+        try (TransactionJournal journal = TransactionJournal.open(dir, 4096, null)) {
+            CompletableFuture<Long> last = null;
+            for (int i = 1; i <= count; i++) {
+                last = journal.append(record(i));
+            }
+            assertEquals(count, last.get(10, TimeUnit.SECONDS));
+            List<JournalRecord> records = replay(journal);
+            assertEquals(count, records.size());
+            for (int i = 0; i < count; i++) {
+                assertEquals(i + 1, records.get(i).getSequence());
+                assertEquals(new UUID(0, i + 1), records.get(i).getPaymentId());
+            }
+        }
+        try (var archived = Files.list(dir.resolve(TransactionJournal.ARCHIVE))) {
+            assertTrue(archived.count() >= 3);
+        }
+        try (var active = Files.list(dir)) {
+            assertEquals(1, active.filter(p -> p.getFileName().toString().endsWith(".seg")).count());
+        }
+
+        try (TransactionJournal journal = TransactionJournal.open(dir, 4096, null)) {
+            assertEquals(count + 1L, journal.append(record(count + 1)).get(10, TimeUnit.SECONDS));
+            assertEquals(count + 1, replay(journal).size());
+        }
+    }
+
+    @Test
+    void tornRecord_endsTheJournal_andIsNotResurrected() throws Exception {
+        try (TransactionJournal journal = TransactionJournal.open(dir, 64 * 1024, null)) {
+            CompletableFuture<Long> last = null;
+            for (int i = 1; i <= 5; i++) {
+                last = journal.append(record(i));
+            }
+            last.get(10, TimeUnit.SECONDS);
+        }
+        // Tear record 3: flip a byte of its payload, leaving 4 and 5 intact after it
+        Path segment = onlySegment(dir);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            int position = 32;
+            for (int i = 1; i < 3; i++) {
+                position += 16 + buffer.getInt(position);
+            }
+            buffer.put(position + 20, (byte) (buffer.get(position + 20) ^ 0x5A));
+            buffer.force();
+        }
+
+        try (TransactionJournal journal = TransactionJournal.open(dir, 64 * 1024, null)) {
+            assertEquals(2, journal.getRecovered());
+            assertEquals(3L, journal.append(record(30)).get(10, TimeUnit.SECONDS));
+        }
+        List<Long> ids = new ArrayList<>();
+        try (TransactionJournal journal = TransactionJournal.open(dir, 64 * 1024,
+                r -> ids.add(r.getPaymentId().getLeastSignificantBits()))) {
+            assertEquals(3, journal.getRecovered());
+        }
+        assertEquals(List.of(1L, 2L, 30L), ids);
+    }
+
+    @Test
+    void recordFailingPartwayThroughABatch_failsAlone_andIsNeverRecovered() throws Exception {
+        Payment payment = new Payment("Card", Money.parse("3.75"));
+        // A rider type too long to encode: the record fails while the writer is in the middle of a batch
+        JournalRecord bad = JournalRecord.order(payment, new OrderSummary("x".repeat(70_000), "Single Trip", 1, 1,
+                Money.parse("3.26"), Money.parse("3.75"), 1), Instant.EPOCH);
+        List<CompletableFuture<Long>> good = new ArrayList<>();
+        CompletableFuture<Long> failed;
+        try (TransactionJournal journal = TransactionJournal.open(dir, 1 << 20, null)) {
+            for (int i = 1; i <= 300; i++) {
+                good.add(journal.append(record(i)));
+            }
+            failed = journal.append(bad);
+            for (int i = 301; i <= 600; i++) {
+                good.add(journal.append(record(i)));
+            }
+            for (int i = 0; i < good.size(); i++) {
+                assertEquals(i + 1L, good.get(i).get(10, TimeUnit.SECONDS));
+            }
+            ExecutionException e = assertThrows(ExecutionException.class, () -> failed.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalArgumentException.class, e.getCause());
+            assertEquals(600, journal.getCommittedSequence());
+        }
+
+        List<JournalRecord> recovered = new ArrayList<>();
+        try (TransactionJournal journal = TransactionJournal.open(dir, 1 << 20, recovered::add)) {
+            assertEquals(600, recovered.size());
+            assertTrue(recovered.stream().noneMatch(r -> r.getPaymentId().toString().equals(payment.getId())));
+            assertEquals(601L, journal.append(record(601)).get(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void salesJournal_recordsSales_andCancelsWhatACrashLeftPending_butNotWhatIsInDoubt() throws Exception {
+        PaymentSession session = new PaymentSession();
+        session.setCurrentOrder(new OrderSummary("Student", "Single Trip", 1, 1, Money.parse("2.50"),
+                Money.parse("2.87"), 1));
+        PaymentService payments = new PaymentService((key, method, amount) ->
+                CompletableFuture.failedFuture(new IOException("timed out")), 1_000, 1_000, 1, 1);
+        SalesJournal sales = new SalesJournal(payments, session, dir.toString(), 64 * 1024);
+        payments.startPayment("Cash", Money.parse("2.87"));
+        payments.processPayment(Money.parse("5.00"), Money.parse("2.13"));
+        String paid = payments.getCurrentPayment().getId();
+        // Timed out: the charge may have gone through
+        payments.startPayment("Card", Money.parse("2.87"));
+        assertThrows(ExecutionException.class, () -> payments.authorizePayment().get(10, TimeUnit.SECONDS));
+        String failed = payments.getCurrentPayment().getId();
+        payments.startPayment("Card", Money.parse("2.87"));
+        String abandoned = payments.getCurrentPayment().getId();
+        sales.close(); // the kiosk stops before the card is tapped
+
+        List<String> lines = new ArrayList<>();
+        PaymentService restarted = new PaymentService();
+        SalesJournal reopened = new SalesJournal(restarted, session, dir.toString(), 64 * 1024);
+        try {
+            assertEquals(7, reopened.getJournal().getRecovered());
+            List<JournalRecord> records = new ArrayList<>();
+            // The cancel of the abandoned payment is appended while opening; wait for it
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (reopened.getJournal().getCommittedSequence() < 8 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            reopened.getJournal().replay(records::add);
+            for (JournalRecord r : records) {
+                if (r instanceof JournalRecord.Order) {
+                    lines.add(r.getPaymentId() + " order");
+                } else {
+                    JournalRecord.Transition t = (JournalRecord.Transition) r;
+                    lines.add(r.getPaymentId() + " " + t.getTo().name()
+                            + (t.getCaptured() != null ? " " + t.getCaptured() + " less " + t.getChange() : ""));
+                }
+            }
+        } finally {
+            reopened.close();
+        }
+        assertEquals(List.of(paid + " order", paid + " PROCESSING", paid + " COMPLETED 5.00 less 2.13",
+                failed + " order", failed + " PROCESSING", failed + " FAILED",
+                abandoned + " order", abandoned + " CANCELLED"), lines);
+    }
+}
@@ -0,0 +1,167 @@
+package concordia.soen6611.igo_tvm;
+
+import concordia.soen6611.igo_tvm.Services.ViewLoader;
+import concordia.soen6611.igo_tvm.controllers.CompiledViews;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.control.Labeled;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testfx.api.FxToolkit;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares building every screen with the build-time compiled view builders against
+ * parsing its FXML with {@code FXMLLoader}.
+ * <p>
+ * Runs only with {@code mvn -Pbench test} (Monocle headless platform). For each FXML
+ * location it first checks that both paths produce the same scene graph, then times
+ * {@code bench.iterations} alternating builds of each after a warm-up, and writes
+ * median and p90 per screen to {@code target/bench/view-load.csv}. The first
+ * (cold) build of each is reported separately since that is what startup pays; the
+ * compiled build runs first, so it also pays for loading the classes both share.
+ * </p>
+ */
+class ViewLoadBenchmarkTest {
+
+    private static final int ITERATIONS = Integer.getInteger("bench.iterations", 200);
+    private static final int WARMUP = Math.max(10, ITERATIONS / 10);
+
+    private static ConfigurableApplicationContext context;
+    private static ViewLoader viewLoader;
+
+    record Result(String location, double coldFxmlMs, double coldCompiledMs,
+                  double fxmlMedianMs, double compiledMedianMs, double fxmlP90Ms, double compiledP90Ms) {}
+
+    @BeforeAll
+    static void boot() throws Exception {
+        FxToolkit.registerPrimaryStage();
+        context = new SpringApplicationBuilder(IGoApplication.class)
+                .web(WebApplicationType.NONE)
+                .run();
+        viewLoader = context.getBean(ViewLoader.class);
+    }
+
+    @AfterAll
+    static void shutdown() throws Exception {
+        FxToolkit.cleanupStages();
+        if (context != null) context.close();
+    }
+
+    @Test
+    void compiledViews_matchFxmlLoaderAndBuildFaster() throws Exception {
+        List<Result> results = new ArrayList<>();
+        for (String location : CompiledViews.LOCATIONS.stream().sorted().toList()) {
+            // Compiled first: whichever runs first also pays the shared class loading
+            long t0 = System.nanoTime();
+            ViewLoader.LoadedView compiled = viewLoader.load(location);
+            long t1 = System.nanoTime();
+            ViewLoader.LoadedView parsed = viewLoader.parse(location);
+            long t2 = System.nanoTime();
+
+            assertTrue(compiled.isCompiled(), location + " was not compiled");
+            assertEquals(describe(parsed.getRoot()), describe(compiled.getRoot()),
+                    location + ": compiled view differs from FXMLLoader");
+            assertSame(parsed.getController().getClass(), compiled.getController().getClass());
+
+            for (int i = 0; i < WARMUP; i++) {
+                viewLoader.parse(location);
+                viewLoader.load(location);
+            }
+            long[] fxml = new long[ITERATIONS];
+            long[] fast = new long[ITERATIONS];
+            for (int i = 0; i < ITERATIONS; i++) {
+                long a = System.nanoTime();
+                viewLoader.parse(location);
+                long b = System.nanoTime();
+                viewLoader.load(location);
+                long c = System.nanoTime();
+                fxml[i] = b - a;
+                fast[i] = c - b;
+            }
+            Result r = new Result(location, ms(t2 - t1), ms(t1 - t0),
+                    percentile(fxml, 50), percentile(fast, 50), percentile(fxml, 90), percentile(fast, 90));
+            results.add(r);
+            System.out.printf("[bench] %-28s cold %7.2f -> %7.2f ms   median %6.3f -> %6.3f ms   p90 %6.3f -> %6.3f ms%n",
+                    location, r.coldFxmlMs(), r.coldCompiledMs(), r.fxmlMedianMs(), r.compiledMedianMs(),
+                    r.fxmlP90Ms(), r.compiledP90Ms());
+        }
+        writeCsv(results);
+
+        double fxmlTotal = results.stream().mapToDouble(Result::fxmlMedianMs).sum();
+        double compiledTotal = results.stream().mapToDouble(Result::compiledMedianMs).sum();
+        System.out.printf("[bench] all screens: median %.3f ms (FXMLLoader) vs %.3f ms (compiled)%n",
+                fxmlTotal, compiledTotal);
+        assertTrue(compiledTotal < fxmlTotal,
+                "compiled views should build faster than FXMLLoader: " + compiledTotal + " vs " + fxmlTotal);
+    }
+
+    /**
+     * Structural fingerprint of a scene graph: node types, ids, style classes,
+     * stylesheets, labeled text and child order.
+     */
+    private static String describe(Node node) {
+        StringBuilder out = new StringBuilder();
+        describe(node, 0, out);
+        return out.toString();
+    }
+
+    private static void describe(Node node, int depth, StringBuilder out) {
+        out.append("  ".repeat(depth)).append(node.getClass().getName());
+        if (node.getId() != null) out.append(" #").append(node.getId());
+        if (!node.getStyleClass().isEmpty()) out.append(" .").append(node.getStyleClass());
+        if (node.getStyle() != null && !node.getStyle().isEmpty()) out.append(" style=").append(node.getStyle());
+        if (node instanceof Labeled l) {
+            out.append(" text=").append(l.getText());
+            if (l.getGraphic() != null) {
+                out.append('\n');
+                describe(l.getGraphic(), depth + 2, out);
+            }
+        }
+        if (node instanceof Parent p) {
+            if (!p.getStylesheets().isEmpty()) out.append(" css=").append(p.getStylesheets());
+            out.append('\n');
+            for (Node child : p.getChildrenUnmodifiable()) {
+                describe(child, depth + 1, out);
+            }
+        } else {
+            out.append('\n');
+        }
+    }
+
+    private static double percentile(long[] nanos, int p) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        int index = Math.min(sorted.length - 1, (int) Math.ceil(p / 100.0 * sorted.length) - 1);
+        return ms(sorted[Math.max(0, index)]);
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static void writeCsv(List<Result> results) throws IOException {
+        Path out = Path.of("target", "bench", "view-load.csv");
+        Files.createDirectories(out.getParent());
+        try (PrintWriter w = new PrintWriter(Files.newBufferedWriter(out))) {
+            w.println("location,coldFxmlMs,coldCompiledMs,fxmlMedianMs,compiledMedianMs,fxmlP90Ms,compiledP90Ms");
+            for (Result r : results) {
+                w.printf("%s,%.3f,%.3f,%.4f,%.4f,%.4f,%.4f%n", r.location(), r.coldFxmlMs(), r.coldCompiledMs(),
+                        r.fxmlMedianMs(), r.compiledMedianMs(), r.fxmlP90Ms(), r.compiledP90Ms());
+            }
+        }
+    }
+}